@@ -0,0 +1,81 @@
+package com.wise.expenses_tracker.analytics;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wise.expenses_tracker.benchmark.BenchmarkData;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+
+/**
+ * Aggregations over one user's cached expense columns. Run with {@code -prof gc} to see
+ * that the summing itself allocates nothing; categoryTotals allocates only its result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseAnalyticsBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private UserExpenseColumns columns;
+    private long[] totals;
+    private int[] counts;
+    private long lastMonth;
+
+    @Setup
+    public void setUp() {
+        List<ExpensesEntity> expenses = BenchmarkData.expenses(size).stream()
+                .sorted(Comparator.comparing(ExpensesEntity::getDate))
+                .toList();
+        columns = new UserExpenseColumns(expenses.size());
+        for (ExpensesEntity expense : expenses) {
+            columns.append(expense.getId(), expense.getVersion(), expense.getDate().toEpochMilli(),
+                    Math.round(expense.getAmount() * 100),
+                    expense.getCategoryEntity().getId(), expense.getCategoryEntity().getName());
+        }
+        totals = new long[columns.categoryCount()];
+        counts = new int[columns.categoryCount()];
+        lastMonth = Instant.parse("2024-12-01T00:00:00Z").toEpochMilli();
+    }
+
+    @Benchmark
+    public long[] sumByCategory() {
+        Arrays.fill(totals, 0);
+        Arrays.fill(counts, 0);
+        columns.sumByCategory(Long.MIN_VALUE, Long.MAX_VALUE, totals, counts);
+        return totals;
+    }
+
+    @Benchmark
+    public long[] sumByCategoryLastMonth() {
+        Arrays.fill(totals, 0);
+        Arrays.fill(counts, 0);
+        columns.sumByCategory(lastMonth, Long.MAX_VALUE, totals, counts);
+        return totals;
+    }
+
+    @Benchmark
+    public Map<String, Double> categoryTotals() {
+        return columns.categoryTotals(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
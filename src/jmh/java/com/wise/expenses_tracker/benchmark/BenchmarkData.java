@@ -0,0 +1,80 @@
+package com.wise.expenses_tracker.benchmark;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+import com.wise.expenses_tracker.model.UserEntity;
+import com.wise.expenses_tracker.security.user.Role;
+
+/**
+ * Deterministic fixtures shared by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    public static final String[] CATEGORY_NAMES = {
+        "Food", "Travel", "Shopping", "Bills", "Health", "Entertainment", "Transport", "Education"
+    };
+
+    private static final String[] PAY_BY = { "Cash", "Credit Card", "Debit Card", "E-Wallet" };
+
+    private BenchmarkData() {
+    }
+
+    public static UserEntity user() {
+        return UserEntity.builder()
+                .id(1L)
+                .username("benchmark-user")
+                .password("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchmark")
+                .role(Role.USER)
+                .build();
+    }
+
+    public static List<CategoryEntity> categories() {
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            CategoryEntity category = new CategoryEntity();
+            category.setId((long) i + 1);
+            category.setName(CATEGORY_NAMES[i]);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    /**
+     * Builds expenses spread over the last two years with a skew towards the first
+     * categories, the way real spending clusters in a handful of categories.
+     *
+     * @param count number of expenses to build
+     * @return the expenses, all owned by {@link #user()}
+     */
+    public static List<ExpensesEntity> expenses(int count) {
+        Random random = new Random(42);
+        UserEntity user = user();
+        List<CategoryEntity> categories = categories();
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        List<ExpensesEntity> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int categoryIndex = Math.min(categories.size() - 1, (int) Math.abs(random.nextGaussian() * 2.5));
+            expenses.add(new ExpensesEntity(
+                    (long) i + 1,
+                    "Expense " + i,
+                    now.minus(random.nextInt(730), ChronoUnit.DAYS),
+                    PAY_BY[random.nextInt(PAY_BY.length)],
+                    Math.round(random.nextDouble() * 50_000) / 100.0,
+                    i % 3 == 0 ? "Description for expense " + i : null,
+                    random.nextBoolean(),
+                    null,
+                    null,
+                    0,
+                    user,
+                    categories.get(categoryIndex)));
+        }
+        return expenses;
+    }
+}
@@ -0,0 +1,58 @@
+package com.wise.expenses_tracker.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wise.expenses_tracker.benchmark.BenchmarkData;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+
+/**
+ * In-memory work done by ExpensesServiceImpl once the rows are loaded (ExpensesMapper):
+ * entity to DTO mapping for getAllExpenses and the category names that
+ * getCategoryExpenses collects before summing each in the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpensesMappingBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private List<ExpensesEntity> expenses;
+
+    @Setup
+    public void setUp() {
+        expenses = BenchmarkData.expenses(size);
+    }
+
+    @Benchmark
+    public List<ExpensesDTO> convertToExpensesDTO() {
+        return expenses.stream()
+                .map(ExpensesMapper::toExpensesDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Set<String> categoryNames() {
+        return ExpensesMapper.categoryNames(expenses);
+    }
+}
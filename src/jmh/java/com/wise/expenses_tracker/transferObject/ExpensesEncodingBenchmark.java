@@ -0,0 +1,90 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.wise.expenses_tracker.benchmark.BenchmarkData;
+import com.wise.expenses_tracker.config.BinaryEncodingConfig;
+
+/**
+ * Encoding and decoding of the GET /api/expenses response body as JSON, CBOR and Smile,
+ * with the ObjectMapper settings of the corresponding HTTP message converters. The
+ * encoded size of each combination is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpensesEncodingBenchmark {
+
+    private static final TypeReference<List<ExpensesDTO>> EXPENSES = new TypeReference<>() {
+    };
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "json", "cbor", "smile" })
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private List<ExpensesDTO> expenses;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Spring Boot writes dates as ISO-8601 strings
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "json" -> builder.build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(BinaryEncodingConfig.smileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        expenses = BenchmarkData.expenses(size).stream()
+                .map(expense -> new ExpensesDTO(
+                        expense.getId(),
+                        expense.getTitle(),
+                        expense.getDate(),
+                        expense.getPay_by(),
+                        expense.getAmount(),
+                        expense.getDescription(),
+                        new CategoryDTO(expense.getCategoryEntity().getId(), expense.getCategoryEntity().getName()),
+                        expense.getDuplicate_of(),
+                        expense.getVersion()))
+                .collect(Collectors.toList());
+        encoded = objectMapper.writeValueAsBytes(expenses);
+        System.out.printf("%n%s, %d expenses: %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(expenses);
+    }
+
+    @Benchmark
+    public List<ExpensesDTO> decode() throws IOException {
+        return objectMapper.readValue(encoded, EXPENSES);
+    }
+}
@@ -0,0 +1,63 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wise.expenses_tracker.benchmark.BenchmarkData;
+
+/**
+ * Jackson serialization of the GET /api/expenses response body, using an
+ * ObjectMapper built with the same defaults Spring Boot applies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpensesSerializationBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<ExpensesDTO> expenses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        expenses = BenchmarkData.expenses(size).stream()
+                .map(expense -> new ExpensesDTO(
+                        expense.getId(),
+                        expense.getTitle(),
+                        expense.getDate(),
+                        expense.getPay_by(),
+                        expense.getAmount(),
+                        expense.getDescription(),
+                        new CategoryDTO(expense.getCategoryEntity().getId(), expense.getCategoryEntity().getName()),
+                        expense.getDuplicate_of(),
+                        expense.getVersion()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeExpenses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(expenses);
+    }
+}
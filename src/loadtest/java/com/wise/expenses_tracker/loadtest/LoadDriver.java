@@ -0,0 +1,276 @@
+package com.wise.expenses_tracker.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the REST API with concurrent simulated users.
+ *
+ * Each simulated user logs in as one of the generated users (picked with the same Zipf
+ * skew as the data, so heavy users are also the busy ones) and then issues a weighted
+ * mix of authenticate, list, category totals, create, update and delete calls until the
+ * run ends. Requests made during the warm-up period are not recorded.
+ */
+public class LoadDriver {
+
+    enum Endpoint {
+        AUTHENTICATE("POST /api/v1/auth/authenticate", 2),
+        LIST("GET /api/expenses", 35),
+        CATEGORY_TOTALS("GET /api/expenses/category", 28),
+        CREATE("POST /api/expenses", 20),
+        UPDATE("PUT /api/expenses/{id}", 10),
+        DELETE("DELETE /api/expenses/{id}", 5);
+
+        private final String label;
+        private final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int users;
+    private final double skew;
+    private final int categories;
+    private final String reportPath;
+
+    private final HttpClient client;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private volatile long recordFromNanos;
+
+    public LoadDriver(LoadTestOptions options) {
+        this.baseUrl = options.get("baseUrl", "http://localhost:8080");
+        this.concurrency = options.getInt("concurrency", 32);
+        this.duration = options.getDuration("duration", Duration.ofSeconds(60));
+        this.warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        this.users = options.getInt("users", 1_000);
+        this.skew = options.getDouble("skew", 1.1);
+        this.categories = options.getInt("categories", 20);
+        this.reportPath = options.get("report", "target/loadtest-report.json");
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint.label));
+        }
+    }
+
+    public void run() throws Exception {
+        ZipfDistribution userPicker = new ZipfDistribution(users, skew);
+        long startNanos = System.nanoTime();
+        recordFromNanos = startNanos + warmup.toNanos();
+        long endNanos = recordFromNanos + duration.toNanos();
+
+        System.out.printf("Driving %s with %d simulated users for %s (+%s warm-up)%n",
+                baseUrl, concurrency, duration, warmup);
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            final Random random = new Random(i);
+            pool.submit(() -> new SimulatedUser(random, userPicker.sample(random)).runUntil(endNanos));
+        }
+        pool.shutdown();
+        pool.awaitTermination(duration.plus(warmup).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+
+        report(System.out, Duration.ofNanos(System.nanoTime() - recordFromNanos));
+    }
+
+    /**
+     * Recorded statistics by endpoint label, in endpoint order.
+     */
+    public Map<String, EndpointStats> getStats() {
+        Map<String, EndpointStats> byLabel = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> byLabel.put(endpoint.label, endpointStats));
+        return byLabel;
+    }
+
+    private void report(PrintStream out, Duration measured) throws IOException {
+        double seconds = Math.max(0.001, measured.toMillis() / 1000.0);
+        out.printf("%n%-34s %10s %9s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "error%", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        List<String> json = new ArrayList<>();
+        for (EndpointStats endpoint : stats.values()) {
+            long requests = endpoint.getRequests();
+            double errorRate = requests == 0 ? 0 : 100.0 * endpoint.getErrors() / requests;
+            out.printf(Locale.ROOT, "%-34s %10d %9d %7.2f%% %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.getName(), requests, endpoint.getErrors(), errorRate, requests / seconds,
+                    endpoint.percentile(50) / 1000.0, endpoint.percentile(90) / 1000.0,
+                    endpoint.percentile(99) / 1000.0, endpoint.percentile(99.9) / 1000.0,
+                    endpoint.getMaxMicros() / 1000.0);
+            json.add(String.format(Locale.ROOT,
+                    "{\"endpoint\":\"%s\",\"requests\":%d,\"errors\":%d,\"throughput\":%.2f,"
+                            + "\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                    endpoint.getName(), requests, endpoint.getErrors(), requests / seconds,
+                    endpoint.percentile(50) / 1000.0, endpoint.percentile(90) / 1000.0,
+                    endpoint.percentile(99) / 1000.0, endpoint.percentile(99.9) / 1000.0,
+                    endpoint.getMaxMicros() / 1000.0));
+        }
+
+        Path report = Path.of(reportPath);
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        Files.writeString(report, String.format(Locale.ROOT,
+                "{\"durationSeconds\":%.1f,\"concurrency\":%d,\"endpoints\":[%s]}%n",
+                seconds, concurrency, String.join(",", json)));
+        out.printf("%nReport written to %s%n", report.toAbsolutePath());
+    }
+
+    /**
+     * One simulated client: holds its token and the ids of the expenses it created so
+     * updates and deletes only touch its own rows.
+     */
+    private class SimulatedUser {
+        private final Random random;
+        private final String username;
+        private final List<Long> ownExpenses = new ArrayList<>();
+        private String token;
+
+        SimulatedUser(Random random, int userIndex) {
+            this.random = random;
+            this.username = SyntheticDataGenerator.USER_PREFIX + userIndex;
+        }
+
+        void runUntil(long endNanos) {
+            while (System.nanoTime() < endNanos) {
+                Endpoint endpoint = token == null ? Endpoint.AUTHENTICATE : pick();
+                if ((endpoint == Endpoint.UPDATE || endpoint == Endpoint.DELETE) && ownExpenses.isEmpty()) {
+                    endpoint = Endpoint.CREATE;
+                }
+                call(endpoint);
+            }
+        }
+
+        private Endpoint pick() {
+            int total = 0;
+            for (Endpoint endpoint : Endpoint.values()) {
+                total += endpoint.weight;
+            }
+            int roll = random.nextInt(total);
+            for (Endpoint endpoint : Endpoint.values()) {
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            return Endpoint.LIST;
+        }
+
+        private void call(Endpoint endpoint) {
+            HttpRequest request = build(endpoint);
+            long started = System.nanoTime();
+            boolean error;
+            String body = null;
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                error = response.statusCode() >= 400;
+                body = response.body();
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (started >= recordFromNanos) {
+                stats.get(endpoint).record((System.nanoTime() - started) / 1_000, error);
+            }
+            if (!error) {
+                afterSuccess(endpoint, request, body);
+            } else if (endpoint == Endpoint.AUTHENTICATE) {
+                token = null;
+            }
+        }
+
+        private void afterSuccess(Endpoint endpoint, HttpRequest request, String body) {
+            switch (endpoint) {
+                case AUTHENTICATE -> {
+                    Matcher matcher = TOKEN.matcher(body);
+                    token = matcher.find() ? matcher.group(1) : null;
+                }
+                case CREATE -> {
+                    Matcher matcher = ID.matcher(body);
+                    if (matcher.find()) {
+                        ownExpenses.add(Long.parseLong(matcher.group(1)));
+                    }
+                }
+                case DELETE -> {
+                    String path = request.uri().getPath();
+                    ownExpenses.remove(Long.valueOf(path.substring(path.lastIndexOf('/') + 1)));
+                }
+                default -> {
+                }
+            }
+        }
+
+        private HttpRequest build(Endpoint endpoint) {
+            return switch (endpoint) {
+                case AUTHENTICATE -> json("/api/v1/auth/authenticate").POST(body(String.format(
+                        "{\"username\":\"%s\",\"password\":\"%s\"}", username, SyntheticDataGenerator.PASSWORD))).build();
+                case LIST -> authorized("/api/expenses").GET().build();
+                case CATEGORY_TOTALS -> authorized("/api/expenses/category").GET().build();
+                case CREATE -> authorized("/api/expenses").POST(body(expenseJson())).build();
+                case UPDATE -> authorized("/api/expenses/" + randomOwnExpense()).PUT(body(expenseJson())).build();
+                case DELETE -> authorized("/api/expenses/" + randomOwnExpense()).DELETE().build();
+            };
+        }
+
+        private long randomOwnExpense() {
+            return ownExpenses.get(random.nextInt(ownExpenses.size()));
+        }
+
+        private String expenseJson() {
+            return String.format(Locale.ROOT,
+                    "{\"title\":\"Load test\",\"date\":\"%s\",\"payBy\":\"Credit Card\",\"amount\":%.2f,"
+                            + "\"description\":null,\"category\":{\"category_name\":\"%s\"}}",
+                    Instant.now().truncatedTo(ChronoUnit.SECONDS),
+                    Math.exp(3 + random.nextGaussian()),
+                    SyntheticDataGenerator.categoryName(random.nextInt(categories)));
+        }
+
+        private HttpRequest.Builder json(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json");
+        }
+
+        private HttpRequest.Builder authorized(String path) {
+            return json(path).header("Authorization", "Bearer " + token);
+        }
+
+        private HttpRequest.BodyPublisher body(String json) {
+            return HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.wise.expenses_tracker.loadtest;
+
+/**
+ * Entry point of the load harness.
+ *
+ * Usage (see the "loadtest" profile in pom.xml):
+ * <pre>
+ *   ./mvnw -P loadtest verify -Dloadtest.args="generate users=10000 categories=30 expenses=10000000"
+ *   ./mvnw -P loadtest verify -Dloadtest.args="run users=10000 concurrency=128 duration=5m"
+ *   ./mvnw -P loadtest verify -Dloadtest.args="compare profiles=default,embedded users=1000 expenses=1000000"
+ * </pre>
+ * "generate" writes synthetic data into the database, "run" drives a running application
+ * and prints throughput, latency percentiles and error rates per endpoint. Both steps can
+ * be given together; generation then happens first. "compare" starts the application
+ * itself once per storage profile, generates and drives each, and prints p50/p99 per
+ * endpoint side by side (see ProfileComparison).
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.has("compare")) {
+            new ProfileComparison(options).run();
+            System.exit(0);
+        }
+        if (!options.has("generate") && !options.has("run")) {
+            System.out.println("Nothing to do: pass 'generate', 'run', both, or 'compare' (see LoadTest javadoc)");
+            return;
+        }
+        if (options.has("generate")) {
+            new SyntheticDataGenerator(options).generate();
+        }
+        if (options.has("run")) {
+            new LoadDriver(options).run();
+        }
+        System.exit(0);
+    }
+}
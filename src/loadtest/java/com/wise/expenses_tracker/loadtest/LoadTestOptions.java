@@ -0,0 +1,90 @@
+package com.wise.expenses_tracker.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load harness, given as {@code key=value} pairs.
+ *
+ * Data generation:
+ * users, categories, expenses, skew, jdbcUrl, jdbcUser, jdbcPassword, reset
+ *
+ * Traffic:
+ * baseUrl, concurrency, duration, warmup, report
+ *
+ * Profile comparison:
+ * profiles
+ */
+public class LoadTestOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            String trimmed = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = trimmed.indexOf('=');
+            if (separator > 0) {
+                options.values.put(trimmed.substring(0, separator), trimmed.substring(separator + 1));
+            } else {
+                options.values.put(trimmed, "true");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Returns a copy with one value replaced, leaving this instance untouched.
+     */
+    public LoadTestOptions with(String key, String value) {
+        LoadTestOptions copy = new LoadTestOptions();
+        copy.values.putAll(values);
+        copy.values.put(key, value);
+        return copy;
+    }
+
+    public boolean has(String key) {
+        return values.containsKey(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key).replace("_", "")) : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return values.containsKey(key) ? Long.parseLong(values.get(key).replace("_", "")) : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        return values.containsKey(key) ? Double.parseDouble(values.get(key)) : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return values.containsKey(key) ? Boolean.parseBoolean(values.get(key)) : defaultValue;
+    }
+
+    /**
+     * Parses durations written as "90s", "5m" or an ISO-8601 value such as "PT1M".
+     */
+    public Duration getDuration(String key, Duration defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> Duration.ofSeconds(Long.parseLong(value));
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.wise.expenses_tracker.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import com.wise.expenses_tracker.ExpensesTrackerApplication;
+
+/**
+ * Runs the same workload against each storage profile and prints the latencies side by side.
+ *
+ * For every profile the application is started in this JVM on a random port, the synthetic
+ * data is regenerated through the profile's own datasource settings, and the LoadDriver
+ * drives it with the same options. "default" means no extra profile, i.e. MySQL. Running
+ * in-process is what lets the generator write into the embedded H2 file database while the
+ * application holds it open.
+ *
+ * Each profile also gets its own JSON report, target/loadtest-report-&lt;profile&gt;.json.
+ */
+public class ProfileComparison {
+
+    private static final double[] PERCENTILES = { 50, 99 };
+
+    private final LoadTestOptions options;
+    private final List<String> profiles;
+
+    public ProfileComparison(LoadTestOptions options) {
+        this.options = options;
+        this.profiles = List.of(options.get("profiles", "default,embedded").split(","));
+    }
+
+    public void run() throws Exception {
+        Map<String, Map<String, EndpointStats>> results = new LinkedHashMap<>();
+        for (String profile : profiles) {
+            System.out.printf("%n=== Profile '%s' ===%n", profile);
+            try (ConfigurableApplicationContext application = start(profile)) {
+                Environment environment = application.getEnvironment();
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                LoadTestOptions profileOptions = options
+                        .with("jdbcUrl", environment.getProperty("spring.datasource.url"))
+                        .with("jdbcUser", environment.getProperty("spring.datasource.username", ""))
+                        .with("jdbcPassword", environment.getProperty("spring.datasource.password", ""))
+                        .with("reset", "true")
+                        .with("baseUrl", "http://localhost:" + port)
+                        .with("report", "target/loadtest-report-" + profile + ".json");
+
+                new SyntheticDataGenerator(profileOptions).generate();
+                LoadDriver driver = new LoadDriver(profileOptions);
+                driver.run();
+                results.put(profile, driver.getStats());
+            }
+        }
+        compare(results);
+    }
+
+    private ConfigurableApplicationContext start(String profile) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ExpensesTrackerApplication.class)
+                // The driver would otherwise measure the rate limiter rather than the storage
+                .properties("server.port=0", "rate-limit.enabled=false");
+        if (!"default".equals(profile)) {
+            builder.profiles(profile);
+        }
+        return builder.run();
+    }
+
+    private void compare(Map<String, Map<String, EndpointStats>> results) {
+        StringBuilder header = new StringBuilder(String.format("%n%-34s", "endpoint"));
+        for (String profile : results.keySet()) {
+            for (double percentile : PERCENTILES) {
+                header.append(String.format(Locale.ROOT, " %16s", profile + " p" + (int) percentile));
+            }
+        }
+        System.out.println(header);
+
+        Map<String, EndpointStats> first = results.values().iterator().next();
+        for (String endpoint : first.keySet()) {
+            StringBuilder row = new StringBuilder(String.format("%-34s", endpoint));
+            for (Map<String, EndpointStats> stats : results.values()) {
+                for (double percentile : PERCENTILES) {
+                    row.append(String.format(Locale.ROOT, " %13.2f ms", stats.get(endpoint).percentile(percentile) / 1000.0));
+                }
+            }
+            System.out.println(row);
+        }
+    }
+}
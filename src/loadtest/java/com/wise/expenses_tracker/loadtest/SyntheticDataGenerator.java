@@ -0,0 +1,244 @@
+package com.wise.expenses_tracker.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Writes synthetic users, categories and expenses straight into the application database.
+ *
+ * Rows are inserted with batched JDBC statements (not through the REST API) so tens of
+ * millions of expenses can be loaded in minutes. The schema must already exist, which it
+ * does once the application has been started against the database with ddl-auto=update.
+ *
+ * Expenses per user follow a Zipf distribution, so a handful of users own most of the rows;
+ * categories are skewed the same way, with each user preferring a different set.
+ */
+public class SyntheticDataGenerator {
+
+    public static final String USER_PREFIX = "loadtest-user-";
+    public static final String PASSWORD = "loadtest-password";
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final String[] TITLES = {
+        "Groceries", "Coffee", "Lunch", "Dinner", "Taxi", "Train ticket", "Flight", "Hotel",
+        "Electricity bill", "Water bill", "Internet", "Phone", "Pharmacy", "Cinema", "Books", "Gym"
+    };
+    private static final String[] PAY_BY = { "Cash", "Credit Card", "Debit Card", "E-Wallet", "Bank Transfer" };
+
+    private final String jdbcUrl;
+    private final String jdbcUser;
+    private final String jdbcPassword;
+    private final int users;
+    private final int categories;
+    private final long expenses;
+    private final double skew;
+    private final boolean reset;
+    private final int writers;
+
+    public SyntheticDataGenerator(LoadTestOptions options) {
+        this.jdbcUrl = options.get("jdbcUrl",
+                "jdbc:mysql://localhost:3306/wise_expenses_tracker?useSSL=false&serverTimezone=UTC"
+                        + "&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true");
+        this.jdbcUser = options.get("jdbcUser", "sunway");
+        this.jdbcPassword = options.get("jdbcPassword", "My$tr0ngP@ssw0rd!");
+        this.users = options.getInt("users", 1_000);
+        this.categories = options.getInt("categories", 20);
+        this.expenses = options.getLong("expenses", 1_000_000);
+        this.skew = options.getDouble("skew", 1.1);
+        this.reset = options.getBoolean("reset", false);
+        this.writers = options.getInt("writers", 4);
+    }
+
+    public void generate() throws Exception {
+        long started = System.nanoTime();
+        long[] categoryIds;
+        long[] userIds;
+        try (Connection connection = connect()) {
+            if (reset) {
+                deleteExisting(connection);
+            }
+            categoryIds = ensureCategories(connection);
+            userIds = insertUsers(connection);
+        }
+        long inserted = insertExpenses(userIds, categoryIds);
+        System.out.printf("Generated %d users, %d categories and %d expenses in %.1f s%n",
+                userIds.length, categoryIds.length, inserted, (System.nanoTime() - started) / 1e9);
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private void deleteExisting(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            int deletedExpenses = statement.executeUpdate(
+                    "DELETE FROM expenses WHERE user_id IN (SELECT id FROM users WHERE username LIKE '" + USER_PREFIX + "%')");
+            int deletedUsers = statement.executeUpdate("DELETE FROM users WHERE username LIKE '" + USER_PREFIX + "%'");
+            connection.commit();
+            System.out.printf("Removed %d users and %d expenses from a previous run%n", deletedUsers, deletedExpenses);
+        }
+    }
+
+    private long[] ensureCategories(Connection connection) throws SQLException {
+        Map<String, Long> existing = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, name FROM categories")) {
+            while (rows.next()) {
+                existing.put(rows.getString("name"), rows.getLong("id"));
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO categories (name) VALUES (?)")) {
+            for (int i = 0; i < categories; i++) {
+                if (!existing.containsKey(categoryName(i))) {
+                    insert.setString(1, categoryName(i));
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        long[] ids = new long[categories];
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM categories WHERE name = ?")) {
+            for (int i = 0; i < categories; i++) {
+                select.setString(1, categoryName(i));
+                try (ResultSet row = select.executeQuery()) {
+                    row.next();
+                    ids[i] = row.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long[] insertUsers(Connection connection) throws SQLException {
+        // One hash for every synthetic user: hashing millions of passwords would dominate the run
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (username, password, role) VALUES (?, ?, 'USER')")) {
+            for (int i = 0; i < users; i++) {
+                insert.setString(1, USER_PREFIX + i);
+                insert.setString(2, passwordHash);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+
+        long[] ids = new long[users];
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT id, username FROM users WHERE username LIKE '" + USER_PREFIX + "%'")) {
+            while (rows.next()) {
+                int index = Integer.parseInt(rows.getString("username").substring(USER_PREFIX.length()));
+                if (index < users) {
+                    ids[index] = rows.getLong("id");
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the expenses with several writer threads, each owning a slice of the users.
+     */
+    private long insertExpenses(long[] userIds, long[] categoryIds) throws Exception {
+        ZipfDistribution perUser = new ZipfDistribution(userIds.length, skew);
+        AtomicLong inserted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> slices = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                final int slice = writer;
+                slices.add(pool.submit(() -> {
+                    insertSlice(slice, userIds, categoryIds, perUser, inserted);
+                    return null;
+                }));
+            }
+            for (Future<?> slice : slices) {
+                slice.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return inserted.get();
+    }
+
+    private void insertSlice(int slice, long[] userIds, long[] categoryIds, ZipfDistribution perUser,
+                             AtomicLong inserted) throws SQLException {
+        Random random = new Random(slice);
+        ZipfDistribution perCategory = new ZipfDistribution(categoryIds.length, skew);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        try (Connection connection = connect();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO expenses (title, date, pay_by, amount, description, add_to_report, user_id, category_id)"
+                             + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (int user = slice; user < userIds.length; user += writers) {
+                long count = Math.round(expenses * perUser.probability(user));
+                int favouriteOffset = random.nextInt(categoryIds.length);
+                for (long i = 0; i < count; i++) {
+                    String title = TITLES[random.nextInt(TITLES.length)];
+                    insert.setString(1, title);
+                    insert.setTimestamp(2, Timestamp.from(now.minusSeconds(random.nextInt(3 * 365 * 24 * 3600))));
+                    insert.setString(3, PAY_BY[random.nextInt(PAY_BY.length)]);
+                    // Log-normal amounts: mostly small purchases with a long tail
+                    insert.setDouble(4, Math.round(Math.exp(3 + random.nextGaussian()) * 100) / 100.0);
+                    insert.setString(5, random.nextInt(10) < 3 ? title + " #" + i : null);
+                    insert.setBoolean(6, random.nextBoolean());
+                    insert.setLong(7, userIds[user]);
+                    insert.setLong(8, categoryIds[(perCategory.sample(random) + favouriteOffset) % categoryIds.length]);
+                    insert.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        flush(connection, insert, pending, inserted);
+                        pending = 0;
+                    }
+                }
+            }
+            flush(connection, insert, pending, inserted);
+        }
+    }
+
+    private void flush(Connection connection, PreparedStatement insert, int pending, AtomicLong inserted)
+            throws SQLException {
+        if (pending == 0) {
+            return;
+        }
+        insert.executeBatch();
+        connection.commit();
+        long total = inserted.addAndGet(pending);
+        if (total / 1_000_000 != (total - pending) / 1_000_000) {
+            System.out.printf("  %,d expenses inserted%n", total);
+        }
+    }
+
+    static String categoryName(int index) {
+        return "Loadtest Category " + index;
+    }
+}
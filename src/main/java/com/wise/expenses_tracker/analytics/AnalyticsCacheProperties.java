@@ -0,0 +1,20 @@
+package com.wise.expenses_tracker.analytics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * In-memory per-user expense columns for the analytical reads (prefix {@code analytics-cache}).
+ */
+@Data
+@ConfigurationProperties(prefix = "analytics-cache")
+public class AnalyticsCacheProperties {
+
+    /** Serve category totals and budget status from memory instead of grouped queries */
+    private boolean enabled = false;
+
+    /** Heap for all cached users together; the least recently used are evicted beyond it */
+    private DataSize memoryBudget = DataSize.ofMegabytes(64);
+}
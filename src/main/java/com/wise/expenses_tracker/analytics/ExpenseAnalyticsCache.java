@@ -0,0 +1,236 @@
+package com.wise.expenses_tracker.analytics;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-user expense columns (see UserExpenseColumns) that category totals and budget
+ * status are computed from without a query.
+ *
+ * A user's columns are loaded by the first analytical read that needs them, from the
+ * primary in a transaction of their own, since a lagging replica would leave them stale
+ * for good. Committed single-expense writes that carry the expense's new values are
+ * applied in place; any other change, or one the columns cannot place, drops the user's
+ * columns to be loaded again, and category renames and merges drop everyone's. A load
+ * that a change overtakes answers its own read but is not kept.
+ *
+ * Users are evicted least recently used first once the columns outgrow
+ * analytics-cache.memory-budget, checked whenever a user is loaded.
+ *
+ * Metrics: {@code expenses.analytics.cache.requests} (tag outcome=hit|miss),
+ * {@code expenses.analytics.cache.evictions}, {@code expenses.analytics.cache.users},
+ * {@code expenses.analytics.cache.bytes}.
+ */
+@Component
+public class ExpenseAnalyticsCache {
+
+    private final AnalyticsCacheProperties properties;
+    private final ExpensesRepository expensesRepository;
+    private final TransactionTemplate primaryTransaction;
+
+    // Guarded by this; in access order, so the first entry is the least recently used
+    private final LinkedHashMap<Long, UserExpenseColumns> users = new LinkedHashMap<>(16, 0.75f, true);
+    // Guarded by this; users being loaded, mapped to whether they changed since the load started
+    private final Map<Long, Boolean> loading = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ExpenseAnalyticsCache(AnalyticsCacheProperties properties,
+                                 ExpensesRepository expensesRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.expensesRepository = expensesRepository;
+        // Not read-only, so replica routing keeps it on the primary, and a new transaction
+        // even when the caller's is read-only
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.hits = Counter.builder("expenses.analytics.cache.requests")
+                .tag("outcome", "hit")
+                .description("Analytical reads by whether the user's columns were in memory")
+                .register(meterRegistry);
+        this.misses = Counter.builder("expenses.analytics.cache.requests")
+                .tag("outcome", "miss")
+                .description("Analytical reads by whether the user's columns were in memory")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("expenses.analytics.cache.evictions")
+                .description("Users dropped to stay within the memory budget")
+                .register(meterRegistry);
+        Gauge.builder("expenses.analytics.cache.users", this, ExpenseAnalyticsCache::userCount)
+                .description("Users whose expense columns are in memory")
+                .register(meterRegistry);
+        Gauge.builder("expenses.analytics.cache.bytes", this, ExpenseAnalyticsCache::bytes)
+                .description("Estimated heap held by the cached columns")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Same as the grouped sums in ExpensesRepository: the user's total per category
+     * name, over expenses dated from {@code from} (inclusive) to {@code to} (exclusive),
+     * either of which may be null for no bound.
+     */
+    public Map<String, Double> categoryTotals(long userId, Instant from, Instant to) {
+        return columns(userId).categoryTotals(
+                from != null ? from.toEpochMilli() : Long.MIN_VALUE,
+                to != null ? to.toEpochMilli() : Long.MAX_VALUE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (event.affectsAllUsers()) {
+            synchronized (this) {
+                users.clear();
+                loading.replaceAll((userId, changed) -> true);
+            }
+            return;
+        }
+
+        long userId = event.getUserId();
+        UserExpenseColumns columns;
+        synchronized (this) {
+            columns = users.get(userId);
+            if (columns == null) {
+                loading.computeIfPresent(userId, (id, changed) -> true);
+                return;
+            }
+        }
+        if (!apply(columns, event)) {
+            synchronized (this) {
+                users.remove(userId, columns);
+            }
+        }
+    }
+
+    /**
+     * @return false if the columns have to be loaded again
+     */
+    private static boolean apply(UserExpenseColumns columns, ExpensesChangedEvent event) {
+        if (event.getKind() == ExpensesChangedEvent.Kind.DELETED) {
+            return columns.remove(event.getExpenseId());
+        }
+        ExpensesChangedEvent.Values values = event.getValues();
+        if (event.getKind() == null || values == null || values.categoryId() == null) {
+            return false;
+        }
+        return columns.upsert(
+                event.getExpenseId(),
+                event.getKind() == ExpensesChangedEvent.Kind.CREATED,
+                values.version(),
+                epochMillis(values.date()),
+                cents(values.amount()),
+                values.categoryId(),
+                values.categoryName());
+    }
+
+    private UserExpenseColumns columns(long userId) {
+        synchronized (this) {
+            UserExpenseColumns cached = users.get(userId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            loading.putIfAbsent(userId, false);
+        }
+        misses.increment();
+        UserExpenseColumns loaded;
+        try {
+            loaded = load(userId);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loading.remove(userId);
+            }
+            throw e;
+        }
+        install(userId, loaded);
+        return loaded;
+    }
+
+    private UserExpenseColumns load(long userId) {
+        return primaryTransaction.execute(status -> {
+            var rows = expensesRepository.findAnalyticsColumnsByUser(userId);
+            UserExpenseColumns columns = new UserExpenseColumns(rows.size());
+            for (Object[] row : rows) {
+                columns.append(
+                        (Long) row[0],
+                        ((Number) row[1]).longValue(),
+                        epochMillis((Instant) row[2]),
+                        cents((Double) row[3]),
+                        (Long) row[4],
+                        (String) row[5]);
+            }
+            return columns;
+        });
+    }
+
+    /**
+     * Keeps the loaded columns unless the user changed while they were loading (or
+     * another load of the same user got there first), then evicts down to the budget.
+     */
+    private synchronized void install(long userId, UserExpenseColumns columns) {
+        long budget = properties.getMemoryBudget().toBytes();
+        if (!Boolean.FALSE.equals(loading.remove(userId)) || columns.bytes() > budget) {
+            return;
+        }
+        users.put(userId, columns);
+        long total = bytes();
+        Iterator<Map.Entry<Long, UserExpenseColumns>> eldest = users.entrySet().iterator();
+        while (total > budget && eldest.hasNext()) {
+            Map.Entry<Long, UserExpenseColumns> entry = eldest.next();
+            if (entry.getKey() == userId) {
+                continue;
+            }
+            total -= entry.getValue().bytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized int userCount() {
+        return users.size();
+    }
+
+    private synchronized long bytes() {
+        long total = 0;
+        for (UserExpenseColumns columns : users.values()) {
+            total += columns.bytes();
+        }
+        return total;
+    }
+
+    /**
+     * Undated expenses sort first and fall outside every lower-bounded range, as in SQL.
+     */
+    private static long epochMillis(Instant date) {
+        return date != null ? date.toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private static long cents(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+}
@@ -0,0 +1,263 @@
+package com.wise.expenses_tracker.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One user's expenses as parallel primitive arrays ordered by date: epoch milliseconds,
+ * amounts in cents, and categories as codes into a per-user dictionary. Ids and versions
+ * are kept so single-expense writes can be applied in place.
+ *
+ * Aggregations take the read lock and scan the date range found by binary search,
+ * summing into arrays the caller provides; writes take the write lock.
+ */
+final class UserExpenseColumns {
+
+    /** id, version, date and amount as longs, category as an int, plus slack */
+    private static final int BYTES_PER_ROW = 4 * Long.BYTES + Integer.BYTES;
+    private static final int BYTES_PER_CATEGORY = 64;
+    private static final int BYTES_OVERHEAD = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids;
+    private long[] versions;
+    private long[] dates;
+    private long[] amounts;
+    private int[] categories;
+    private int size;
+
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<Long, Integer> categoryCodes = new HashMap<>();
+
+    UserExpenseColumns(int capacity) {
+        int initial = Math.max(capacity, 8);
+        ids = new long[initial];
+        versions = new long[initial];
+        dates = new long[initial];
+        amounts = new long[initial];
+        categories = new int[initial];
+    }
+
+    /**
+     * Appends a row while loading; rows must arrive ordered by date.
+     */
+    void append(long id, long version, long date, long amount, long categoryId, String categoryName) {
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        versions[size] = version;
+        dates[size] = date;
+        amounts[size] = amount;
+        categories[size] = categoryCode(categoryId, categoryName);
+        size++;
+    }
+
+    /**
+     * Applies a created or updated expense. A change the columns cannot place (an update
+     * of an expense they do not have, so possibly one deleted meanwhile) is refused.
+     *
+     * @return false if the columns no longer reflect the user's expenses
+     */
+    boolean upsert(long id, boolean created, long version, long date, long amount, long categoryId, String categoryName) {
+        lock.writeLock().lock();
+        try {
+            int at = indexOf(id);
+            if (at >= 0) {
+                if (versions[at] >= version) {
+                    // Already loaded with this change or a later one
+                    return true;
+                }
+                removeAt(at);
+            } else if (!created) {
+                return false;
+            }
+            ensureCapacity(size + 1);
+            int insertAt = upperBound(date);
+            int moved = size - insertAt;
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, moved);
+            System.arraycopy(versions, insertAt, versions, insertAt + 1, moved);
+            System.arraycopy(dates, insertAt, dates, insertAt + 1, moved);
+            System.arraycopy(amounts, insertAt, amounts, insertAt + 1, moved);
+            System.arraycopy(categories, insertAt, categories, insertAt + 1, moved);
+            ids[insertAt] = id;
+            versions[insertAt] = version;
+            dates[insertAt] = date;
+            amounts[insertAt] = amount;
+            categories[insertAt] = categoryCode(categoryId, categoryName);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the expense was not there, so the columns may have missed its creation
+     */
+    boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int at = indexOf(id);
+            if (at < 0) {
+                return false;
+            }
+            removeAt(at);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the cents and the number of expenses dated in [from, to) to
+     * {@code totals[code]} and {@code counts[code]}, by category code. Both arrays need
+     * {@link #categoryCount()} entries; nothing is allocated.
+     */
+    void sumByCategory(long from, long to, long[] totals, int[] counts) {
+        lock.readLock().lock();
+        try {
+            int end = lowerBound(to);
+            for (int i = lowerBound(from); i < end; i++) {
+                int category = categories[i];
+                totals[category] += amounts[i];
+                counts[category]++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals in currency units by category name of the expenses dated in [from, to);
+     * categories without such expenses are left out.
+     */
+    Map<String, Double> categoryTotals(long from, long to) {
+        lock.readLock().lock();
+        try {
+            long[] totals = new long[categoryNames.size()];
+            int[] counts = new int[categoryNames.size()];
+            sumByCategory(from, to, totals, counts);
+            Map<String, Double> byName = new HashMap<>();
+            for (int code = 0; code < totals.length; code++) {
+                if (counts[code] > 0) {
+                    byName.put(categoryNames.get(code), totals[code] / 100.0);
+                }
+            }
+            return byName;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Codes are never reused, so this only grows.
+     */
+    int categoryCount() {
+        lock.readLock().lock();
+        try {
+            return categoryNames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Heap held by the arrays at their current capacity, roughly.
+     */
+    long bytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ids.length * BYTES_PER_ROW + (long) categoryNames.size() * BYTES_PER_CATEGORY + BYTES_OVERHEAD;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int categoryCode(long categoryId, String categoryName) {
+        Integer code = categoryCodes.get(categoryId);
+        if (code == null) {
+            code = categoryNames.size();
+            categoryNames.add(categoryName);
+            categoryCodes.put(categoryId, code);
+        }
+        return code;
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int at) {
+        int moved = size - at - 1;
+        System.arraycopy(ids, at + 1, ids, at, moved);
+        System.arraycopy(versions, at + 1, versions, at, moved);
+        System.arraycopy(dates, at + 1, dates, at, moved);
+        System.arraycopy(amounts, at + 1, amounts, at, moved);
+        System.arraycopy(categories, at + 1, categories, at, moved);
+        size--;
+    }
+
+    /**
+     * @return the first row dated at or after {@code date}
+     */
+    private int lowerBound(long date) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dates[middle] < date) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the first row dated after {@code date}
+     */
+    private int upperBound(long date) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dates[middle] <= date) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        versions = Arrays.copyOf(versions, grown);
+        dates = Arrays.copyOf(dates, grown);
+        amounts = Arrays.copyOf(amounts, grown);
+        categories = Arrays.copyOf(categories, grown);
+    }
+}
@@ -0,0 +1,68 @@
+package com.wise.expenses_tracker.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.sharding.ShardContext;
+
+/**
+ * Runs {@code @GlobalTableWrite} methods against the sharding coordinator.
+ *
+ * Ordered ahead of the transaction advice, so the method's own transaction already
+ * starts on the coordinator. When called inside a shard transaction (e.g. a category
+ * created while saving an expense) that transaction is suspended and the method runs in
+ * a new one, because a transaction cannot span two databases.
+ *
+ * Only registered when {@code sharding.enabled=true}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class GlobalTableWriteAspect {
+
+    private final TransactionTemplate requiresNew;
+
+    public GlobalTableWriteAspect(PlatformTransactionManager transactionManager) {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Around("@annotation(com.wise.expenses_tracker.sharding.GlobalTableWrite)")
+    public Object onCoordinator(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = ShardContext.override(ShardContext.COORDINATOR);
+        try {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                return joinPoint.proceed();
+            }
+            Throwable[] failure = new Throwable[1];
+            Object result = requiresNew.execute(status -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    // Checked exception: roll back and rethrow it as is below
+                    failure[0] = e;
+                    status.setRollbackOnly();
+                    return null;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return result;
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
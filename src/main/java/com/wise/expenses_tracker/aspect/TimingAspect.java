@@ -0,0 +1,148 @@
+package com.wise.expenses_tracker.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.wise.expenses_tracker.diagnostics.DiagnosticsProperties;
+import com.wise.expenses_tracker.diagnostics.QueryBudgetExceededException;
+import com.wise.expenses_tracker.diagnostics.RequestTimings;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the per-request timing segments reported in the Server-Timing header
+ * and enforces the configured query budgets.
+ *
+ * Ordered ahead of the transaction advice, so a service call is measured including its
+ * commit and the budget check sees the statements flushed there.
+ *
+ * Only registered when {@code diagnostics.enabled=true}.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "diagnostics", name = "enabled", havingValue = "true")
+public class TimingAspect {
+
+    private final DiagnosticsProperties properties;
+
+    @Pointcut("execution(* com.wise.expenses_tracker.security.interfaces.JwtService.*(..))")
+    public void jwtVerification() {}
+
+    @Pointcut("execution(* org.springframework.security.core.userdetails.UserDetailsService.loadUserByUsername(..))"
+            + " || execution(* com.wise.expenses_tracker.service.interfaces.UserService.getCurrentUser(..))")
+    public void userLookup() {}
+
+    @Pointcut("target(org.springframework.data.repository.Repository)")
+    public void repositoryCall() {}
+
+    @Pointcut("execution(* com.wise.expenses_tracker.service.interfaces.ExpensesService.*(..))"
+            + " || execution(* com.wise.expenses_tracker.service.interfaces.CategoryService.*(..))")
+    public void serviceCall() {}
+
+    @Pointcut("within(@org.springframework.web.bind.annotation.RestController *)")
+    public void controllerCall() {}
+
+    @Around("jwtVerification()")
+    public Object timeJwt(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestTimings.JWT, joinPoint);
+    }
+
+    @Around("userLookup()")
+    public Object timeUserLookup(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestTimings.USER, joinPoint);
+    }
+
+    @Around("repositoryCall()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        // Queries issued while looking up the user are part of the "user" segment
+        if (timings != null && timings.isWithin(RequestTimings.USER)) {
+            return joinPoint.proceed();
+        }
+        return timed(RequestTimings.REPOSITORY, joinPoint);
+    }
+
+    /**
+     * Times service logic and DTO mapping, and checks the statements issued by the
+     * operation against its query budget. Calls made outside of an HTTP request
+     * (for example from tests) get their own accumulator so budgets still apply.
+     *
+     * The budget is only checked when the operation returns normally, so an exception
+     * it throws is never replaced. The check runs once the operation has returned, after
+     * its transaction committed: a QueryBudgetExceededException fails the request but
+     * does not roll the operation back.
+     */
+    @Around("serviceCall()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean ownsTimings = RequestTimings.current() == null;
+        RequestTimings timings = ownsTimings ? RequestTimings.start() : RequestTimings.current();
+        int statementsBefore = timings.getStatements();
+        Object result;
+        try {
+            result = timed(RequestTimings.MAPPING, joinPoint);
+        } finally {
+            if (ownsTimings) {
+                RequestTimings.clear();
+            }
+        }
+        checkBudget(operationName(joinPoint), timings.getStatements() - statementsBefore);
+        return result;
+    }
+
+    @AfterReturning("controllerCall()")
+    public void markHandlerReturned() {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.markHandlerReturned();
+        }
+    }
+
+    private Object timed(String segment, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return joinPoint.proceed();
+        }
+        timings.enter(segment);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.exit();
+        }
+    }
+
+    /**
+     * Budgets are keyed by the service interface rather than the implementation
+     * class, e.g. "ExpensesService.getCategoryExpenses".
+     */
+    private String operationName(ProceedingJoinPoint joinPoint) {
+        String method = joinPoint.getSignature().getName();
+        for (Class<?> serviceInterface : joinPoint.getTarget().getClass().getInterfaces()) {
+            if (serviceInterface.getPackageName().endsWith(".service.interfaces")) {
+                return serviceInterface.getSimpleName() + "." + method;
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + method;
+    }
+
+    private void checkBudget(String operation, int statements) {
+        Integer budget = properties.getQueryBudgets().get(operation);
+        if (budget == null || statements <= budget) {
+            return;
+        }
+        if (properties.isFailOnBudgetExceeded()) {
+            throw new QueryBudgetExceededException(operation, budget, statements);
+        }
+        log.warn("Query budget exceeded for {}: {} statements (budget {})", operation, statements, budget);
+    }
+}
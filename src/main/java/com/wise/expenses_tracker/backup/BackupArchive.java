@@ -0,0 +1,53 @@
+package com.wise.expenses_tracker.backup;
+
+import java.time.Instant;
+
+/**
+ * Binary archive of one user's data, written by BackupArchiveWriter and read by
+ * BackupArchiveReader.
+ *
+ * Layout (varints as in Varint, strings as varint length + 1 and UTF-8, 0 for null):
+ * <pre>
+ * "WXBK" version
+ * varint       user id at backup time, varint backup time (epoch millis)
+ * categories   varint count, then per category: varint id delta, string name
+ * expenses     blocks of varint row count and rows, ended by an empty block
+ * budgets      blocks like expenses
+ * long         CRC32 of everything above
+ * "WXBK"
+ * </pre>
+ * Expenses come in id order. Each row holds the id as a delta to the previous one, a flags
+ * byte, the date as a zigzag delta in microseconds to the previous date, the amount, title,
+ * payment method, description, the category id and the id it duplicates as a zigzag delta
+ * to its own. Amounts that are whole cents are stored as zigzag varint cents (+2), others
+ * as 8-byte doubles (1), null as 0.
+ *
+ * The layout may only change together with {@link #VERSION}, keeping older versions readable.
+ */
+public final class BackupArchive {
+
+    static final byte[] MAGIC = { 'W', 'X', 'B', 'K' };
+    static final byte VERSION = 1;
+    static final int BLOCK_ROWS = 1024;
+
+    static final int ADD_TO_REPORT = 1;
+    static final int HAS_DATE = 1 << 1;
+    static final int HAS_DUPLICATE_OF = 1 << 2;
+
+    private BackupArchive() {
+    }
+
+    public record Category(long id, String name) {}
+
+    public record Expense(long id,
+                          String title,
+                          Instant date,
+                          String payBy,
+                          Double amount,
+                          String description,
+                          boolean addToReport,
+                          long categoryId,
+                          Long duplicateOf) {}
+
+    public record Budget(Double amount, boolean everyMonth, long categoryId) {}
+}
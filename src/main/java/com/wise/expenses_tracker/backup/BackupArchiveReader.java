@@ -0,0 +1,182 @@
+package com.wise.expenses_tracker.backup;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import com.wise.expenses_tracker.export.Varint;
+
+/**
+ * Reads a backup archive (see BackupArchive) in the order it was written, one block of
+ * rows at a time. Anything malformed, including a checksum mismatch detected by
+ * {@link #finish()}, raises InvalidBackupException; callers restore inside a transaction
+ * so that rolls everything back.
+ */
+public class BackupArchiveReader {
+
+    private static final int MAX_STRING_BYTES = 1 << 20;
+    private static final int MAX_CATEGORIES = 1 << 20;
+
+    private final BufferedInputStream source;
+    private final CheckedInputStream checked;
+    private final DataInputStream in;
+    private final long userId;
+    private final Instant createdAt;
+    private final List<BackupArchive.Category> categories = new ArrayList<>();
+    private long previousId;
+    private long previousDateMicros;
+
+    public BackupArchiveReader(InputStream source) {
+        this.source = new BufferedInputStream(source, 1 << 16);
+        this.checked = new CheckedInputStream(this.source, new CRC32());
+        this.in = new DataInputStream(checked);
+        try {
+            byte[] magic = new byte[BackupArchive.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, BackupArchive.MAGIC)) {
+                throw new InvalidBackupException("Not a backup archive");
+            }
+            byte version = in.readByte();
+            if (version != BackupArchive.VERSION) {
+                throw new InvalidBackupException("Unsupported backup version " + version);
+            }
+            this.userId = Varint.readUnsigned(in);
+            this.createdAt = Instant.ofEpochMilli(Varint.readUnsigned(in));
+            long count = Varint.readUnsigned(in);
+            if (count > MAX_CATEGORIES) {
+                throw new InvalidBackupException("Implausible category count " + count);
+            }
+            long previous = 0;
+            for (long i = 0; i < count; i++) {
+                previous += Varint.readSigned(in);
+                categories.add(new BackupArchive.Category(previous, readString(in)));
+            }
+        } catch (IOException e) {
+            throw new InvalidBackupException("Unreadable backup archive", e);
+        }
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<BackupArchive.Category> categories() {
+        return List.copyOf(categories);
+    }
+
+    /**
+     * @return the next block of expenses, empty once they are all read
+     */
+    public List<BackupArchive.Expense> nextExpenses() {
+        try {
+            int rows = blockRows();
+            List<BackupArchive.Expense> expenses = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                long id = previousId += Varint.readUnsigned(in);
+                int flags = in.readUnsignedByte();
+                Instant date = null;
+                if ((flags & BackupArchive.HAS_DATE) != 0) {
+                    previousDateMicros += Varint.readSigned(in);
+                    date = Instant.ofEpochSecond(Math.floorDiv(previousDateMicros, 1_000_000L),
+                            Math.floorMod(previousDateMicros, 1_000_000L) * 1000);
+                }
+                Double amount = readAmount(in);
+                String title = readString(in);
+                String payBy = readString(in);
+                String description = readString(in);
+                long categoryId = Varint.readUnsigned(in);
+                Long duplicateOf = (flags & BackupArchive.HAS_DUPLICATE_OF) != 0
+                        ? id - Varint.readSigned(in)
+                        : null;
+                expenses.add(new BackupArchive.Expense(id, title, date, payBy, amount, description,
+                        (flags & BackupArchive.ADD_TO_REPORT) != 0, categoryId, duplicateOf));
+            }
+            return expenses;
+        } catch (IOException e) {
+            throw new InvalidBackupException("Unreadable backup archive", e);
+        }
+    }
+
+    /**
+     * @return the next block of budgets, empty once they are all read
+     */
+    public List<BackupArchive.Budget> nextBudgets() {
+        try {
+            int rows = blockRows();
+            List<BackupArchive.Budget> budgets = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                boolean everyMonth = in.readUnsignedByte() != 0;
+                Double amount = readAmount(in);
+                budgets.add(new BackupArchive.Budget(amount, everyMonth, Varint.readUnsigned(in)));
+            }
+            return budgets;
+        } catch (IOException e) {
+            throw new InvalidBackupException("Unreadable backup archive", e);
+        }
+    }
+
+    /**
+     * Verifies the checksum; call after the last block of budgets.
+     */
+    public void finish() {
+        long expected = checked.getChecksum().getValue();
+        try {
+            DataInputStream trailer = new DataInputStream(source);
+            long crc = trailer.readLong();
+            byte[] magic = new byte[BackupArchive.MAGIC.length];
+            trailer.readFully(magic);
+            if (crc != expected || !Arrays.equals(magic, BackupArchive.MAGIC)) {
+                throw new InvalidBackupException("Backup archive is corrupt (checksum mismatch)");
+            }
+        } catch (IOException e) {
+            throw new InvalidBackupException("Backup archive is truncated", e);
+        }
+    }
+
+    private int blockRows() throws IOException {
+        long rows = Varint.readUnsigned(in);
+        if (rows > BackupArchive.BLOCK_ROWS) {
+            throw new InvalidBackupException("Implausible block size " + rows);
+        }
+        return (int) rows;
+    }
+
+    private static Double readAmount(DataInput in) throws IOException {
+        long encoded = Varint.readUnsigned(in);
+        if (encoded == 0) {
+            return null;
+        }
+        if (encoded == 1) {
+            return in.readDouble();
+        }
+        long zigzag = encoded - 2;
+        long cents = (zigzag >>> 1) ^ -(zigzag & 1);
+        return cents / 100.0;
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        long length = Varint.readUnsigned(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > MAX_STRING_BYTES) {
+            throw new InvalidBackupException("Implausible string length " + (length - 1));
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
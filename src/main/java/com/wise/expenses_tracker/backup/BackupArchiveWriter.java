@@ -0,0 +1,152 @@
+package com.wise.expenses_tracker.backup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.wise.expenses_tracker.export.Varint;
+
+/**
+ * Streams a backup archive (see BackupArchive). Sections must be written in order:
+ * categories, expenses, {@link #endExpenses()}, budgets, {@link #finish()}. Only one
+ * block of rows is held in memory.
+ */
+public class BackupArchiveWriter {
+
+    private final BufferedOutputStream target;
+    private final CheckedOutputStream checked;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(64 * BackupArchive.BLOCK_ROWS);
+    private final DataOutputStream block = new DataOutputStream(blockBytes);
+    private int blockRows;
+    private long previousId;
+    private long previousDateMicros;
+
+    public BackupArchiveWriter(OutputStream target, long userId, Instant createdAt) throws IOException {
+        this.target = new BufferedOutputStream(target, 1 << 16);
+        this.checked = new CheckedOutputStream(this.target, new CRC32());
+        this.out = new DataOutputStream(checked);
+        out.write(BackupArchive.MAGIC);
+        out.writeByte(BackupArchive.VERSION);
+        Varint.writeUnsigned(out, userId);
+        Varint.writeUnsigned(out, createdAt.toEpochMilli());
+    }
+
+    /**
+     * @param categories every category the expenses and budgets refer to, in id order
+     */
+    public void writeCategories(List<BackupArchive.Category> categories) throws IOException {
+        Varint.writeUnsigned(out, categories.size());
+        long previous = 0;
+        for (BackupArchive.Category category : categories) {
+            Varint.writeSigned(out, category.id() - previous);
+            previous = category.id();
+            writeString(out, category.name());
+        }
+    }
+
+    /**
+     * @param expense the next expense; ids must ascend
+     */
+    public void writeExpense(BackupArchive.Expense expense) throws IOException {
+        Varint.writeUnsigned(block, expense.id() - previousId);
+        previousId = expense.id();
+        int flags = (expense.addToReport() ? BackupArchive.ADD_TO_REPORT : 0)
+                | (expense.date() != null ? BackupArchive.HAS_DATE : 0)
+                | (expense.duplicateOf() != null ? BackupArchive.HAS_DUPLICATE_OF : 0);
+        block.writeByte(flags);
+        if (expense.date() != null) {
+            long micros = Math.addExact(Math.multiplyExact(expense.date().getEpochSecond(), 1_000_000L),
+                    expense.date().getNano() / 1000);
+            Varint.writeSigned(block, micros - previousDateMicros);
+            previousDateMicros = micros;
+        }
+        writeAmount(block, expense.amount());
+        writeString(block, expense.title());
+        writeString(block, expense.payBy());
+        writeString(block, expense.description());
+        Varint.writeUnsigned(block, expense.categoryId());
+        if (expense.duplicateOf() != null) {
+            Varint.writeSigned(block, expense.id() - expense.duplicateOf());
+        }
+        rowWritten();
+    }
+
+    public void endExpenses() throws IOException {
+        endSection();
+    }
+
+    public void writeBudget(BackupArchive.Budget budget) throws IOException {
+        block.writeByte(budget.everyMonth() ? 1 : 0);
+        writeAmount(block, budget.amount());
+        Varint.writeUnsigned(block, budget.categoryId());
+        rowWritten();
+    }
+
+    /**
+     * Ends the budgets and writes the checksum; the target stream is flushed, not closed.
+     */
+    public void finish() throws IOException {
+        endSection();
+        out.flush();
+        long crc = checked.getChecksum().getValue();
+        DataOutputStream trailer = new DataOutputStream(target);
+        trailer.writeLong(crc);
+        trailer.write(BackupArchive.MAGIC);
+        trailer.flush();
+    }
+
+    private void rowWritten() throws IOException {
+        if (++blockRows == BackupArchive.BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    private void endSection() throws IOException {
+        flushBlock();
+        Varint.writeUnsigned(out, 0);
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRows == 0) {
+            return;
+        }
+        block.flush();
+        Varint.writeUnsigned(out, blockRows);
+        blockBytes.writeTo(out);
+        blockBytes.reset();
+        blockRows = 0;
+    }
+
+    private static void writeAmount(DataOutput out, Double amount) throws IOException {
+        if (amount == null) {
+            Varint.writeUnsigned(out, 0);
+            return;
+        }
+        long cents = Math.round(amount * 100);
+        if (cents / 100.0 == amount && Math.abs(cents) < (1L << 60)) {
+            Varint.writeUnsigned(out, ((cents << 1) ^ (cents >> 63)) + 2);
+        } else {
+            Varint.writeUnsigned(out, 1);
+            out.writeDouble(amount);
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            Varint.writeUnsigned(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        Varint.writeUnsigned(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,15 @@
+package com.wise.expenses_tracker.backup;
+
+/**
+ * The uploaded data is not a readable backup archive; nothing was restored.
+ */
+public class InvalidBackupException extends RuntimeException {
+
+    public InvalidBackupException(String message) {
+        super(message);
+    }
+
+    public InvalidBackupException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,24 +1,45 @@
 package com.wise.expenses_tracker.config;
 
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.wise.expenses_tracker.analytics.AnalyticsCacheProperties;
+import com.wise.expenses_tracker.distribution.DistributionProperties;
+import com.wise.expenses_tracker.duplicates.DuplicateDetectionProperties;
+import com.wise.expenses_tracker.export.ExportProperties;
+import com.wise.expenses_tracker.model.UserEntity;
 import com.wise.expenses_tracker.repository.UserRepository;
+import com.wise.expenses_tracker.security.PasswordHashingProperties;
+import com.wise.expenses_tracker.service.CoalescingProperties;
+import com.wise.expenses_tracker.service.DashboardProperties;
+import com.wise.expenses_tracker.sharding.GlobalTableReplicator;
+import com.wise.expenses_tracker.sharding.ShardContext;
 
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @RequiredArgsConstructor
+@EnableConfigurationProperties({PasswordHashingProperties.class, CoalescingProperties.class, DuplicateDetectionProperties.class,
+        ExportProperties.class, DashboardProperties.class, AnalyticsCacheProperties.class, DistributionProperties.class})
 public class ApplicationConfig {
     private final UserRepository repository;
+    private final PasswordHashingProperties passwordHashingProperties;
+    // Present with sharding only
+    private final Optional<GlobalTableReplicator> globalTableReplicator;
 
     /**
      * Custom UserDetailsService bean to load user-specific data
@@ -41,9 +62,35 @@ public class ApplicationConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
+    /**
+     * Stores a re-encoded password after a successful login.
+     * DaoAuthenticationProvider calls it whenever the PasswordEncoder reports that the
+     * stored hash needs upgrading (legacy format or a lower BCrypt cost than configured).
+     * With sharding the update runs on the coordinator and is then copied to the shards,
+     * since the bulk update is not seen by the GlobalTableReplicator's entity events.
+     *
+     * @return UserDetailsPasswordService
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            UserEntity userEntity = (UserEntity) user;
+            String previous = ShardContext.override(ShardContext.COORDINATOR);
+            try {
+                repository.updatePassword(userEntity.getId(), newPassword);
+            } finally {
+                ShardContext.restore(previous);
+            }
+            globalTableReplicator.ifPresent(replicator -> replicator.replicate(UserEntity.class, userEntity.getId()));
+            userEntity.setPassword(newPassword);
+            return userEntity;
+        };
+    }
+
     /**
      * Custom AuthenticationManager bean for user authentication
      *
@@ -59,11 +106,18 @@ public class ApplicationConfig {
     /**
      * PasswordEncoder bean for password encoding
      *
+     * New hashes are BCrypt with the configured cost and a {bcrypt} prefix. Hashes stored
+     * before the prefix was introduced are still verified as plain BCrypt and are
+     * re-encoded on the user's next successful login.
+     *
      * @return PasswordEncoder
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(passwordHashingProperties.getBcryptStrength());
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
 
 }
@@ -0,0 +1,52 @@
+package com.wise.expenses_tracker.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.wise.expenses_tracker.diagnostics.DiagnosticsProperties;
+import com.wise.expenses_tracker.diagnostics.ServerTimingFilter;
+import com.wise.expenses_tracker.diagnostics.StatementCountingInspector;
+
+/**
+ * Wiring for the opt-in request diagnostics mode.
+ *
+ * Enable with {@code diagnostics.enabled=true}. Nothing below is registered otherwise,
+ * so the mode costs nothing in normal operation.
+ */
+@Configuration
+@EnableConfigurationProperties(DiagnosticsProperties.class)
+@ConditionalOnProperty(prefix = "diagnostics", name = "enabled", havingValue = "true")
+public class DiagnosticsConfig {
+
+    /**
+     * Registers the Server-Timing filter ahead of the security filter chain so the
+     * JWT verification and user lookup are part of the measured request.
+     *
+     * @param properties diagnostics settings
+     * @return FilterRegistrationBean for the ServerTimingFilter
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(DiagnosticsProperties properties) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Counts every SQL statement Hibernate prepares against the current request.
+     *
+     * @return HibernatePropertiesCustomizer installing the StatementCountingInspector
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(
+                AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+    }
+}
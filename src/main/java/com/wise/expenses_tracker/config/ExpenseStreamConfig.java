@@ -0,0 +1,62 @@
+package com.wise.expenses_tracker.config;
+
+import javax.sql.DataSource;
+
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.stream.ExpenseStreamHub;
+import com.wise.expenses_tracker.stream.ExpenseStreamProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wiring for the expense change stream ({@code GET /api/expenses/stream}).
+ *
+ * Enable with {@code expense-stream.enabled=true}. Subscribers are held
+ * in memory, so each node only pushes the changes committed through it: behind a load
+ * balancer, route a user's writes and streams to the same node (e.g. by user id) or
+ * accept that changes made through other nodes only arrive with the next local one.
+ */
+@Configuration
+@EnableConfigurationProperties(ExpenseStreamProperties.class)
+@ConditionalOnProperty(prefix = "expense-stream", name = "enabled", havingValue = "true")
+public class ExpenseStreamConfig {
+
+    @Bean(destroyMethod = "stop")
+    public ExpenseStreamHub expenseStreamHub(ExpenseStreamProperties properties,
+                                             ExpensesRepository expensesRepository,
+                                             PlatformTransactionManager transactionManager,
+                                             DataSource dataSource,
+                                             ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry) {
+        return new ExpenseStreamHub(properties, expensesRepository, new TransactionTemplate(transactionManager),
+                dataSource, objectMapper, meterRegistry);
+    }
+
+    /**
+     * Streams are long-lived connections, which Tomcat's connection limit (8192 by
+     * default, server.tomcat.max-connections) would otherwise cap; it is raised so the
+     * streams fit on top of it.
+     *
+     * @return WebServerFactoryCustomizer raising Tomcat's connection limit
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> streamConnectionsCustomizer(
+            ExpenseStreamProperties properties) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                protocol.setMaxConnections(protocol.getMaxConnections() + properties.getMaxConnections());
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.wise.expenses_tracker.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.ingestion.IngestionProperties;
+import com.wise.expenses_tracker.ingestion.IngestionQueue;
+import com.wise.expenses_tracker.ingestion.IngestionWriter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Wiring for write-behind ingestion ({@code POST /api/expenses/ingest}).
+ *
+ * Enable with {@code ingestion.enabled=true}. The journal lives on local disk, so it
+ * assumes a single application instance. The writer inserts through the plain
+ * DataSource, so ingestion cannot be combined with sharding; in ledger mode writes are
+ * already acknowledged once appended, so the regular endpoint should be used instead.
+ */
+@Configuration
+@EnableConfigurationProperties(IngestionProperties.class)
+@ConditionalOnProperty(prefix = "ingestion", name = "enabled", havingValue = "true")
+public class IngestionConfig {
+
+    /**
+     * Depends on the EntityManagerFactory so the checkpoint table exists before it is read.
+     */
+    @Bean
+    public IngestionQueue ingestionQueue(IngestionProperties properties,
+                                         JdbcTemplate jdbcTemplate,
+                                         EntityManagerFactory entityManagerFactory,
+                                         MeterRegistry meterRegistry,
+                                         Environment environment) throws IOException {
+        if (environment.getProperty("sharding.enabled", Boolean.class, false)
+                || environment.getProperty("ledger.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("ingestion cannot be combined with sharding or ledger mode");
+        }
+        return new IngestionQueue(properties, IngestionWriter.loadCheckpoint(jdbcTemplate), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public IngestionWriter ingestionWriter(IngestionQueue ingestionQueue,
+                                           JdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           ApplicationEventPublisher eventPublisher,
+                                           IngestionProperties properties,
+                                           MeterRegistry meterRegistry) {
+        return new IngestionWriter(ingestionQueue, jdbcTemplate, new TransactionTemplate(transactionManager),
+                eventPublisher, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.wise.expenses_tracker.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.ledger.ExpenseLedger;
+import com.wise.expenses_tracker.ledger.LedgerProjector;
+import com.wise.expenses_tracker.ledger.LedgerProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Wiring for the event-sourced expense ledger.
+ *
+ * Enable with {@code ledger.enabled=true}; LedgerExpensesServiceImpl then takes over the
+ * expense writes. The ledger lives on local disk, so it assumes a single application
+ * instance, and it projects through the plain DataSource, so it cannot be combined with
+ * sharding.
+ */
+@Configuration
+@EnableConfigurationProperties(LedgerProperties.class)
+@ConditionalOnProperty(prefix = "ledger", name = "enabled", havingValue = "true")
+public class LedgerConfig {
+
+    /**
+     * Depends on the EntityManagerFactory so the schema exists before the highest expense id is read.
+     */
+    @Bean
+    public ExpenseLedger expenseLedger(LedgerProperties properties,
+                                       JdbcTemplate jdbcTemplate,
+                                       EntityManagerFactory entityManagerFactory,
+                                       Environment environment) throws IOException {
+        if (environment.getProperty("sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("ledger and sharding cannot be enabled together");
+        }
+        Long highestId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM expenses", Long.class);
+        return new ExpenseLedger(properties, highestId,
+                userId -> LedgerProjector.loadBaseline(jdbcTemplate, userId));
+    }
+
+    @Bean
+    public LedgerProjector ledgerProjector(ExpenseLedger expenseLedger,
+                                           JdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           ApplicationEventPublisher eventPublisher,
+                                           LedgerProperties properties,
+                                           MeterRegistry meterRegistry) {
+        return new LedgerProjector(expenseLedger, jdbcTemplate, new TransactionTemplate(transactionManager),
+                eventPublisher, properties, meterRegistry);
+    }
+}
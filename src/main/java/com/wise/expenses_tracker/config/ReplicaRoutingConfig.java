@@ -0,0 +1,100 @@
+package com.wise.expenses_tracker.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.wise.expenses_tracker.datasource.ReadYourWritesTracker;
+import com.wise.expenses_tracker.datasource.ReplicaRoutingDataSource;
+import com.wise.expenses_tracker.datasource.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wiring for read-replica routing.
+ *
+ * Enable with {@code replica-routing.enabled=true} and at least one
+ * {@code replica-routing.replicas[n].url}. Without it the application keeps using the
+ * single auto-configured {@code spring.datasource} pool.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "replica-routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesTracker(properties.getReadYourWritesWindow());
+    }
+
+    /**
+     * Builds the primary pool from {@code spring.datasource.*} (including any
+     * {@code spring.datasource.hikari.*} settings) and one read-only pool per replica.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties properties,
+                                                             ReadYourWritesTracker readYourWritesTracker,
+                                                             MeterRegistry meterRegistry,
+                                                             Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + (i + 1);
+            replicas.put(name, replicaPool(name, replica, dataSourceProperties, properties));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker, properties, meterRegistry);
+    }
+
+    /**
+     * The DataSource used by JPA and JDBC. The lazy proxy defers fetching a physical
+     * connection until the first statement, by which time the transaction's read-only
+     * flag is known and the routing decision can use it.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource replicaPool(String name,
+                                                ReplicaRoutingProperties.Replica replica,
+                                                DataSourceProperties primary,
+                                                ReplicaRoutingProperties properties) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(replica.getUrl());
+        pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+        pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        pool.setDriverClassName(replica.getDriverClassName() != null
+                ? replica.getDriverClassName()
+                : primary.determineDriverClassName());
+        pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        pool.setReadOnly(true);
+        // A dead replica must fail fast so reads fall back to the primary instead of
+        // waiting out the default 30s, and must not stop the application from starting
+        pool.setConnectionTimeout(Math.max(250, properties.getHealthCheckTimeout().toMillis()));
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+}
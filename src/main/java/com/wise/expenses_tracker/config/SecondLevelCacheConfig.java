@@ -0,0 +1,53 @@
+package com.wise.expenses_tracker.config;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * JCache manager behind Hibernate's second-level and query cache (regions in ehcache.xml).
+ *
+ * Built here from a Spring resource and handed to Hibernate as a ready instance: given
+ * {@code hibernate.javax.cache.uri=classpath:ehcache.xml}, Hibernate looks the file up
+ * through its own class loader service, which does not find it outside the Boot jar
+ * launcher (e.g. under mvn test) and fails the SessionFactory.
+ *
+ * The manager is registered under a URI of its own rather than that of ehcache.xml: the
+ * caching provider hands out one manager per URI and class loader for the whole JVM, so
+ * every application context in a test run would otherwise share entity regions while
+ * each has its own database.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * @return the CacheManager holding the regions declared in ehcache.xml
+     * @throws IOException if ehcache.xml is missing from the classpath
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws IOException {
+        var provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        var configuration = new XmlConfiguration(new ClassPathResource("ehcache.xml").getURL(), getClass().getClassLoader());
+        return provider.getCacheManager(URI.create("urn:expenses-tracker:hibernate:" + UUID.randomUUID()), configuration);
+    }
+
+    /**
+     * @param hibernateCacheManager the manager above
+     * @return HibernatePropertiesCustomizer passing it to the JCache region factory
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
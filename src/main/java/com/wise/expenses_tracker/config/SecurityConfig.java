@@ -1,5 +1,6 @@
 package com.wise.expenses_tracker.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -9,17 +10,23 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.wise.expenses_tracker.security.RateLimitProperties;
 import com.wise.expenses_tracker.security.config.JwtAuthenticationFilter;
+import com.wise.expenses_tracker.security.config.RateLimitFilter;
+import com.wise.expenses_tracker.security.user.Role;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 
 @Configuration
 @EnableWebSecurity // Enable web security for the application
 @RequiredArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter; // JWT authentication filter
+    private final RateLimitFilter rateLimitFilter; // Per-user rate limiting, needs the authenticated user
     private final AuthenticationProvider authenticationProvider;
 
     /**
@@ -38,10 +45,18 @@ public class SecurityConfig {
             
             // Configure authorization rules for HTTP requests
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches (e.g. the end of an event stream) were authorized when the
+                // request started; the JWT filter does not run for them again
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Allow public access to Swagger documentation
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 // Allow public access to authentication endpoints
                 .requestMatchers("/api/v1/auth/**").permitAll()
+                // Health is public, the other actuator endpoints (metrics) are for admins
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasAuthority(Role.ADMIN.name())
+                // Operations across all users (e.g. exports)
+                .requestMatchers("/api/admin/**").hasAuthority(Role.ADMIN.name())
                 // Require authentication for all other requests
                 .anyRequest().authenticated()
             )
@@ -56,6 +71,9 @@ public class SecurityConfig {
             
             // Add JWT filter before the standard username/password authentication filter
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+
+            // Rate limit once the JWT filter has identified the user
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
             
             .build();
     }
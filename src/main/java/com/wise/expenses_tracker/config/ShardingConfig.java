@@ -0,0 +1,129 @@
+package com.wise.expenses_tracker.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import com.wise.expenses_tracker.sharding.GlobalTableReplicator;
+import com.wise.expenses_tracker.sharding.ShardAwareTransactionManager;
+import com.wise.expenses_tracker.sharding.ShardContext;
+import com.wise.expenses_tracker.sharding.ShardRebalancer;
+import com.wise.expenses_tracker.sharding.ShardRoutingDataSource;
+import com.wise.expenses_tracker.sharding.ShardSchemaInitializer;
+import com.wise.expenses_tracker.sharding.ShardingIntegrator;
+import com.wise.expenses_tracker.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Wiring for user-id sharding.
+ *
+ * Enable with {@code sharding.enabled=true} and one {@code sharding.shards[n].url} per shard.
+ * {@code spring.datasource.*} then describes the coordinator, which owns the global tables.
+ * Sharding replaces the DataSource, so it cannot be combined with replica routing.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                             ShardingProperties properties,
+                                             Environment environment) {
+        if (environment.getProperty("replica-routing.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("sharding and replica-routing cannot be enabled together");
+        }
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("sharding.enabled=true requires at least one sharding.shards[n].url");
+        }
+
+        HikariDataSource coordinator = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(coordinator));
+        coordinator.setPoolName(ShardContext.COORDINATOR);
+
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            shards.add(shardPool(ShardContext.shardName(i), properties.getShards().get(i), dataSourceProperties));
+        }
+        return new ShardRoutingDataSource(coordinator, shards);
+    }
+
+    @Bean
+    public ShardAwareTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                           ShardRoutingDataSource dataSource) {
+        return new ShardAwareTransactionManager(entityManagerFactory, dataSource);
+    }
+
+    @Bean
+    public GlobalTableReplicator globalTableReplicator(ShardRoutingDataSource dataSource) {
+        return new GlobalTableReplicator(dataSource);
+    }
+
+    @Bean
+    public ShardingIntegrator shardingIntegrator(GlobalTableReplicator globalTableReplicator) {
+        return new ShardingIntegrator(globalTableReplicator);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingIntegratorCustomizer(ShardingIntegrator shardingIntegrator) {
+        return hibernateProperties -> hibernateProperties.put(
+                JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(shardingIntegrator));
+    }
+
+    /**
+     * Only needed when Hibernate manages the schema; otherwise shards are migrated like the coordinator.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.jpa.hibernate.ddl-auto", havingValue = "update")
+    public ShardSchemaInitializer shardSchemaInitializer(ShardingIntegrator shardingIntegrator,
+                                                         ShardRoutingDataSource dataSource) {
+        return new ShardSchemaInitializer(shardingIntegrator, dataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "rebalance-from")
+    public ShardRebalancer shardRebalancer(ShardRoutingDataSource dataSource,
+                                           GlobalTableReplicator globalTableReplicator,
+                                           ShardingProperties properties,
+                                           ConfigurableApplicationContext context) {
+        return new ShardRebalancer(dataSource, globalTableReplicator, properties.getRebalanceFrom(), context);
+    }
+
+    private static HikariDataSource shardPool(String name,
+                                              ShardingProperties.Shard shard,
+                                              DataSourceProperties coordinator) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(shard.getUrl());
+        pool.setUsername(shard.getUsername() != null ? shard.getUsername() : coordinator.determineUsername());
+        pool.setPassword(shard.getPassword() != null ? shard.getPassword() : coordinator.determinePassword());
+        pool.setDriverClassName(shard.getDriverClassName() != null
+                ? shard.getDriverClassName()
+                : coordinator.determineDriverClassName());
+        pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+        // Categories created on the coordinator mid-request are replicated by another
+        // connection; read committed lets the request's shard transaction see them
+        pool.setTransactionIsolation("TRANSACTION_READ_COMMITTED");
+        return pool;
+    }
+}
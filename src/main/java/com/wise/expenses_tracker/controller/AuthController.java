@@ -1,11 +1,15 @@
 package com.wise.expenses_tracker.controller;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.wise.expenses_tracker.security.PasswordHashingRejectedException;
 import com.wise.expenses_tracker.security.auth.AuthResponse;
 import com.wise.expenses_tracker.security.auth.request.AuthRequest;
 import com.wise.expenses_tracker.security.auth.request.RegisterRequest;
@@ -43,4 +47,11 @@ public class AuthController {
         UserDTO userDTO = userService.getCurrentUserDTO();
         return ResponseEntity.ok(userDTO);
     }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handleHashingRejected(PasswordHashingRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(exception.getMessage());
+    }
 }
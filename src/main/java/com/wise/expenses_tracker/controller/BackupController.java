@@ -0,0 +1,56 @@
+package com.wise.expenses_tracker.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.backup.InvalidBackupException;
+import com.wise.expenses_tracker.service.interfaces.BackupService;
+import com.wise.expenses_tracker.transferObject.RestoreSummaryDTO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/backup")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ledger", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class BackupController {
+    private final BackupService backupService;
+
+    @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Download a backup", description = "Streams the user's expenses, budgets and their categories as a binary archive")
+    @ApiResponse(responseCode = "200", description = "Backup archive")
+    public void downloadBackup(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses-backup.wxbk\"");
+        backupService.writeBackup(response.getOutputStream());
+    }
+
+    @PostMapping(value = "/restore", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Restore a backup", description = "Replaces the user's expenses and budgets with those in the archive, all or nothing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Backup restored"),
+        @ApiResponse(responseCode = "400", description = "Not a valid backup archive; nothing was changed")
+    })
+    public ResponseEntity<RestoreSummaryDTO> restoreBackup(InputStream archive) {
+        return ResponseEntity.ok(backupService.restoreBackup(archive));
+    }
+
+    @ExceptionHandler(InvalidBackupException.class)
+    public ResponseEntity<String> handleInvalidBackup(InvalidBackupException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+}
@@ -0,0 +1,46 @@
+package com.wise.expenses_tracker.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.service.interfaces.BatchService;
+import com.wise.expenses_tracker.transferObject.BatchOperationResultDTO;
+import com.wise.expenses_tracker.transferObject.BatchRequestDTO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class BatchController {
+    private final BatchService batchService;
+
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Run many expense operations in one request",
+        description = "Creates, reads, updates, patches and deletes of single expenses, run in order. "
+                + "Later operations can use @{ref} in their path for the id of an expense an earlier one returned"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "One result per operation, each with its own status"),
+        @ApiResponse(responseCode = "400", description = "No operations, more than 100, or an atomic batch in ledger mode")
+    })
+    public List<BatchOperationResultDTO> executeBatch(@Valid @RequestBody BatchRequestDTO request) {
+        return batchService.execute(request);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleUnsupported(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+}
@@ -3,16 +3,20 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.wise.expenses_tracker.service.CategoryConflictException;
 import com.wise.expenses_tracker.service.interfaces.CategoryService;
 import com.wise.expenses_tracker.transferObject.CategoryDTO;
 
@@ -67,7 +71,8 @@ public class CategoryController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Category updated successfully"),
         @ApiResponse(responseCode = "404", description = "Category not found"),
-        @ApiResponse(responseCode = "400", description = "Invalid category data provided")
+        @ApiResponse(responseCode = "400", description = "Invalid category data provided"),
+        @ApiResponse(responseCode = "409", description = "Another category already has this name")
     })
     @PutMapping("/categories/{id}")
     public ResponseEntity<CategoryDTO> updateCategory(@PathVariable Long id, @Valid @RequestBody CategoryDTO categoryDTO) {
@@ -76,15 +81,41 @@ public class CategoryController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Delete a category", description = "Remove a category by its unique identifier")
+    @Operation(summary = "Delete a category", description = "Remove a category by its unique identifier, optionally moving its expenses and budgets to another category first")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Category deleted successfully"),
-        @ApiResponse(responseCode = "404", description = "Category not found")
+        @ApiResponse(responseCode = "400", description = "reassignTo is the category itself"),
+        @ApiResponse(responseCode = "404", description = "Category (or reassignTo category) not found"),
+        @ApiResponse(responseCode = "409", description = "Category is still in use and no reassignTo was given")
     })
     @DeleteMapping("/categories/{id}")
-    public ResponseEntity<CategoryDTO> deleteCategory(@PathVariable Long id) {
-        return categoryService.deleteCategory(id)
+    public ResponseEntity<CategoryDTO> deleteCategory(@PathVariable Long id,
+                                                      @RequestParam(required = false) Long reassignTo) {
+        return (reassignTo == null ? categoryService.deleteCategory(id) : categoryService.deleteCategory(id, reassignTo))
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    @Operation(summary = "Merge a category into another", description = "Move all expenses and budgets of the category to the target category, then delete it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Categories merged; returns the target category"),
+        @ApiResponse(responseCode = "400", description = "Target is the category itself"),
+        @ApiResponse(responseCode = "404", description = "Category or target not found")
+    })
+    @PostMapping("/categories/{id}/merge")
+    public ResponseEntity<CategoryDTO> mergeCategory(@PathVariable Long id, @RequestParam Long into) {
+        return categoryService.mergeCategory(id, into)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(CategoryConflictException.class)
+    public ResponseEntity<String> handleCategoryConflict(CategoryConflictException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
 }
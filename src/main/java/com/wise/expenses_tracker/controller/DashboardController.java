@@ -0,0 +1,41 @@
+package com.wise.expenses_tracker.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.service.DashboardProperties;
+import com.wise.expenses_tracker.service.interfaces.DashboardService;
+import com.wise.expenses_tracker.transferObject.DashboardDTO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class DashboardController {
+    private final DashboardService dashboardService;
+    private final DashboardProperties properties;
+
+    @GetMapping("/dashboard")
+    @Operation(
+        summary = "Get the home screen in one call",
+        description = "Profile, totals per category, latest expenses and budget status, loaded in parallel. "
+                + "Sections that fail or time out are null and listed in 'unavailable'"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Dashboard, possibly partial")
+    })
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @Parameter(description = "How many of the latest expenses to include (capped by dashboard.max-recent-expenses)")
+            @RequestParam(required = false) Integer recent) {
+        int limit = recent != null ? recent : properties.getRecentExpenses();
+        return ResponseEntity.ok(dashboardService.getDashboard(Math.max(0, Math.min(limit, properties.getMaxRecentExpenses()))));
+    }
+}
@@ -0,0 +1,59 @@
+package com.wise.expenses_tracker.controller;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.service.interfaces.DistributionService;
+import com.wise.expenses_tracker.transferObject.ExpenseDistributionDTO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "distribution", name = "enabled", havingValue = "true")
+public class ExpenseDistributionController {
+    private final DistributionService distributionService;
+
+    @GetMapping("/expenses/distribution")
+    @Operation(
+        summary = "Get the distribution of expense amounts",
+        description = "Percentiles and a histogram of the current user's expense amounts over a range of months, "
+                + "in one category or all of them. Estimated from per-month sketches, within 'relativeError' "
+                + "of the exact values, at a cost that does not grow with the number of expenses"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Distribution, empty if there are no expenses in the range"),
+        @ApiResponse(responseCode = "400", description = "Invalid range, quantile or bin count")
+    })
+    public ResponseEntity<ExpenseDistributionDTO> getDistribution(
+            @Parameter(description = "Category name; all categories if absent")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "First month (UTC) as yyyy-MM; defaults to eleven months before 'to'")
+            @RequestParam(required = false) YearMonth from,
+            @Parameter(description = "Last month (UTC) as yyyy-MM; defaults to the current month")
+            @RequestParam(required = false) YearMonth to,
+            @Parameter(description = "Comma-separated quantiles between 0 and 1; defaults to 0.5,0.75,0.9,0.95,0.99")
+            @RequestParam(name = "q", required = false) List<Double> quantiles,
+            @Parameter(description = "Most histogram bins (capped by distribution.max-bins); defaults to 20")
+            @RequestParam(required = false) Integer bins) {
+        return ResponseEntity.ok(distributionService.getDistribution(category, from, to, quantiles, bins));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+}
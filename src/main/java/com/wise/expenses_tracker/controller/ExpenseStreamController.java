@@ -0,0 +1,56 @@
+package com.wise.expenses_tracker.controller;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.stream.ExpenseStreamHub;
+import com.wise.expenses_tracker.stream.StreamUnavailableException;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "expense-stream", name = "enabled", havingValue = "true")
+public class ExpenseStreamController {
+    private final ExpenseStreamHub expenseStreamHub;
+    private final UserService userService;
+
+    @GetMapping(value = "/expenses/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream expense changes",
+        description = "Server-Sent Events: 'expense' for every committed change to the current user's expenses "
+                + "and 'totals' with the new totals per category, sent once on connect as well. "
+                + "Replaces polling /api/expenses/category"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "503", description = "Node at its connection limit, retry after the Retry-After delay")
+    })
+    public void streamExpenses(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        expenseStreamHub.subscribe(userService.getCurrentUserId(), request, response);
+    }
+
+    @ExceptionHandler(StreamUnavailableException.class)
+    public ResponseEntity<String> handleStreamUnavailable(StreamUnavailableException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(exception.getMessage());
+    }
+}
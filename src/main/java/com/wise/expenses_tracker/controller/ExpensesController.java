@@ -4,20 +4,37 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.wise.expenses_tracker.duplicates.DuplicateExpenseException;
 import com.wise.expenses_tracker.service.interfaces.ExpensesService;
+import com.wise.expenses_tracker.transferObject.BulkResultDTO;
+import com.wise.expenses_tracker.transferObject.BulkUpdateExpensesDTO;
+import com.wise.expenses_tracker.transferObject.ExpenseETag;
+import com.wise.expenses_tracker.transferObject.ExpenseField;
+import com.wise.expenses_tracker.transferObject.ExpensePatchDTO;
 import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesSelectionDTO;
+import com.wise.expenses_tracker.transferObject.MissingIfMatchException;
+import com.wise.expenses_tracker.transferObject.UnknownFieldException;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
@@ -27,27 +44,44 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class ExpensesController {
+    private static final String FIELDS_DESCRIPTION = "Comma-separated fields to return, e.g. id,title,amount,date; "
+            + "only their columns are read, and categories only when category is listed";
+
     private final ExpensesService expensesService;
 
     @GetMapping("/expenses")
-    @Operation(summary = "Get all expenses", description = "Retrieve a list of all expenses")
+    @Operation(summary = "Get all expenses", description = "Retrieve a list of all expenses; with fields= only those fields (and the id) of each")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field in fields="),
         @ApiResponse(responseCode = "404", description = "No expenses found")
     })
-    public List<ExpensesDTO> getAllExpenses() {
+    public List<?> getAllExpenses(
+            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return expensesService.getAllExpenses(ExpenseField.parse(fields));
+        }
         return expensesService.getAllExpenses();
     }
 
     @GetMapping("/expenses/{id}")
-    @Operation(summary = "Get expense by ID", description = "Retrieve an expense by its unique identifier")
+    @Operation(summary = "Get expense by ID", description = "Retrieve an expense by its unique identifier; with fields= only those fields (and the id)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Expense found"),
+        @ApiResponse(responseCode = "200", description = "Expense found; the ETag is its version unless fields= leaves out the version"),
+        @ApiResponse(responseCode = "400", description = "Unknown field in fields="),
         @ApiResponse(responseCode = "404", description = "Expense not found")
     })
-    public ResponseEntity<ExpensesDTO> getExpenseById(@PathVariable Long id) {
+    public ResponseEntity<?> getExpenseById(@PathVariable Long id,
+            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return expensesService.getExpenseById(id, ExpenseField.parse(fields))
+                    .map(expense -> expense.containsKey(ExpenseField.VERSION.jsonName())
+                            ? ResponseEntity.ok().eTag(String.valueOf(expense.get(ExpenseField.VERSION.jsonName()))).body(expense)
+                            : ResponseEntity.ok(expense))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
         return expensesService.getExpenseById(id)
-                .map(ResponseEntity::ok)
+                .map(expense -> ResponseEntity.ok().eTag(String.valueOf(expense.getVersion())).body(expense))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -73,7 +107,8 @@ public class ExpensesController {
     @Operation(summary = "Create a new expense", description = "Add a new expense to the system")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Expense created successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid input data")
+        @ApiResponse(responseCode = "400", description = "Invalid input data"),
+        @ApiResponse(responseCode = "409", description = "Duplicates an existing expense (duplicates.mode=REJECT)")
     })
     public ResponseEntity<ExpensesDTO> createExpense(@Valid @RequestBody ExpensesDTO expensesDTO) throws URISyntaxException {
         ExpensesDTO savedExpense = expensesService.saveExpense(expensesDTO);
@@ -95,6 +130,23 @@ public class ExpensesController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("/expenses/{id}")
+    @Operation(summary = "Partially update an expense", description = "Change only the fields sent; the change is only applied to the version in If-Match, or to any version with If-Match: *")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Expense updated; the ETag header holds its new version"),
+        @ApiResponse(responseCode = "400", description = "No fields to change"),
+        @ApiResponse(responseCode = "404", description = "Expense not found"),
+        @ApiResponse(responseCode = "412", description = "The expense has changed since the version in If-Match"),
+        @ApiResponse(responseCode = "428", description = "No If-Match")
+    })
+    public ResponseEntity<Void> patchExpense(@PathVariable Long id,
+                                             @Valid @RequestBody ExpensePatchDTO patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return expensesService.patchExpense(id, patch, ExpenseETag.expectedVersion(id, ifMatch))
+                .map(version -> ResponseEntity.noContent().eTag(String.valueOf(version)).<Void>build())
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/expenses/{id}")
     @Operation(summary = "Delete an expense", description = "Delete an expense by its unique identifier")
     @ApiResponses(value = {
@@ -106,4 +158,47 @@ public class ExpensesController {
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    @PostMapping("/expenses/bulk-update")
+    @Operation(summary = "Update many expenses", description = "Set the category, report flag or description of every selected expense in one request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Expenses updated; returns how many"),
+        @ApiResponse(responseCode = "400", description = "Empty selection, no changes or too many ids")
+    })
+    public BulkResultDTO bulkUpdateExpenses(@Valid @RequestBody BulkUpdateExpensesDTO request) {
+        return new BulkResultDTO(expensesService.bulkUpdateExpenses(request));
+    }
+
+    @PostMapping("/expenses/bulk-delete")
+    @Operation(summary = "Delete many expenses", description = "Delete every selected expense in one request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Expenses deleted; returns how many"),
+        @ApiResponse(responseCode = "400", description = "Empty selection or too many ids")
+    })
+    public BulkResultDTO bulkDeleteExpenses(@Valid @RequestBody ExpensesSelectionDTO selection) {
+        return new BulkResultDTO(expensesService.bulkDeleteExpenses(selection));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleVersionConflict(ObjectOptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body("Expense " + exception.getIdentifier() + " was changed by another request; fetch it again");
+    }
+
+    @ExceptionHandler(MissingIfMatchException.class)
+    public ResponseEntity<String> handleMissingIfMatch(MissingIfMatchException exception) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(UnknownFieldException.class)
+    public ResponseEntity<String> handleUnknownField(UnknownFieldException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+
+    @ExceptionHandler(DuplicateExpenseException.class)
+    public ResponseEntity<String> handleDuplicateExpense(DuplicateExpenseException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .location(URI.create("/api/expenses/" + exception.getExistingExpenseId()))
+                .body(exception.getMessage());
+    }
 }
@@ -0,0 +1,78 @@
+package com.wise.expenses_tracker.controller;
+
+import java.net.URI;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.export.ExpenseExporter;
+import com.wise.expenses_tracker.export.ExportInProgressException;
+import com.wise.expenses_tracker.export.ExportStatus;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admin-only (see SecurityConfig) export of all expenses to columnar files on the server's disk.
+ */
+@RestController
+@RequestMapping("/api/admin/exports")
+@RequiredArgsConstructor
+public class ExportController {
+    private final ExpenseExporter expenseExporter;
+
+    @PostMapping
+    @Operation(summary = "Start an export", description = "Writes all expenses to columnar files, partitioned by month, in the background")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Export started"),
+        @ApiResponse(responseCode = "409", description = "Another export is running")
+    })
+    public ResponseEntity<ExportStatus> startExport() {
+        ExportStatus status = expenseExporter.start();
+        return ResponseEntity.accepted().location(location(status.id())).body(status);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get the progress of an export")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export found"),
+        @ApiResponse(responseCode = "404", description = "No such export")
+    })
+    public ResponseEntity<ExportStatus> getExport(@PathVariable String id) {
+        return expenseExporter.status(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume an export", description = "Redoes only the tasks an interrupted or failed export did not finish")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Export resumed (or already complete)"),
+        @ApiResponse(responseCode = "404", description = "No such export"),
+        @ApiResponse(responseCode = "409", description = "Another export is running")
+    })
+    public ResponseEntity<ExportStatus> resumeExport(@PathVariable String id) {
+        return expenseExporter.resume(id)
+                .map(status -> ResponseEntity.accepted().location(location(id)).body(status))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(ExportInProgressException.class)
+    public ResponseEntity<String> handleExportInProgress(ExportInProgressException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .location(location(exception.getRunningExportId()))
+                .body(exception.getMessage());
+    }
+
+    private static URI location(String id) {
+        return URI.create("/api/admin/exports/" + id);
+    }
+}
@@ -0,0 +1,62 @@
+package com.wise.expenses_tracker.controller;
+
+import java.net.URI;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wise.expenses_tracker.duplicates.DuplicateExpenseException;
+import com.wise.expenses_tracker.ingestion.IngestionRejectedException;
+import com.wise.expenses_tracker.service.interfaces.IngestionService;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ingestion", name = "enabled", havingValue = "true")
+public class IngestionController {
+    private final IngestionService ingestionService;
+
+    @PostMapping("/expenses/ingest")
+    @Operation(
+        summary = "Queue an expense for insertion",
+        description = "For high-frequency feeds: acknowledges once the expense is durably queued; it is inserted shortly after"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Expense queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid input data"),
+        @ApiResponse(responseCode = "409", description = "Duplicates an existing expense (duplicates.mode=REJECT)"),
+        @ApiResponse(responseCode = "503", description = "Queue full, retry after the Retry-After delay")
+    })
+    public ResponseEntity<Void> ingestExpense(@Valid @RequestBody ExpensesDTO expensesDTO) {
+        ingestionService.ingestExpense(expensesDTO);
+        return ResponseEntity.accepted().build();
+    }
+
+    @ExceptionHandler(IngestionRejectedException.class)
+    public ResponseEntity<String> handleIngestionRejected(IngestionRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(exception.getMessage());
+    }
+
+    @ExceptionHandler(DuplicateExpenseException.class)
+    public ResponseEntity<String> handleDuplicateExpense(DuplicateExpenseException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .location(URI.create("/api/expenses/" + exception.getExistingExpenseId()))
+                .body(exception.getMessage());
+    }
+}
@@ -0,0 +1,63 @@
+package com.wise.expenses_tracker.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.wise.expenses_tracker.model.UserEntity;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+
+/**
+ * Remembers which users wrote recently, so their reads can be kept on the primary.
+ *
+ * A user is pinned when a change to their expenses commits (an ExpensesChangedEvent
+ * for that user, whichever thread published it) and stays pinned for the configured
+ * window. Changes to all users at once, such as category renames, pin nobody. Entries past
+ * their window are swept, so memory is bounded by the users writing within one window.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        if (windowNanos > 0 && !event.affectsAllUsers()) {
+            pinnedUntil.put(event.getUserId(), System.nanoTime() + windowNanos);
+        }
+    }
+
+    /**
+     * @return whether the user on the current thread wrote within the window
+     */
+    public boolean isCurrentUserPinned() {
+        if (pinnedUntil.isEmpty()) {
+            return false;
+        }
+        Long userId = currentUserId();
+        Long until = userId != null ? pinnedUntil.get(userId) : null;
+        return until != null && System.nanoTime() - until < 0;
+    }
+
+    @Scheduled(fixedDelayString = "${replica-routing.health-check-interval:PT5S}")
+    public void evictExpiredPins() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> now - until >= 0);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserEntity user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.wise.expenses_tracker.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ *
+ * Replicas are picked round-robin among those that passed their last health check.
+ * Reads fall back to the primary when no replica is healthy, when the current user is
+ * pinned by the ReadYourWritesTracker, or when the chosen replica fails to hand out a
+ * connection (which also marks it down until the next successful probe).
+ *
+ * The routing decision reads the transaction's read-only flag, which Spring only sets
+ * after the transaction has begun, so this must sit behind a LazyConnectionDataSourceProxy
+ * (see ReplicaRoutingConfig).
+ *
+ * Metrics: {@code datasource.routing.connections} (tag target) and
+ * {@code datasource.replica.healthy} (tag replica, 1 or 0).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final int healthCheckTimeoutSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> connectionCounters = new HashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    Map<String, DataSource> replicaDataSources,
+                                    ReadYourWritesTracker readYourWritesTracker,
+                                    ReplicaRoutingProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.replicas = replicaDataSources.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, properties.getHealthCheckTimeout().toSeconds());
+
+        Map<Object, Object> targets = new HashMap<>(replicaDataSources);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        for (Object key : targets.keySet()) {
+            connectionCounters.put((String) key, Counter.builder("datasource.routing.connections")
+                    .tag("target", (String) key)
+                    .description("Connections handed out per routing target")
+                    .register(meterRegistry));
+        }
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWritesTracker.isCurrentUserPinned()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect((String) determineCurrentLookupKey(), null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect((String) determineCurrentLookupKey(), username, password);
+    }
+
+    /**
+     * Probes every replica and updates its health flag.
+     */
+    @Scheduled(fixedDelayString = "${replica-routing.health-check-interval:PT5S}")
+    public void checkReplicaHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(healthCheckTimeoutSeconds);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+
+    private Connection connect(String key, String username, String password) throws SQLException {
+        DataSource target = getResolvedDataSources().get(key);
+        try {
+            Connection connection = username == null
+                    ? target.getConnection()
+                    : target.getConnection(username, password);
+            connectionCounters.get(key).increment();
+            return connection;
+        } catch (SQLException e) {
+            if (PRIMARY.equals(key)) {
+                throw e;
+            }
+            replicas.stream()
+                    .filter(replica -> replica.name.equals(key))
+                    .forEach(replica -> replica.setHealthy(false));
+            return connect(PRIMARY, username, password);
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                log.warn("Replica '{}' is now {}", name, healthy ? "healthy" : "down, reads fall back to the primary");
+            }
+            this.healthy = healthy;
+        }
+    }
+}
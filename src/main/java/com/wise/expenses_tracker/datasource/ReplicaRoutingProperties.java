@@ -0,0 +1,47 @@
+package com.wise.expenses_tracker.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Read-replica routing (prefix {@code replica-routing}).
+ *
+ * The primary is still configured through {@code spring.datasource.*}; each replica gets
+ * its own pool. Username, password and driver default to the primary's when left empty.
+ */
+@Data
+@ConfigurationProperties(prefix = "replica-routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** How often every replica is probed */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /** How long a probe may take before the replica counts as down */
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * After a user's write commits, that user's read-only transactions stay on the
+     * primary for this long so they see their own change despite replication lag.
+     * Zero disables pinning.
+     */
+    private Duration readYourWritesWindow = Duration.ZERO;
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
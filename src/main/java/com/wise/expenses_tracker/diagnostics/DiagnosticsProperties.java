@@ -0,0 +1,41 @@
+package com.wise.expenses_tracker.diagnostics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Settings for the opt-in request diagnostics (prefix {@code diagnostics}).
+ *
+ * Query budgets are keyed by "Service.method", for example
+ * {@code diagnostics.query-budgets[ExpensesService.getCategoryExpenses]=3}.
+ */
+@Data
+@ConfigurationProperties(prefix = "diagnostics")
+public class DiagnosticsProperties {
+
+    /** Enables request timing, statement counting and query budget checks */
+    private boolean enabled = false;
+
+    /** Adds the Server-Timing header to responses while diagnostics are enabled */
+    private boolean serverTimingHeader = true;
+
+    /**
+     * Largest response body held back until the request completes, so the header covers
+     * serialization; larger bodies are sent as they are written
+     */
+    private DataSize serverTimingBufferLimit = DataSize.ofMegabytes(1);
+
+    /**
+     * Throw QueryBudgetExceededException instead of logging a warning (useful in tests);
+     * the operation has completed by then and is not rolled back
+     */
+    private boolean failOnBudgetExceeded = false;
+
+    /** Maximum number of SQL statements per service operation */
+    private Map<String, Integer> queryBudgets = new HashMap<>();
+}
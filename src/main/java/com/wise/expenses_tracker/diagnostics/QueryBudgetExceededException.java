@@ -0,0 +1,12 @@
+package com.wise.expenses_tracker.diagnostics;
+
+/**
+ * Thrown when an operation issues more SQL statements than its configured
+ * query budget and diagnostics are set to fail instead of warn.
+ */
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    public QueryBudgetExceededException(String operation, int budget, int statements) {
+        super("Query budget exceeded for " + operation + ": " + statements + " statements (budget " + budget + ")");
+    }
+}
@@ -0,0 +1,167 @@
+package com.wise.expenses_tracker.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Per-request timing accumulator used by the opt-in diagnostics mode.
+ *
+ * Each request handled while diagnostics are enabled gets its own instance bound
+ * to the current thread. Timed sections are tracked as a stack of frames so every
+ * segment only records its exclusive time: a repository call made from a service
+ * method is counted under "repo" and not a second time under "mapping".
+ *
+ * When no instance is bound (diagnostics disabled) every static method is a no-op.
+ */
+public final class RequestTimings {
+
+    public static final String JWT = "jwt";
+    public static final String USER = "user";
+    public static final String REPOSITORY = "repo";
+    public static final String MAPPING = "mapping";
+    public static final String SERIALIZATION = "serialize";
+    public static final String TOTAL = "total";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Segment> segments = new LinkedHashMap<>();
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private int statements;
+    private long handlerReturnedNanos;
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Binds a fresh accumulator to the current thread.
+     *
+     * @return the new accumulator
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * @return the accumulator bound to the current thread, or null if diagnostics are not active
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Counts one SQL statement against the current request.
+     */
+    public static void countStatement() {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.statements++;
+        }
+    }
+
+    /**
+     * Opens a timed frame for the given segment.
+     *
+     * @param segment the segment name, one of the constants of this class
+     */
+    public void enter(String segment) {
+        frames.push(new Frame(segment, System.nanoTime()));
+    }
+
+    /**
+     * Closes the innermost frame and records its exclusive duration.
+     */
+    public void exit() {
+        Frame frame = frames.pop();
+        long elapsed = System.nanoTime() - frame.startNanos;
+        segments.computeIfAbsent(frame.segment, name -> new Segment()).add(elapsed - frame.childNanos);
+        if (!frames.isEmpty()) {
+            frames.peek().childNanos += elapsed;
+        }
+    }
+
+    /**
+     * @param segment the segment name to look for
+     * @return true if a frame for the segment is currently open
+     */
+    public boolean isWithin(String segment) {
+        for (Frame frame : frames) {
+            if (frame.segment.equals(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void markHandlerReturned() {
+        handlerReturnedNanos = System.nanoTime();
+    }
+
+    public long getHandlerReturnedNanos() {
+        return handlerReturnedNanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Records a duration that was measured outside of the frame stack.
+     */
+    public void record(String segment, long nanos) {
+        segments.computeIfAbsent(segment, name -> new Segment()).add(nanos);
+    }
+
+    /**
+     * Renders the collected segments as a Server-Timing header value, e.g.
+     * {@code jwt;dur=0.41, user;dur=1.20, repo;dur=6.03;desc="3 calls, 4 statements"}.
+     *
+     * @return the header value
+     */
+    public String toServerTimingHeader() {
+        record(TOTAL, System.nanoTime() - startNanos);
+
+        StringJoiner header = new StringJoiner(", ");
+        segments.forEach((name, segment) -> {
+            StringBuilder entry = new StringBuilder(name)
+                    .append(";dur=")
+                    .append(String.format("%.2f", segment.nanos / 1_000_000.0));
+            if (REPOSITORY.equals(name)) {
+                entry.append(";desc=\"").append(segment.count).append(" calls, ")
+                        .append(statements).append(" statements\"");
+            }
+            header.add(entry);
+        });
+        return header.toString();
+    }
+
+    private static final class Frame {
+        private final String segment;
+        private final long startNanos;
+        private long childNanos;
+
+        private Frame(String segment, long startNanos) {
+            this.segment = segment;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private static final class Segment {
+        private long nanos;
+        private int count;
+
+        private void add(long elapsed) {
+            nanos += elapsed;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.wise.expenses_tracker.diagnostics;
+
+import java.io.IOException;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outermost filter of the diagnostics mode.
+ *
+ * Binds a RequestTimings accumulator for the request and, once the rest of the
+ * chain has run, writes the collected segments as a Server-Timing header.
+ * The response body is held back so the header can still be added after the
+ * controller result has been serialized; the time between the controller
+ * returning and the chain completing is reported as the "serialize" segment.
+ * Streamed responses (event streams, downloads, async requests and bodies beyond
+ * {@code server-timing-buffer-limit}) are not held back; they get the header with
+ * the segments measured until the body started (see TimingResponseWrapper).
+ */
+@RequiredArgsConstructor
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final DiagnosticsProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+        ) throws ServletException, IOException {
+
+        RequestTimings timings = RequestTimings.start();
+        TimingResponseWrapper responseWrapper = new TimingResponseWrapper(response,
+                (int) properties.getServerTimingBufferLimit().toBytes(), () -> {
+                    if (properties.isServerTimingHeader()) {
+                        response.setHeader("Server-Timing", timings.toServerTimingHeader());
+                    }
+                });
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            RequestTimings.clear();
+            // An async request is written by another thread later on, so nothing is held back for it
+            if (!request.isAsyncStarted() && !responseWrapper.isWritingThrough()
+                    && timings.getHandlerReturnedNanos() != 0) {
+                timings.record(RequestTimings.SERIALIZATION, System.nanoTime() - timings.getHandlerReturnedNanos());
+            }
+            responseWrapper.writeThrough();
+        }
+    }
+}
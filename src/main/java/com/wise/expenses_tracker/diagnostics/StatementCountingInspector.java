@@ -0,0 +1,16 @@
+package com.wise.expenses_tracker.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate StatementInspector that counts every prepared SQL statement
+ * against the request currently being timed. The SQL itself is returned unchanged.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTimings.countStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,205 @@
+package com.wise.expenses_tracker.diagnostics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Holds the response body back until {@link #writeThrough()}, so ServerTimingFilter can
+ * still add the Server-Timing header after the controller result has been serialized.
+ *
+ * Bodies that are streamed are not held back: an event stream or a binary download
+ * (by content type), and any body beyond {@code limit} bytes, switch to writing through
+ * as soon as they start, after {@code beforeCommit} has added the header with the
+ * segments measured so far. Async requests are switched by the filter when the
+ * initial dispatch returns, and a non-blocking writer is switched when it sets its
+ * WriteListener, which then goes to the response's own stream.
+ */
+class TimingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final String EVENT_STREAM = "text/event-stream";
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private final int limit;
+    private final Runnable beforeCommit;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private boolean writingThrough;
+
+    TimingResponseWrapper(HttpServletResponse response, int limit, Runnable beforeCommit) {
+        super(response);
+        this.limit = limit;
+        this.beforeCommit = beforeCommit;
+    }
+
+    boolean isWritingThrough() {
+        return writingThrough;
+    }
+
+    /**
+     * Runs {@code beforeCommit} (the first time only), sends the body written so far and
+     * lets everything written from now on through.
+     */
+    void writeThrough() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        startWritingThrough();
+    }
+
+    /**
+     * Like {@link #writeThrough()} without flushing the writer, for the output stream the
+     * writer itself writes to.
+     */
+    private void startWritingThrough() throws IOException {
+        if (writingThrough) {
+            return;
+        }
+        writingThrough = true;
+        beforeCommit.run();
+        if (buffer.size() > 0) {
+            buffer.writeTo(getResponse().getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writingThrough || isStream()) {
+            startWritingThrough();
+            if (outputStream == null) {
+                return getResponse().getOutputStream();
+            }
+        }
+        if (outputStream == null) {
+            outputStream = new HeldBackOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (writingThrough || isStream()) {
+                startWritingThrough();
+                return getResponse().getWriter();
+            }
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        // Flushing would commit the response before the header is added
+        if (writingThrough) {
+            getResponse().flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        buffer.reset();
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        buffer.reset();
+        super.reset();
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        writeThrough();
+        super.sendError(status, message);
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        writeThrough();
+        super.sendError(status);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        writeThrough();
+        super.sendRedirect(location);
+    }
+
+    private boolean isStream() {
+        String contentType = getContentType();
+        return contentType != null && (contentType.startsWith(EVENT_STREAM) || contentType.startsWith(OCTET_STREAM));
+    }
+
+    /**
+     * Writes to the buffer until the response writes through, then to the response.
+     */
+    private class HeldBackOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (writingThrough) {
+                getResponse().getOutputStream().write(b);
+                return;
+            }
+            buffer.write(b);
+            if (buffer.size() > limit) {
+                startWritingThrough();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (writingThrough) {
+                getResponse().getOutputStream().write(bytes, offset, length);
+                return;
+            }
+            buffer.write(bytes, offset, length);
+            if (buffer.size() > limit) {
+                startWritingThrough();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (writingThrough) {
+                getResponse().getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            if (!writingThrough) {
+                return true;
+            }
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Sends what is held back while writes still block, then hands the listener to
+         * the response's stream, which the writer's further calls reach through this one.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                startWritingThrough();
+                getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
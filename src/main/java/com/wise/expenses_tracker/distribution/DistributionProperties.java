@@ -0,0 +1,23 @@
+package com.wise.expenses_tracker.distribution;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Per-category, per-month quantile sketches of expense amounts (prefix {@code distribution}),
+ * off unless {@code distribution.enabled=true}.
+ */
+@Data
+@ConfigurationProperties(prefix = "distribution")
+public class DistributionProperties {
+
+    /** Keep the sketches up to date on every expense write and serve GET /api/expenses/distribution */
+    private boolean enabled = false;
+
+    /** Longest range one distribution request may merge, in months */
+    private int maxMonths = 120;
+
+    /** Most histogram bins one distribution request may ask for */
+    private int maxBins = 100;
+}
@@ -0,0 +1,281 @@
+package com.wise.expenses_tracker.distribution;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.model.ExpenseSketchEntity;
+import com.wise.expenses_tracker.model.ExpenseSketchStatusEntity;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+import com.wise.expenses_tracker.repository.ExpenseSketchRepository;
+import com.wise.expenses_tracker.repository.ExpenseSketchStatusRepository;
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+import com.wise.expenses_tracker.sharding.ShardContext;
+import com.wise.expenses_tracker.sharding.ShardRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-user quantile sketches of expense amounts by category and month (see
+ * QuantileSketch), stored on the user's shard, so a distribution over any range costs
+ * one merge per category and month instead of a scan of the expenses.
+ *
+ * Single-expense writes call {@link #record} in their own transaction with the expense's
+ * values before and after, and the sketches change with them. Every change to a user's
+ * sketches first locks the user's status row, which orders writes against each other and
+ * against rebuilds. Changes that are not about one expense (bulk edits, ledger
+ * projections, ingestion, restores, category merges) mark the sketches incomplete once
+ * committed instead, and the next read rebuilds them from the expenses, on the primary,
+ * in one transaction.
+ *
+ * A user's status row is created by the first write or read that needs it and then kept,
+ * so that a write running while the first rebuild scans is always ordered by the lock.
+ * On startup every status row is marked incomplete, since writes made while the feature
+ * was disabled never reached the sketches.
+ *
+ * Metrics: {@code expenses.sketches.rebuilds}.
+ */
+@Component
+public class ExpenseSketches {
+
+    private final DistributionProperties properties;
+    private final ExpenseSketchRepository sketchRepository;
+    private final ExpenseSketchStatusRepository statusRepository;
+    private final ExpensesRepository expensesRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate newTransaction;
+    private final Counter rebuilds;
+
+    /**
+     * What a sketch holds of one expense; expenses without a category, date or amount
+     * are left out of the sketches.
+     */
+    public record Point(Long categoryId, Instant date, Double amount) {
+
+        public static Point of(ExpensesEntity expense) {
+            return new Point(
+                    expense.getCategoryEntity() != null ? expense.getCategoryEntity().getId() : null,
+                    expense.getDate(),
+                    expense.getAmount());
+        }
+
+        boolean isSketched() {
+            return categoryId != null && date != null && amount != null;
+        }
+    }
+
+    private record SketchKey(long categoryId, int month) {
+    }
+
+    public ExpenseSketches(DistributionProperties properties,
+                           ExpenseSketchRepository sketchRepository,
+                           ExpenseSketchStatusRepository statusRepository,
+                           ExpensesRepository expensesRepository,
+                           DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sketchRepository = sketchRepository;
+        this.statusRepository = statusRepository;
+        this.expensesRepository = expensesRepository;
+        this.dataSource = dataSource;
+        // Not read-only, so replica routing keeps it on the primary, and a new transaction
+        // even when the caller's is read-only
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuilds = Counter.builder("expenses.sketches.rebuilds")
+                .description("Users whose expense sketches were rebuilt from their expenses")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Moves one expense's amount between sketches. Must run in the transaction that
+     * writes the expense, after the write, so the status lock is taken last.
+     *
+     * @param before the expense before the write, null if it was created
+     * @param after  the expense after the write, null if it was deleted
+     */
+    public void record(long userId, Point before, Point after) {
+        if (!properties.isEnabled() || Objects.equals(before, after)) {
+            return;
+        }
+        ExpenseSketchStatusEntity status = lockStatus(userId);
+        if (!status.isComplete()) {
+            return;
+        }
+        boolean consistent = before == null || apply(userId, before, false);
+        if (consistent && after != null) {
+            apply(userId, after, true);
+        }
+        if (!consistent) {
+            // The sketches never saw this expense; start over from the expenses
+            status.setComplete(false);
+        }
+    }
+
+    /**
+     * The user's sketches for the months from {@code from} to {@code to}, both inclusive,
+     * merged into one, after rebuilding them if they are incomplete.
+     *
+     * @param categoryId null for all categories
+     */
+    public QuantileSketch merged(long userId, Long categoryId, YearMonth from, YearMonth to) {
+        return newTransaction.execute(transaction -> {
+            boolean complete = statusRepository.findById(userId)
+                    .map(ExpenseSketchStatusEntity::isComplete)
+                    .orElse(false);
+            if (!complete) {
+                rebuild(userId);
+            }
+            List<byte[]> sketches = categoryId != null
+                    ? sketchRepository.findDataByCategory(userId, categoryId, monthKey(from), monthKey(to))
+                    : sketchRepository.findData(userId, monthKey(from), monthKey(to));
+            QuantileSketch merged = new QuantileSketch();
+            for (byte[] data : sketches) {
+                merged.merge(QuantileSketch.decode(data));
+            }
+            return merged;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void markAllIncomplete() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String target : ShardRoutingDataSource.expenseTargets(dataSource)) {
+            onTarget(target, statusRepository::markAllIncomplete);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        // Single-expense changes were recorded in their own transaction
+        if (!properties.isEnabled() || event.getKind() != null) {
+            return;
+        }
+        if (event.affectsAllUsers()) {
+            for (String target : ShardRoutingDataSource.expenseTargets(dataSource)) {
+                onTarget(target, statusRepository::markAllIncomplete);
+            }
+        } else {
+            long userId = event.getUserId();
+            onTarget(ShardRoutingDataSource.expenseTargetFor(dataSource, userId), () -> statusRepository.markIncomplete(userId));
+        }
+    }
+
+    /**
+     * yyyymm, as stored in Expense_Sketches.expense_month
+     */
+    static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static int monthKey(Instant date) {
+        return monthKey(YearMonth.from(date.atOffset(ZoneOffset.UTC)));
+    }
+
+    /**
+     * @return false if {@code point} was to be removed but its sketch does not hold it
+     */
+    private boolean apply(long userId, Point point, boolean add) {
+        if (!point.isSketched()) {
+            return true;
+        }
+        int month = monthKey(point.date());
+        Optional<ExpenseSketchEntity> row = sketchRepository.findSketch(userId, point.categoryId(), month);
+        QuantileSketch sketch = row.map(existing -> QuantileSketch.decode(existing.getData()))
+                .orElseGet(QuantileSketch::new);
+        if (add) {
+            sketch.add(point.amount());
+        } else if (!sketch.remove(point.amount())) {
+            return false;
+        }
+        if (sketch.isEmpty()) {
+            row.ifPresent(sketchRepository::delete);
+        } else {
+            ExpenseSketchEntity entity = row.orElseGet(
+                    () -> new ExpenseSketchEntity(null, userId, point.categoryId(), month, null));
+            entity.setData(sketch.encode());
+            sketchRepository.save(entity);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the user's sketches with ones built from their expenses, unless another
+     * rebuild completed them while this one waited for the lock.
+     */
+    private void rebuild(long userId) {
+        ExpenseSketchStatusEntity status = lockStatus(userId);
+        if (status.isComplete()) {
+            return;
+        }
+        Map<SketchKey, QuantileSketch> sketches = new HashMap<>();
+        for (Object[] row : expensesRepository.findSketchPointsByUser(userId)) {
+            Point point = new Point((Long) row[0], (Instant) row[1], (Double) row[2]);
+            if (point.isSketched()) {
+                sketches.computeIfAbsent(new SketchKey(point.categoryId(), monthKey(point.date())), key -> new QuantileSketch())
+                        .add(point.amount());
+            }
+        }
+        sketchRepository.deleteByUser(userId);
+        sketchRepository.saveAll(sketches.entrySet().stream()
+                .map(entry -> new ExpenseSketchEntity(null, userId, entry.getKey().categoryId(), entry.getKey().month(),
+                        entry.getValue().encode()))
+                .toList());
+        status.setComplete(true);
+        rebuilds.increment();
+    }
+
+    /**
+     * Locks the user's status row in the current transaction, creating it (incomplete)
+     * first if needed.
+     */
+    private ExpenseSketchStatusEntity lockStatus(long userId) {
+        Optional<ExpenseSketchStatusEntity> status = statusRepository.findForUpdate(userId);
+        if (status.isPresent()) {
+            return status.get();
+        }
+        try {
+            // Committed on its own, so concurrent transactions can wait on its lock
+            newTransaction.executeWithoutResult(transaction ->
+                    statusRepository.saveAndFlush(new ExpenseSketchStatusEntity(userId, false)));
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently
+        }
+        return statusRepository.findForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("No sketch status for user " + userId));
+    }
+
+    private void onTarget(String target, Runnable update) {
+        String previous = ShardContext.override(target);
+        try {
+            newTransaction.executeWithoutResult(transaction -> update.run());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
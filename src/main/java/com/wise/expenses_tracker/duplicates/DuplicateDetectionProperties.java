@@ -0,0 +1,34 @@
+package com.wise.expenses_tracker.duplicates;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Duplicate detection for new expenses (prefix {@code duplicates}), off unless
+ * {@code duplicates.enabled=true}. Fingerprints are written either way, so it can be
+ * switched on later without a backfill.
+ */
+@Data
+@ConfigurationProperties(prefix = "duplicates")
+public class DuplicateDetectionProperties {
+
+    public enum Mode { FLAG, REJECT }
+
+    private boolean enabled = false;
+
+    /** FLAG stores the id of the existing expense on the new one, REJECT answers 409 */
+    private Mode mode = Mode.FLAG;
+
+    /** Dates this many days apart still count as the same expense (statements often shift by a day) */
+    private int windowDays = 1;
+
+    /**
+     * Fewest expenses the in-memory filter is sized for; it is sized for twice the
+     * expenses at startup when that is more. Beyond its size false positives rise.
+     */
+    private long expectedExpenses = 1_000_000;
+
+    /** Share of new expenses that cost a lookup although they are unique, at the expected size */
+    private double falsePositiveRate = 0.01;
+}
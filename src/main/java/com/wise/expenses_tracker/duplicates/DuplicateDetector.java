@@ -0,0 +1,232 @@
+package com.wise.expenses_tracker.duplicates;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.wise.expenses_tracker.sharding.ShardContext;
+import com.wise.expenses_tracker.sharding.ShardRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Detects new expenses that repeat one the user already has, e.g. from re-imported
+ * statements or retried syncs.
+ *
+ * Each expense row carries its fingerprint (see ExpenseFingerprint) in an indexed column.
+ * A new expense is checked against the fingerprints of the same expense dated up to
+ * {@code window-days} apart: first in an in-memory Bloom filter holding every known
+ * fingerprint, and only if the filter reports a possible match with one indexed lookup.
+ * The common case, a unique expense, therefore costs no query. Until the filter has
+ * been loaded at startup every check does the lookup. The filter is sized at startup
+ * for twice the expenses there are, or {@code expected-expenses} if that is more, and
+ * loaded (and missing fingerprints backfilled) in pages by id, so neither needs the
+ * whole table in memory.
+ *
+ * A match is either stored on the new expense ({@code duplicate_of}) or rejected with
+ * DuplicateExpenseException, depending on {@code duplicates.mode}. Two identical
+ * requests racing each other can both get through, since neither sees the other's
+ * uncommitted row.
+ *
+ * Metrics: {@code duplicates.checks} (tag outcome=unique|false_positive|duplicate).
+ */
+@Slf4j
+@Component
+public class DuplicateDetector {
+
+    private static final String FIND = "SELECT MIN(id) FROM expenses WHERE user_id = ? AND fingerprint IN (%s)";
+    private static final String UNFINGERPRINTED = "SELECT id, user_id, date, amount, pay_by, title FROM expenses"
+            + " WHERE fingerprint IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String SET_FINGERPRINT = "UPDATE expenses SET fingerprint = ? WHERE id = ?";
+    private static final String FINGERPRINTS = "SELECT id, fingerprint FROM expenses WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM expenses";
+    private static final int PAGE_SIZE = 1000;
+    /** Expenses the filter is sized for, per expense at startup, so it stays accurate while the table grows */
+    private static final int SIZE_HEADROOM = 2;
+
+    private final DuplicateDetectionProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final String find;
+    private final Counter unique;
+    private final Counter falsePositive;
+    private final Counter duplicate;
+    // Created by load(), and trusted by screen() once loaded
+    private volatile FingerprintFilter filter;
+    private volatile boolean loaded;
+
+    public DuplicateDetector(DuplicateDetectionProperties properties,
+                             JdbcTemplate jdbcTemplate,
+                             DataSource dataSource,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.find = String.format(FIND, String.join(", ", Collections.nCopies(2 * properties.getWindowDays() + 1, "?")));
+        this.unique = counter(meterRegistry, "unique");
+        this.falsePositive = counter(meterRegistry, "false_positive");
+        this.duplicate = counter(meterRegistry, "duplicate");
+    }
+
+    /**
+     * Sizes the filter, fingerprints rows written before the column existed and loads
+     * every fingerprint into the filter.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<String> targets = ShardRoutingDataSource.expenseTargets(dataSource);
+        long expenses = 0;
+        for (String target : targets) {
+            expenses += onTarget(target, () -> jdbcTemplate.queryForObject(COUNT, Long.class));
+        }
+        // Published before loading, so fingerprints remembered meanwhile are kept
+        FingerprintFilter sized = new FingerprintFilter(
+                Math.max(properties.getExpectedExpenses(), SIZE_HEADROOM * expenses), properties.getFalsePositiveRate());
+        filter = sized;
+        long backfilled = 0;
+        long fingerprints = 0;
+        for (String target : targets) {
+            backfilled += onTarget(target, this::backfill);
+            fingerprints += onTarget(target, () -> loadFingerprints(sized));
+        }
+        loaded = true;
+        log.info("Duplicate filter loaded in {} ms ({} KB, {} fingerprints, {} rows fingerprinted)",
+                (System.nanoTime() - started) / 1_000_000, sized.sizeInBytes() / 1024, fingerprints, backfilled);
+    }
+
+    /**
+     * Checks a new expense of the user and remembers its fingerprint.
+     *
+     * @return the id of the existing expense it repeats, in FLAG mode
+     * @throws DuplicateExpenseException in REJECT mode, when it repeats one
+     */
+    public Optional<Long> screen(long userId, Instant date, Double amount, String payBy, String title) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        long[] candidates = ExpenseFingerprint.candidates(userId, date, amount, payBy, title, properties.getWindowDays());
+        FingerprintFilter current = filter;
+        if (loaded && Arrays.stream(candidates).noneMatch(current::mightContain)) {
+            unique.increment();
+            remember(userId, date, amount, payBy, title);
+            return Optional.empty();
+        }
+
+        Object[] arguments = new Object[1 + 2 * properties.getWindowDays() + 1];
+        arguments[0] = userId;
+        for (int i = 0; i < arguments.length - 1; i++) {
+            // A null date yields a single candidate; repeat it to fill the placeholders
+            arguments[i + 1] = candidates[Math.min(i, candidates.length - 1)];
+        }
+        Long existing = jdbcTemplate.queryForObject(find, Long.class, arguments);
+        if (existing == null) {
+            falsePositive.increment();
+            remember(userId, date, amount, payBy, title);
+            return Optional.empty();
+        }
+        duplicate.increment();
+        if (properties.getMode() == DuplicateDetectionProperties.Mode.REJECT) {
+            throw new DuplicateExpenseException(existing);
+        }
+        return Optional.of(existing);
+    }
+
+    /**
+     * Adds the fingerprint of an expense written without {@link #screen}, e.g. an update.
+     */
+    public void remember(long userId, Instant date, Double amount, String payBy, String title) {
+        FingerprintFilter current = filter;
+        if (current != null) {
+            current.add(ExpenseFingerprint.of(userId, date, amount, payBy, title));
+        }
+    }
+
+    /**
+     * Fingerprints the rows without one, a page of ids at a time.
+     *
+     * @return the number of rows fingerprinted
+     */
+    private long backfill() {
+        long backfilled = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object[]> updates = new ArrayList<>(PAGE_SIZE);
+            jdbcTemplate.query(UNFINGERPRINTED, row -> {
+                Timestamp date = row.getTimestamp(3);
+                double amount = row.getDouble(4);
+                boolean hasAmount = !row.wasNull();
+                updates.add(new Object[] {
+                    ExpenseFingerprint.of(row.getLong(2), date != null ? date.toInstant() : null,
+                            hasAmount ? amount : null, row.getString(5), row.getString(6)),
+                    row.getLong(1)
+                });
+            }, lastId, PAGE_SIZE);
+            if (updates.isEmpty()) {
+                return backfilled;
+            }
+            jdbcTemplate.batchUpdate(SET_FINGERPRINT, updates);
+            backfilled += updates.size();
+            lastId = (Long) updates.get(updates.size() - 1)[1];
+        }
+    }
+
+    /**
+     * Adds every fingerprint to the filter, a page of ids at a time.
+     *
+     * @return the number of fingerprints added
+     */
+    private long loadFingerprints(FingerprintFilter target) {
+        long added = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long[]> page = jdbcTemplate.query(FINGERPRINTS,
+                    (row, rowNumber) -> new Long[] { row.getLong(1), row.getObject(2, Long.class) }, lastId, PAGE_SIZE);
+            for (Long[] row : page) {
+                if (row[1] != null) {
+                    target.add(row[1]);
+                    added++;
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                return added;
+            }
+            lastId = page.get(page.size() - 1)[0];
+        }
+    }
+
+    private <T> T onTarget(String target, Supplier<T> action) {
+        String previous = target != null ? ShardContext.override(target) : null;
+        try {
+            return action.get();
+        } finally {
+            if (target != null) {
+                ShardContext.restore(previous);
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("duplicates.checks")
+                .description("New expenses checked for duplicates")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.wise.expenses_tracker.duplicates;
+
+/**
+ * Thrown in REJECT mode when a new expense matches one the user already has.
+ */
+public class DuplicateExpenseException extends RuntimeException {
+
+    private final long existingExpenseId;
+
+    public DuplicateExpenseException(long existingExpenseId) {
+        super("Expense duplicates existing expense " + existingExpenseId);
+        this.existingExpenseId = existingExpenseId;
+    }
+
+    public long getExistingExpenseId() {
+        return existingExpenseId;
+    }
+}
@@ -0,0 +1,71 @@
+package com.wise.expenses_tracker.duplicates;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 64-bit hash identifying an expense for duplicate detection.
+ *
+ * Covers the user, the UTC day, the amount in cents, and the payment method and title
+ * with case and surrounding or repeated whitespace ignored. Description and category are
+ * left out: they are what a re-import tends to fill in differently.
+ */
+public final class ExpenseFingerprint {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ExpenseFingerprint() {
+    }
+
+    public static long of(long userId, Instant date, Double amount, String payBy, String title) {
+        return of(userId, day(date), amount, payBy, title);
+    }
+
+    /**
+     * Fingerprints of the same expense dated up to {@code windowDays} earlier or later.
+     */
+    public static long[] candidates(long userId, Instant date, Double amount, String payBy, String title,
+                                    int windowDays) {
+        if (date == null) {
+            return new long[] { of(userId, date, amount, payBy, title) };
+        }
+        long day = day(date);
+        long[] fingerprints = new long[2 * windowDays + 1];
+        for (int offset = -windowDays; offset <= windowDays; offset++) {
+            fingerprints[offset + windowDays] = of(userId, day + offset, amount, payBy, title);
+        }
+        return fingerprints;
+    }
+
+    private static long of(long userId, long day, Double amount, String payBy, String title) {
+        String key = userId + "\u0000" + day
+                + "\u0000" + (amount != null ? Long.toString(Math.round(amount * 100)) : "")
+                + "\u0000" + normalize(payBy)
+                + "\u0000" + normalize(title);
+        long hash = FNV_OFFSET;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        // FNV alone leaves the high bits poorly mixed; the filter derives its bit positions from both halves
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long day(Instant date) {
+        return date != null ? date.atOffset(ZoneOffset.UTC).toLocalDate().toEpochDay() : Long.MIN_VALUE;
+    }
+
+    private static String normalize(String value) {
+        return value != null ? WHITESPACE.matcher(value.strip()).replaceAll(" ").toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,57 @@
+package com.wise.expenses_tracker.duplicates;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over expense fingerprints.
+ *
+ * Answers "definitely not seen" or "possibly seen"; only the latter needs a lookup in
+ * the table. Fingerprints are already well-mixed hashes, so the bit positions are
+ * derived from their two halves (double hashing) instead of hashing again. Safe for
+ * concurrent use; entries cannot be removed, so deleted expenses only cost a lookup.
+ */
+class FingerprintFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    FingerprintFilter(long expectedInsertions, double falsePositiveRate) {
+        long expected = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + 63) / 64)));
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expected * Math.log(2)));
+    }
+
+    void add(long fingerprint) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bit(fingerprint, i);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    boolean mightContain(long fingerprint) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bit(fingerprint, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    private long bit(long fingerprint, int i) {
+        long low = (int) fingerprint;
+        long high = fingerprint >>> 32;
+        return Math.floorMod(low + i * high, bitCount);
+    }
+}
@@ -0,0 +1,9 @@
+package com.wise.expenses_tracker.export;
+
+/**
+ * A column of a columnar file. TIMESTAMP values are Instants, stored as epoch millis.
+ */
+public record Column(String name, Type type) {
+
+    public enum Type { LONG, DOUBLE, TIMESTAMP, STRING }
+}
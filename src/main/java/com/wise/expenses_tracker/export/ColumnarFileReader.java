@@ -0,0 +1,185 @@
+package com.wise.expenses_tracker.export;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by ColumnarFileWriter, one row group at a time.
+ *
+ * Also usable from the command line to turn an export file into CSV:
+ * {@code java -cp <application classpath> com.wise.expenses_tracker.export.ColumnarFileReader part.wcol > part.csv}
+ */
+public class ColumnarFileReader implements Closeable {
+
+    private static final Column.Type[] TYPES = Column.Type.values();
+
+    private final FileChannel channel;
+    private final List<Column> schema = new ArrayList<>();
+    private final List<ColumnarFileWriter.RowGroup> rowGroups = new ArrayList<>();
+
+    public ColumnarFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer trailer = read(size - 8, 8);
+            int footerLength = trailer.getInt();
+            if (!Arrays.equals(Arrays.copyOfRange(trailer.array(), 4, 8), ColumnarFileWriter.MAGIC)) {
+                throw new IOException("Not a columnar file: " + path);
+            }
+            ByteBuffer header = read(0, ColumnarFileWriter.MAGIC.length + 1);
+            if (header.get(ColumnarFileWriter.MAGIC.length) != ColumnarFileWriter.VERSION) {
+                throw new IOException("Unsupported columnar file version in " + path);
+            }
+            ByteBuffer footer = read(size - 8 - footerLength, footerLength);
+            int columns = (int) Varint.readUnsigned(footer);
+            for (int i = 0; i < columns; i++) {
+                schema.add(new Column(readString(footer), TYPES[footer.get()]));
+            }
+            int groups = (int) Varint.readUnsigned(footer);
+            for (int i = 0; i < groups; i++) {
+                int rows = (int) Varint.readUnsigned(footer);
+                long[] offsets = new long[columns];
+                int[] lengths = new int[columns];
+                int[] rawLengths = new int[columns];
+                for (int column = 0; column < columns; column++) {
+                    offsets[column] = Varint.readUnsigned(footer);
+                    lengths[column] = (int) Varint.readUnsigned(footer);
+                    rawLengths[column] = (int) Varint.readUnsigned(footer);
+                }
+                rowGroups.add(new ColumnarFileWriter.RowGroup(rows, offsets, lengths, rawLengths));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<Column> schema() {
+        return List.copyOf(schema);
+    }
+
+    public long rows() {
+        return rowGroups.stream().mapToLong(ColumnarFileWriter.RowGroup::rows).sum();
+    }
+
+    /**
+     * Hands every row to the consumer, values in schema order.
+     */
+    public void forEach(Consumer<Object[]> consumer) throws IOException {
+        for (ColumnarFileWriter.RowGroup rowGroup : rowGroups) {
+            Object[][] columns = new Object[schema.size()][];
+            for (int column = 0; column < schema.size(); column++) {
+                columns[column] = decode(rowGroup, column);
+            }
+            for (int row = 0; row < rowGroup.rows(); row++) {
+                Object[] values = new Object[schema.size()];
+                for (int column = 0; column < schema.size(); column++) {
+                    values[column] = columns[column][row];
+                }
+                consumer.accept(values);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Object[] decode(ColumnarFileWriter.RowGroup rowGroup, int column) throws IOException {
+        ByteBuffer compressed = read(rowGroup.offsets()[column], rowGroup.lengths()[column]);
+        byte[] raw = new byte[rowGroup.rawLengths()[column]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(raw) != raw.length) {
+                throw new IOException("Truncated column chunk");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column chunk", e);
+        } finally {
+            inflater.end();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        int rows = rowGroup.rows();
+        byte[] presence = new byte[(rows + 7) / 8];
+        in.get(presence);
+        Object[] values = new Object[rows];
+        Column.Type type = schema.get(column).type();
+        List<String> dictionary = null;
+        if (type == Column.Type.STRING && in.get() == ColumnarFileWriter.DICTIONARY) {
+            int entries = (int) Varint.readUnsigned(in);
+            dictionary = new ArrayList<>(entries);
+            for (int i = 0; i < entries; i++) {
+                dictionary.add(readString(in));
+            }
+        }
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            if ((presence[row >>> 3] & (1 << (row & 7))) == 0) {
+                continue;
+            }
+            switch (type) {
+                case LONG -> values[row] = previous += Varint.readSigned(in);
+                case TIMESTAMP -> values[row] = Instant.ofEpochMilli(previous += Varint.readSigned(in));
+                case DOUBLE -> values[row] = in.getDouble();
+                case STRING -> values[row] = dictionary != null
+                        ? dictionary.get((int) Varint.readUnsigned(in))
+                        : readString(in);
+            }
+        }
+        return values;
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) Varint.readUnsigned(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = System.out;
+        try (ColumnarFileReader reader = new ColumnarFileReader(Path.of(args[0]))) {
+            out.println(String.join(",", reader.schema().stream().map(Column::name).toList()));
+            reader.forEach(row -> {
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    if (row[i] instanceof String text) {
+                        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+                    } else if (row[i] != null) {
+                        line.append(row[i]);
+                    }
+                }
+                out.println(line);
+            });
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.wise.expenses_tracker.export;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one columnar file ({@code .wcol}).
+ *
+ * Layout, integers big-endian unless noted:
+ * <pre>
+ * "WCOL" version
+ * row groups   one chunk per column, each zlib-compressed on its own
+ * footer       the schema, then per row group its row count and per column the chunk's
+ *              offset, compressed length and uncompressed length (varints)
+ * int          footer length
+ * "WCOL"
+ * </pre>
+ * A chunk starts with a presence bitmap (bit set = value present, LSB first) followed by
+ * the present values: LONG and TIMESTAMP as zigzag varint deltas to the previous value,
+ * DOUBLE as 8 bytes, STRING either plain (varint length and UTF-8) or, when few distinct
+ * values repeat, as a dictionary followed by varint indexes.
+ *
+ * Rows are buffered until {@link #flushRowGroup()}; the caller decides when, which bounds memory.
+ */
+public class ColumnarFileWriter implements Closeable {
+
+    static final byte[] MAGIC = { 'W', 'C', 'O', 'L' };
+    static final byte VERSION = 1;
+    static final byte PLAIN = 0;
+    static final byte DICTIONARY = 1;
+
+    /**
+     * Location of one row group's chunks in the file.
+     */
+    record RowGroup(int rows, long[] offsets, int[] lengths, int[] rawLengths) {}
+
+    private final List<Column> schema;
+    private final DataOutputStream out;
+    private final Deflater deflater;
+    private final List<Object[]> buffer = new ArrayList<>();
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private final byte[] chunk = new byte[8192];
+    private long position;
+    private long rows;
+
+    public ColumnarFileWriter(Path path, List<Column> schema, int compressionLevel) throws IOException {
+        this.schema = List.copyOf(schema);
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile()), 1 << 16));
+        this.deflater = new Deflater(compressionLevel);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        position = MAGIC.length + 1;
+    }
+
+    /**
+     * Buffers a row; values in schema order, null where absent.
+     */
+    public void write(Object[] row) {
+        buffer.add(row);
+        rows++;
+    }
+
+    public int buffered() {
+        return buffer.size();
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Writes the buffered rows as one row group.
+     */
+    public void flushRowGroup() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        int columns = schema.size();
+        long[] offsets = new long[columns];
+        int[] lengths = new int[columns];
+        int[] rawLengths = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            byte[] raw = encode(column);
+            offsets[column] = position;
+            rawLengths[column] = raw.length;
+            lengths[column] = compress(raw);
+        }
+        rowGroups.add(new RowGroup(buffer.size(), offsets, lengths, rawLengths));
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            Varint.writeUnsigned(footer, schema.size());
+            for (Column column : schema) {
+                writeString(footer, column.name());
+                footer.write(column.type().ordinal());
+            }
+            Varint.writeUnsigned(footer, rowGroups.size());
+            for (RowGroup rowGroup : rowGroups) {
+                Varint.writeUnsigned(footer, rowGroup.rows());
+                for (int column = 0; column < schema.size(); column++) {
+                    Varint.writeUnsigned(footer, rowGroup.offsets()[column]);
+                    Varint.writeUnsigned(footer, rowGroup.lengths()[column]);
+                    Varint.writeUnsigned(footer, rowGroup.rawLengths()[column]);
+                }
+            }
+            footer.writeTo(out);
+            out.writeInt(footer.size());
+            out.write(MAGIC);
+            out.flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private byte[] encode(int column) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(buffer.size() * 4);
+        byte[] presence = new byte[(buffer.size() + 7) / 8];
+        List<Object> values = new ArrayList<>(buffer.size());
+        for (int row = 0; row < buffer.size(); row++) {
+            Object value = buffer.get(row)[column];
+            if (value != null) {
+                presence[row >>> 3] |= (byte) (1 << (row & 7));
+                values.add(value);
+            }
+        }
+        encoded.writeBytes(presence);
+
+        switch (schema.get(column).type()) {
+            case LONG, TIMESTAMP -> {
+                long previous = 0;
+                for (Object value : values) {
+                    long current = value instanceof Instant instant ? instant.toEpochMilli() : ((Number) value).longValue();
+                    Varint.writeSigned(encoded, current - previous);
+                    previous = current;
+                }
+            }
+            case DOUBLE -> {
+                for (Object value : values) {
+                    long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        encoded.write((int) (bits >>> shift));
+                    }
+                }
+            }
+            case STRING -> encodeStrings(encoded, values);
+        }
+        return encoded.toByteArray();
+    }
+
+    private static void encodeStrings(ByteArrayOutputStream encoded, List<Object> values) {
+        // Dictionary-encode only when values repeat enough for it to pay off
+        int limit = Math.max(16, values.size() / 4);
+        Map<Object, Integer> dictionary = new HashMap<>();
+        List<Object> entries = new ArrayList<>();
+        for (Object value : values) {
+            if (dictionary.putIfAbsent(value, dictionary.size()) == null) {
+                entries.add(value);
+                if (entries.size() > limit) {
+                    encoded.write(PLAIN);
+                    values.forEach(plain -> writeString(encoded, (String) plain));
+                    return;
+                }
+            }
+        }
+        encoded.write(DICTIONARY);
+        Varint.writeUnsigned(encoded, entries.size());
+        entries.forEach(entry -> writeString(encoded, (String) entry));
+        values.forEach(value -> Varint.writeUnsigned(encoded, dictionary.get(value)));
+    }
+
+    private int compress(byte[] raw) throws IOException {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            int count = deflater.deflate(chunk);
+            out.write(chunk, 0, count);
+            length += count;
+        }
+        position += length;
+        return length;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        Varint.writeUnsigned(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+}
@@ -0,0 +1,480 @@
+package com.wise.expenses_tracker.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.sharding.ShardContext;
+import com.wise.expenses_tracker.sharding.ShardRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports every expense to columnar files for offline analytics.
+ *
+ * An export is planned as tasks, each a range of {@code users-per-task} user ids on one
+ * database (every shard when sharded), and only covers expenses up to the highest id at
+ * planning time. {@code workers} threads each stream one task at a time from the database
+ * with a read-only transaction, so the reads go to a replica when read replicas are
+ * configured. Rows are written to one file per month and task:
+ * <pre>
+ * &lt;export.directory&gt;/&lt;id&gt;/month=2025-01/part-users-1-1000.wcol
+ * </pre>
+ * A task's files are renamed into place when it is complete and a marker under
+ * {@code tasks/} records it, so an export stopped by a restart or failure resumes with the
+ * tasks that were not finished. {@code _SUCCESS} marks a complete export.
+ *
+ * Memory per worker is bounded by {@code max-buffered-rows}; only one export runs at a time.
+ *
+ * Metrics: {@code export.rows}.
+ */
+@Slf4j
+@Component
+public class ExpenseExporter {
+
+    static final List<Column> SCHEMA = List.of(
+            new Column("id", Column.Type.LONG),
+            new Column("user_id", Column.Type.LONG),
+            new Column("date", Column.Type.TIMESTAMP),
+            new Column("amount", Column.Type.DOUBLE),
+            new Column("pay_by", Column.Type.STRING),
+            new Column("title", Column.Type.STRING),
+            new Column("description", Column.Type.STRING),
+            new Column("category_id", Column.Type.LONG),
+            new Column("category", Column.Type.STRING),
+            new Column("duplicate_of", Column.Type.LONG));
+
+    private static final String BOUNDS = "SELECT MIN(user_id), MAX(user_id), MAX(id) FROM expenses";
+    private static final String RANGE = "SELECT e.id, e.user_id, e.date, e.amount, e.pay_by, e.title, e.description,"
+            + " e.category_id, c.name, e.duplicate_of FROM expenses e LEFT JOIN categories c ON c.id = e.category_id"
+            + " WHERE e.user_id BETWEEN ? AND ? AND e.id <= ?";
+    private static final String MANIFEST = "export.manifest";
+    private static final String SUCCESS = "_SUCCESS";
+    private static final String TASKS = "tasks";
+    private static final String DONE_SUFFIX = ".done";
+    private static final String FILE_SUFFIX = ".wcol";
+    private static final String PARTIAL_SUFFIX = ".tmp";
+    private static final String MONTH_PREFIX = "month=";
+    private static final DateTimeFormatter EXPORT_ID =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    /**
+     * A range of user ids on one database ({@code target} is a ShardContext override, or null).
+     */
+    record Task(String target, long fromUserId, long toUserId, long maxExpenseId) {
+
+        String name() {
+            return (target != null ? target + "-" : "") + "users-" + fromUserId + "-" + toUserId;
+        }
+    }
+
+    private final ExportProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final DataSource dataSource;
+    private final Counter exportedRows;
+    private final Path root;
+
+    // The export started last, kept after it finishes to report its outcome
+    private Run current;
+
+    public ExpenseExporter(ExportProperties properties,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           DataSource dataSource,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.dataSource = dataSource;
+        this.root = Path.of(properties.getDirectory());
+        this.exportedRows = Counter.builder("export.rows")
+                .description("Expenses written to export files")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a new export in the background.
+     *
+     * @throws ExportInProgressException if another export is running
+     */
+    public synchronized ExportStatus start() {
+        checkIdle();
+        return launch(new Run(EXPORT_ID.format(Instant.now()), null));
+    }
+
+    /**
+     * Continues an export with the tasks it has not finished.
+     *
+     * @return the export's status, or empty if there is no such export
+     * @throws ExportInProgressException if another export is running
+     */
+    public synchronized Optional<ExportStatus> resume(String id) {
+        checkIdle();
+        Path directory = directory(id);
+        if (directory == null || !Files.exists(directory.resolve(MANIFEST))) {
+            return Optional.empty();
+        }
+        if (Files.exists(directory.resolve(SUCCESS))) {
+            return status(id);
+        }
+        return Optional.of(launch(new Run(id, readManifest(directory))));
+    }
+
+    public synchronized Optional<ExportStatus> status(String id) {
+        if (current != null && current.id.equals(id)) {
+            return Optional.of(current.status());
+        }
+        Path directory = directory(id);
+        if (directory == null || !Files.exists(directory.resolve(MANIFEST))) {
+            return Optional.empty();
+        }
+        List<Task> tasks = readManifest(directory);
+        int completed = 0;
+        long rows = 0;
+        for (Task task : tasks) {
+            Long done = readDone(directory, task);
+            if (done != null) {
+                completed++;
+                rows += done;
+            }
+        }
+        ExportStatus.State state = Files.exists(directory.resolve(SUCCESS))
+                ? ExportStatus.State.COMPLETED
+                : ExportStatus.State.INCOMPLETE;
+        return Optional.of(new ExportStatus(id, state, tasks.size(), completed, rows, null));
+    }
+
+    private void checkIdle() {
+        if (current != null && current.state == ExportStatus.State.RUNNING) {
+            throw new ExportInProgressException(current.id);
+        }
+    }
+
+    private ExportStatus launch(Run run) {
+        current = run;
+        Thread coordinator = new Thread(() -> execute(run), "export-" + run.id);
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return run.status();
+    }
+
+    private void execute(Run run) {
+        long started = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "export-worker");
+            thread.setDaemon(true);
+            // Request threads come first
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        try {
+            Files.createDirectories(run.directory.resolve(TASKS));
+            if (run.tasks == null) {
+                run.tasks = plan();
+                writeManifest(run.directory, run.tasks);
+            }
+            List<Future<?>> pending = new ArrayList<>();
+            for (Task task : run.tasks) {
+                Long done = readDone(run.directory, task);
+                if (done != null) {
+                    run.completed.incrementAndGet();
+                    run.rows.addAndGet(done);
+                } else {
+                    pending.add(workers.submit(() -> {
+                        long rows = export(run.directory, task);
+                        run.completed.incrementAndGet();
+                        run.rows.addAndGet(rows);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> task : pending) {
+                task.get();
+            }
+            Files.write(run.directory.resolve(SUCCESS), new byte[0]);
+            run.state = ExportStatus.State.COMPLETED;
+            log.info("Export {} completed: {} rows in {} tasks, {} s", run.id, run.rows.get(), run.tasks.size(),
+                    (System.nanoTime() - started) / 1_000_000_000);
+        } catch (ExecutionException e) {
+            fail(run, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(run, e);
+        } catch (IOException | RuntimeException e) {
+            fail(run, e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void fail(Run run, Throwable cause) {
+        log.error("Export {} failed; resume it to redo the unfinished tasks", run.id, cause);
+        run.error = cause.toString();
+        run.state = ExportStatus.State.FAILED;
+    }
+
+    private List<Task> plan() {
+        List<Task> tasks = new ArrayList<>();
+        for (String target : ShardRoutingDataSource.expenseTargets(dataSource)) {
+            onTarget(target, () -> {
+                jdbcTemplate.query(BOUNDS, (RowCallbackHandler) row -> {
+                    long minUserId = row.getLong(1);
+                    if (row.wasNull()) {
+                        return;
+                    }
+                    long maxUserId = row.getLong(2);
+                    long maxExpenseId = row.getLong(3);
+                    for (long from = minUserId; from <= maxUserId; from += properties.getUsersPerTask()) {
+                        tasks.add(new Task(target, from, Math.min(maxUserId, from + properties.getUsersPerTask() - 1),
+                                maxExpenseId));
+                    }
+                });
+                return null;
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Streams one task's rows into its month files.
+     *
+     * @return the number of rows exported
+     */
+    private long export(Path directory, Task task) throws IOException {
+        String fileName = "part-" + task.name() + FILE_SUFFIX;
+        // Left over from an interrupted attempt
+        deleteTaskFiles(directory, fileName);
+
+        Map<String, ColumnarFileWriter> writers = new HashMap<>();
+        boolean complete = false;
+        try {
+            int[] buffered = { 0 };
+            onTarget(task.target(), () -> readOnlyTransaction.execute(status -> {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(RANGE,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(properties.getFetchSize());
+                    statement.setLong(1, task.fromUserId());
+                    statement.setLong(2, task.toUserId());
+                    statement.setLong(3, task.maxExpenseId());
+                    return statement;
+                }, (RowCallbackHandler) row -> {
+                    Object[] values = toValues(row);
+                    Instant date = (Instant) values[2];
+                    String month = date != null ? MONTH.format(date) : "unknown";
+                    ColumnarFileWriter writer = writers.computeIfAbsent(month,
+                            key -> open(directory.resolve(MONTH_PREFIX + key).resolve(fileName + PARTIAL_SUFFIX)));
+                    writer.write(values);
+                    buffered[0]++;
+                    try {
+                        if (writer.buffered() >= properties.getRowGroupSize()) {
+                            buffered[0] -= writer.buffered();
+                            writer.flushRowGroup();
+                        } else if (buffered[0] > properties.getMaxBufferedRows()) {
+                            ColumnarFileWriter largest = writers.values().stream()
+                                    .max(Comparator.comparingInt(ColumnarFileWriter::buffered))
+                                    .orElseThrow();
+                            buffered[0] -= largest.buffered();
+                            largest.flushRowGroup();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return null;
+            }));
+
+            long rows = 0;
+            for (Map.Entry<String, ColumnarFileWriter> entry : writers.entrySet()) {
+                entry.getValue().close();
+                rows += entry.getValue().rows();
+                Path month = directory.resolve(MONTH_PREFIX + entry.getKey());
+                Files.move(month.resolve(fileName + PARTIAL_SUFFIX), month.resolve(fileName),
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            writeAtomically(directory.resolve(TASKS).resolve(task.name() + DONE_SUFFIX), Long.toString(rows));
+            exportedRows.increment(rows);
+            complete = true;
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!complete) {
+                for (ColumnarFileWriter writer : writers.values()) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        // Discarded with the rest of the attempt
+                    }
+                }
+            }
+        }
+    }
+
+    private ColumnarFileWriter open(Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            return new ColumnarFileWriter(path, SCHEMA, properties.getCompressionLevel());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object[] toValues(ResultSet row) throws SQLException {
+        Timestamp date = row.getTimestamp(3);
+        double amount = row.getDouble(4);
+        Double nullableAmount = row.wasNull() ? null : amount;
+        long categoryId = row.getLong(8);
+        Long nullableCategoryId = row.wasNull() ? null : categoryId;
+        long duplicateOf = row.getLong(10);
+        Long nullableDuplicateOf = row.wasNull() ? null : duplicateOf;
+        return new Object[] {
+            row.getLong(1),
+            row.getLong(2),
+            date != null ? date.toInstant() : null,
+            nullableAmount,
+            row.getString(5),
+            row.getString(6),
+            row.getString(7),
+            nullableCategoryId,
+            row.getString(9),
+            nullableDuplicateOf
+        };
+    }
+
+    private static void deleteTaskFiles(Path directory, String fileName) throws IOException {
+        try (Stream<Path> months = Files.list(directory)) {
+            for (Path month : months.filter(path -> path.getFileName().toString().startsWith(MONTH_PREFIX)).toList()) {
+                Files.deleteIfExists(month.resolve(fileName));
+                Files.deleteIfExists(month.resolve(fileName + PARTIAL_SUFFIX));
+            }
+        }
+    }
+
+    private static <T> T onTarget(String target, Supplier<T> action) {
+        if (target == null) {
+            return action.get();
+        }
+        String previous = ShardContext.override(target);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * The export's directory, or null for an id that cannot be one (keeps ids from escaping the root).
+     */
+    private Path directory(String id) {
+        return id.matches("[0-9-]+") ? root.resolve(id) : null;
+    }
+
+    private static void writeManifest(Path directory, List<Task> tasks) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("tasks", Integer.toString(tasks.size()));
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            manifest.setProperty("task." + i, (task.target() != null ? task.target() : "")
+                    + "," + task.fromUserId() + "," + task.toUserId() + "," + task.maxExpenseId());
+        }
+        Path temporary = directory.resolve(MANIFEST + PARTIAL_SUFFIX);
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            manifest.store(out, "Expense export tasks: target, first user id, last user id, highest expense id");
+        }
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<Task> readManifest(Path directory) {
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(MANIFEST))) {
+            manifest.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the manifest of export " + directory, e);
+        }
+        int count = Integer.parseInt(manifest.getProperty("tasks"));
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] fields = manifest.getProperty("task." + i).split(",", -1);
+            tasks.add(new Task(fields[0].isEmpty() ? null : fields[0],
+                    Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+        }
+        return tasks;
+    }
+
+    private static Long readDone(Path directory, Task task) {
+        Path marker = directory.resolve(TASKS).resolve(task.name() + DONE_SUFFIX);
+        try {
+            return Files.exists(marker) ? Long.parseLong(Files.readString(marker).trim()) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + marker, e);
+        }
+    }
+
+    private static void writeAtomically(Path path, String content) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + PARTIAL_SUFFIX);
+        Files.writeString(temporary, content, StandardCharsets.US_ASCII);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private final class Run {
+        final String id;
+        final Path directory;
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicLong rows = new AtomicLong();
+        volatile List<Task> tasks;
+        volatile ExportStatus.State state = ExportStatus.State.RUNNING;
+        volatile String error;
+
+        Run(String id, List<Task> tasks) {
+            this.id = id;
+            this.directory = root.resolve(id);
+            this.tasks = tasks;
+        }
+
+        ExportStatus status() {
+            List<Task> planned = tasks;
+            return new ExportStatus(id, state, planned != null ? planned.size() : 0, completed.get(), rows.get(), error);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.wise.expenses_tracker.export;
+
+/**
+ * Thrown when an export is requested while another one is still running.
+ */
+public class ExportInProgressException extends RuntimeException {
+
+    private final String runningExportId;
+
+    public ExportInProgressException(String runningExportId) {
+        super("Export " + runningExportId + " is still running");
+        this.runningExportId = runningExportId;
+    }
+
+    public String getRunningExportId() {
+        return runningExportId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.wise.expenses_tracker.export;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Columnar export of all expenses (prefix {@code export}).
+ */
+@Data
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+
+    /** Each export gets a subdirectory here */
+    private String directory = "./export";
+
+    /** Parallel workers, each holding one database connection while it streams its user range */
+    private int workers = 2;
+
+    /** Users per task; a task is the unit that is redone after a restart */
+    private int usersPerTask = 1000;
+
+    /** Rows fetched per round trip; on MySQL this only streams with useCursorFetch=true in the URL */
+    private int fetchSize = 1000;
+
+    /** Rows per row group; each column of a row group is compressed separately */
+    private int rowGroupSize = 16_384;
+
+    /** Rows a worker may buffer across all months before it writes out the largest buffer early */
+    private int maxBufferedRows = 65_536;
+
+    /** Deflate level, 1 (fastest) to 9 (smallest) */
+    private int compressionLevel = 6;
+}
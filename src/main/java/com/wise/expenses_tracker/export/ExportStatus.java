@@ -0,0 +1,12 @@
+package com.wise.expenses_tracker.export;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Progress of one export. INCOMPLETE exports stopped early (e.g. by a restart) and can be resumed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExportStatus(String id, State state, int tasks, int completedTasks, long rows, String error) {
+
+    public enum State { RUNNING, COMPLETED, FAILED, INCOMPLETE }
+}
@@ -0,0 +1,41 @@
+package com.wise.expenses_tracker.ingestion;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Write-behind ingestion (prefix {@code ingestion}).
+ *
+ * Expenses posted to /api/expenses/ingest are acknowledged once they are in the on-disk
+ * journal under {@code directory} and inserted into the expenses table in batches.
+ */
+@Data
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "./ingestion";
+
+    /** Size of each memory-mapped journal segment */
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    /** Expenses accepted but not yet inserted; beyond this the endpoint answers 503 */
+    private int queueCapacity = 100_000;
+
+    /** Most expenses inserted per transaction */
+    private int maxBatchSize = 1_000;
+
+    /** How long a batch that is not full waits for more expenses before it is committed */
+    private Duration maxBatchDelay = Duration.ofMillis(5);
+
+    /** Wait before retrying a batch that failed, e.g. while the database is down */
+    private Duration retryDelay = Duration.ofSeconds(1);
+
+    /** Retry-After sent with the 503 when the queue is full */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,175 @@
+package com.wise.expenses_tracker.ingestion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wise.expenses_tracker.ledger.SegmentedLog;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Durable FIFO between the ingestion endpoint and IngestionWriter.
+ *
+ * Accepted expenses are appended to a memory-mapped journal (a SegmentedLog). An offer
+ * returns only once its record is flushed to disk, but flushes are shared: whoever
+ * flushes covers every record appended so far, so concurrent offers that queue up during
+ * one flush are made durable together by the next (group commit of the journal). The
+ * flush itself runs outside the append lock, so appends go on while the disk syncs.
+ *
+ * Records up to the committed checkpoint are in the expenses table; their segments are
+ * deleted. The queue is bounded by the number of records past the checkpoint.
+ *
+ * Metrics: {@code ingestion.queue.depth} and {@code ingestion.journal.flush.size}
+ * (records made durable per flush).
+ */
+public class IngestionQueue implements Closeable {
+
+    private final SegmentedLog journal;
+    private final int capacity;
+    private final long retryAfterSeconds;
+    private final Object flushLock = new Object();
+    private final Object available = new Object();
+    private final DistributionSummary flushSize;
+
+    private volatile long durableUpTo;
+    private volatile long committedUpTo;
+
+    public IngestionQueue(IngestionProperties properties, long committedUpTo, MeterRegistry meterRegistry)
+            throws IOException {
+        this.journal = new SegmentedLog(Path.of(properties.getDirectory()),
+                (int) properties.getSegmentSize().toBytes(), false);
+        this.capacity = properties.getQueueCapacity();
+        this.retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+        this.committedUpTo = committedUpTo;
+        // Whatever survived a restart is on disk
+        this.durableUpTo = journal.nextRecord() - 1;
+        journal.deleteSegmentsBefore(committedUpTo + 1);
+
+        Gauge.builder("ingestion.queue.depth", this, IngestionQueue::depth)
+                .description("Expenses accepted but not yet inserted")
+                .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("ingestion.journal.flush.size")
+                .description("Journal records made durable by one flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends the expense and returns once it is durable.
+     *
+     * @throws IngestionRejectedException if the queue is full
+     */
+    public void offer(QueuedExpense expense) {
+        byte[] payload = expense.encode();
+        long record;
+        synchronized (this) {
+            if (journal.nextRecord() - 1 - committedUpTo >= capacity) {
+                throw new IngestionRejectedException("Ingestion queue is full, retry shortly", retryAfterSeconds);
+            }
+            try {
+                record = journal.append(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Appending to the ingestion journal failed", e);
+            }
+        }
+        awaitDurable(record);
+        synchronized (available) {
+            available.notifyAll();
+        }
+    }
+
+    /**
+     * Waits up to {@code pollTimeout} for durable records, then up to {@code maxDelay}
+     * more for the batch to fill, and returns at most {@code maxBatchSize} records after
+     * the checkpoint. Only called by the single writer thread.
+     */
+    public Batch take(int maxBatchSize, Duration maxDelay, Duration pollTimeout) throws InterruptedException {
+        awaitDurableRecords(1, pollTimeout);
+        if (durableUpTo - committedUpTo < maxBatchSize) {
+            awaitDurableRecords(maxBatchSize, maxDelay);
+        }
+
+        long first = committedUpTo + 1;
+        long last = Math.min(durableUpTo, committedUpTo + maxBatchSize);
+        List<QueuedExpense> expenses = new ArrayList<>();
+        if (last >= first) {
+            SegmentedLog.Position end;
+            synchronized (this) {
+                end = journal.end();
+            }
+            try {
+                journal.read(first, end, payload -> {
+                    expenses.add(QueuedExpense.decode(payload));
+                    return first + expenses.size() <= last;
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Reading the ingestion journal failed", e);
+            }
+        }
+        return new Batch(first, expenses);
+    }
+
+    /**
+     * Records that every record up to {@code record} is in the expenses table.
+     */
+    public synchronized void committed(long record) throws IOException {
+        committedUpTo = record;
+        journal.deleteSegmentsBefore(record + 1);
+    }
+
+    public long depth() {
+        return journal.nextRecord() - 1 - committedUpTo;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    private void awaitDurable(long record) {
+        synchronized (flushLock) {
+            if (durableUpTo >= record) {
+                return;
+            }
+            long end;
+            Runnable force;
+            synchronized (this) {
+                end = journal.nextRecord() - 1;
+                force = journal.deferredForce();
+            }
+            force.run();
+            flushSize.record(end - durableUpTo);
+            durableUpTo = end;
+        }
+    }
+
+    private void awaitDurableRecords(int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (available) {
+            while (durableUpTo - committedUpTo < count) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(available, remaining);
+            }
+        }
+    }
+
+    /**
+     * Consecutive journal records, the first numbered {@code first}.
+     */
+    public record Batch(long first, List<QueuedExpense> expenses) {
+
+        public long last() {
+            return first + expenses.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.wise.expenses_tracker.ingestion;
+
+/**
+ * Thrown when the ingestion queue is full.
+ * IngestionController answers it with 503 and a Retry-After header.
+ */
+public class IngestionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public IngestionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
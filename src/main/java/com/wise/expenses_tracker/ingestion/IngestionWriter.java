@@ -0,0 +1,198 @@
+package com.wise.expenses_tracker.ingestion;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.duplicates.ExpenseFingerprint;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background stage that moves queued expenses into the expenses table.
+ *
+ * A single thread takes up to {@code max-batch-size} records (waiting at most
+ * {@code max-batch-delay} for a batch to fill), sorts them by user and inserts them with
+ * one JDBC batch in one transaction, which also advances the checkpoint. Each record is
+ * therefore inserted exactly once, even across crashes. A batch that hits a constraint
+ * violation (e.g. a category deleted after the expense was accepted) is retried row by
+ * row and the offending rows are logged, counted and skipped. Any other failure retries
+ * the whole batch after {@code retry-delay}.
+ *
+ * Metrics: {@code ingestion.commit.batch.size} and {@code ingestion.skipped}.
+ */
+@Slf4j
+public class IngestionWriter implements Runnable {
+
+    public static final String QUEUE_NAME = "expenses";
+
+    private static final String INSERT = "INSERT INTO expenses"
+            + " (title, date, pay_by, amount, description, add_to_report, user_id, category_id, fingerprint, duplicate_of)"
+            + " VALUES (?, ?, ?, ?, ?, FALSE, ?, ?, ?, ?)";
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE ingestion_checkpoints SET committed_record = ? WHERE queue = ?";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final IngestionQueue queue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngestionProperties properties;
+    private final DistributionSummary batchSize;
+    private final Counter skipped;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public IngestionWriter(IngestionQueue queue,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           IngestionProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.batchSize = DistributionSummary.builder("ingestion.commit.batch.size")
+                .description("Expenses inserted per ingestion transaction")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("ingestion.skipped")
+                .description("Accepted expenses that could not be inserted")
+                .register(meterRegistry);
+        this.thread = new Thread(this, "ingestion-writer");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Reads the committed checkpoint, creating it for a new database.
+     */
+    public static long loadCheckpoint(JdbcTemplate jdbcTemplate) {
+        List<Long> committed = jdbcTemplate.queryForList(
+                "SELECT committed_record FROM ingestion_checkpoints WHERE queue = ?", Long.class, QUEUE_NAME);
+        if (!committed.isEmpty()) {
+            return committed.get(0);
+        }
+        jdbcTemplate.update("INSERT INTO ingestion_checkpoints (queue, committed_record) VALUES (?, 0)", QUEUE_NAME);
+        return 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        thread.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(10_000);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                IngestionQueue.Batch batch = queue.take(
+                        properties.getMaxBatchSize(), properties.getMaxBatchDelay(), POLL_TIMEOUT);
+                if (!batch.expenses().isEmpty()) {
+                    commit(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Committing ingested expenses failed, retrying in {}: {}", properties.getRetryDelay(), e.toString());
+                if (!sleep(properties.getRetryDelay())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void commit(IngestionQueue.Batch batch) throws IOException {
+        // Grouping rows by user keeps each user's inserts together in the index
+        List<Long> records = new ArrayList<>(batch.expenses().size());
+        for (int i = 0; i < batch.expenses().size(); i++) {
+            records.add(batch.first() + i);
+        }
+        records.sort(Comparator.comparingLong((Long record) -> expense(batch, record).userId())
+                .thenComparingLong(record -> record));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT, records.stream().map(record -> row(expense(batch, record))).toList());
+                jdbcTemplate.update(UPDATE_CHECKPOINT, batch.last(), QUEUE_NAME);
+            });
+        } catch (DataIntegrityViolationException e) {
+            commitRowByRow(batch);
+        }
+        queue.committed(batch.last());
+        batchSize.record(batch.expenses().size());
+
+        Set<Long> users = new LinkedHashSet<>();
+        batch.expenses().forEach(expense -> users.add(expense.userId()));
+        users.forEach(userId -> eventPublisher.publishEvent(ExpensesChangedEvent.forUser(userId)));
+    }
+
+    private void commitRowByRow(IngestionQueue.Batch batch) {
+        for (long record = batch.first(); record <= batch.last(); record++) {
+            QueuedExpense expense = expense(batch, record);
+            long committed = record;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(INSERT, row(expense));
+                    jdbcTemplate.update(UPDATE_CHECKPOINT, committed, QUEUE_NAME);
+                });
+            } catch (DataIntegrityViolationException e) {
+                skipped.increment();
+                log.error("Skipping ingested expense {} of user {}: {}", record, expense.userId(),
+                        e.getMostSpecificCause().getMessage());
+                jdbcTemplate.update(UPDATE_CHECKPOINT, committed, QUEUE_NAME);
+            }
+        }
+    }
+
+    private static QueuedExpense expense(IngestionQueue.Batch batch, long record) {
+        return batch.expenses().get((int) (record - batch.first()));
+    }
+
+    private static Object[] row(QueuedExpense expense) {
+        return new Object[] {
+            expense.title(),
+            expense.date() != null ? Timestamp.from(expense.date()) : null,
+            expense.payBy(),
+            expense.amount(),
+            expense.description(),
+            expense.userId(),
+            expense.categoryId(),
+            ExpenseFingerprint.of(expense.userId(), expense.date(), expense.amount(), expense.payBy(), expense.title()),
+            expense.duplicateOf()
+        };
+    }
+
+    private boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.wise.expenses_tracker.ingestion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * An accepted expense waiting in the ingestion journal. The category and duplicate check
+ * are resolved when the expense is accepted, so only their results are kept. Version 2
+ * added {@code duplicateOf}; version 1 records are still read.
+ */
+public record QueuedExpense(long userId,
+                            long categoryId,
+                            String title,
+                            Instant date,
+                            String payBy,
+                            Double amount,
+                            String description,
+                            Long duplicateOf) {
+
+    private static final byte VERSION = 2;
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(userId);
+            out.writeLong(categoryId);
+            writeString(out, title);
+            out.writeBoolean(date != null);
+            if (date != null) {
+                out.writeLong(date.getEpochSecond());
+                out.writeInt(date.getNano());
+            }
+            writeString(out, payBy);
+            out.writeBoolean(amount != null);
+            if (amount != null) {
+                out.writeDouble(amount);
+            }
+            writeString(out, description);
+            out.writeBoolean(duplicateOf != null);
+            if (duplicateOf != null) {
+                out.writeLong(duplicateOf);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static QueuedExpense decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalStateException("Unsupported ingestion record version " + version);
+            }
+            long userId = in.readLong();
+            long categoryId = in.readLong();
+            String title = readString(in);
+            Instant date = in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+            String payBy = readString(in);
+            Double amount = in.readBoolean() ? in.readDouble() : null;
+            String description = readString(in);
+            Long duplicateOf = version >= 2 && in.readBoolean() ? in.readLong() : null;
+            return new QueuedExpense(userId, categoryId, title, date, payBy, amount, description, duplicateOf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
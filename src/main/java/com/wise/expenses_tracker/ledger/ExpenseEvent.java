@@ -0,0 +1,20 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.time.Instant;
+
+/**
+ * One entry of a user's ledger.
+ *
+ * Sequences are per user, start at 1 and have no gaps. {@code state} holds the values
+ * after the change and is null for deletions.
+ */
+public record ExpenseEvent(Type type,
+                           long sequence,
+                           Instant recordedAt,
+                           long expenseId,
+                           ExpenseState state) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,218 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * All user ledgers under {@code ledger.directory}, opened on first use.
+ *
+ * At most {@code max-open-ledgers} stay open: beyond that the least recently used ones
+ * whose events are all projected are closed, and reopen on their next write. Ledgers
+ * with events still to project stay open until the projection catches up.
+ *
+ * Also hands out expense ids. A created expense is only inserted by the projection,
+ * but its id is returned to the client right away, so ids come from here instead of the
+ * table's auto-increment. They are reserved in blocks recorded on disk before use, so an
+ * id is never handed out twice across restarts.
+ */
+@Slf4j
+public class ExpenseLedger implements Closeable {
+
+    private static final String USER_DIRECTORY_PREFIX = "user-";
+    private static final String ID_RESERVATION = "expense-ids.reserved";
+
+    private final Path root;
+    private final LedgerProperties properties;
+    private final LongFunction<Map<Long, ExpenseState>> baseline;
+    private final ConcurrentMap<Long, UserLedger> ledgers = new ConcurrentHashMap<>();
+    // Open ledgers, least recently used first
+    private final Map<Long, UserLedger> recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long nextExpenseId;
+    private long reservedUpTo;
+
+    /**
+     * @param highestExistingExpenseId highest id already in the expenses table
+     * @param baseline                 loads a user's expenses from the table when their ledger is created
+     */
+    public ExpenseLedger(LedgerProperties properties, long highestExistingExpenseId,
+                         LongFunction<Map<Long, ExpenseState>> baseline) throws IOException {
+        this.root = Path.of(properties.getDirectory());
+        this.properties = properties;
+        this.baseline = baseline;
+        Files.createDirectories(root);
+
+        Path reservation = root.resolve(ID_RESERVATION);
+        long reserved = Files.exists(reservation) ? Long.parseLong(Files.readString(reservation).trim()) : 0;
+        this.nextExpenseId = Math.max(highestExistingExpenseId, reserved) + 1;
+        this.reservedUpTo = nextExpenseId - 1;
+    }
+
+    /**
+     * The user's ledger, opened (or created from the expenses table) on first use.
+     */
+    public UserLedger forUser(long userId) {
+        UserLedger userLedger = ledgers.computeIfAbsent(userId, id -> {
+            UserLedger created = new UserLedger(id, root.resolve(USER_DIRECTORY_PREFIX + id), properties, baseline, this::track);
+            try {
+                created.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open the ledger of user " + id, e);
+            }
+            return created;
+        });
+        synchronized (recentlyUsed) {
+            recentlyUsed.get(userId);
+        }
+        closeIdle();
+        return userLedger;
+    }
+
+    /**
+     * The user's ledger if it was used since startup, otherwise null. Every ledger with
+     * events not yet projected has been (see {@link #openBehind()}), so null means the
+     * table is up to date.
+     */
+    public UserLedger opened(long userId) {
+        return ledgers.get(userId);
+    }
+
+    /**
+     * Opens the ledgers on disk that have events not yet projected, e.g. appended just
+     * before a restart. The others are left closed until their user writes again.
+     */
+    public Collection<UserLedger> openBehind() throws IOException {
+        List<Long> behind = new ArrayList<>();
+        try (Stream<Path> directories = Files.list(root)) {
+            for (Path directory : (Iterable<Path>) directories::iterator) {
+                String name = directory.getFileName().toString();
+                if (name.startsWith(USER_DIRECTORY_PREFIX) && UserLedger.isBehind(directory)) {
+                    behind.add(Long.parseLong(name.substring(USER_DIRECTORY_PREFIX.length())));
+                }
+            }
+        }
+        List<UserLedger> opened = behind.stream().map(this::forUser).toList();
+        log.info("Opened {} expense ledgers with events to project in {}", opened.size(), root.toAbsolutePath());
+        return opened;
+    }
+
+    public Collection<UserLedger> ledgers() {
+        return ledgers.values();
+    }
+
+    /**
+     * Closes the least recently used idle ledgers while more than {@code max-open-ledgers}
+     * are open, never the most recently used one, whose caller is about to write to it.
+     * Called after every use and whenever a projection finishes.
+     */
+    public void closeIdle() {
+        List<UserLedger> candidates;
+        synchronized (recentlyUsed) {
+            int excess = recentlyUsed.size() - properties.getMaxOpenLedgers();
+            if (excess <= 0) {
+                return;
+            }
+            candidates = new ArrayList<>(recentlyUsed.values()).subList(0, recentlyUsed.size() - 1);
+        }
+        int excess = candidates.size() + 1 - properties.getMaxOpenLedgers();
+        for (UserLedger candidate : candidates) {
+            if (excess <= 0) {
+                return;
+            }
+            try {
+                if (candidate.closeIfIdle()) {
+                    excess--;
+                }
+            } catch (IOException e) {
+                log.warn("Closing the ledger of user {} failed", candidate.getUserId(), e);
+            }
+            synchronized (recentlyUsed) {
+                // Unless it was reopened meanwhile, which put it back as most recently used
+                if (!candidate.isOpen()) {
+                    recentlyUsed.remove(candidate.getUserId(), candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves every expense in category {@code fromCategoryId} to the given category in the
+     * ledgers of the given users and of every open ledger (see
+     * {@link UserLedger#recategorize}). Closed ledgers are fully projected, so the given
+     * users cover them. Users without a ledger get one first, as for any other write.
+     *
+     * @param userIds users with expenses in the category in the expenses table
+     * @return the users whose ledgers changed
+     */
+    public Set<Long> recategorize(Collection<Long> userIds, long fromCategoryId, long toCategoryId,
+                                  String toCategoryName) throws IOException {
+        Set<Long> candidates = new TreeSet<>(userIds);
+        synchronized (recentlyUsed) {
+            candidates.addAll(recentlyUsed.keySet());
+        }
+        Set<Long> changed = new TreeSet<>();
+        for (Long userId : candidates) {
+            if (forUser(userId).recategorize(fromCategoryId, toCategoryId, toCategoryName) > 0) {
+                changed.add(userId);
+            }
+        }
+        return changed;
+    }
+
+    public synchronized long nextExpenseId() {
+        if (nextExpenseId > reservedUpTo) {
+            reserveIds(nextExpenseId + properties.getIdBlockSize() - 1);
+        }
+        return nextExpenseId++;
+    }
+
+    @Override
+    public void close() {
+        for (UserLedger ledger : ledgers.values()) {
+            try {
+                ledger.close();
+            } catch (IOException e) {
+                log.warn("Closing the ledger of user {} failed", ledger.getUserId(), e);
+            }
+        }
+    }
+
+    private void track(UserLedger userLedger) {
+        synchronized (recentlyUsed) {
+            recentlyUsed.put(userLedger.getUserId(), userLedger);
+        }
+    }
+
+    private void reserveIds(long upTo) {
+        Path temporary = root.resolve(ID_RESERVATION + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+                out.write(Long.toString(upTo).getBytes(StandardCharsets.US_ASCII));
+                out.getFD().sync();
+            }
+            Files.move(temporary, root.resolve(ID_RESERVATION), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reserve expense ids", e);
+        }
+        reservedUpTo = upTo;
+    }
+}
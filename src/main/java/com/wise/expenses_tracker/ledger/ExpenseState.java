@@ -0,0 +1,22 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.time.Instant;
+
+/**
+ * Current values of one expense as recorded in the ledger.
+ * The category name is kept alongside the id for the audit trail; projection only uses the id.
+ * {@code duplicateOf} is decided when the expense is created and carried over by updates.
+ */
+public record ExpenseState(String title,
+                           Instant date,
+                           String payBy,
+                           Double amount,
+                           String description,
+                           Long categoryId,
+                           String categoryName,
+                           Long duplicateOf) {
+
+    public ExpenseState withDuplicateOf(Long duplicateOf) {
+        return new ExpenseState(title, date, payBy, amount, description, categoryId, categoryName, duplicateOf);
+    }
+}
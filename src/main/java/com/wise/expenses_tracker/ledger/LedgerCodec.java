@@ -0,0 +1,116 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Binary encoding of ledger events and snapshot entries.
+ *
+ * Nullable fields are preceded by a presence flag. The layout is part of the on-disk
+ * format: fields may only be appended, behind a new {@link #VERSION}, and every older
+ * version stays readable. Version 2 added {@code duplicateOf}.
+ */
+final class LedgerCodec {
+
+    static final byte VERSION = 2;
+
+    private static final ExpenseEvent.Type[] TYPES = ExpenseEvent.Type.values();
+
+    private LedgerCodec() {
+    }
+
+    static byte[] encode(ExpenseEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(event.type().ordinal());
+            out.writeLong(event.sequence());
+            out.writeLong(event.recordedAt().toEpochMilli());
+            out.writeLong(event.expenseId());
+            if (event.state() != null) {
+                writeState(out, event.state());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static ExpenseEvent decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (!isSupported(version)) {
+                throw new IllegalStateException("Unsupported ledger event version " + version);
+            }
+            ExpenseEvent.Type type = TYPES[in.readByte()];
+            long sequence = in.readLong();
+            Instant recordedAt = Instant.ofEpochMilli(in.readLong());
+            long expenseId = in.readLong();
+            ExpenseState state = type == ExpenseEvent.Type.DELETED ? null : readState(in, version);
+            return new ExpenseEvent(type, sequence, recordedAt, expenseId, state);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean isSupported(byte version) {
+        return version >= 1 && version <= VERSION;
+    }
+
+    static void writeState(DataOutput out, ExpenseState state) throws IOException {
+        writeString(out, state.title());
+        out.writeBoolean(state.date() != null);
+        if (state.date() != null) {
+            out.writeLong(state.date().getEpochSecond());
+            out.writeInt(state.date().getNano());
+        }
+        writeString(out, state.payBy());
+        out.writeBoolean(state.amount() != null);
+        if (state.amount() != null) {
+            out.writeDouble(state.amount());
+        }
+        writeString(out, state.description());
+        out.writeBoolean(state.categoryId() != null);
+        if (state.categoryId() != null) {
+            out.writeLong(state.categoryId());
+        }
+        writeString(out, state.categoryName());
+        out.writeBoolean(state.duplicateOf() != null);
+        if (state.duplicateOf() != null) {
+            out.writeLong(state.duplicateOf());
+        }
+    }
+
+    /**
+     * @param version the version the state was written with
+     */
+    static ExpenseState readState(DataInput in, byte version) throws IOException {
+        String title = readString(in);
+        Instant date = in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+        String payBy = readString(in);
+        Double amount = in.readBoolean() ? in.readDouble() : null;
+        String description = readString(in);
+        Long categoryId = in.readBoolean() ? in.readLong() : null;
+        String categoryName = readString(in);
+        Long duplicateOf = version >= 2 && in.readBoolean() ? in.readLong() : null;
+        return new ExpenseState(title, date, payBy, amount, description, categoryId, categoryName, duplicateOf);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,249 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.duplicates.ExpenseFingerprint;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies ledger events to the expenses table in the background.
+ *
+ * Appending a user's event schedules that user; a worker then applies everything after
+ * the user's checkpoint in batches of {@code projection-batch-size}, one transaction per
+ * batch, and advances the checkpoint. Applying an event twice has the same effect as
+ * applying it once (upsert by id, delete by id), so a crash between commit and checkpoint
+ * only causes some rework. If the database is unavailable the user is retried after
+ * {@code projection-retry-delay}. An event that violates a constraint (e.g. its category
+ * was deleted in the meantime) is logged, counted and skipped, so it cannot block the
+ * user's later events.
+ *
+ * Metrics: {@code ledger.projection.lag} (appended but not yet projected events),
+ * {@code ledger.projection.skipped} and {@code ledger.snapshots}.
+ */
+@Slf4j
+public class LedgerProjector implements Closeable {
+
+    private static final String UPDATE = "UPDATE expenses SET title = ?, date = ?, pay_by = ?, amount = ?,"
+            + " description = ?, category_id = ?, fingerprint = ?, duplicate_of = ?, version = version + 1"
+            + " WHERE id = ? AND user_id = ?";
+    private static final String INSERT = "INSERT INTO expenses"
+            + " (id, title, date, pay_by, amount, description, add_to_report, user_id, category_id, fingerprint, duplicate_of)"
+            + " VALUES (?, ?, ?, ?, ?, ?, FALSE, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM expenses WHERE id = ? AND user_id = ?";
+    private static final String BASELINE = "SELECT e.id, e.title, e.date, e.pay_by, e.amount, e.description,"
+            + " e.category_id, c.name, e.duplicate_of FROM expenses e LEFT JOIN categories c ON c.id = e.category_id"
+            + " WHERE e.user_id = ?";
+    private static final long BUSY_RETRY_MILLIS = 10;
+
+    private final ExpenseLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LedgerProperties properties;
+    private final ScheduledExecutorService workers;
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final Counter skipped;
+    private final Counter snapshots;
+
+    public LedgerProjector(ExpenseLedger ledger,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           LedgerProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.workers = Executors.newScheduledThreadPool(properties.getProjectionThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "ledger-projector");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("ledger.projection.lag", ledger, l -> l.ledgers().stream()
+                        .mapToLong(user -> user.lastSequence() - user.projectedSequence())
+                        .sum())
+                .description("Ledger events appended but not yet applied to the expenses table")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("ledger.projection.skipped")
+                .description("Ledger events that could not be applied to the expenses table")
+                .register(meterRegistry);
+        this.snapshots = Counter.builder("ledger.snapshots")
+                .description("Ledger snapshots written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Catches up on events appended before the last shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        for (UserLedger userLedger : ledger.openBehind()) {
+            schedule(userLedger.getUserId());
+        }
+    }
+
+    /**
+     * Schedules the user's new events for projection. Cheap when already scheduled.
+     */
+    public void schedule(long userId) {
+        if (scheduled.add(userId)) {
+            workers.execute(() -> project(userId));
+        }
+    }
+
+    /**
+     * Waits until every event the user has appended so far is in the expenses table,
+     * at most {@code read-your-writes-timeout}.
+     *
+     * @return false if the wait timed out
+     */
+    public boolean awaitProjected(long userId) {
+        UserLedger userLedger = ledger.opened(userId);
+        if (userLedger == null) {
+            return true;
+        }
+        try {
+            return userLedger.awaitProjected(userLedger.lastSequence(), properties.getReadYourWritesTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The user's expenses as currently stored in the table; the starting state of a new ledger.
+     */
+    public static Map<Long, ExpenseState> loadBaseline(JdbcTemplate jdbcTemplate, long userId) {
+        Map<Long, ExpenseState> expenses = new HashMap<>();
+        jdbcTemplate.query(BASELINE, row -> {
+            Timestamp date = row.getTimestamp(3);
+            double amount = row.getDouble(5);
+            boolean hasAmount = !row.wasNull();
+            long categoryId = row.getLong(7);
+            boolean hasCategory = !row.wasNull();
+            long duplicateOf = row.getLong(9);
+            boolean hasDuplicateOf = !row.wasNull();
+            expenses.put(row.getLong(1), new ExpenseState(
+                    row.getString(2),
+                    date != null ? date.toInstant() : null,
+                    row.getString(4),
+                    hasAmount ? amount : null,
+                    row.getString(6),
+                    hasCategory ? categoryId : null,
+                    row.getString(8),
+                    hasDuplicateOf ? duplicateOf : null));
+        }, userId);
+        return expenses;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void project(long userId) {
+        // Cleared first: an append from now on schedules another run, which waits for the lock
+        scheduled.remove(userId);
+        UserLedger userLedger = ledger.opened(userId);
+        if (userLedger == null) {
+            return;
+        }
+        if (!userLedger.projectionLock().tryLock()) {
+            // Another worker is on this user and may be about to finish; look again shortly
+            // rather than tying up this worker
+            retry(userId, BUSY_RETRY_MILLIS);
+            return;
+        }
+        try {
+            List<ExpenseEvent> events;
+            while (!(events = userLedger.read(userLedger.projectedSequence() + 1,
+                    properties.getProjectionBatchSize())).isEmpty()) {
+                applyBatch(userId, events);
+                // Invalidate derived per-user state before readers waiting on the checkpoint are released
+                eventPublisher.publishEvent(ExpensesChangedEvent.forUser(userId));
+                userLedger.markProjected(events.get(events.size() - 1).sequence());
+            }
+            if (userLedger.snapshotIfDue()) {
+                snapshots.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Projecting the ledger of user {} failed, retrying in {}: {}",
+                    userId, properties.getProjectionRetryDelay(), e.toString());
+            retry(userId, properties.getProjectionRetryDelay().toMillis());
+        } finally {
+            userLedger.projectionLock().unlock();
+        }
+        // Ledgers left open only because they were behind can be closed now
+        ledger.closeIdle();
+    }
+
+    private void retry(long userId, long delayMillis) {
+        if (scheduled.add(userId)) {
+            workers.schedule(() -> project(userId), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void applyBatch(long userId, List<ExpenseEvent> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> events.forEach(event -> apply(userId, event)));
+        } catch (DataIntegrityViolationException batchFailure) {
+            // Find the offending event(s) by applying the batch one event at a time
+            for (ExpenseEvent event : events) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(userId, event));
+                } catch (DataIntegrityViolationException e) {
+                    skipped.increment();
+                    log.error("Skipping ledger event {} of user {} ({} expense {}): {}", event.sequence(), userId,
+                            event.type(), event.expenseId(), e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void apply(long userId, ExpenseEvent event) {
+        if (event.type() == ExpenseEvent.Type.DELETED) {
+            jdbcTemplate.update(DELETE, event.expenseId(), userId);
+            return;
+        }
+        ExpenseState state = event.state();
+        Timestamp date = state.date() != null ? Timestamp.from(state.date()) : null;
+        long fingerprint = ExpenseFingerprint.of(userId, state.date(), state.amount(), state.payBy(), state.title());
+        // Update first so a created event applied again after a crash does not fail as a duplicate
+        int updated = jdbcTemplate.update(UPDATE, state.title(), date, state.payBy(), state.amount(),
+                state.description(), state.categoryId(), fingerprint, state.duplicateOf(), event.expenseId(), userId);
+        if (updated == 0 && event.type() == ExpenseEvent.Type.CREATED) {
+            jdbcTemplate.update(INSERT, event.expenseId(), state.title(), date, state.payBy(), state.amount(),
+                    state.description(), userId, state.categoryId(), fingerprint, state.duplicateOf());
+        }
+    }
+}
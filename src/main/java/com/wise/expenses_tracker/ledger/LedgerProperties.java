@@ -0,0 +1,57 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Event-sourced expense ledger (prefix {@code ledger}).
+ *
+ * When enabled, expense writes are appended to a per-user log under {@code directory}
+ * and projected into the expenses table in the background.
+ */
+@Data
+@ConfigurationProperties(prefix = "ledger")
+public class LedgerProperties {
+
+    private boolean enabled = false;
+
+    /** Root directory; each user gets a {@code user-<id>} sub-directory */
+    private String directory = "./ledger";
+
+    /** Size of each memory-mapped log segment; an event must fit in one */
+    private DataSize segmentSize = DataSize.ofMegabytes(1);
+
+    /** Flush every appended event to disk before the write returns */
+    private boolean fsync = true;
+
+    /** Events between two snapshots of a user's state; 0 disables snapshots */
+    private int snapshotEvery = 1_000;
+
+    /** Threads applying events to the expenses table */
+    private int projectionThreads = 2;
+
+    /** Events applied per projection transaction */
+    private int projectionBatchSize = 500;
+
+    /** Wait before retrying a projection that failed, e.g. while the database is down */
+    private Duration projectionRetryDelay = Duration.ofSeconds(1);
+
+    /**
+     * How long a read waits for the user's own appended events to be projected.
+     * On timeout the read is served from the (slightly stale) table.
+     */
+    private Duration readYourWritesTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Ledgers kept open, each with its last log segment mapped and its expenses in memory.
+     * Beyond this the least recently used fully projected ones are closed until their next write.
+     */
+    private int maxOpenLedgers = 1_000;
+
+    /** Expense ids reserved on disk at a time */
+    private int idBlockSize = 1_000;
+}
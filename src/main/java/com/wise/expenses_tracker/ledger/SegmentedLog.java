@@ -0,0 +1,291 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of byte records, split over fixed-size memory-mapped segment files.
+ *
+ * Each record is stored as {@code [length][crc32][payload]}; a zero length marks the end
+ * of the written part of a segment. Records are numbered from 1 and a segment file is
+ * named after the number of its first record. Only the last segment is ever written:
+ * when a record does not fit, a new segment is started.
+ *
+ * On open the last segment is scanned to find the end. A torn record left by a crash
+ * (its checksum does not match) is zeroed, so the log ends at the last complete record.
+ *
+ * Not thread-safe for appends; the owner (UserLedger, IngestionQueue) serializes them.
+ * Reads may run concurrently with appends as long as they stop at a {@link #end()} taken
+ * under the same lock, because bytes before that position are never modified again.
+ */
+public final class SegmentedLog implements Closeable {
+
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final List<Long> segmentBases = new ArrayList<>();
+
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long nextRecord;
+
+    public SegmentedLog(Path directory, int segmentSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(segmentBases::add);
+        }
+        if (segmentBases.isEmpty()) {
+            openSegment(1);
+        } else {
+            long base = segmentBases.remove(segmentBases.size() - 1);
+            openSegment(base);
+            recoverActiveSegment(base);
+        }
+    }
+
+    /**
+     * Number of the last record in the log in {@code directory}, 0 if it has none, found
+     * without opening the log: only the headers of the last segment are read. A torn
+     * record at the end is counted, so the result may be one too high after a crash.
+     */
+    public static long lastRecord(Path directory) throws IOException {
+        long base;
+        try (Stream<Path> files = Files.list(directory)) {
+            base = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+        if (base == 0) {
+            return 0;
+        }
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, base), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            long size = channel.size();
+            long position = 0;
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                if (channel.read(header, position) < HEADER_BYTES) {
+                    break;
+                }
+                int length = header.getInt(0);
+                if (length <= 0 || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                records++;
+                position += HEADER_BYTES + length;
+            }
+        }
+        return base + records - 1;
+    }
+
+    /**
+     * Number the next appended record will get.
+     */
+    public long nextRecord() {
+        return nextRecord;
+    }
+
+    /**
+     * Appends one record and returns its number.
+     */
+    public long append(byte[] payload) throws IOException {
+        int needed = HEADER_BYTES + payload.length;
+        if (needed > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (active.remaining() < needed) {
+            closeActiveSegment();
+            openSegment(nextRecord);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int start = active.position();
+        active.putInt(payload.length);
+        active.putInt((int) crc.getValue());
+        active.put(payload);
+        if (fsync) {
+            active.force(start, needed);
+        }
+        return nextRecord++;
+    }
+
+    /**
+     * Position just past the last appended record; pass it to {@link #read}.
+     */
+    public Position end() {
+        ByteBuffer written = active.duplicate().flip();
+        return new Position(List.copyOf(segmentBases), written, nextRecord);
+    }
+
+    /**
+     * Reads records numbered {@code from} up to (excluding) {@code end}, oldest first,
+     * until the consumer returns false.
+     */
+    public void read(long from, Position end, Predicate<byte[]> consumer) throws IOException {
+        List<Long> bases = end.segmentBases();
+        int first = 0;
+        while (first + 1 < bases.size() && bases.get(first + 1) <= from) {
+            first++;
+        }
+        for (int i = first; i < bases.size(); i++) {
+            long base = bases.get(i);
+            ByteBuffer segment = i == bases.size() - 1 ? end.lastSegment().duplicate() : mapForReading(base);
+            long record = base;
+            while (record < end.nextRecord()) {
+                byte[] payload = readRecord(segment);
+                if (payload == null) {
+                    break;
+                }
+                if (record >= from && !consumer.test(payload)) {
+                    return;
+                }
+                record++;
+            }
+        }
+    }
+
+    /**
+     * Flushes everything appended so far to disk; for owners that batch flushes
+     * instead of using {@code fsync} per append.
+     */
+    public void force() {
+        active.force();
+    }
+
+    /**
+     * {@link #force()} split in two, so that only taking the segment needs the owner's
+     * lock: the returned flush, run afterwards without the lock, makes every record
+     * appended before this call durable. A segment that fills up meanwhile is forced
+     * when it is closed.
+     */
+    public Runnable deferredForce() {
+        MappedByteBuffer segment = active;
+        return segment::force;
+    }
+
+    /**
+     * Deletes the segments that only hold records numbered below {@code record}.
+     * The segment being written is always kept.
+     */
+    public void deleteSegmentsBefore(long record) throws IOException {
+        while (segmentBases.size() > 1 && segmentBases.get(1) <= record) {
+            Files.deleteIfExists(segmentPath(segmentBases.remove(0)));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeActiveSegment();
+    }
+
+    private void openSegment(long base) throws IOException {
+        activeChannel = FileChannel.open(segmentPath(base),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentBases.add(base);
+        nextRecord = base;
+    }
+
+    private void recoverActiveSegment(long base) {
+        ByteBuffer scan = active.duplicate();
+        long record = base;
+        int end = 0;
+        while (readRecord(scan) != null) {
+            end = scan.position();
+            record++;
+        }
+        // Zero a torn record so its leftovers cannot be mistaken for data on the next recovery
+        if (segmentSize - end >= HEADER_BYTES) {
+            int tornLength = active.getInt(end);
+            int extent = tornLength > 0 && tornLength <= segmentSize - end - HEADER_BYTES
+                    ? HEADER_BYTES + tornLength
+                    : HEADER_BYTES;
+            for (int i = end; i < end + extent; i++) {
+                active.put(i, (byte) 0);
+            }
+        }
+        active.position(end);
+        nextRecord = record;
+    }
+
+    private void closeActiveSegment() throws IOException {
+        if (active == null) {
+            return;
+        }
+        // Unconditional: owners that flush in batches only ever flush the active segment
+        active.force();
+        activeChannel.close();
+        active = null;
+    }
+
+    private ByteBuffer mapForReading(long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(base), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads the record at the buffer's position, or returns null at the end of the
+     * written data (zero length, truncated or checksum mismatch).
+     */
+    private static byte[] readRecord(ByteBuffer segment) {
+        if (segment.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = segment.position();
+        int length = segment.getInt();
+        int checksum = segment.getInt();
+        if (length <= 0 || length > segment.remaining()) {
+            segment.position(start);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        segment.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            segment.position(start);
+            return null;
+        }
+        return payload;
+    }
+
+    private Path segmentPath(long base) {
+        return segmentPath(directory, base);
+    }
+
+    private static Path segmentPath(Path directory, long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    /**
+     * End of the log at one point in time: the segments that existed and a read-only
+     * view of the last one, limited to its written part.
+     */
+    public record Position(List<Long> segmentBases, ByteBuffer lastSegment, long nextRecord) {
+    }
+}
@@ -0,0 +1,431 @@
+package com.wise.expenses_tracker.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The ledger of one user: the event log, the current expenses derived from it and how
+ * far the log has been projected into the expenses table.
+ *
+ * The current expenses are kept in memory, so updates and deletes are validated without
+ * touching the database. They are rebuilt on open from the latest snapshot plus the
+ * events after it. The first snapshot (sequence 0) is taken from the expenses table when
+ * the ledger is created, so expenses written before ledger mode was enabled are known too.
+ *
+ * Appends are serialized per user; projection reads the log concurrently.
+ *
+ * A ledger whose events are all projected can be closed to give back its mapped segment
+ * and in-memory expenses (see {@link #closeIfIdle()}). It reopens itself on the next
+ * append, keeping its sequence numbers meanwhile, so holders of the object never notice.
+ */
+@Slf4j
+public final class UserLedger implements Closeable {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String CHECKPOINT = "projected.checkpoint";
+    private static final int SNAPSHOT_MAGIC = 0x45584c53;
+
+    private final long userId;
+    private final Path directory;
+    private final LedgerProperties properties;
+    private final LongFunction<Map<Long, ExpenseState>> baseline;
+    private final Consumer<UserLedger> onOpen;
+    private final Object projectionMonitor = new Object();
+    private final ReentrantLock projectionLock = new ReentrantLock();
+
+    // Both null while the ledger is closed
+    private SegmentedLog eventLog;
+    private Map<Long, ExpenseState> expenses;
+    private volatile boolean open;
+
+    private long lastSequence;
+    private long snapshotSequence;
+    private volatile long projectedSequence;
+
+    /**
+     * A closed ledger in {@code directory}; {@link #open()} reads it, creating it from
+     * {@code baseline} (the user's rows in the expenses table) when it does not exist yet.
+     *
+     * @param onOpen called whenever the ledger is (re)opened
+     */
+    UserLedger(long userId, Path directory, LedgerProperties properties,
+               LongFunction<Map<Long, ExpenseState>> baseline, Consumer<UserLedger> onOpen) {
+        this.userId = userId;
+        this.directory = directory;
+        this.properties = properties;
+        this.baseline = baseline;
+        this.onOpen = onOpen;
+    }
+
+    /**
+     * Whether the ledger in {@code directory} has events not yet projected, judged from
+     * its files without opening it.
+     */
+    static boolean isBehind(Path directory) throws IOException {
+        return SegmentedLog.lastRecord(directory) > readCheckpoint(directory);
+    }
+
+    /**
+     * Maps the log and rebuilds the expenses from the latest snapshot plus the events
+     * after it. Does nothing when already open.
+     */
+    synchronized void open() throws IOException {
+        if (open) {
+            return;
+        }
+        SegmentedLog segments = new SegmentedLog(directory, (int) properties.getSegmentSize().toBytes(), properties.isFsync());
+        Map<Long, ExpenseState> state;
+        // Also covers a crash between creating the directory and writing the first snapshot
+        if (segments.nextRecord() == 1 && listSnapshots(directory).isEmpty()) {
+            state = new HashMap<>(baseline.apply(userId));
+            snapshotSequence = 0;
+            writeSnapshot(directory, 0, state);
+        } else {
+            Snapshot snapshot = readLatestSnapshot(directory);
+            state = snapshot.expenses();
+            snapshotSequence = snapshot.sequence();
+            long[] replayed = new long[1];
+            segments.read(snapshotSequence + 1, segments.end(), payload -> {
+                apply(state, LedgerCodec.decode(payload));
+                replayed[0]++;
+                return true;
+            });
+            log.debug("Opened ledger of user {}: snapshot {} plus {} events", userId, snapshotSequence, replayed[0]);
+        }
+        eventLog = segments;
+        expenses = state;
+        lastSequence = segments.nextRecord() - 1;
+        projectedSequence = Math.max(projectedSequence, readCheckpoint(directory));
+        open = true;
+        onOpen.accept(this);
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Closes the ledger if every event is projected and no projection is running.
+     *
+     * @return true if the ledger was closed by this call
+     */
+    synchronized boolean closeIfIdle() throws IOException {
+        if (!open || projectedSequence < lastSequence || !projectionLock.tryLock()) {
+            return false;
+        }
+        try {
+            open = false;
+            expenses = null;
+            SegmentedLog segments = eventLog;
+            eventLog = null;
+            segments.close();
+            return true;
+        } finally {
+            projectionLock.unlock();
+        }
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public long projectedSequence() {
+        return projectedSequence;
+    }
+
+    public synchronized ExpenseEvent create(long expenseId, ExpenseState state) throws IOException {
+        open();
+        return append(ExpenseEvent.Type.CREATED, expenseId, state);
+    }
+
+    /**
+     * Records new values for an expense, or returns empty when the user has no such expense.
+     * The expense keeps its duplicate flag.
+     */
+    public synchronized Optional<ExpenseEvent> update(long expenseId, ExpenseState state) throws IOException {
+        open();
+        ExpenseState previous = expenses.get(expenseId);
+        if (previous == null) {
+            return Optional.empty();
+        }
+        return Optional.of(append(ExpenseEvent.Type.UPDATED, expenseId, state.withDuplicateOf(previous.duplicateOf())));
+    }
+
+    /**
+     * Records the expense's current values as changed by {@code change}, or returns empty
+     * when the user has no such expense. Reading and appending happen under the ledger's
+     * lock, so concurrent updates are not lost.
+     */
+    public synchronized Optional<ExpenseEvent> update(long expenseId, UnaryOperator<ExpenseState> change) throws IOException {
+        open();
+        ExpenseState previous = expenses.get(expenseId);
+        if (previous == null) {
+            return Optional.empty();
+        }
+        return Optional.of(append(ExpenseEvent.Type.UPDATED, expenseId, change.apply(previous)));
+    }
+
+    /**
+     * Records the deletion of an expense and returns its last values, or empty when the
+     * user has no such expense.
+     */
+    public synchronized Optional<ExpenseState> delete(long expenseId) throws IOException {
+        open();
+        ExpenseState previous = expenses.get(expenseId);
+        if (previous == null) {
+            return Optional.empty();
+        }
+        append(ExpenseEvent.Type.DELETED, expenseId, null);
+        return Optional.of(previous);
+    }
+
+    /**
+     * Moves every expense in category {@code fromCategoryId} to the given category, with
+     * one UPDATED event per expense, under the ledger's lock so no concurrent update to
+     * those expenses is lost. With the same id, this records a renamed category.
+     *
+     * @return the number of expenses changed
+     */
+    public synchronized int recategorize(long fromCategoryId, long toCategoryId, String toCategoryName) throws IOException {
+        open();
+        List<Long> affected = expenses.entrySet().stream()
+                .filter(entry -> Long.valueOf(fromCategoryId).equals(entry.getValue().categoryId()))
+                .map(Map.Entry::getKey)
+                .toList();
+        for (Long expenseId : affected) {
+            ExpenseState state = expenses.get(expenseId);
+            append(ExpenseEvent.Type.UPDATED, expenseId, new ExpenseState(state.title(), state.date(), state.payBy(),
+                    state.amount(), state.description(), toCategoryId, toCategoryName, state.duplicateOf()));
+        }
+        return affected.size();
+    }
+
+    /**
+     * Reads up to {@code max} events starting at sequence {@code from}.
+     */
+    public List<ExpenseEvent> read(long from, int max) throws IOException {
+        SegmentedLog segments;
+        SegmentedLog.Position end;
+        synchronized (this) {
+            open();
+            segments = eventLog;
+            end = segments.end();
+        }
+        List<ExpenseEvent> events = new ArrayList<>();
+        segments.read(from, end, payload -> {
+            events.add(LedgerCodec.decode(payload));
+            return events.size() < max;
+        });
+        return events;
+    }
+
+    /**
+     * Held while projecting, so one user's events are applied by one thread at a time.
+     */
+    ReentrantLock projectionLock() {
+        return projectionLock;
+    }
+
+    /**
+     * Records that every event up to {@code sequence} is in the expenses table and wakes
+     * readers waiting for it. Re-applying events after a lost checkpoint is harmless, so
+     * the file is not synced.
+     */
+    void markProjected(long sequence) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temporary, Long.toString(sequence));
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE);
+        synchronized (projectionMonitor) {
+            projectedSequence = sequence;
+            projectionMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every event up to {@code sequence} has been projected.
+     *
+     * @return false if the timeout elapsed first
+     */
+    boolean awaitProjected(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (projectionMonitor) {
+            while (projectedSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(projectionMonitor, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a snapshot when enough events were appended since the last one. Only the
+     * copy of the state is taken under the append lock; the file is written outside it.
+     *
+     * @return true if a snapshot was written
+     */
+    boolean snapshotIfDue() throws IOException {
+        long sequence;
+        Map<Long, ExpenseState> copy;
+        synchronized (this) {
+            int snapshotEvery = properties.getSnapshotEvery();
+            if (!open || snapshotEvery <= 0 || lastSequence - snapshotSequence < snapshotEvery) {
+                return false;
+            }
+            sequence = lastSequence;
+            copy = new HashMap<>(expenses);
+            snapshotSequence = sequence;
+        }
+        writeSnapshot(directory, sequence, copy);
+        // Keep the previous snapshot as a fallback in case the new one turns out unreadable
+        List<Path> snapshots = listSnapshots(directory);
+        for (int i = 0; i < snapshots.size() - 2; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (open) {
+            open = false;
+            expenses = null;
+            eventLog.close();
+            eventLog = null;
+        }
+    }
+
+    private ExpenseEvent append(ExpenseEvent.Type type, long expenseId, ExpenseState state) throws IOException {
+        ExpenseEvent event = new ExpenseEvent(type, eventLog.nextRecord(), Instant.now(), expenseId, state);
+        eventLog.append(LedgerCodec.encode(event));
+        apply(expenses, event);
+        lastSequence = event.sequence();
+        return event;
+    }
+
+    private static void apply(Map<Long, ExpenseState> expenses, ExpenseEvent event) {
+        if (event.type() == ExpenseEvent.Type.DELETED) {
+            expenses.remove(event.expenseId());
+        } else {
+            expenses.put(event.expenseId(), event.state());
+        }
+    }
+
+    private static long readCheckpoint(Path directory) throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        return Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+    }
+
+    private static void writeSnapshot(Path directory, long sequence, Map<Long, ExpenseState> expenses)
+            throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(LedgerCodec.VERSION);
+            out.writeLong(sequence);
+            out.writeInt(expenses.size());
+            for (Map.Entry<Long, ExpenseState> entry : expenses.entrySet()) {
+                out.writeLong(entry.getKey());
+                LedgerCodec.writeState(out, entry.getValue());
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX)),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Newest snapshot that reads back intact. Every snapshot is a full copy of the state,
+     * so an unreadable one is skipped and the log is replayed from an older one instead.
+     */
+    private static Snapshot readLatestSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = listSnapshots(directory);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return readSnapshot(snapshots.get(i));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable ledger snapshot {}: {}", snapshots.get(i), e.toString());
+            }
+        }
+        throw new IOException("No readable snapshot in " + directory
+                + "; restore one or remove the directory to rebuild the ledger from the expenses table");
+    }
+
+    private static Snapshot readSnapshot(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path)), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a ledger snapshot");
+            }
+            byte version = in.readByte();
+            if (!LedgerCodec.isSupported(version)) {
+                throw new IOException("Unsupported ledger snapshot version " + version);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            Map<Long, ExpenseState> expenses = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+            for (int i = 0; i < count; i++) {
+                expenses.put(in.readLong(), LedgerCodec.readState(in, version));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+            return new Snapshot(sequence, expenses);
+        }
+    }
+
+    private static List<Path> listSnapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private record Snapshot(long sequence, Map<Long, ExpenseState> expenses) {
+    }
+}
@@ -1,9 +1,14 @@
 package com.wise.expenses_tracker.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,9 +16,15 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "Categories")
+@Table(name = "Categories", indexes = @Index(name = "idx_categories_name", columnList = "name"))
+// Reference data: read on every expense mapping, rarely written, so served from the second-level cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CategoryEntity.CACHE_REGION)
 public class CategoryEntity {
 
+    public static final String CACHE_REGION = "categories";
+    public static final String QUERY_CACHE_REGION = "category-queries";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
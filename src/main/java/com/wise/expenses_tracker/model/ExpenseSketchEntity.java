@@ -0,0 +1,45 @@
+package com.wise.expenses_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Encoded QuantileSketch of one user's expense amounts in one category and calendar
+ * month (UTC). Lives on the user's shard next to their expenses and is written by
+ * ExpenseSketches in the same transactions.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+// The unique key also serves the range reads, which always lead with user_id
+@Table(name = "Expense_Sketches", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_expense_sketches_user_category_month", columnNames = {"user_id", "category_id", "expense_month"})
+})
+public class ExpenseSketchEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long user_id;
+
+    @Column(nullable = false)
+    private Long category_id;
+
+    // Year and month as yyyymm, e.g. 202501
+    @Column(nullable = false)
+    private int expense_month;
+
+    @Column(nullable = false, length = 16384)
+    private byte[] data;
+}
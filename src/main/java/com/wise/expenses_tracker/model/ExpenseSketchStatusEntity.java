@@ -0,0 +1,25 @@
+package com.wise.expenses_tracker.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Whether a user's expense sketches reflect all of their expenses. Every change to the
+ * sketches locks this row first, so it also serializes them per user.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "Expense_Sketch_Status")
+public class ExpenseSketchStatusEntity {
+
+    @Id
+    private Long user_id;
+
+    private boolean complete;
+}
@@ -1,14 +1,24 @@
 package com.wise.expenses_tracker.model;
 import java.time.Instant;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.wise.expenses_tracker.duplicates.ExpenseFingerprint;
+
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,7 +27,17 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "Expenses")
+// Declared here so MySQL and the embedded profile get the same indexes:
+// (user_id, category_id) serves findByUser and the per-category sums, (user_id, date) the most recent
+// expenses, category_id backs the foreign key, fingerprint serves duplicate detection
+@Table(name = "Expenses", indexes = {
+    @Index(name = "idx_expenses_user_category", columnList = "user_id, category_id"),
+    @Index(name = "idx_expenses_user_date", columnList = "user_id, date"),
+    @Index(name = "idx_expenses_category", columnList = "category_id"),
+    @Index(name = "idx_expenses_fingerprint", columnList = "fingerprint")
+})
+// UPDATEs only write the columns that changed, so a PATCH of one field sends one field
+@DynamicUpdate
 public class ExpensesEntity {
 
     @Id
@@ -30,6 +50,19 @@ public class ExpensesEntity {
     private String description;
     private boolean add_to_report;
 
+    // See ExpenseFingerprint; kept up to date on every write
+    private Long fingerprint;
+
+    // Existing expense this one likely repeats, set when it was created (see DuplicateDetector)
+    private Long duplicate_of;
+
+    // Optimistic lock, exposed as the ETag; bulk and ledger writes increment it as well.
+    // Defaults to 0 so existing rows and plain JDBC inserts need no value
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     // Assuming each expense is linked to a user
     @ManyToOne(cascade = CascadeType.PERSIST)
     @JoinColumn(name = "user_id", nullable = false)
@@ -40,4 +73,10 @@ public class ExpensesEntity {
     @JoinColumn(name = "category_id", nullable = false)
     private CategoryEntity categoryEntity;
 
+    @PrePersist
+    @PreUpdate
+    void updateFingerprint() {
+        fingerprint = ExpenseFingerprint.of(user.getId(), date, amount, pay_by, title);
+    }
+
 }
@@ -0,0 +1,25 @@
+package com.wise.expenses_tracker.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last ingestion journal record whose expense is in the expenses table.
+ * Written by IngestionWriter in the same transaction as the inserts.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "Ingestion_Checkpoints")
+public class IngestionCheckpointEntity {
+
+    @Id
+    private String queue;
+
+    private long committed_record;
+}
@@ -16,6 +16,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -29,7 +30,7 @@ import lombok.NoArgsConstructor;
 @Entity
 @Builder
 @Data // Lombok will generate getters, setters, toString, equals, and hashCode methods
-@Table(name = "Users")
+@Table(name = "Users", indexes = @Index(name = "idx_users_username", columnList = "username")) // looked up on every request
 public class UserEntity implements UserDetails{
 
     @Id
@@ -0,0 +1,29 @@
+package com.wise.expenses_tracker.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.wise.expenses_tracker.model.BudgetEntity;
+import com.wise.expenses_tracker.model.CategoryEntity;
+
+public interface BudgetRepository extends JpaRepository<BudgetEntity, Long> {
+
+    /**
+     * The user's budgets with their categories in one query.
+     */
+    @Query("SELECT b FROM BudgetEntity b JOIN FETCH b.category WHERE b.user.id = :userId ORDER BY b.id")
+    List<BudgetEntity> findByUserIdWithCategory(@Param("userId") Long userId);
+
+    /**
+     * Moves every budget of one category to another in a single UPDATE.
+     *
+     * @return the number of budgets moved
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BudgetEntity b SET b.category = :target WHERE b.category = :source")
+    int reassignCategory(@Param("source") CategoryEntity source, @Param("target") CategoryEntity target);
+}
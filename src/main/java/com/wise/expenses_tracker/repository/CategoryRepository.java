@@ -1,13 +1,33 @@
 package com.wise.expenses_tracker.repository;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.wise.expenses_tracker.model.CategoryEntity;
 
+import jakarta.persistence.QueryHint;
+
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
     // Additional query methods can be defined here if needed
 
+    /**
+     * Looked up on every expense write; the result is kept in the query cache
+     * and invalidated by Hibernate whenever the categories table changes.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CategoryEntity.QUERY_CACHE_REGION)
+    })
     Optional<CategoryEntity> findByName(String name);
 
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CategoryEntity.QUERY_CACHE_REGION)
+    })
+    List<CategoryEntity> findAll();
+
 }
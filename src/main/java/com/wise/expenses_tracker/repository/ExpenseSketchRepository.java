@@ -0,0 +1,42 @@
+package com.wise.expenses_tracker.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.wise.expenses_tracker.model.ExpenseSketchEntity;
+
+public interface ExpenseSketchRepository extends JpaRepository<ExpenseSketchEntity, Long> {
+
+    @Query("SELECT s FROM ExpenseSketchEntity s " +
+           "WHERE s.user_id = :userId AND s.category_id = :categoryId AND s.expense_month = :month")
+    Optional<ExpenseSketchEntity> findSketch(@Param("userId") Long userId,
+                                             @Param("categoryId") Long categoryId,
+                                             @Param("month") int month);
+
+    /**
+     * Encoded sketches of all the user's categories for the months from {@code from} to
+     * {@code to}, both inclusive, as yyyymm.
+     */
+    @Query("SELECT s.data FROM ExpenseSketchEntity s " +
+           "WHERE s.user_id = :userId AND s.expense_month BETWEEN :from AND :to")
+    List<byte[]> findData(@Param("userId") Long userId, @Param("from") int from, @Param("to") int to);
+
+    /**
+     * As {@link #findData(Long, int, int)}, for one category.
+     */
+    @Query("SELECT s.data FROM ExpenseSketchEntity s " +
+           "WHERE s.user_id = :userId AND s.category_id = :categoryId AND s.expense_month BETWEEN :from AND :to")
+    List<byte[]> findDataByCategory(@Param("userId") Long userId,
+                                    @Param("categoryId") Long categoryId,
+                                    @Param("from") int from,
+                                    @Param("to") int to);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseSketchEntity s WHERE s.user_id = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+}
@@ -0,0 +1,31 @@
+package com.wise.expenses_tracker.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.wise.expenses_tracker.model.ExpenseSketchStatusEntity;
+
+import jakarta.persistence.LockModeType;
+
+public interface ExpenseSketchStatusRepository extends JpaRepository<ExpenseSketchStatusEntity, Long> {
+
+    /**
+     * The user's status row, locked until the transaction ends (SELECT ... FOR UPDATE).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ExpenseSketchStatusEntity s WHERE s.user_id = :userId")
+    Optional<ExpenseSketchStatusEntity> findForUpdate(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE ExpenseSketchStatusEntity s SET s.complete = false WHERE s.user_id = :userId")
+    int markIncomplete(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE ExpenseSketchStatusEntity s SET s.complete = false")
+    int markAllIncomplete();
+}
@@ -0,0 +1,37 @@
+package com.wise.expenses_tracker.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.wise.expenses_tracker.model.ExpensesEntity;
+
+/**
+ * Set-based operations and projections on expenses that Spring Data cannot derive; implemented by
+ * ExpensesBulkRepositoryImpl and exposed through ExpensesRepository.
+ */
+public interface ExpensesBulkRepository {
+
+    /**
+     * Runs one UPDATE over the matching expenses, incrementing their version.
+     *
+     * @param assignments new values by entity attribute name
+     * @return the number of expenses changed
+     */
+    int update(Specification<ExpensesEntity> where, Map<String, Object> assignments);
+
+    /**
+     * Selects only the ids of the matching expenses, in id order.
+     */
+    List<Long> findIds(Specification<ExpensesEntity> where);
+
+    /**
+     * Selects only the given attributes of the matching expenses, in id order. Categories
+     * are joined only when a path goes through categoryEntity.
+     *
+     * @param attributes attribute paths such as "title" or "categoryEntity.name"
+     * @return one array per expense, values in the order of attributes
+     */
+    List<Object[]> findAttributes(Specification<ExpensesEntity> where, List<String> attributes);
+}
@@ -0,0 +1,66 @@
+package com.wise.expenses_tracker.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.wise.expenses_tracker.model.ExpensesEntity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+class ExpensesBulkRepositoryImpl implements ExpensesBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int update(Specification<ExpensesEntity> where, Map<String, Object> assignments) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ExpensesEntity> update = builder.createCriteriaUpdate(ExpensesEntity.class);
+        Root<ExpensesEntity> root = update.from(ExpensesEntity.class);
+        assignments.forEach((attribute, value) -> update.set(root.get(attribute), value));
+        Path<Long> version = root.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.where(where.toPredicate(root, null, builder));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public List<Long> findIds(Specification<ExpensesEntity> where) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<ExpensesEntity> root = query.from(ExpensesEntity.class);
+        query.select(root.get("id"))
+                .where(where.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findAttributes(Specification<ExpensesEntity> where, List<String> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<ExpensesEntity> root = query.from(ExpensesEntity.class);
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            Path<?> path = root;
+            for (String part : attribute.split("\\.")) {
+                path = path.get(part);
+            }
+            selections.add(path);
+        }
+        query.multiselect(selections)
+                .where(where.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
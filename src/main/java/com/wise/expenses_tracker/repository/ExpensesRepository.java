@@ -1,17 +1,24 @@
 package com.wise.expenses_tracker.repository;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.wise.expenses_tracker.model.CategoryEntity;
 import com.wise.expenses_tracker.model.ExpensesEntity;
 import com.wise.expenses_tracker.model.UserEntity;
 
 @Repository
-public interface ExpensesRepository extends JpaRepository<ExpensesEntity, Long> {
+public interface ExpensesRepository extends JpaRepository<ExpensesEntity, Long>,
+        JpaSpecificationExecutor<ExpensesEntity>, ExpensesBulkRepository {
     
     /**
      * Find all expenses for a specific user
@@ -58,4 +65,65 @@ public interface ExpensesRepository extends JpaRepository<ExpensesEntity, Long>
            "WHERE c.name = :categoryName AND e.user = :user")
     Double sumExpensesByCategoryAndUser(@Param("categoryName") String categoryName, 
                                        @Param("user") UserEntity user);
+
+    /**
+     * Totals per category of one user's expenses in a single grouped query.
+     *
+     * @return rows of category name and total
+     */
+    @Query("SELECT c.name, COALESCE(SUM(e.amount), 0.0) FROM ExpensesEntity e " +
+           "JOIN e.categoryEntity c " +
+           "WHERE e.user.id = :userId GROUP BY c.name")
+    List<Object[]> sumExpensesByCategoryForUser(@Param("userId") Long userId);
+
+    /**
+     * Totals per category of one user's expenses dated on or after {@code from}.
+     *
+     * @return rows of category name and total
+     */
+    @Query("SELECT c.name, COALESCE(SUM(e.amount), 0.0) FROM ExpensesEntity e " +
+           "JOIN e.categoryEntity c " +
+           "WHERE e.user.id = :userId AND e.date >= :from GROUP BY c.name")
+    List<Object[]> sumExpensesByCategoryForUserSince(@Param("userId") Long userId, @Param("from") Instant from);
+
+    /**
+     * One user's expenses as the columns ExpenseAnalyticsCache keeps, ordered by date.
+     *
+     * @return rows of id, version, date, amount, category id and category name
+     */
+    @Query("SELECT e.id, e.version, e.date, e.amount, c.id, c.name FROM ExpensesEntity e " +
+           "JOIN e.categoryEntity c " +
+           "WHERE e.user.id = :userId ORDER BY e.date, e.id")
+    List<Object[]> findAnalyticsColumnsByUser(@Param("userId") Long userId);
+
+    /**
+     * What ExpenseSketches are built from, for one user, in no particular order.
+     *
+     * @return rows of category id, date and amount
+     */
+    @Query("SELECT e.categoryEntity.id, e.date, e.amount FROM ExpensesEntity e WHERE e.user.id = :userId")
+    List<Object[]> findSketchPointsByUser(@Param("userId") Long userId);
+
+    /**
+     * The user's latest expenses, newest first, with their categories in the same query
+     * (served by idx_expenses_user_date).
+     */
+    @EntityGraph(attributePaths = "categoryEntity")
+    List<ExpensesEntity> findByUserOrderByDateDescIdDesc(UserEntity user, Limit limit);
+
+    /**
+     * Users with expenses in the category, for moving them in ledger mode.
+     */
+    @Query("SELECT DISTINCT e.user.id FROM ExpensesEntity e WHERE e.categoryEntity = :category")
+    List<Long> findUserIdsByCategory(@Param("category") CategoryEntity category);
+
+    /**
+     * Moves every expense of one category to another, all users at once, in a single
+     * UPDATE (served by idx_expenses_category) instead of loading the expenses.
+     *
+     * @return the number of expenses moved
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ExpensesEntity e SET e.categoryEntity = :target, e.version = e.version + 1 WHERE e.categoryEntity = :source")
+    int reassignCategory(@Param("source") CategoryEntity source, @Param("target") CategoryEntity target);
 }
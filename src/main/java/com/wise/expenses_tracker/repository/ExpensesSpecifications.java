@@ -0,0 +1,55 @@
+package com.wise.expenses_tracker.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+
+/**
+ * Criteria for selecting expenses, combinable with {@link Specification#and}.
+ *
+ * None of them joins, so they also work in bulk UPDATE and DELETE statements.
+ */
+public final class ExpensesSpecifications {
+
+    private ExpensesSpecifications() {
+    }
+
+    /**
+     * Compares the user_id column itself, so the user need not be loaded.
+     */
+    public static Specification<ExpensesEntity> ofUser(long userId) {
+        return (root, query, builder) -> builder.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<ExpensesEntity> idIn(Collection<Long> ids) {
+        return (root, query, builder) -> ids.isEmpty() ? builder.disjunction() : root.get("id").in(ids);
+    }
+
+    public static Specification<ExpensesEntity> inCategory(CategoryEntity category) {
+        return (root, query, builder) -> builder.equal(root.get("categoryEntity"), category);
+    }
+
+    public static Specification<ExpensesEntity> dateFrom(Instant from) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    public static Specification<ExpensesEntity> dateBefore(Instant to) {
+        return (root, query, builder) -> builder.lessThan(root.get("date"), to);
+    }
+
+    public static Specification<ExpensesEntity> paidBy(String payBy) {
+        return (root, query, builder) -> builder.equal(root.get("pay_by"), payBy);
+    }
+
+    public static Specification<ExpensesEntity> hasVersion(long version) {
+        return (root, query, builder) -> builder.equal(root.get("version"), version);
+    }
+
+    public static Specification<ExpensesEntity> addToReport(boolean addToReport) {
+        return (root, query, builder) -> builder.equal(root.get("add_to_report"), addToReport);
+    }
+}
@@ -2,6 +2,10 @@ package com.wise.expenses_tracker.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.wise.expenses_tracker.model.UserEntity;
 
@@ -10,4 +14,13 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     Optional<UserEntity> findByUsername(String username);
 
+    /**
+     * Replaces only the password hash. Saving the whole (detached) user would merge it
+     * and load its expenses and budgets just to write one column.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
 }
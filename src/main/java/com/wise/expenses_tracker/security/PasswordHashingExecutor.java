@@ -0,0 +1,113 @@
+package com.wise.expenses_tracker.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Dedicated, bounded executor for BCrypt work.
+ *
+ * BCrypt is deliberately CPU-expensive. Running it on Tomcat request threads lets a
+ * burst of logins occupy every request thread and starve cheap API calls. Instead,
+ * hashing runs on a pool sized to the CPU count with a bounded queue in front of it;
+ * when the queue is full the request is rejected straight away so the client can
+ * retry, rather than piling up behind work the CPUs cannot get through.
+ *
+ * A request that waits longer than {@code wait-timeout} is rejected as well. If its task
+ * is still queued it is dropped; if it is already hashing it cannot be stopped, since
+ * BCrypt does not check for interrupts, so it runs to completion and its result is
+ * discarded. Such tasks still hold a hashing thread and are counted in
+ * {@code password.hashing.abandoned}; a rising count means the timeout is shorter than
+ * the hashing itself takes under load.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+    private final long retryAfterSeconds;
+    private final Counter abandoned;
+
+    public PasswordHashingExecutor(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimeoutMillis = properties.getWaitTimeout().toMillis();
+        this.retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+        this.abandoned = Counter.builder("password.hashing.abandoned")
+                .description("Password hashes that kept running after their request stopped waiting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the task on a hashing thread and waits for its result.
+     * Runtime exceptions thrown by the task (e.g. BadCredentialsException) are rethrown as is.
+     *
+     * @param task work that hashes or verifies a password
+     * @param <T> the result type
+     * @return the task result
+     * @throws PasswordHashingRejectedException if the queue is full or the wait times out
+     */
+    public <T> T execute(Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingRejectedException("Too many concurrent logins, try again shortly", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            throw new PasswordHashingRejectedException("Login timed out waiting for capacity, try again shortly", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(future);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    /**
+     * Drops the task if it has not started; otherwise lets it finish unobserved.
+     */
+    private void abandon(Future<?> future) {
+        if (!executor.remove((Runnable) future) && !future.isDone()) {
+            abandoned.increment();
+        }
+        future.cancel(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package com.wise.expenses_tracker.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Settings for password hashing (prefix {@code security.password}).
+ */
+@Data
+@ConfigurationProperties(prefix = "security.password")
+public class PasswordHashingProperties {
+
+    /** BCrypt cost factor for new hashes; stored hashes below it are upgraded on the next successful login */
+    private int bcryptStrength = 10;
+
+    /** Threads hashing passwords; 0 means one per available CPU */
+    private int threads = 0;
+
+    /** Logins and registrations allowed to wait for a hashing thread before new ones are rejected */
+    private int queueCapacity = 64;
+
+    /**
+     * Longest a request waits for its hash before it is rejected. A hash already running
+     * then still completes on its thread (see PasswordHashingExecutor).
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+
+    /** Value of the Retry-After header sent with a 503 when hashing capacity is exhausted */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,20 @@
+package com.wise.expenses_tracker.security;
+
+/**
+ * Thrown when a login or registration cannot get a password hashing thread,
+ * either because the queue is full or because it waited too long.
+ * AuthController answers it with 503 and a Retry-After header.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,48 @@
+package com.wise.expenses_tracker.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user request limits (prefix {@code rate-limit}), off unless
+ * {@code rate-limit.enabled=true}.
+ *
+ * Each endpoint group has its own bucket: "capacity" is the burst a client may send
+ * at once, "refill-per-second" the sustained rate (0: the burst is all a client ever
+ * gets). Authenticated requests are limited per user, the public auth endpoints per
+ * client IP.
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = false;
+
+    /** How often idle (fully refilled) buckets are dropped from memory */
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    /** GET and HEAD requests */
+    private Limit read = new Limit(200, 50);
+
+    /** POST, PUT, PATCH and DELETE requests */
+    private Limit write = new Limit(100, 20);
+
+    /** /api/v1/auth/** (login and registration), keyed by client IP */
+    private Limit auth = new Limit(10, 1);
+
+    /** POST /api/expenses/ingest, meant for high-frequency feeds */
+    private Limit ingest = new Limit(1000, 500);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
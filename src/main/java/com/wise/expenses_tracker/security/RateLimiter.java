@@ -0,0 +1,124 @@
+package com.wise.expenses_tracker.security;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lock-free per-subject token buckets.
+ *
+ * Each bucket is stored as a single long using the generic cell rate algorithm (GCRA):
+ * the value is the "theoretical arrival time" at which the bucket would be full again.
+ * A request is allowed if taking one more token does not push that time more than
+ * {@code capacity} tokens into the future, and the update is a single CAS.
+ *
+ * A bucket whose theoretical arrival time has passed is full, which is exactly the state
+ * of a subject that has no entry at all, so idle buckets can be dropped without losing
+ * anything. Memory therefore grows with the number of recently active users, not with
+ * the number of registered ones.
+ *
+ * A group with a refill rate of zero gives every subject {@code capacity} requests and
+ * no more: its buckets run on a clock that stands still at zero, so they never refill
+ * and are never dropped.
+ */
+@Component
+public class RateLimiter {
+
+    public enum Group { READ, WRITE, AUTH, INGEST }
+
+    /**
+     * Outcome of one acquire attempt, with the values for the RateLimit-* headers.
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetSeconds, long retryAfterSeconds) {}
+
+    /** Times are kept relative to this origin so they start at zero and only grow */
+    private final long originNanos = System.nanoTime();
+    private final Map<Group, RateLimitProperties.Limit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, ConcurrentHashMap<Long, AtomicLong>> buckets = new EnumMap<>(Group.class);
+
+    public RateLimiter(RateLimitProperties properties) {
+        limits.put(Group.READ, properties.getRead());
+        limits.put(Group.WRITE, properties.getWrite());
+        limits.put(Group.AUTH, properties.getAuth());
+        limits.put(Group.INGEST, properties.getIngest());
+        for (Group group : Group.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Takes one token from the subject's bucket for the given group.
+     *
+     * @param group the endpoint group
+     * @param subject user id, or a hash of the client address for anonymous requests
+     * @return whether the request may proceed, plus header values
+     */
+    public Decision tryAcquire(Group group, long subject) {
+        RateLimitProperties.Limit limit = limits.get(group);
+        long interval = intervalNanos(limit);
+        long tolerance = interval * limit.getCapacity();
+        AtomicLong bucket = buckets.get(group).computeIfAbsent(subject, key -> new AtomicLong());
+
+        while (true) {
+            long now = now(limit);
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            long backlog = next - now;
+
+            if (backlog > tolerance) {
+                long retryAfter = backlog - tolerance;
+                return new Decision(false, limit.getCapacity(), 0,
+                        toSeconds(Math.max(arrival, now) - now), toSeconds(retryAfter));
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                int remaining = (int) ((tolerance - backlog) / interval);
+                return new Decision(true, limit.getCapacity(), remaining, toSeconds(backlog), 0);
+            }
+        }
+    }
+
+    /**
+     * @return the number of buckets currently held in memory
+     */
+    public int size() {
+        return buckets.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Drops buckets that have refilled completely.
+     * A request racing with the sweep may lose the single token it just took, which
+     * only ever errs in the client's favour.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        for (Map.Entry<Group, ConcurrentHashMap<Long, AtomicLong>> groupBuckets : buckets.entrySet()) {
+            long now = now(limits.get(groupBuckets.getKey()));
+            groupBuckets.getValue().values().removeIf(bucket -> bucket.get() <= now);
+        }
+    }
+
+    private long now(RateLimitProperties.Limit limit) {
+        return limit.getRefillPerSecond() > 0 ? System.nanoTime() - originNanos : 0;
+    }
+
+    /**
+     * Nanoseconds per token, at least 1 and at most what keeps {@code capacity + 1}
+     * intervals ahead of any time within a long, which is also the interval of a group
+     * that never refills.
+     */
+    private static long intervalNanos(RateLimitProperties.Limit limit) {
+        long longest = (Long.MAX_VALUE / 2) / (Math.max(limit.getCapacity(), 0) + 1L);
+        if (limit.getRefillPerSecond() <= 0) {
+            return longest;
+        }
+        return Math.max(1, (long) Math.min(1_000_000_000L / limit.getRefillPerSecond(), longest));
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+}
@@ -0,0 +1,103 @@
+package com.wise.expenses_tracker.security.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.wise.expenses_tracker.model.UserEntity;
+import com.wise.expenses_tracker.security.RateLimitProperties;
+import com.wise.expenses_tracker.security.RateLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rate Limiting Filter
+ *
+ * Runs right after JwtAuthenticationFilter, so the user (if any) is already known.
+ * Every /api request takes a token from the caller's bucket for its endpoint group
+ * (reads, writes or auth) and gets RateLimit-Limit / RateLimit-Remaining /
+ * RateLimit-Reset headers. When the bucket is empty the request is answered with
+ * 429 Too Many Requests and a Retry-After header and never reaches the controllers.
+ *
+ * /api/batch is left to BatchServiceImpl, which takes a token per operation, so a batch
+ * costs what its operations would cost as separate requests.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BATCH_PATH = "/api/batch";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/")
+                || request.getRequestURI().equals(BATCH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+        ) throws ServletException, IOException {
+
+        RateLimiter.Group group = classify(request);
+        Long userId = currentUserId();
+
+        // Anonymous callers (login, registration) are keyed by address; user ids are never negative
+        long subject = userId != null ? userId : -1L - (request.getRemoteAddr().hashCode() & 0x7fffffffL);
+        if (userId == null && group != RateLimiter.Group.AUTH) {
+            // Unauthenticated calls to protected endpoints are rejected by Spring Security anyway
+            group = RateLimiter.Group.AUTH;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(group, subject);
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            response.setContentType("text/plain");
+            response.getWriter().write("Too many requests, retry after " + decision.retryAfterSeconds() + "s");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimiter.Group classify(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/v1/auth/")) {
+            return RateLimiter.Group.AUTH;
+        }
+        if (request.getRequestURI().equals("/api/expenses/ingest")) {
+            return RateLimiter.Group.INGEST;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                ? RateLimiter.Group.READ
+                : RateLimiter.Group.WRITE;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserEntity user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
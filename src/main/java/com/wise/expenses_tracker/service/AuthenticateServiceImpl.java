@@ -7,12 +7,14 @@ import org.springframework.stereotype.Service;
 
 import com.wise.expenses_tracker.model.UserEntity;
 import com.wise.expenses_tracker.repository.UserRepository;
+import com.wise.expenses_tracker.security.PasswordHashingExecutor;
 import com.wise.expenses_tracker.security.auth.AuthResponse;
 import com.wise.expenses_tracker.security.auth.request.AuthRequest;
 import com.wise.expenses_tracker.security.auth.request.RegisterRequest;
 import com.wise.expenses_tracker.security.interfaces.JwtService;
 import com.wise.expenses_tracker.security.user.Role;
 import com.wise.expenses_tracker.service.interfaces.AuthenticateService;
+import com.wise.expenses_tracker.sharding.GlobalTableWrite;
 
 import lombok.RequiredArgsConstructor;
 
@@ -26,6 +28,8 @@ import lombok.RequiredArgsConstructor;
  * - JWT token generation for authenticated users
  * 
  * Uses Spring Security for authentication management and password encoding.
+ * All BCrypt work runs on the bounded PasswordHashingExecutor rather than on the
+ * request thread.
  */
 @Service 
 @RequiredArgsConstructor // Lombok annotation to generate constructor with final fields
@@ -45,6 +49,9 @@ public class AuthenticateServiceImpl implements AuthenticateService {
     /** Generates and validates JWT tokens */
     private final JwtService jwtService;
 
+    /** Runs password hashing and verification off the request thread */
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
     /**
      * Registers a new user in the system.
      * 
@@ -59,11 +66,12 @@ public class AuthenticateServiceImpl implements AuthenticateService {
      * @return AuthResponse containing the JWT token for the newly registered user
      */
     @Override
+    @GlobalTableWrite
     public AuthResponse register(RegisterRequest registerRequest) {
         // Build a new user entity with the provided registration details
         var user = UserEntity.builder()
                 .username(registerRequest.getUsername()) // Set the username from request
-                .password(passwordEncoder.encode(registerRequest.getPassword())) // Encrypt password
+                .password(passwordHashingExecutor.execute(() -> passwordEncoder.encode(registerRequest.getPassword()))) // Encrypt password
                 .role(Role.USER) // Assign default user role
                 .build();
         
@@ -97,17 +105,18 @@ public class AuthenticateServiceImpl implements AuthenticateService {
      * @param authRequest the authentication request containing username and password
      * @return AuthResponse containing the JWT token for the authenticated user
      * @throws org.springframework.security.authentication.BadCredentialsException if credentials are invalid
+     * @throws com.wise.expenses_tracker.security.PasswordHashingRejectedException if hashing capacity is exhausted
      */
     @Override
     public AuthResponse authenticate(AuthRequest authRequest) {
-        // Validate user credentials using Spring Security
+        // Validate user credentials using Spring Security on a password hashing thread
         // This will throw an exception if authentication fails
-        authenticationManager.authenticate(
+        passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(
                 authRequest.getUsername(),  // Username to authenticate
                 authRequest.getPassword()   // Plain text password (will be compared with encoded password)
             )
-        );
+        ));
 
         // Retrieve the authenticated user from the database
         // orElseThrow() will throw an exception if user is not found (shouldn't happen after successful auth)
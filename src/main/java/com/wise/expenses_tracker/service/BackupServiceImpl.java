@@ -0,0 +1,260 @@
+package com.wise.expenses_tracker.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.wise.expenses_tracker.backup.BackupArchive;
+import com.wise.expenses_tracker.backup.BackupArchiveReader;
+import com.wise.expenses_tracker.backup.BackupArchiveWriter;
+import com.wise.expenses_tracker.backup.InvalidBackupException;
+import com.wise.expenses_tracker.duplicates.DuplicateDetector;
+import com.wise.expenses_tracker.duplicates.ExpenseFingerprint;
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+import com.wise.expenses_tracker.service.interfaces.BackupService;
+import com.wise.expenses_tracker.service.interfaces.CategoryService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.CategoryDTO;
+import com.wise.expenses_tracker.transferObject.RestoreSummaryDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Backs up and restores with plain JDBC: rows are streamed straight into the archive and
+ * restored with batched inserts, one archive block per batch, so neither side builds
+ * entities or holds more than a block in memory.
+ *
+ * Not available in ledger mode, where the ledger rather than the expenses table is the
+ * source of truth.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ledger", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class BackupServiceImpl implements BackupService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_CATEGORIES = "SELECT id, name FROM categories WHERE id IN"
+            + " (SELECT category_id FROM expenses WHERE user_id = ?"
+            + " UNION SELECT category_id FROM budgets WHERE user_id = ?) ORDER BY id";
+    private static final String SELECT_EXPENSES = "SELECT id, title, date, pay_by, amount, description,"
+            + " add_to_report, category_id, duplicate_of FROM expenses WHERE user_id = ? ORDER BY id";
+    private static final String SELECT_BUDGETS =
+            "SELECT amount, every_month, category_id FROM budgets WHERE user_id = ? ORDER BY id";
+    private static final String INSERT_EXPENSE = "INSERT INTO expenses"
+            + " (title, date, pay_by, amount, description, add_to_report, user_id, category_id, fingerprint)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BUDGET =
+            "INSERT INTO budgets (amount, every_month, user_id, category_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserService userService;
+    private final CategoryService categoryService;
+    private final DuplicateDetector duplicateDetector;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeBackup(OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long userId = userService.getCurrentUserId();
+        BackupArchiveWriter writer = new BackupArchiveWriter(out, userId, Instant.now());
+        writer.writeCategories(jdbcTemplate.query(SELECT_CATEGORIES,
+                (row, i) -> new BackupArchive.Category(row.getLong("id"), row.getString("name")), userId, userId));
+
+        int[] expenses = { 0 };
+        try {
+            jdbcTemplate.query(streaming(SELECT_EXPENSES, userId), (RowCallbackHandler) row -> {
+                BackupArchive.Expense expense = toExpense(row);
+                write(() -> writer.writeExpense(expense));
+                expenses[0]++;
+            });
+            writer.endExpenses();
+            jdbcTemplate.query(streaming(SELECT_BUDGETS, userId), (RowCallbackHandler) row -> {
+                BackupArchive.Budget budget = new BackupArchive.Budget(row.getObject("amount", Double.class),
+                        row.getBoolean("every_month"), row.getLong("category_id"));
+                write(() -> writer.writeBudget(budget));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Backed up {} expenses of user {} in {} ms", expenses[0], userId, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * The checksum is only verified once everything is read, so a corrupt archive fails at
+     * the end and the transaction rolls back whatever was written.
+     */
+    @Override
+    @Transactional
+    public RestoreSummaryDTO restoreBackup(InputStream in) {
+        long started = System.nanoTime();
+        long userId = userService.getCurrentUserId();
+        BackupArchiveReader reader = new BackupArchiveReader(in);
+
+        Map<Long, Long> categoryIds = new HashMap<>();
+        for (BackupArchive.Category category : reader.categories()) {
+            categoryIds.put(category.id(), resolveCategory(category.name()));
+        }
+
+        jdbcTemplate.update("DELETE FROM budgets WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM expenses WHERE user_id = ?", userId);
+
+        // Old id -> new id, needed to point restored duplicates at the restored originals
+        Map<Long, Long> expenseIds = new HashMap<>();
+        List<long[]> duplicates = new ArrayList<>();
+        int expenses = 0;
+        for (List<BackupArchive.Expense> block = reader.nextExpenses(); !block.isEmpty(); block = reader.nextExpenses()) {
+            List<Long> ids = insertExpenses(userId, block, categoryIds);
+            for (int i = 0; i < block.size(); i++) {
+                BackupArchive.Expense expense = block.get(i);
+                expenseIds.put(expense.id(), ids.get(i));
+                if (expense.duplicateOf() != null) {
+                    duplicates.add(new long[] { ids.get(i), expense.duplicateOf() });
+                }
+                // A rollback leaves extra filter entries behind, which only cost a lookup
+                duplicateDetector.remember(userId, expense.date(), expense.amount(), expense.payBy(), expense.title());
+            }
+            expenses += block.size();
+        }
+        List<Object[]> duplicateUpdates = duplicates.stream()
+                .filter(duplicate -> expenseIds.containsKey(duplicate[1]))
+                .map(duplicate -> new Object[] { expenseIds.get(duplicate[1]), duplicate[0] })
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE expenses SET duplicate_of = ? WHERE id = ?", duplicateUpdates);
+
+        int budgets = 0;
+        for (List<BackupArchive.Budget> block = reader.nextBudgets(); !block.isEmpty(); block = reader.nextBudgets()) {
+            jdbcTemplate.batchUpdate(INSERT_BUDGET, block.stream()
+                    .map(budget -> new Object[] { budget.amount(), budget.everyMonth(), userId,
+                            categoryId(categoryIds, budget.categoryId()) })
+                    .toList());
+            budgets += block.size();
+        }
+        reader.finish();
+
+        eventPublisher.publishEvent(ExpensesChangedEvent.forUser(userId));
+        log.info("Restored {} expenses and {} budgets of user {} (backed up from user {} at {}) in {} ms",
+                expenses, budgets, userId, reader.getUserId(), reader.getCreatedAt(),
+                (System.nanoTime() - started) / 1_000_000);
+        return new RestoreSummaryDTO(categoryIds.size(), expenses, budgets);
+    }
+
+    private List<Long> insertExpenses(long userId, List<BackupArchive.Expense> block, Map<Long, Long> categoryIds) {
+        long[] categories = new long[block.size()];
+        for (int i = 0; i < block.size(); i++) {
+            categories[i] = categoryId(categoryIds, block.get(i).categoryId());
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        PreparedStatementCreator insert = connection -> connection.prepareStatement(INSERT_EXPENSE, new String[] { "id" });
+        jdbcTemplate.batchUpdate(insert, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                BackupArchive.Expense expense = block.get(i);
+                statement.setString(1, expense.title());
+                statement.setTimestamp(2, expense.date() != null ? Timestamp.from(expense.date()) : null);
+                statement.setString(3, expense.payBy());
+                statement.setObject(4, expense.amount(), Types.DOUBLE);
+                statement.setString(5, expense.description());
+                statement.setBoolean(6, expense.addToReport());
+                statement.setLong(7, userId);
+                statement.setLong(8, categories[i]);
+                statement.setLong(9, ExpenseFingerprint.of(userId, expense.date(), expense.amount(),
+                        expense.payBy(), expense.title()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return block.size();
+            }
+        }, keys);
+        if (keys.getKeyList().size() != block.size()) {
+            throw new IllegalStateException("Expected " + block.size() + " generated ids, got " + keys.getKeyList().size());
+        }
+        return keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private long resolveCategory(String name) {
+        if (name == null) {
+            throw new InvalidBackupException("Backup contains a category without a name");
+        }
+        return categoryService.getCategoryByName(name)
+                .or(() -> {
+                    categoryService.createNewCategory(new CategoryDTO(null, name));
+                    return categoryService.getCategoryByName(name);
+                })
+                .map(CategoryEntity::getId)
+                .orElseThrow(() -> new IllegalStateException("Category not found after creating it: " + name));
+    }
+
+    private static long categoryId(Map<Long, Long> categoryIds, long archivedId) {
+        Long categoryId = categoryIds.get(archivedId);
+        if (categoryId == null) {
+            throw new InvalidBackupException("Backup refers to unknown category " + archivedId);
+        }
+        return categoryId;
+    }
+
+    private static BackupArchive.Expense toExpense(ResultSet row) throws SQLException {
+        Timestamp date = row.getTimestamp("date");
+        return new BackupArchive.Expense(
+                row.getLong("id"),
+                row.getString("title"),
+                date != null ? date.toInstant() : null,
+                row.getString("pay_by"),
+                row.getObject("amount", Double.class),
+                row.getString("description"),
+                row.getBoolean("add_to_report"),
+                row.getLong("category_id"),
+                row.getObject("duplicate_of", Long.class));
+    }
+
+    private static PreparedStatementCreator streaming(String sql, long userId) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, userId);
+            return statement;
+        };
+    }
+
+    private interface ArchiveWrite {
+        void run() throws IOException;
+    }
+
+    private static void write(ArchiveWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
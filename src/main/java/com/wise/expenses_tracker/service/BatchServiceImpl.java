@@ -0,0 +1,299 @@
+package com.wise.expenses_tracker.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wise.expenses_tracker.duplicates.DuplicateExpenseException;
+import com.wise.expenses_tracker.security.RateLimitProperties;
+import com.wise.expenses_tracker.security.RateLimiter;
+import com.wise.expenses_tracker.service.interfaces.BatchService;
+import com.wise.expenses_tracker.service.interfaces.ExpensesService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.BatchOperationDTO;
+import com.wise.expenses_tracker.transferObject.BatchOperationResultDTO;
+import com.wise.expenses_tracker.transferObject.BatchRequestDTO;
+import com.wise.expenses_tracker.transferObject.ExpenseETag;
+import com.wise.expenses_tracker.transferObject.ExpensePatchDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+import com.wise.expenses_tracker.transferObject.MissingIfMatchException;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a batch of expense operations within one HTTP request.
+ *
+ * Each operation is the single-expense request it names (POST /api/expenses, or GET,
+ * PUT, PATCH and DELETE on /api/expenses/{id}), dispatched straight to ExpensesService
+ * with the request's authentication, and answered with the status, ETag and body that
+ * request would have had. An id in a path may be {@code @{name}}, the id of the expense
+ * returned by the earlier operation with that ref.
+ *
+ * Independent batches run every operation in its own transaction; an operation that
+ * refers to a failed one is answered 424 without running. Atomic batches run in a single
+ * transaction that the first failure rolls back.
+ *
+ * Every operation takes a token from the user's read or write rate limit, as the single
+ * request would (RateLimitFilter leaves the batch request itself alone); an operation
+ * over the limit is answered 429.
+ */
+@Slf4j
+@Service
+public class BatchServiceImpl implements BatchService {
+
+    private static final Pattern EXPENSES_PATH = Pattern.compile("/api/expenses(?:/([^/?]+))?");
+    private static final Pattern REFERENCE = Pattern.compile("@\\{([A-Za-z0-9_-]+)}");
+
+    private final ExpensesService expensesService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transaction;
+    private final boolean ledgerEnabled;
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final UserService userService;
+
+    public BatchServiceImpl(ExpensesService expensesService,
+                            ObjectMapper objectMapper,
+                            Validator validator,
+                            PlatformTransactionManager transactionManager,
+                            Environment environment,
+                            RateLimiter rateLimiter,
+                            RateLimitProperties rateLimitProperties,
+                            UserService userService) {
+        this.expensesService = expensesService;
+        this.rateLimiter = rateLimiter;
+        this.rateLimitProperties = rateLimitProperties;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ledgerEnabled = environment.getProperty("ledger.enabled", Boolean.class, false);
+    }
+
+    @Override
+    public List<BatchOperationResultDTO> execute(BatchRequestDTO request) {
+        if (!request.isAtomic()) {
+            return runAll(request.getOperations());
+        }
+        if (ledgerEnabled) {
+            // Ledger appends are on disk before the transaction ends and cannot be rolled back
+            throw new IllegalArgumentException("Atomic batches are not available in ledger mode");
+        }
+        return runAtomically(request.getOperations());
+    }
+
+    private List<BatchOperationResultDTO> runAll(List<BatchOperationDTO> operations) {
+        Map<String, BatchOperationResultDTO> named = new HashMap<>();
+        List<BatchOperationResultDTO> results = new ArrayList<>(operations.size());
+        for (BatchOperationDTO operation : operations) {
+            results.add(runNamed(operation, named));
+        }
+        return results;
+    }
+
+    private List<BatchOperationResultDTO> runAtomically(List<BatchOperationDTO> operations) {
+        List<BatchOperationResultDTO> results = new ArrayList<>(operations.size());
+        try {
+            transaction.executeWithoutResult(status -> {
+                Map<String, BatchOperationResultDTO> named = new HashMap<>();
+                for (BatchOperationDTO operation : operations) {
+                    BatchOperationResultDTO result = runNamed(operation, named);
+                    results.add(result);
+                    if (!result.succeeded()) {
+                        status.setRollbackOnly();
+                        return;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The commit itself failed, so none of the operations took effect
+            BatchOperationResultDTO failure = failure(null, e);
+            return operations.stream()
+                    .map(operation -> new BatchOperationResultDTO(operation.getRef(), failure.getStatus(), null, failure.getBody()))
+                    .toList();
+        }
+        if (results.size() == operations.size() && results.get(results.size() - 1).succeeded()) {
+            return results;
+        }
+
+        int failed = results.size() - 1;
+        List<BatchOperationResultDTO> rolledBack = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            if (i == failed) {
+                rolledBack.add(results.get(i));
+            } else {
+                rolledBack.add(result(operations.get(i), HttpStatus.FAILED_DEPENDENCY,
+                        (i < failed ? "Rolled back: operation " : "Not run: operation ") + (failed + 1) + " failed"));
+            }
+        }
+        return rolledBack;
+    }
+
+    private BatchOperationResultDTO runNamed(BatchOperationDTO operation, Map<String, BatchOperationResultDTO> named) {
+        if (operation.getRef() != null && named.containsKey(operation.getRef())) {
+            return result(operation, HttpStatus.BAD_REQUEST, "ref '" + operation.getRef() + "' is used by an earlier operation");
+        }
+        BatchOperationResultDTO result = run(operation, named);
+        if (operation.getRef() != null) {
+            named.put(operation.getRef(), result);
+        }
+        return result;
+    }
+
+    private BatchOperationResultDTO run(BatchOperationDTO operation, Map<String, BatchOperationResultDTO> named) {
+        Matcher path = EXPENSES_PATH.matcher(operation.getPath());
+        if (!path.matches()) {
+            return result(operation, HttpStatus.NOT_FOUND, "Batches support /api/expenses and /api/expenses/{id} only");
+        }
+        String method = operation.getMethod().toUpperCase(Locale.ROOT);
+        if (rateLimitProperties.isEnabled()) {
+            RateLimiter.Decision decision = rateLimiter.tryAcquire(
+                    method.equals("GET") ? RateLimiter.Group.READ : RateLimiter.Group.WRITE, userService.getCurrentUserId());
+            if (!decision.allowed()) {
+                return result(operation, HttpStatus.TOO_MANY_REQUESTS,
+                        "Too many requests, retry after " + decision.retryAfterSeconds() + "s");
+            }
+        }
+        try {
+            if (path.group(1) == null) {
+                if (!method.equals("POST")) {
+                    return result(operation, HttpStatus.METHOD_NOT_ALLOWED, method + " is not supported on /api/expenses in a batch");
+                }
+                ExpensesDTO created = expensesService.saveExpense(body(operation, ExpensesDTO.class));
+                return new BatchOperationResultDTO(operation.getRef(), HttpStatus.CREATED.value(), null, created);
+            }
+
+            Long id = resolveId(path.group(1), named);
+            return switch (method) {
+                case "GET" -> expensesService.getExpenseById(id)
+                        .map(expense -> new BatchOperationResultDTO(operation.getRef(), HttpStatus.OK.value(),
+                                ExpenseETag.of(expense.getVersion()), expense))
+                        .orElseGet(() -> notFound(operation, id));
+                case "PUT" -> expensesService.updateExpense(id, body(operation, ExpensesDTO.class))
+                        .map(expense -> new BatchOperationResultDTO(operation.getRef(), HttpStatus.OK.value(), null, expense))
+                        .orElseGet(() -> notFound(operation, id));
+                case "PATCH" -> expensesService.patchExpense(id, body(operation, ExpensePatchDTO.class),
+                                ExpenseETag.expectedVersion(id, operation.getIfMatch()))
+                        .map(version -> new BatchOperationResultDTO(operation.getRef(), HttpStatus.NO_CONTENT.value(),
+                                ExpenseETag.of(version), null))
+                        .orElseGet(() -> notFound(operation, id));
+                case "DELETE" -> expensesService.deleteExpense(id)
+                        .map(expense -> new BatchOperationResultDTO(operation.getRef(), HttpStatus.OK.value(), null, expense))
+                        .orElseGet(() -> notFound(operation, id));
+                default -> result(operation, HttpStatus.METHOD_NOT_ALLOWED, method + " is not supported on /api/expenses/{id}");
+            };
+        } catch (RuntimeException e) {
+            return failure(operation, e);
+        }
+    }
+
+    /**
+     * @throws OperationFailedException if the reference does not name an earlier
+     *         operation that returned an expense
+     */
+    private Long resolveId(String segment, Map<String, BatchOperationResultDTO> named) {
+        Matcher reference = REFERENCE.matcher(segment);
+        if (!reference.matches()) {
+            try {
+                return Long.valueOf(segment);
+            } catch (NumberFormatException e) {
+                throw new OperationFailedException(HttpStatus.BAD_REQUEST, "'" + segment + "' is neither an id nor @{ref}");
+            }
+        }
+        String ref = reference.group(1);
+        BatchOperationResultDTO earlier = named.get(ref);
+        if (earlier == null) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, "No earlier operation has ref '" + ref + "'");
+        }
+        if (!earlier.succeeded()) {
+            throw new OperationFailedException(HttpStatus.FAILED_DEPENDENCY, "Operation '" + ref + "' failed");
+        }
+        if (!(earlier.getBody() instanceof ExpensesDTO expense)) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, "Operation '" + ref + "' returned no expense");
+        }
+        return expense.getId();
+    }
+
+    /**
+     * The operation's body as the single endpoint would bind it, including @Valid.
+     */
+    private <T> T body(BatchOperationDTO operation, Class<T> type) {
+        if (operation.getBody() == null || operation.getBody().isNull()) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, "Body is required");
+        }
+        T body;
+        try {
+            body = objectMapper.treeToValue(operation.getBody(), type);
+        } catch (JsonProcessingException e) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, "Invalid body: " + e.getOriginalMessage());
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return body;
+    }
+
+    /**
+     * The status the single endpoint would answer the exception with.
+     */
+    private BatchOperationResultDTO failure(BatchOperationDTO operation, RuntimeException e) {
+        if (e instanceof OperationFailedException failed) {
+            return result(operation, failed.status, failed.getMessage());
+        }
+        if (e instanceof ObjectOptimisticLockingFailureException conflict) {
+            return result(operation, HttpStatus.PRECONDITION_FAILED,
+                    "Expense " + conflict.getIdentifier() + " was changed by another request; fetch it again");
+        }
+        if (e instanceof MissingIfMatchException) {
+            return result(operation, HttpStatus.PRECONDITION_REQUIRED, e.getMessage());
+        }
+        if (e instanceof DuplicateExpenseException duplicate) {
+            return result(operation, HttpStatus.CONFLICT, duplicate.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            return result(operation, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        log.warn("Batch operation {} {} failed", operation != null ? operation.getMethod() : "commit",
+                operation != null ? operation.getPath() : "", e);
+        return result(operation, HttpStatus.INTERNAL_SERVER_ERROR, "Operation failed");
+    }
+
+    private static BatchOperationResultDTO notFound(BatchOperationDTO operation, Long id) {
+        return result(operation, HttpStatus.NOT_FOUND, "Expense " + id + " not found");
+    }
+
+    private static BatchOperationResultDTO result(BatchOperationDTO operation, HttpStatus status, String message) {
+        return new BatchOperationResultDTO(operation != null ? operation.getRef() : null, status.value(), null, message);
+    }
+
+    private static class OperationFailedException extends RuntimeException {
+        private final HttpStatus status;
+
+        OperationFailedException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.wise.expenses_tracker.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.wise.expenses_tracker.analytics.ExpenseAnalyticsCache;
+import com.wise.expenses_tracker.model.BudgetEntity;
+import com.wise.expenses_tracker.repository.BudgetRepository;
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.service.interfaces.BudgetService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.BudgetStatusDTO;
+import com.wise.expenses_tracker.transferObject.CategoryDTO;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class BudgetServiceImpl implements BudgetService {
+    private final BudgetRepository budgetRepository;
+    private final ExpensesRepository expensesRepository;
+    private final UserService userService;
+    private final ExpenseAnalyticsCache analyticsCache;
+
+    /**
+     * At most three queries however many budgets there are: the budgets, and one grouped
+     * sum each for monthly and for one-off budgets if the user has any (none with the
+     * analytics cache).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BudgetStatusDTO> getBudgetStatus() {
+        Long userId = userService.getCurrentUserId();
+        List<BudgetEntity> budgets = budgetRepository.findByUserIdWithCategory(userId);
+        Map<String, Double> overall = budgets.stream().anyMatch(budget -> !budget.isEvery_month())
+                ? categoryTotals(userId, null)
+                : Map.of();
+        Map<String, Double> thisMonth = budgets.stream().anyMatch(BudgetEntity::isEvery_month)
+                ? categoryTotals(userId, startOfMonth())
+                : Map.of();
+
+        return budgets.stream().map(budget -> {
+            String category = budget.getCategory().getName();
+            double spent = (budget.isEvery_month() ? thisMonth : overall).getOrDefault(category, 0.0);
+            return new BudgetStatusDTO(
+                    budget.getId(),
+                    new CategoryDTO(budget.getCategory().getId(), category),
+                    budget.getAmount(),
+                    budget.isEvery_month(),
+                    spent,
+                    budget.getAmount() != null ? budget.getAmount() - spent : null);
+        }).toList();
+    }
+
+    /**
+     * @param from earliest expense date, or null for all expenses
+     */
+    private Map<String, Double> categoryTotals(Long userId, Instant from) {
+        if (analyticsCache.isEnabled()) {
+            return analyticsCache.categoryTotals(userId, from, null);
+        }
+        return totals(from == null
+                ? expensesRepository.sumExpensesByCategoryForUser(userId)
+                : expensesRepository.sumExpensesByCategoryForUserSince(userId, from));
+    }
+
+    private static Map<String, Double> totals(List<Object[]> rows) {
+        Map<String, Double> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            totals.put((String) row[0], ((Number) row[1]).doubleValue());
+        }
+        return totals;
+    }
+
+    private static Instant startOfMonth() {
+        return LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
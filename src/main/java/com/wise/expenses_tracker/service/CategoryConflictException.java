@@ -0,0 +1,12 @@
+package com.wise.expenses_tracker.service;
+
+/**
+ * Thrown when a category change would clash with existing data: renaming to a name
+ * another category already has, or deleting a category that expenses still use.
+ */
+public class CategoryConflictException extends RuntimeException {
+
+    public CategoryConflictException(String message) {
+        super(message);
+    }
+}
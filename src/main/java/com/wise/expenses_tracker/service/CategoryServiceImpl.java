@@ -1,32 +1,80 @@
 package com.wise.expenses_tracker.service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.wise.expenses_tracker.ledger.ExpenseLedger;
+import com.wise.expenses_tracker.ledger.LedgerProjector;
 import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.repository.BudgetRepository;
 import com.wise.expenses_tracker.repository.CategoryRepository;
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+import com.wise.expenses_tracker.sharding.GlobalTableWrite;
+import com.wise.expenses_tracker.sharding.ShardContext;
+import com.wise.expenses_tracker.sharding.ShardRoutingDataSource;
 import com.wise.expenses_tracker.service.interfaces.CategoryService;
 import com.wise.expenses_tracker.transferObject.CategoryDTO;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService{
     private final CategoryRepository categoryRepository;
+    private final ExpensesRepository expensesRepository;
+    private final BudgetRepository budgetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataSource dataSource;
+    private final TransactionTemplate shardTransaction;
+    // Present in ledger mode only
+    private final Optional<ExpenseLedger> ledger;
+    private final Optional<LedgerProjector> projector;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepository,
+                               ExpensesRepository expensesRepository,
+                               BudgetRepository budgetRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               Optional<ExpenseLedger> ledger,
+                               Optional<LedgerProjector> projector) {
+        this.categoryRepository = categoryRepository;
+        this.expensesRepository = expensesRepository;
+        this.budgetRepository = budgetRepository;
+        this.eventPublisher = eventPublisher;
+        this.dataSource = dataSource;
+        this.ledger = ledger;
+        this.projector = projector;
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     @Transactional
+    @GlobalTableWrite
     public CategoryDTO saveCategory(CategoryDTO category) {
         return handleCategoryAssignment(category);
     }
 
     @Override
     @Transactional
+    @GlobalTableWrite
     public CategoryDTO createNewCategory(CategoryDTO category) {
         return handleCategoryAssignment(category);
     }
@@ -57,23 +105,146 @@ public class CategoryServiceImpl implements CategoryService{
 
     @Override
     @Transactional
+    @GlobalTableWrite
     public Optional<CategoryDTO> updateCategory(Long id, CategoryDTO category) {
         return categoryRepository.findById(id).map(existingCategory -> {
+            // findByName expects names to be unique; joining two categories is what merge is for
+            categoryRepository.findByName(category.getName())
+                    .filter(other -> !other.getId().equals(id))
+                    .ifPresent(other -> {
+                        throw new CategoryConflictException("Category " + other.getId() + " is already named '"
+                                + category.getName() + "'; merge into it instead");
+                    });
             existingCategory.setName(category.getName());
             categoryRepository.save(existingCategory);
+            // The ledgers record each expense's category name too
+            recategorizeInLedgers(existingCategory, existingCategory);
+            // Categories are shared, so every user's per-category totals may change
+            eventPublisher.publishEvent(ExpensesChangedEvent.allUsers());
             return convertToCategoryDTO(existingCategory);
         });
     }
 
     @Override
     @Transactional
+    @GlobalTableWrite
     public Optional<CategoryDTO> deleteCategory(Long id) {
         return categoryRepository.findById(id).map(existingCategory -> {
-            categoryRepository.delete(existingCategory);
+            try {
+                categoryRepository.delete(existingCategory);
+                categoryRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw new CategoryConflictException("Category " + id
+                        + " is still used by expenses or budgets; delete it with reassignTo or merge it");
+            }
+            eventPublisher.publishEvent(ExpensesChangedEvent.allUsers());
             return convertToCategoryDTO(existingCategory);
         });
     }
 
+    @Override
+    @Transactional
+    @GlobalTableWrite
+    public Optional<CategoryDTO> deleteCategory(Long id, Long reassignToId) {
+        return reassignAndDelete(id, reassignToId).map(merged -> convertToCategoryDTO(merged.source()));
+    }
+
+    @Override
+    @Transactional
+    @GlobalTableWrite
+    public Optional<CategoryDTO> mergeCategory(Long sourceId, Long targetId) {
+        return reassignAndDelete(sourceId, targetId).map(merged -> convertToCategoryDTO(merged.target()));
+    }
+
+    private record Merged(CategoryEntity source, CategoryEntity target) {}
+
+    /**
+     * Moves the source's expenses and budgets with one UPDATE per table and deletes it.
+     *
+     * In ledger mode the expenses are moved in the ledgers instead, which hold each
+     * expense's category (see recategorizeInLedgers); the UPDATE then only catches rows
+     * the ledgers do not know. Without sharding all of it is one transaction. With sharding the source is deleted on
+     * the coordinator (see GlobalTableWrite) only after the UPDATEs committed on every shard,
+     * each in its own transaction; if a shard fails, the source stays and the merge can
+     * simply be repeated.
+     *
+     * @return source and target, empty if either does not exist
+     */
+    private Optional<Merged> reassignAndDelete(Long sourceId, Long targetId) {
+        if (Objects.equals(sourceId, targetId)) {
+            throw new IllegalArgumentException("A category cannot be merged into itself");
+        }
+        Optional<CategoryEntity> source = categoryRepository.findById(sourceId);
+        Optional<CategoryEntity> target = categoryRepository.findById(targetId);
+        if (source.isEmpty() || target.isEmpty()) {
+            return Optional.empty();
+        }
+        int expenses = 0;
+        int budgets = 0;
+        if (ledger.isPresent()) {
+            Set<Long> users = recategorizeInLedgers(source.get(), target.get());
+            awaitProjected(users, sourceId);
+            log.info("Moved the expenses of {} users from category {} to {} in their ledgers", users.size(), sourceId, targetId);
+        }
+        for (String shard : ShardRoutingDataSource.expenseTargets(dataSource)) {
+            if (shard == null) {
+                expenses += expensesRepository.reassignCategory(source.get(), target.get());
+                budgets += budgetRepository.reassignCategory(source.get(), target.get());
+                continue;
+            }
+            String previous = ShardContext.override(shard);
+            try {
+                int[] moved = shardTransaction.execute(status -> new int[] {
+                        expensesRepository.reassignCategory(source.get(), target.get()),
+                        budgetRepository.reassignCategory(source.get(), target.get()) });
+                expenses += moved[0];
+                budgets += moved[1];
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+        categoryRepository.delete(source.get());
+        // Totals per category change for every user that had expenses in the source
+        eventPublisher.publishEvent(ExpensesChangedEvent.allUsers());
+        log.info("Moved {} expenses and {} budgets from category {} to {}", expenses, budgets, sourceId, targetId);
+        return Optional.of(new Merged(source.get(), target.get()));
+    }
+
+
+    /**
+     * In ledger mode, moves every expense in {@code source} to {@code target} in the
+     * ledgers, one event per expense, so later updates and replays keep the new category.
+     * Does nothing otherwise.
+     *
+     * @return the users whose expenses moved
+     */
+    private Set<Long> recategorizeInLedgers(CategoryEntity source, CategoryEntity target) {
+        if (ledger.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            Set<Long> users = ledger.get().recategorize(expensesRepository.findUserIdsByCategory(source),
+                    source.getId(), target.getId(), target.getName());
+            users.forEach(projector.get()::schedule);
+            return users;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the ledger failed", e);
+        }
+    }
+
+    /**
+     * Waits until the moved expenses are in the table, so the source is no longer
+     * referenced when it is deleted. On timeout the source stays and the merge can be
+     * repeated once the projection caught up.
+     */
+    private void awaitProjected(Set<Long> users, Long sourceId) {
+        for (Long userId : users) {
+            if (!projector.get().awaitProjected(userId)) {
+                throw new CategoryConflictException("Expenses of category " + sourceId
+                        + " are still being moved; try again shortly");
+            }
+        }
+    }
 
     private CategoryDTO handleCategoryAssignment(CategoryDTO categoryDTO) {
         CategoryEntity categoryName = new CategoryEntity();
@@ -0,0 +1,27 @@
+package com.wise.expenses_tracker.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Request coalescing for read operations (prefix {@code coalescing}), off unless
+ * {@code coalescing.enabled=true}.
+ */
+@Data
+@ConfigurationProperties(prefix = "coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * How long a finished result keeps being served to identical calls.
+     * Zero only shares computations that are still in flight.
+     */
+    private Duration resultTtl = Duration.ZERO;
+
+    /** How often expired results are dropped from memory */
+    private Duration cleanupInterval = Duration.ofSeconds(30);
+}
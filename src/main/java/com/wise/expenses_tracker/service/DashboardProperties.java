@@ -0,0 +1,39 @@
+package com.wise.expenses_tracker.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * The one-round-trip dashboard (prefix {@code dashboard}).
+ */
+@Data
+@ConfigurationProperties(prefix = "dashboard")
+public class DashboardProperties {
+
+    /** Threads running dashboard sections, shared by all requests */
+    private int threads = 16;
+
+    /** Sections allowed to wait for a thread; beyond this they are reported unavailable */
+    private int queueCapacity = 256;
+
+    /** How long the response waits for a section, counted from the start of the request */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /** Per-section overrides of {@link #timeout}, keyed by profile, categoryTotals, recentExpenses or budgets */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /** Latest expenses included when the request does not say */
+    private int recentExpenses = 10;
+
+    /** Most latest expenses a request may ask for */
+    private int maxRecentExpenses = 100;
+
+    public Duration timeoutFor(String section) {
+        return timeouts.getOrDefault(section, timeout);
+    }
+}
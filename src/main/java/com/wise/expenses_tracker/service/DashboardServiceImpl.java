@@ -0,0 +1,150 @@
+package com.wise.expenses_tracker.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Service;
+
+import com.wise.expenses_tracker.service.interfaces.BudgetService;
+import com.wise.expenses_tracker.service.interfaces.DashboardService;
+import com.wise.expenses_tracker.service.interfaces.ExpensesService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.BudgetStatusDTO;
+import com.wise.expenses_tracker.transferObject.DashboardDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+import com.wise.expenses_tracker.transferObject.UserDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the dashboard's sections in parallel on a bounded pool.
+ *
+ * Each section is an existing service call with its own transaction; it runs with the
+ * caller's SecurityContext, so current-user lookups, shard routing and replica
+ * read-your-writes behave as they would on the request thread. The response waits for
+ * each section until its own timeout (measured from the start of the request) and
+ * leaves out whatever failed, timed out or found the pool full.
+ *
+ * Metrics: {@code dashboard.sections.unavailable} (tags section, reason=timeout|error|rejected).
+ */
+@Slf4j
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final String PROFILE = "profile";
+    private static final String CATEGORY_TOTALS = "categoryTotals";
+    private static final String RECENT_EXPENSES = "recentExpenses";
+    private static final String BUDGETS = "budgets";
+
+    private final UserService userService;
+    private final ExpensesService expensesService;
+    private final BudgetService budgetService;
+    private final DashboardProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+
+    public DashboardServiceImpl(UserService userService,
+                                ExpensesService expensesService,
+                                BudgetService budgetService,
+                                DashboardProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.expensesService = expensesService;
+        this.budgetService = budgetService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public DashboardDTO getDashboard(int recentExpenses) {
+        long started = System.nanoTime();
+        Future<UserDTO> profile = submit(PROFILE, userService::getCurrentUserDTO);
+        Future<Map<String, Double>> categoryTotals = submit(CATEGORY_TOTALS, expensesService::getCategoryExpenses);
+        Future<List<ExpensesDTO>> recent = submit(RECENT_EXPENSES, () -> expensesService.getRecentExpenses(recentExpenses));
+        Future<List<BudgetStatusDTO>> budgets = submit(BUDGETS, budgetService::getBudgetStatus);
+
+        List<String> unavailable = new ArrayList<>();
+        return new DashboardDTO(
+                await(PROFILE, profile, started, unavailable),
+                await(CATEGORY_TOTALS, categoryTotals, started, unavailable),
+                await(RECENT_EXPENSES, recent, started, unavailable),
+                await(BUDGETS, budgets, started, unavailable),
+                unavailable);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(String section, Callable<T> task) {
+        try {
+            return executor.submit(new DelegatingSecurityContextCallable<>(task));
+        } catch (RejectedExecutionException e) {
+            unavailable(section, "rejected");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return the section's result, or null (and the section added to unavailable) if it
+     *         did not produce one in time
+     */
+    private <T> T await(String section, Future<T> future, long started, List<String> unavailable) {
+        long remaining = properties.timeoutFor(section).toNanos() - (System.nanoTime() - started);
+        try {
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Not interrupted: the section may be a coalesced computation other requests
+            // are waiting on. It finishes in the background, and the pool bounds how many do
+            future.cancel(false);
+            unavailable(section, "timeout");
+            log.debug("Dashboard section {} timed out", section);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof RejectedExecutionException)) {
+                unavailable(section, "error");
+                log.warn("Dashboard section {} failed", section, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+        }
+        unavailable.add(section);
+        return null;
+    }
+
+    private void unavailable(String section, String reason) {
+        Counter.builder("dashboard.sections.unavailable")
+                .tag("section", section)
+                .tag("reason", reason)
+                .description("Dashboard sections left out of a response")
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,99 @@
+package com.wise.expenses_tracker.service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.wise.expenses_tracker.distribution.DistributionProperties;
+import com.wise.expenses_tracker.distribution.ExpenseSketches;
+import com.wise.expenses_tracker.distribution.QuantileSketch;
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.service.interfaces.CategoryService;
+import com.wise.expenses_tracker.service.interfaces.DistributionService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.ExpenseDistributionDTO;
+import com.wise.expenses_tracker.transferObject.HistogramBinDTO;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class DistributionServiceImpl implements DistributionService {
+
+    private static final List<Double> DEFAULT_QUANTILES = List.of(0.5, 0.75, 0.9, 0.95, 0.99);
+    private static final int DEFAULT_BINS = 20;
+    private static final int DEFAULT_MONTHS = 12;
+
+    private final ExpenseSketches expenseSketches;
+    private final CategoryService categoryService;
+    private final UserService userService;
+    private final DistributionProperties properties;
+
+    @Override
+    public ExpenseDistributionDTO getDistribution(String category, YearMonth from, YearMonth to,
+                                                  List<Double> quantiles, Integer bins) {
+        YearMonth last = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+        YearMonth first = from != null ? from : last.minusMonths(DEFAULT_MONTHS - 1);
+        List<Double> requested = quantiles != null && !quantiles.isEmpty() ? quantiles : DEFAULT_QUANTILES;
+        int binCount = bins != null ? bins : DEFAULT_BINS;
+        validate(first, last, requested, binCount);
+
+        QuantileSketch sketch;
+        if (category != null) {
+            // An unknown category has no expenses, so its distribution is empty
+            Optional<CategoryEntity> categoryEntity = categoryService.getCategoryByName(category);
+            sketch = categoryEntity.isPresent()
+                    ? expenseSketches.merged(userService.getCurrentUserId(), categoryEntity.get().getId(), first, last)
+                    : new QuantileSketch();
+        } else {
+            sketch = expenseSketches.merged(userService.getCurrentUserId(), null, first, last);
+        }
+
+        Map<String, Double> estimates = new LinkedHashMap<>();
+        if (!sketch.isEmpty()) {
+            for (double quantile : requested) {
+                estimates.put(quantileName(quantile), cents(sketch.quantile(quantile)));
+            }
+        }
+        List<HistogramBinDTO> histogram = sketch.histogram(binCount).stream()
+                .map(bin -> new HistogramBinDTO(cents(bin.from()), cents(bin.to()), bin.count()))
+                .toList();
+        return new ExpenseDistributionDTO(category, first, last, sketch.count(), QuantileSketch.RELATIVE_ACCURACY,
+                estimates, histogram);
+    }
+
+    private void validate(YearMonth first, YearMonth last, List<Double> quantiles, int bins) {
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.MONTHS.between(first, last) >= properties.getMaxMonths()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxMonths() + " months per request");
+        }
+        for (Double quantile : quantiles) {
+            if (quantile == null || !(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("Quantiles must be between 0 and 1");
+            }
+        }
+        if (bins < 1 || bins > properties.getMaxBins()) {
+            throw new IllegalArgumentException("bins must be between 1 and " + properties.getMaxBins());
+        }
+    }
+
+    /**
+     * 0.5 as p50, 0.999 as p99.9
+     */
+    private static String quantileName(double quantile) {
+        return "p" + BigDecimal.valueOf(quantile).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+    private static double cents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wise.expenses_tracker.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+import com.wise.expenses_tracker.transferObject.CategoryDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+
+/**
+ * The in-memory work ExpensesServiceImpl does on loaded expense entities.
+ */
+final class ExpensesMapper {
+
+    private ExpensesMapper() {
+    }
+
+    static ExpensesDTO toExpensesDTO(ExpensesEntity expenseEntity) {
+        return new ExpensesDTO(
+                expenseEntity.getId(),
+                expenseEntity.getTitle(),
+                expenseEntity.getDate(),
+                expenseEntity.getPay_by(),
+                expenseEntity.getAmount(),
+                expenseEntity.getDescription(),
+                toCategoryDTO(expenseEntity.getCategoryEntity()),
+                expenseEntity.getDuplicate_of(),
+                expenseEntity.getVersion()
+        );
+    }
+
+    static CategoryDTO toCategoryDTO(CategoryEntity category) {
+        if (category == null) return null;
+        return new CategoryDTO(category.getId(), category.getName());
+    }
+
+    /**
+     * The distinct category names of the expenses, which getCategoryExpenses then sums
+     * one by one in the database.
+     */
+    static Set<String> categoryNames(List<ExpensesEntity> expenses) {
+        return expenses.stream()
+                .map(ExpensesEntity::getCategoryEntity)
+                .map(CategoryEntity::getName)
+                .collect(Collectors.toSet());
+    }
+}
@@ -1,22 +1,37 @@
 package com.wise.expenses_tracker.service;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.wise.expenses_tracker.analytics.ExpenseAnalyticsCache;
+import com.wise.expenses_tracker.distribution.ExpenseSketches;
+import com.wise.expenses_tracker.duplicates.DuplicateDetector;
 import com.wise.expenses_tracker.model.CategoryEntity;
 import com.wise.expenses_tracker.model.ExpensesEntity;
 import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.repository.ExpensesSpecifications;
 import com.wise.expenses_tracker.service.interfaces.CategoryService;
 import com.wise.expenses_tracker.service.interfaces.ExpensesService;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
 import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.BulkUpdateExpensesDTO;
 import com.wise.expenses_tracker.transferObject.CategoryDTO;
+import com.wise.expenses_tracker.transferObject.ExpenseField;
+import com.wise.expenses_tracker.transferObject.ExpensePatchDTO;
 import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesSelectionDTO;
 
 import lombok.RequiredArgsConstructor;
 
@@ -26,17 +41,27 @@ public class ExpensesServiceImpl implements ExpensesService {
     private final ExpensesRepository expensesRepository;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final RequestCoalescer requestCoalescer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DuplicateDetector duplicateDetector;
+    private final ExpenseAnalyticsCache analyticsCache;
+    private final ExpenseSketches expenseSketches;
 
+    /**
+     * Concurrent identical calls for the same user share one computation,
+     * which runs in its own read-only transaction (see RequestCoalescer).
+     */
     @Override
-    @Transactional(readOnly = true)
     public List<ExpensesDTO> getAllExpenses() {
-        // Get current authenticated user
-        var currentUser = userService.getCurrentUser();
-        
-        // Return only expenses belonging to the current user
-        return expensesRepository.findByUser(currentUser).stream()
-                .map(this::convertToExpensesDTO)
-                .collect(Collectors.toList());
+        return requestCoalescer.execute(userService.getCurrentUserId(), "getAllExpenses", List.of(), () -> {
+            // Get current authenticated user
+            var currentUser = userService.getCurrentUser();
+
+            // Return only expenses belonging to the current user
+            return expensesRepository.findByUser(currentUser).stream()
+                    .map(ExpensesMapper::toExpensesDTO)
+                    .toList();
+        });
     }
 
     @Override
@@ -47,7 +72,30 @@ public class ExpensesServiceImpl implements ExpensesService {
         
         // Return expense only if it belongs to the current user
         return expensesRepository.findByIdAndUser(id, currentUser)
-                .map(this::convertToExpensesDTO);
+                .map(ExpensesMapper::toExpensesDTO);
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllExpenses(Set<ExpenseField> fields) {
+        Long userId = userService.getCurrentUserId();
+        List<Object> names = fields.stream().<Object>map(ExpenseField::jsonName).toList();
+        return requestCoalescer.execute(userId, "getAllExpenses", names,
+                () -> Collections.unmodifiableList(project(ExpensesSpecifications.ofUser(userId), fields)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getExpenseById(Long id, Set<ExpenseField> fields) {
+        return project(ExpensesSpecifications.ofUser(userService.getCurrentUserId())
+                .and(ExpensesSpecifications.idIn(List.of(id))), fields).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExpensesDTO> getRecentExpenses(int limit) {
+        return expensesRepository.findByUserOrderByDateDescIdDesc(userService.getCurrentUser(), Limit.of(limit)).stream()
+                .map(ExpensesMapper::toExpensesDTO)
+                .toList();
     }
 
     @Override
@@ -59,7 +107,12 @@ public class ExpensesServiceImpl implements ExpensesService {
         // Find and delete expense only if it belongs to the current user
         return expensesRepository.findByIdAndUser(id, currentUser).map(existingExpense -> {
             expensesRepository.delete(existingExpense);
-            return convertToExpensesDTO(existingExpense);
+            // Deleted before the sketches are touched: every write takes the sketch lock last
+            expensesRepository.flush();
+            expenseSketches.record(currentUser.getId(), ExpenseSketches.Point.of(existingExpense), null);
+            eventPublisher.publishEvent(ExpensesChangedEvent.forExpense(currentUser.getId(),
+                    ExpensesChangedEvent.Kind.DELETED, id));
+            return ExpensesMapper.toExpensesDTO(existingExpense);
         });
     }
 
@@ -73,38 +126,211 @@ public class ExpensesServiceImpl implements ExpensesService {
         ExpensesEntity expenseEntity = expensesRepository.findByIdAndUser(id, currentUser)
                 .orElseThrow(() -> new IllegalArgumentException("Expense not found with id: " + id + " for current user"));
         
+        ExpenseSketches.Point before = ExpenseSketches.Point.of(expenseEntity);
         populateExpenseEntity(expenseEntity, expensesDTO);
-        expensesRepository.save(expenseEntity);
-        return Optional.of(convertToExpensesDTO(expenseEntity));
+        // Flushed here so the response and the event carry the incremented version
+        expensesRepository.saveAndFlush(expenseEntity);
+        expenseSketches.record(currentUser.getId(), before, ExpenseSketches.Point.of(expenseEntity));
+        duplicateDetector.remember(currentUser.getId(), expenseEntity.getDate(), expenseEntity.getAmount(),
+                expenseEntity.getPay_by(), expenseEntity.getTitle());
+        eventPublisher.publishEvent(ExpensesChangedEvent.forExpense(currentUser.getId(),
+                ExpensesChangedEvent.Kind.UPDATED, expenseEntity));
+        return Optional.of(ExpensesMapper.toExpensesDTO(expenseEntity));
+    }
+
+    /**
+     * With an expected version and no change to a fingerprint field this is a single
+     * UPDATE matching id, user and version, without reading the expense first. Otherwise
+     * the expense is loaded and Hibernate writes only the changed columns, checking the
+     * version in the same UPDATE. While expense sketches are kept, a category change is
+     * loaded as well, since its amount moves to another category's sketch.
+     */
+    @Override
+    @Transactional
+    public Optional<Long> patchExpense(Long id, ExpensePatchDTO patch, Long expectedVersion) {
+        Long userId = userService.getCurrentUserId();
+        Specification<ExpensesEntity> expense = ExpensesSpecifications.ofUser(userId)
+                .and(ExpensesSpecifications.idIn(List.of(id)));
+        if (expectedVersion != null && !patch.changesFingerprint()
+                && !(patch.changesCategory() && expenseSketches.isEnabled())) {
+            Map<String, Object> assignments = new LinkedHashMap<>();
+            if (patch.changesCategory()) {
+                assignments.put("categoryEntity", resolveCategory(patch.getCategory()));
+            }
+            if (patch.isDescriptionPresent()) {
+                assignments.put("description", patch.getDescription());
+            }
+            if (expensesRepository.update(expense.and(ExpensesSpecifications.hasVersion(expectedVersion)), assignments) == 0) {
+                // Only on failure: tell a missing expense from a stale version
+                if (!expensesRepository.exists(expense)) {
+                    return Optional.empty();
+                }
+                throw new ObjectOptimisticLockingFailureException(ExpensesEntity.class, id);
+            }
+            eventPublisher.publishEvent(ExpensesChangedEvent.forExpense(userId, ExpensesChangedEvent.Kind.UPDATED, id));
+            return Optional.of(expectedVersion + 1);
+        }
+
+        return expensesRepository.findOne(expense).map(expenseEntity -> {
+            if (expectedVersion != null && expenseEntity.getVersion() != expectedVersion) {
+                throw new ObjectOptimisticLockingFailureException(ExpensesEntity.class, id);
+            }
+            ExpenseSketches.Point before = ExpenseSketches.Point.of(expenseEntity);
+            applyPatch(expenseEntity, patch);
+            // Flushed here so the incremented version can be returned
+            expensesRepository.flush();
+            expenseSketches.record(userId, before, ExpenseSketches.Point.of(expenseEntity));
+            if (patch.changesFingerprint()) {
+                duplicateDetector.remember(userId, expenseEntity.getDate(), expenseEntity.getAmount(),
+                        expenseEntity.getPay_by(), expenseEntity.getTitle());
+            }
+            eventPublisher.publishEvent(ExpensesChangedEvent.forExpense(userId, ExpensesChangedEvent.Kind.UPDATED, expenseEntity));
+            return expenseEntity.getVersion();
+        });
     }
 
     @Override
     @Transactional
     public ExpensesDTO saveExpense(ExpensesDTO expensesDTO) {
+        // Before populating, so a rejected duplicate does not create its category
+        Long duplicateOf = duplicateDetector.screen(userService.getCurrentUserId(), expensesDTO.getDate(),
+                expensesDTO.getAmount(), expensesDTO.getPay_by(), expensesDTO.getTitle()).orElse(null);
         ExpensesEntity expenseEntity = new ExpensesEntity();
         populateExpenseEntity(expenseEntity, expensesDTO);
+        expenseEntity.setDuplicate_of(duplicateOf);
         expensesRepository.save(expenseEntity);
-        return convertToExpensesDTO(expenseEntity);
+        expenseSketches.record(expenseEntity.getUser().getId(), null, ExpenseSketches.Point.of(expenseEntity));
+        eventPublisher.publishEvent(ExpensesChangedEvent.forExpense(expenseEntity.getUser().getId(),
+                ExpensesChangedEvent.Kind.CREATED, expenseEntity));
+        return ExpensesMapper.toExpensesDTO(expenseEntity);
     }
 
 
     @Override
-    @Transactional(readOnly = true)
     public Map<String, Double> getCategoryExpenses(){
-        Map<String, Double> categoryExpenses = new HashMap<>();
-        var currentUser = userService.getCurrentUser();
-        Set<String> categories = expensesRepository.findByUser(currentUser).stream()
-                .map(ExpensesEntity::getCategoryEntity)
-                .map(CategoryEntity::getName)
-                .collect(Collectors.toSet());
+        if (analyticsCache.isEnabled()) {
+            return Collections.unmodifiableMap(analyticsCache.categoryTotals(userService.getCurrentUserId(), null, null));
+        }
+        return requestCoalescer.execute(userService.getCurrentUserId(), "getCategoryExpenses", List.of(), () -> {
+            Map<String, Double> categoryExpenses = new HashMap<>();
+            var currentUser = userService.getCurrentUser();
+            Set<String> categories = ExpensesMapper.categoryNames(expensesRepository.findByUser(currentUser));
+
+            for(String category : categories) {
+                Double total = expensesRepository.sumExpensesByCategoryAndUser(category, currentUser);
+                categoryExpenses.put(category, total);
+            }
+            // Shared between coalesced callers, so hand out a read-only view
+            return Collections.unmodifiableMap(categoryExpenses);
+        });
+    }
+
+    /**
+     * One UPDATE statement, whatever the number of expenses. Title, date, amount and
+     * payment method are not bulk-editable: they make up the duplicate fingerprint,
+     * which is computed in Java.
+     */
+    @Override
+    @Transactional
+    public int bulkUpdateExpenses(BulkUpdateExpensesDTO request) {
+        Optional<Specification<ExpensesEntity>> where = selection(request.getWhere());
+        if (where.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (request.getCategory() != null) {
+            assignments.put("categoryEntity", resolveCategory(new CategoryDTO(null, request.getCategory())));
+        }
+        if (request.getAddToReport() != null) {
+            assignments.put("add_to_report", request.getAddToReport());
+        }
+        if (request.getDescription() != null) {
+            assignments.put("description", request.getDescription());
+        }
+        int affected = expensesRepository.update(where.get(), assignments);
+        if (affected > 0) {
+            eventPublisher.publishEvent(ExpensesChangedEvent.forUser(userService.getCurrentUserId()));
+        }
+        return affected;
+    }
 
-        for(String category : categories) {
-            Double total = expensesRepository.sumExpensesByCategoryAndUser(category, currentUser);
-            categoryExpenses.put(category, total);
+    /**
+     * One DELETE statement, whatever the number of expenses.
+     */
+    @Override
+    @Transactional
+    public int bulkDeleteExpenses(ExpensesSelectionDTO selection) {
+        int affected = selection(selection).map(expensesRepository::delete).orElse(0L).intValue();
+        if (affected > 0) {
+            eventPublisher.publishEvent(ExpensesChangedEvent.forUser(userService.getCurrentUserId()));
         }
-        return categoryExpenses;
+        return affected;
     }
 
+    /**
+     * Ids of the current user's selected expenses. Package-private for the ledger-backed
+     * service, which has to record every change individually.
+     */
+    List<Long> findExpenseIds(ExpensesSelectionDTO selection) {
+        return selection(selection).map(expensesRepository::findIds).orElse(List.of());
+    }
+
+    /**
+     * Reads only the columns behind the requested fields, without loading entities, and
+     * shapes each row like the corresponding part of ExpensesDTO.
+     */
+    private List<Map<String, Object>> project(Specification<ExpensesEntity> where, Set<ExpenseField> fields) {
+        List<String> attributes = fields.stream().flatMap(field -> field.attributes().stream()).toList();
+        List<Object[]> rows = expensesRepository.findAttributes(where, attributes);
+        List<Map<String, Object>> expenses = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> expense = new LinkedHashMap<>();
+            int column = 0;
+            for (ExpenseField field : fields) {
+                Object value = field == ExpenseField.CATEGORY
+                        ? new CategoryDTO((Long) row[column], (String) row[column + 1])
+                        : row[column];
+                column += field.attributes().size();
+                // As in ExpensesDTO, an expense that duplicates nothing has no duplicateOf
+                if (value != null || field != ExpenseField.DUPLICATE_OF) {
+                    expense.put(field.jsonName(), value);
+                }
+            }
+            expenses.add(expense);
+        }
+        return expenses;
+    }
+
+    /**
+     * Translates a selection into criteria on the current user's expenses, or empty when
+     * nothing can match (a category that does not exist).
+     */
+    private Optional<Specification<ExpensesEntity>> selection(ExpensesSelectionDTO selection) {
+        Specification<ExpensesEntity> where = ExpensesSpecifications.ofUser(userService.getCurrentUserId());
+        if (selection.getIds() != null) {
+            where = where.and(ExpensesSpecifications.idIn(selection.getIds()));
+        }
+        if (selection.getCategory() != null) {
+            Optional<CategoryEntity> category = categoryService.getCategoryByName(selection.getCategory());
+            if (category.isEmpty()) {
+                return Optional.empty();
+            }
+            where = where.and(ExpensesSpecifications.inCategory(category.get()));
+        }
+        if (selection.getFrom() != null) {
+            where = where.and(ExpensesSpecifications.dateFrom(selection.getFrom()));
+        }
+        if (selection.getTo() != null) {
+            where = where.and(ExpensesSpecifications.dateBefore(selection.getTo()));
+        }
+        if (selection.getPayBy() != null) {
+            where = where.and(ExpensesSpecifications.paidBy(selection.getPayBy()));
+        }
+        if (selection.getAddToReport() != null) {
+            where = where.and(ExpensesSpecifications.addToReport(selection.getAddToReport()));
+        }
+        return Optional.of(where);
+    }
 
     /**
      * Populates an ExpensesEntity with data from ExpensesDTO
@@ -122,6 +348,27 @@ public class ExpensesServiceImpl implements ExpensesService {
         handleCategoryAssignment(expenseEntity, expensesDTO);
     }
 
+    private void applyPatch(ExpensesEntity expenseEntity, ExpensePatchDTO patch) {
+        if (patch.getTitle() != null) {
+            expenseEntity.setTitle(patch.getTitle());
+        }
+        if (patch.getDate() != null) {
+            expenseEntity.setDate(patch.getDate());
+        }
+        if (patch.getPay_by() != null) {
+            expenseEntity.setPay_by(patch.getPay_by());
+        }
+        if (patch.getAmount() != null) {
+            expenseEntity.setAmount(patch.getAmount());
+        }
+        if (patch.isDescriptionPresent()) {
+            expenseEntity.setDescription(patch.getDescription());
+        }
+        if (patch.changesCategory()) {
+            expenseEntity.setCategoryEntity(resolveCategory(patch.getCategory()));
+        }
+    }
+
     /**
      * Handles category assignment logic for an expense entity
      * 
@@ -129,45 +376,30 @@ public class ExpensesServiceImpl implements ExpensesService {
      * @param expensesDTO the DTO containing the category information
      */
     private void handleCategoryAssignment(ExpensesEntity expenseEntity, ExpensesDTO expensesDTO) {
-        if (expensesDTO.getCategory() != null && expensesDTO.getCategory().getName() != null) {
-            if (!categoryService.getCategoryByName(expensesDTO.getCategory().getName()).isPresent()) {
-                categoryService.createNewCategory(expensesDTO.getCategory());
-            }
-            CategoryEntity categoryEntity = categoryService.getCategoryByName(expensesDTO.getCategory().getName())
-                    .orElseThrow(() -> new IllegalArgumentException("Category not found: " + expensesDTO.getCategory().getName()));
-            expenseEntity.setCategoryEntity(categoryEntity);
-        } else {
-            // Handle case where category is not provided
-            throw new IllegalArgumentException("Category must be provided");
-        }
+        expenseEntity.setCategoryEntity(resolveCategory(expensesDTO));
     }
 
     /**
-     * Converts an ExpensesEntity to ExpensesDTO
-     * 
-     * @param expenseEntity the entity to convert
-     * @return the converted ExpensesDTO
+     * Finds the category named in the DTO, creating it when it does not exist yet.
+     * Package-private so the ledger-backed service assigns categories the same way.
+     *
+     * @param expensesDTO the DTO containing the category information
+     * @return the category entity
      */
-    private ExpensesDTO convertToExpensesDTO(ExpensesEntity expenseEntity) {
-        return new ExpensesDTO(
-                expenseEntity.getId(),
-                expenseEntity.getTitle(),
-                expenseEntity.getDate(),
-                expenseEntity.getPay_by(),
-                expenseEntity.getAmount(),
-                expenseEntity.getDescription(),
-                convertToCategoryDTO(expenseEntity.getCategoryEntity())
-        );
+    CategoryEntity resolveCategory(ExpensesDTO expensesDTO) {
+        return resolveCategory(expensesDTO.getCategory());
     }
 
-    /**
-     * Converts a CategoryEntity to CategoryDTO
-     * 
-     * @param category the entity to convert
-     * @return the converted CategoryDTO
-     */
-    private CategoryDTO convertToCategoryDTO(CategoryEntity category) {
-        if (category == null) return null;
-        return new CategoryDTO(category.getId(), category.getName());
+    CategoryEntity resolveCategory(CategoryDTO categoryDTO) {
+        if (categoryDTO != null && categoryDTO.getName() != null) {
+            if (!categoryService.getCategoryByName(categoryDTO.getName()).isPresent()) {
+                categoryService.createNewCategory(categoryDTO);
+            }
+            return categoryService.getCategoryByName(categoryDTO.getName())
+                    .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryDTO.getName()));
+        } else {
+            // Handle case where category is not provided
+            throw new IllegalArgumentException("Category must be provided");
+        }
     }
 }
@@ -0,0 +1,45 @@
+package com.wise.expenses_tracker.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.wise.expenses_tracker.duplicates.DuplicateDetector;
+import com.wise.expenses_tracker.ingestion.IngestionQueue;
+import com.wise.expenses_tracker.ingestion.QueuedExpense;
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.service.interfaces.IngestionService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ingestion", name = "enabled", havingValue = "true")
+public class IngestionServiceImpl implements IngestionService {
+    private final IngestionQueue ingestionQueue;
+    private final ExpensesServiceImpl expensesService;
+    private final UserService userService;
+    private final DuplicateDetector duplicateDetector;
+
+    /**
+     * The category is resolved (and created if needed) and the duplicate check done here,
+     * so a bad request is rejected before it is acknowledged and the writer only inserts rows.
+     */
+    @Override
+    public void ingestExpense(ExpensesDTO expensesDTO) {
+        Long userId = userService.getCurrentUserId();
+        Long duplicateOf = duplicateDetector.screen(userId, expensesDTO.getDate(), expensesDTO.getAmount(),
+                expensesDTO.getPay_by(), expensesDTO.getTitle()).orElse(null);
+        CategoryEntity category = expensesService.resolveCategory(expensesDTO);
+        ingestionQueue.offer(new QueuedExpense(
+                userId,
+                category.getId(),
+                expensesDTO.getTitle(),
+                expensesDTO.getDate(),
+                expensesDTO.getPay_by(),
+                expensesDTO.getAmount(),
+                expensesDTO.getDescription(),
+                duplicateOf));
+    }
+}
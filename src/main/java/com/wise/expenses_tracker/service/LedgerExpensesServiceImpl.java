@@ -0,0 +1,278 @@
+package com.wise.expenses_tracker.service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import com.wise.expenses_tracker.duplicates.DuplicateDetector;
+import com.wise.expenses_tracker.ledger.ExpenseEvent;
+import com.wise.expenses_tracker.ledger.ExpenseLedger;
+import com.wise.expenses_tracker.ledger.ExpenseState;
+import com.wise.expenses_tracker.ledger.LedgerProjector;
+import com.wise.expenses_tracker.ledger.UserLedger;
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.model.ExpensesEntity;
+import com.wise.expenses_tracker.service.interfaces.ExpensesService;
+import com.wise.expenses_tracker.service.interfaces.UserService;
+import com.wise.expenses_tracker.transferObject.BulkUpdateExpensesDTO;
+import com.wise.expenses_tracker.transferObject.CategoryDTO;
+import com.wise.expenses_tracker.transferObject.ExpenseField;
+import com.wise.expenses_tracker.transferObject.ExpensePatchDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesSelectionDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ExpensesService for ledger mode ({@code ledger.enabled=true}).
+ *
+ * Creates, updates and deletes are appended to the user's ledger and return as soon as
+ * the event is on disk; LedgerProjector applies them to the expenses table afterwards.
+ * Reads are delegated to ExpensesServiceImpl once the user's own events are projected,
+ * so a client always sees its previous writes.
+ */
+@Slf4j
+@Service
+@Primary
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ledger", name = "enabled", havingValue = "true")
+public class LedgerExpensesServiceImpl implements ExpensesService {
+    private final ExpensesServiceImpl expensesService;
+    private final ExpenseLedger ledger;
+    private final LedgerProjector projector;
+    private final UserService userService;
+    private final DuplicateDetector duplicateDetector;
+
+    @Override
+    public List<ExpensesDTO> getAllExpenses() {
+        awaitOwnWrites();
+        return expensesService.getAllExpenses();
+    }
+
+    @Override
+    public Optional<ExpensesDTO> getExpenseById(Long id) {
+        awaitOwnWrites();
+        return expensesService.getExpenseById(id);
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllExpenses(Set<ExpenseField> fields) {
+        awaitOwnWrites();
+        return expensesService.getAllExpenses(fields);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> getExpenseById(Long id, Set<ExpenseField> fields) {
+        awaitOwnWrites();
+        return expensesService.getExpenseById(id, fields);
+    }
+
+    @Override
+    public List<ExpensesDTO> getRecentExpenses(int limit) {
+        awaitOwnWrites();
+        return expensesService.getRecentExpenses(limit);
+    }
+
+    @Override
+    public Map<String, Double> getCategoryExpenses() {
+        awaitOwnWrites();
+        return expensesService.getCategoryExpenses();
+    }
+
+    @Override
+    public ExpensesDTO saveExpense(ExpensesDTO expensesDTO) {
+        Long userId = userService.getCurrentUserId();
+        // Expenses still waiting for projection are not in the table yet and are not matched
+        Long duplicateOf = duplicateDetector.screen(userId, expensesDTO.getDate(), expensesDTO.getAmount(),
+                expensesDTO.getPay_by(), expensesDTO.getTitle()).orElse(null);
+        ExpenseState state = toState(expensesDTO, expensesService.resolveCategory(expensesDTO), duplicateOf);
+        long expenseId = ledger.nextExpenseId();
+        try {
+            ledger.forUser(userId).create(expenseId, state);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the ledger failed", e);
+        }
+        projector.schedule(userId);
+        return toDTO(expenseId, state);
+    }
+
+    @Override
+    public Optional<ExpensesDTO> updateExpense(Long id, ExpensesDTO expensesDTO) {
+        Long userId = userService.getCurrentUserId();
+        ExpenseState state = toState(expensesDTO, expensesService.resolveCategory(expensesDTO), null);
+        ExpenseEvent updated;
+        try {
+            updated = ledger.forUser(userId).update(id, state)
+                    .orElseThrow(() -> new IllegalArgumentException("Expense not found with id: " + id + " for current user"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the ledger failed", e);
+        }
+        duplicateDetector.remember(userId, state.date(), state.amount(), state.payBy(), state.title());
+        projector.schedule(userId);
+        return Optional.of(toDTO(id, updated.state()));
+    }
+
+    /**
+     * The version check compares against the projected row, and the returned version is
+     * the one the row will have once this event is projected. Both assume no other write
+     * to the expense gets in between, so concurrent patches are only detected on a best
+     * effort basis in ledger mode.
+     */
+    @Override
+    public Optional<Long> patchExpense(Long id, ExpensePatchDTO patch, Long expectedVersion) {
+        Long userId = userService.getCurrentUserId();
+        awaitOwnWrites();
+        Optional<ExpensesDTO> current = expensesService.getExpenseById(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        long version = current.get().getVersion();
+        if (expectedVersion != null && version != expectedVersion) {
+            throw new ObjectOptimisticLockingFailureException(ExpensesEntity.class, id);
+        }
+        CategoryEntity category = patch.getCategory() != null && patch.getCategory().getName() != null
+                ? expensesService.resolveCategory(patch.getCategory())
+                : null;
+        Optional<ExpenseEvent> updated;
+        try {
+            updated = ledger.forUser(userId).update(id, state -> new ExpenseState(
+                    patch.getTitle() != null ? patch.getTitle() : state.title(),
+                    patch.getDate() != null ? patch.getDate() : state.date(),
+                    patch.getPay_by() != null ? patch.getPay_by() : state.payBy(),
+                    patch.getAmount() != null ? patch.getAmount() : state.amount(),
+                    patch.isDescriptionPresent() ? patch.getDescription() : state.description(),
+                    category != null ? category.getId() : state.categoryId(),
+                    category != null ? category.getName() : state.categoryName(),
+                    state.duplicateOf()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the ledger failed", e);
+        }
+        if (updated.isEmpty()) {
+            return Optional.empty();
+        }
+        if (patch.changesFingerprint()) {
+            ExpenseState state = updated.get().state();
+            duplicateDetector.remember(userId, state.date(), state.amount(), state.payBy(), state.title());
+        }
+        projector.schedule(userId);
+        return Optional.of(version + 1);
+    }
+
+    @Override
+    public Optional<ExpensesDTO> deleteExpense(Long id) {
+        Long userId = userService.getCurrentUserId();
+        Optional<ExpenseState> deleted;
+        try {
+            deleted = ledger.forUser(userId).delete(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the ledger failed", e);
+        }
+        deleted.ifPresent(state -> projector.schedule(userId));
+        return deleted.map(state -> toDTO(id, state));
+    }
+
+    /**
+     * The selection is evaluated on the expenses table once the user's events are
+     * projected; category and description changes are then appended as one event per
+     * expense. {@code add_to_report} is not part of the ledger and is updated in the table
+     * directly.
+     */
+    @Override
+    public int bulkUpdateExpenses(BulkUpdateExpensesDTO request) {
+        awaitOwnWrites();
+        Long userId = userService.getCurrentUserId();
+        List<Long> ids = expensesService.findExpenseIds(request.getWhere());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (request.getCategory() != null || request.getDescription() != null) {
+            CategoryEntity category = request.getCategory() != null
+                    ? expensesService.resolveCategory(new CategoryDTO(null, request.getCategory()))
+                    : null;
+            UserLedger userLedger = ledger.forUser(userId);
+            try {
+                for (Long id : ids) {
+                    userLedger.update(id, state -> new ExpenseState(
+                            state.title(),
+                            state.date(),
+                            state.payBy(),
+                            state.amount(),
+                            request.getDescription() != null ? request.getDescription() : state.description(),
+                            category != null ? category.getId() : state.categoryId(),
+                            category != null ? category.getName() : state.categoryName(),
+                            state.duplicateOf()));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Appending to the ledger failed", e);
+            }
+            projector.schedule(userId);
+        }
+        if (request.getAddToReport() != null) {
+            expensesService.bulkUpdateExpenses(new BulkUpdateExpensesDTO(
+                    ExpensesSelectionDTO.ofIds(ids), null, request.getAddToReport(), null));
+        }
+        return ids.size();
+    }
+
+    @Override
+    public int bulkDeleteExpenses(ExpensesSelectionDTO selection) {
+        awaitOwnWrites();
+        Long userId = userService.getCurrentUserId();
+        List<Long> ids = expensesService.findExpenseIds(selection);
+        UserLedger userLedger = ledger.forUser(userId);
+        int deleted = 0;
+        try {
+            for (Long id : ids) {
+                if (userLedger.delete(id).isPresent()) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the ledger failed", e);
+        }
+        if (deleted > 0) {
+            projector.schedule(userId);
+        }
+        return deleted;
+    }
+
+    private void awaitOwnWrites() {
+        Long userId = userService.getCurrentUserId();
+        if (!projector.awaitProjected(userId)) {
+            log.warn("Ledger projection for user {} is behind, serving possibly stale expenses", userId);
+        }
+    }
+
+    private static ExpenseState toState(ExpensesDTO expensesDTO, CategoryEntity category, Long duplicateOf) {
+        return new ExpenseState(
+                expensesDTO.getTitle(),
+                expensesDTO.getDate(),
+                expensesDTO.getPay_by(),
+                expensesDTO.getAmount(),
+                expensesDTO.getDescription(),
+                category.getId(),
+                category.getName(),
+                duplicateOf);
+    }
+
+    private static ExpensesDTO toDTO(long expenseId, ExpenseState state) {
+        return new ExpensesDTO(
+                expenseId,
+                state.title(),
+                state.date(),
+                state.payBy(),
+                state.amount(),
+                state.description(),
+                new CategoryDTO(state.categoryId(), state.categoryName()),
+                state.duplicateOf(),
+                null);
+    }
+}
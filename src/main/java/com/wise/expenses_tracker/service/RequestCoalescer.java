@@ -0,0 +1,197 @@
+package com.wise.expenses_tracker.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single-flight execution of identical read requests.
+ *
+ * Calls are keyed by (user, operation, parameters). The first caller for a key becomes
+ * the leader and runs the computation in a new read-only transaction, never in the
+ * caller's: a result shared with other callers must not include the leader's
+ * uncommitted writes. Callers that
+ * arrive while it is running wait for the same result instead of issuing their own
+ * queries, and never hold a database connection while they wait. Optionally the
+ * finished result is kept for a short TTL and served to later identical calls.
+ *
+ * Committed writes for a user drop that user's cached results and detach in-flight
+ * computations, so nobody joins or caches a computation that may predate the write.
+ *
+ * Metrics: {@code expenses.coalescing.calls} (tags operation, outcome=leader|joined|cached)
+ * and {@code expenses.coalescing.ratio}, the share of calls that did not run their own queries.
+ */
+@Component
+public class RequestCoalescer {
+
+    private record Key(long userId, String operation, List<Object> parameters) {}
+
+    private record CachedResult(Object value, long expiresAtNanos) {}
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, CachedResult> results = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, OperationMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final CoalescingProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate sharedTransaction;
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(CoalescingProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.sharedTransaction = new TransactionTemplate(transactionManager);
+        this.sharedTransaction.setReadOnly(true);
+        this.sharedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the loader once for all concurrent identical calls.
+     * The result is shared between callers, so it must not be modified.
+     *
+     * @param userId owner of the data being read
+     * @param operation name of the service operation
+     * @param parameters operation arguments, part of the key
+     * @param loader the computation, run inside a read-only transaction (a new one when coalescing)
+     * @param <T> the result type
+     * @return the (possibly shared) result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(long userId, String operation, List<Object> parameters, Supplier<T> loader) {
+        if (!properties.isEnabled()) {
+            return readOnlyTransaction.execute(status -> loader.get());
+        }
+
+        Key key = new Key(userId, operation, parameters);
+        OperationMetrics operationMetrics = metrics.computeIfAbsent(operation, OperationMetrics::new);
+
+        CachedResult cached = results.get(key);
+        if (cached != null) {
+            if (System.nanoTime() - cached.expiresAtNanos() < 0) {
+                operationMetrics.cached.increment();
+                return (T) cached.value();
+            }
+            results.remove(key, cached);
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            operationMetrics.joined.increment();
+            return (T) await(existing);
+        }
+
+        operationMetrics.leader.increment();
+        try {
+            T value = sharedTransaction.execute(status -> loader.get());
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            finish(key, flight);
+        }
+    }
+
+    /**
+     * Drops cached results and detaches in-flight computations once a write has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            inFlight.clear();
+            results.clear();
+        } else {
+            long userId = event.getUserId();
+            inFlight.keySet().removeIf(key -> key.userId() == userId);
+            results.keySet().removeIf(key -> key.userId() == userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coalescing.cleanup-interval:PT30S}")
+    public void evictExpiredResults() {
+        long now = System.nanoTime();
+        results.values().removeIf(result -> now - result.expiresAtNanos() >= 0);
+    }
+
+    /**
+     * Unregisters the flight and, if a TTL is configured, keeps its result.
+     * Both happen under the map's lock for the key: if a write already detached this
+     * flight, the result may be stale and is not cached.
+     */
+    private void finish(Key key, CompletableFuture<Object> flight) {
+        long ttlNanos = properties.getResultTtl().toNanos();
+        inFlight.computeIfPresent(key, (k, current) -> {
+            if (current != flight) {
+                return current;
+            }
+            if (ttlNanos > 0 && !flight.isCompletedExceptionally()) {
+                results.put(key, new CachedResult(flight.join(), System.nanoTime() + ttlNanos));
+            }
+            return null;
+        });
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private final class OperationMetrics {
+        private final Counter leader;
+        private final Counter joined;
+        private final Counter cached;
+
+        private OperationMetrics(String operation) {
+            this.leader = counter(operation, "leader");
+            this.joined = counter(operation, "joined");
+            this.cached = counter(operation, "cached");
+            Gauge.builder("expenses.coalescing.ratio", this, OperationMetrics::ratio)
+                    .tag("operation", operation)
+                    .description("Share of calls served without running their own queries")
+                    .register(meterRegistry);
+        }
+
+        private Counter counter(String operation, String outcome) {
+            return Counter.builder("expenses.coalescing.calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private double ratio() {
+            double shared = joined.count() + cached.count();
+            double total = shared + leader.count();
+            return total == 0 ? 0 : shared / total;
+        }
+    }
+}
@@ -35,6 +35,19 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
     }
 
+    /**
+     * Id of the authenticated user, taken from the principal set by the JWT filter
+     * when possible so that callers that only need the id avoid the user lookup.
+     */
+    @Override
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserEntity user && user.getId() != null) {
+            return user.getId();
+        }
+        return getCurrentUser().getId();
+    }
+
     @Override
     public UserDTO getCurrentUserDTO() {
         UserEntity userEntity = getCurrentUser();
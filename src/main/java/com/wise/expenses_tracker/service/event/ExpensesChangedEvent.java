@@ -0,0 +1,70 @@
+package com.wise.expenses_tracker.service.event;
+
+import java.time.Instant;
+
+import com.wise.expenses_tracker.model.ExpensesEntity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by the service layer whenever expenses change.
+ *
+ * Listeners that keep derived per-user state (coalesced results, caches) should react
+ * with {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ExpensesChangedEvent {
+
+    /**
+     * What happened to a single expense; changes that are not about one expense
+     * (bulk edits, projections, restores) have no kind.
+     */
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    /**
+     * The expense as written, for listeners that patch derived state instead of reloading it.
+     */
+    public record Values(long version, Instant date, Double amount, Long categoryId, String categoryName) {}
+
+    /** Owner of the changed expenses, or null when the change can affect every user (e.g. a category rename) */
+    private final Long userId;
+
+    /** Null unless exactly one expense changed */
+    private final Kind kind;
+
+    /** The changed expense, null unless {@link #kind} is set */
+    private final Long expenseId;
+
+    /** The created or updated expense's new state, null if it was not at hand when publishing */
+    private final Values values;
+
+    public static ExpensesChangedEvent forUser(Long userId) {
+        return new ExpensesChangedEvent(userId, null, null, null);
+    }
+
+    public static ExpensesChangedEvent allUsers() {
+        return new ExpensesChangedEvent(null, null, null, null);
+    }
+
+    public static ExpensesChangedEvent forExpense(Long userId, Kind kind, Long expenseId) {
+        return new ExpensesChangedEvent(userId, kind, expenseId, null);
+    }
+
+    /**
+     * @param expense the created or updated expense, flushed so its version is the new one
+     */
+    public static ExpensesChangedEvent forExpense(Long userId, Kind kind, ExpensesEntity expense) {
+        return new ExpensesChangedEvent(userId, kind, expense.getId(), new Values(
+                expense.getVersion(),
+                expense.getDate(),
+                expense.getAmount(),
+                expense.getCategoryEntity() != null ? expense.getCategoryEntity().getId() : null,
+                expense.getCategoryEntity() != null ? expense.getCategoryEntity().getName() : null));
+    }
+
+    public boolean affectsAllUsers() {
+        return userId == null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.wise.expenses_tracker.service.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.wise.expenses_tracker.transferObject.RestoreSummaryDTO;
+
+public interface BackupService {
+
+    /**
+     * Streams the current user's expenses, budgets and the categories they use as a backup archive.
+     */
+    void writeBackup(OutputStream out) throws IOException;
+
+    /**
+     * Replaces the current user's expenses and budgets with the archive's, all or nothing.
+     * Categories are matched by name and created when missing; expenses get new ids.
+     */
+    RestoreSummaryDTO restoreBackup(InputStream in);
+
+}
@@ -0,0 +1,17 @@
+package com.wise.expenses_tracker.service.interfaces;
+
+import java.util.List;
+
+import com.wise.expenses_tracker.transferObject.BatchOperationResultDTO;
+import com.wise.expenses_tracker.transferObject.BatchRequestDTO;
+
+public interface BatchService {
+
+    /**
+     * Runs the operations in order as the current user.
+     *
+     * @return one result per operation, in the same order
+     * @throws IllegalArgumentException if an atomic batch cannot be run in one transaction here
+     */
+    List<BatchOperationResultDTO> execute(BatchRequestDTO request);
+}
@@ -0,0 +1,13 @@
+package com.wise.expenses_tracker.service.interfaces;
+
+import java.util.List;
+
+import com.wise.expenses_tracker.transferObject.BudgetStatusDTO;
+
+public interface BudgetService {
+
+    /**
+     * The current user's budgets with what has been spent against each.
+     */
+    List<BudgetStatusDTO> getBudgetStatus();
+}
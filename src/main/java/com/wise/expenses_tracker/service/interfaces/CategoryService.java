@@ -11,6 +11,20 @@ public interface CategoryService {
     CategoryDTO createNewCategory(CategoryDTO category);
     Optional<CategoryDTO> updateCategory(Long id, CategoryDTO category);
     Optional<CategoryDTO> deleteCategory(Long id);
+
+    /**
+     * Deletes a category after moving its expenses and budgets to another one.
+     *
+     * @return the deleted category, empty if either category does not exist
+     */
+    Optional<CategoryDTO> deleteCategory(Long id, Long reassignToId);
+
+    /**
+     * Moves all expenses and budgets of the source category to the target, then drops the source.
+     *
+     * @return the target category, empty if either category does not exist
+     */
+    Optional<CategoryDTO> mergeCategory(Long sourceId, Long targetId);
     List<CategoryDTO> getAllCategoriesEntity();
     Optional<CategoryDTO> getCategoryById(Long id);
     Optional<CategoryEntity> getCategoryByName(String name);
@@ -0,0 +1,14 @@
+package com.wise.expenses_tracker.service.interfaces;
+
+import com.wise.expenses_tracker.transferObject.DashboardDTO;
+
+public interface DashboardService {
+
+    /**
+     * Assembles the current user's dashboard. Sections that fail or miss their timeout
+     * are left null and listed in {@link DashboardDTO#getUnavailable()}.
+     *
+     * @param recentExpenses how many of the latest expenses to include
+     */
+    DashboardDTO getDashboard(int recentExpenses);
+}
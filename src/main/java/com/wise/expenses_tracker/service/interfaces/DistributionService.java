@@ -0,0 +1,25 @@
+package com.wise.expenses_tracker.service.interfaces;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import com.wise.expenses_tracker.transferObject.ExpenseDistributionDTO;
+
+public interface DistributionService {
+
+    /**
+     * Quantiles and a histogram of the current user's expense amounts, merged from the
+     * per-month sketches, so the cost depends on the number of months and categories in
+     * the range, not on the number of expenses.
+     *
+     * @param category  category name, or null for all categories
+     * @param from      first month, or null for eleven months before {@code to}
+     * @param to        last month, or null for the current month (UTC)
+     * @param quantiles between 0 and 1, or null for the defaults
+     * @param bins      most histogram bins, or null for the default
+     * @throws IllegalArgumentException for a reversed or too long range, a quantile
+     *                                  outside [0, 1] or a bin count out of bounds
+     */
+    ExpenseDistributionDTO getDistribution(String category, YearMonth from, YearMonth to,
+                                           List<Double> quantiles, Integer bins);
+}
@@ -2,16 +2,58 @@ package com.wise.expenses_tracker.service.interfaces;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import com.wise.expenses_tracker.transferObject.BulkUpdateExpensesDTO;
+import com.wise.expenses_tracker.transferObject.ExpenseField;
+import com.wise.expenses_tracker.transferObject.ExpensePatchDTO;
 import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+import com.wise.expenses_tracker.transferObject.ExpensesSelectionDTO;
 
 public interface ExpensesService {
 
     List<ExpensesDTO> getAllExpenses();
     Optional<ExpensesDTO> getExpenseById(Long id);
+
+    /**
+     * Sparse variants of the two reads above: each expense as its requested fields by
+     * JSON name. Only the matching columns are selected, and categories are only joined
+     * when the category is requested.
+     */
+    List<Map<String, Object>> getAllExpenses(Set<ExpenseField> fields);
+    Optional<Map<String, Object>> getExpenseById(Long id, Set<ExpenseField> fields);
+
+    /**
+     * @return the current user's latest expenses by date, newest first
+     */
+    List<ExpensesDTO> getRecentExpenses(int limit);
     Optional<ExpensesDTO> deleteExpense(Long id);
     Optional<ExpensesDTO> updateExpense(Long id, ExpensesDTO expensesDTO);
     ExpensesDTO saveExpense(ExpensesDTO expensesDTO);
+
+    /**
+     * Changes only the fields present in the patch.
+     *
+     * @param expectedVersion the version the client last saw (If-Match), or null to skip the check
+     * @return the expense's new version, empty if the current user has no such expense
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the expense
+     *         is no longer at expectedVersion
+     */
+    Optional<Long> patchExpense(Long id, ExpensePatchDTO patch, Long expectedVersion);
     Map<String, Double> getCategoryExpenses();
 
+    /**
+     * Applies the same changes to every selected expense of the current user.
+     *
+     * @return the number of expenses changed
+     */
+    int bulkUpdateExpenses(BulkUpdateExpensesDTO request);
+
+    /**
+     * Deletes every selected expense of the current user.
+     *
+     * @return the number of expenses deleted
+     */
+    int bulkDeleteExpenses(ExpensesSelectionDTO selection);
+
 }
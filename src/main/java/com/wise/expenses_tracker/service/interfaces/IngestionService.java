@@ -0,0 +1,12 @@
+package com.wise.expenses_tracker.service.interfaces;
+
+import com.wise.expenses_tracker.transferObject.ExpensesDTO;
+
+public interface IngestionService {
+
+    /**
+     * Queues an expense of the current user; returns once it is durably queued.
+     */
+    void ingestExpense(ExpensesDTO expensesDTO);
+
+}
@@ -6,6 +6,7 @@ import com.wise.expenses_tracker.transferObject.UserDTO;
 public interface UserService {
 
     UserEntity getCurrentUser();
+    Long getCurrentUserId();
     UserDTO getCurrentUserDTO();
      
 
@@ -0,0 +1,145 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.model.UserEntity;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the global tables on every shard in step with the coordinator.
+ *
+ * Users and categories are written on the coordinator only (see GlobalTableWrite), which
+ * also hands out their ids. Once such a write commits, the row is re-read from the
+ * coordinator and upserted, or deleted, on each shard, so expenses on a shard can keep
+ * their foreign keys and the JPA joins to users and categories stay local.
+ *
+ * Replication is best effort: a shard that misses a change (it was down, or a deleted
+ * category is still referenced there) is logged and repaired by {@link #syncAll()},
+ * which the offline rebalance runs first.
+ */
+@Slf4j
+public class GlobalTableReplicator implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    /** Replicated entities and their physical tables */
+    static final Map<Class<?>, String> GLOBAL_TABLES = new LinkedHashMap<>();
+
+    static {
+        GLOBAL_TABLES.put(UserEntity.class, "users");
+        GLOBAL_TABLES.put(CategoryEntity.class, "categories");
+    }
+
+    private final ShardRoutingDataSource routingDataSource;
+
+    public GlobalTableReplicator(ShardRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return GLOBAL_TABLES.containsKey(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        replicate(GLOBAL_TABLES.get(event.getPersister().getMappedClass()), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        replicate(GLOBAL_TABLES.get(event.getPersister().getMappedClass()), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        String table = GLOBAL_TABLES.get(event.getPersister().getMappedClass());
+        for (int i = 0; i < routingDataSource.getShards().size(); i++) {
+            try (Connection shard = routingDataSource.getShards().get(i).getConnection();
+                 PreparedStatement delete = shard.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+                delete.setObject(1, event.getId());
+                delete.executeUpdate();
+            } catch (SQLException e) {
+                log.warn("Could not delete {} id {} on {}: {}", table, event.getId(), ShardContext.shardName(i), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was replicated yet
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was replicated yet
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was replicated yet
+    }
+
+    /**
+     * Copies one row of a global table to every shard, for writes Hibernate raises no
+     * entity events for (bulk JPQL updates). Call it once the write has committed.
+     */
+    public void replicate(Class<?> entity, Object id) {
+        replicate(GLOBAL_TABLES.get(entity), id);
+    }
+
+    /**
+     * Copies every global table from the coordinator to every shard.
+     */
+    public void syncAll() {
+        for (String table : GLOBAL_TABLES.values()) {
+            for (int i = 0; i < routingDataSource.getShards().size(); i++) {
+                try (Connection coordinator = routingDataSource.getCoordinator().getConnection();
+                     Connection shard = routingDataSource.getShards().get(i).getConnection();
+                     PreparedStatement select = coordinator.prepareStatement("SELECT * FROM " + table);
+                     ResultSet rows = select.executeQuery()) {
+                    shard.setAutoCommit(false);
+                    int written = RowCopier.upsertAll(rows, shard, table);
+                    shard.commit();
+                    log.info("Synced {} {} rows to {}", written, table, ShardContext.shardName(i));
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not sync " + table + " to " + ShardContext.shardName(i), e);
+                }
+            }
+        }
+    }
+
+    private void replicate(String table, Object id) {
+        DataSource coordinator = routingDataSource.getCoordinator();
+        try (Connection source = coordinator.getConnection();
+             PreparedStatement select = source.prepareStatement("SELECT * FROM " + table + " WHERE id = ?")) {
+            select.setObject(1, id);
+            for (int i = 0; i < routingDataSource.getShards().size(); i++) {
+                try (Connection shard = routingDataSource.getShards().get(i).getConnection();
+                     ResultSet row = select.executeQuery()) {
+                    RowCopier.upsertAll(row, shard, table);
+                } catch (SQLException e) {
+                    log.warn("Could not replicate {} id {} to {}: {}", table, id, ShardContext.shardName(i), e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read {} id {} from the coordinator: {}", table, id, e.getMessage());
+        }
+    }
+}
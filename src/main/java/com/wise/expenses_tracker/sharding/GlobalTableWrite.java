@@ -0,0 +1,21 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that writes global tables (users, categories).
+ *
+ * With sharding enabled the method runs against the coordinator, which owns those
+ * tables and their id sequences; if a shard transaction is active it is suspended and
+ * the method gets its own coordinator transaction. Committed rows are then copied to
+ * every shard by the GlobalTableReplicator. Without sharding the annotation does nothing.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GlobalTableWrite {
+}
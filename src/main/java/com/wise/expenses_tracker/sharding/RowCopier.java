@@ -0,0 +1,96 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Copies rows between databases with plain JDBC, keeping their ids.
+ * Columns are taken from the source result set, so both sides only need the same schema.
+ */
+final class RowCopier {
+
+    private static final int BATCH_SIZE = 500;
+
+    private RowCopier() {
+    }
+
+    /**
+     * Inserts every remaining row of the result set into the target table, in batches.
+     *
+     * @return the number of rows copied
+     */
+    static int insertAll(ResultSet rows, Connection target, String table) throws SQLException {
+        List<String> columns = columns(rows.getMetaData());
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        int copied = 0;
+        try (PreparedStatement insert = target.prepareStatement(sql)) {
+            while (rows.next()) {
+                for (int i = 0; i < columns.size(); i++) {
+                    insert.setObject(i + 1, rows.getObject(i + 1));
+                }
+                insert.addBatch();
+                if (++copied % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return copied;
+    }
+
+    /**
+     * Updates each row by id, inserting it when the target does not have it yet.
+     *
+     * @return the number of rows written
+     */
+    static int upsertAll(ResultSet rows, Connection target, String table) throws SQLException {
+        List<String> columns = columns(rows.getMetaData());
+        int idIndex = indexOfId(columns);
+        String update = "UPDATE " + table + " SET "
+                + columns.stream().map(column -> column + " = ?").collect(Collectors.joining(", "))
+                + " WHERE " + columns.get(idIndex) + " = ?";
+        String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+
+        int written = 0;
+        try (PreparedStatement updateStatement = target.prepareStatement(update);
+             PreparedStatement insertStatement = target.prepareStatement(insert)) {
+            while (rows.next()) {
+                for (int i = 0; i < columns.size(); i++) {
+                    updateStatement.setObject(i + 1, rows.getObject(i + 1));
+                    insertStatement.setObject(i + 1, rows.getObject(i + 1));
+                }
+                updateStatement.setObject(columns.size() + 1, rows.getObject(idIndex + 1));
+                if (updateStatement.executeUpdate() == 0) {
+                    insertStatement.executeUpdate();
+                }
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static List<String> columns(ResultSetMetaData metaData) throws SQLException {
+        List<String> columns = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(metaData.getColumnLabel(i));
+        }
+        return columns;
+    }
+
+    private static int indexOfId(List<String> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if ("id".equalsIgnoreCase(columns.get(i))) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Table has no id column: " + columns);
+    }
+}
@@ -0,0 +1,45 @@
+package com.wise.expenses_tracker.sharding;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * JpaTransactionManager that fixes the target database when a transaction begins.
+ *
+ * The target is resolved once, before the connection is acquired, and kept on the
+ * thread until the transaction completes, so all statements of one transaction go to
+ * one database and calls joining it cannot drift to another shard. A REQUIRES_NEW
+ * transaction resolves its own target and the outer one is restored afterwards.
+ */
+public class ShardAwareTransactionManager extends JpaTransactionManager {
+
+    private final transient ShardRoutingDataSource routingDataSource;
+
+    public ShardAwareTransactionManager(EntityManagerFactory entityManagerFactory,
+                                        ShardRoutingDataSource routingDataSource) {
+        super(entityManagerFactory);
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ShardContext.beginTransaction(routingDataSource.resolveNewTransactionTarget());
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            ShardContext.endTransaction();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ShardContext.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Thread-bound routing state for the ShardRoutingDataSource.
+ *
+ * Two things can decide where a connection goes before the current user does:
+ * the shard a running transaction was started on (pushed by ShardAwareTransactionManager,
+ * so every statement of a transaction hits the same database, nested REQUIRES_NEW
+ * transactions included), and an explicit override such as the coordinator for
+ * writes to global tables.
+ */
+public final class ShardContext {
+
+    public static final String COORDINATOR = "coordinator";
+
+    private static final ThreadLocal<String> override = new ThreadLocal<>();
+    private static final ThreadLocal<Deque<String>> transactions = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private ShardContext() {
+    }
+
+    public static String shardName(int index) {
+        return "shard-" + index;
+    }
+
+    /**
+     * Routes this thread's new transactions to the given target until {@link #restore} is called.
+     *
+     * @param target a shard name or {@link #COORDINATOR}
+     * @return the previous override, to hand back to {@link #restore}
+     */
+    public static String override(String target) {
+        String previous = override.get();
+        override.set(target);
+        return previous;
+    }
+
+    public static void restore(String previous) {
+        if (previous == null) {
+            override.remove();
+        } else {
+            override.set(previous);
+        }
+    }
+
+    static String currentOverride() {
+        return override.get();
+    }
+
+    static String currentTransactionTarget() {
+        return transactions.get().peek();
+    }
+
+    static void beginTransaction(String target) {
+        transactions.get().push(target);
+    }
+
+    static void endTransaction() {
+        Deque<String> stack = transactions.get();
+        stack.poll();
+        if (stack.isEmpty()) {
+            transactions.remove();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.wise.expenses_tracker.sharding;
+
+/**
+ * Maps a user id to a shard index.
+ *
+ * Uses jump consistent hashing (Lamping and Veach): ids spread evenly over the shards,
+ * and growing from N to N + 1 shards moves only about 1/(N + 1) of the users, all of
+ * them onto the new shard. That keeps the offline rebalance proportional to the data
+ * that actually has to move.
+ */
+public final class ShardFunction {
+
+    private ShardFunction() {
+    }
+
+    /**
+     * @param userId the user id
+     * @param shardCount number of shards, at least 1
+     * @return the shard index in {@code [0, shardCount)}
+     */
+    public static int shardFor(long userId, int shardCount) {
+        long key = userId;
+        long bucket = -1;
+        long next = 0;
+        while (next < shardCount) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
@@ -0,0 +1,79 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Keeps ids of the sharded tables unique across shards.
+ *
+ * Every shard generates ids with its own IDENTITY column, started in a range of its own:
+ * shard i hands out ids from {@code i * RANGE_SIZE + 1}, so an id encodes the shard it was
+ * created on. Moving a user keeps their ids, and since users only ever move onto shards
+ * appended after theirs (see ShardFunction), a moved row never falls into the target's
+ * own range and never raises its counter. 2^40 ids per shard keep ids of up to 8192
+ * shards below 2^53, exact as JSON numbers.
+ */
+public final class ShardIdRanges {
+
+    /** Tables holding per-user data, keyed by user_id, whose rows move with their user */
+    static final List<String> SHARDED_TABLES = List.of("expenses", "budgets");
+
+    static final long RANGE_SIZE = 1L << 40;
+
+    private ShardIdRanges() {
+    }
+
+    static long firstId(int shard) {
+        return shard * RANGE_SIZE + 1;
+    }
+
+    /**
+     * Starts the IDENTITY counter of each sharded table on the given shard at the shard's
+     * range, unless the shard already created rows there (then the counter is in it). An
+     * existing single database listed as shards[0] keeps its ids, which are in range.
+     */
+    static void reserve(Connection connection, int shard) throws SQLException {
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+        for (String table : SHARDED_TABLES) {
+            if (countInRange(connection, table, null, shard) > 0) {
+                continue;
+            }
+            try (Statement alter = connection.createStatement()) {
+                alter.execute(mysql
+                        ? "ALTER TABLE " + table + " AUTO_INCREMENT = " + firstId(shard)
+                        : "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + firstId(shard));
+            }
+        }
+    }
+
+    /**
+     * @return false if the user has rows with ids in the target shard's own range, which
+     *         could collide with rows the target created itself
+     */
+    static boolean canMove(Connection source, long userId, int targetShard) throws SQLException {
+        for (String table : SHARDED_TABLES) {
+            if (countInRange(source, table, userId, targetShard) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long countInRange(Connection connection, String table, Long userId, int shard) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM " + table + " WHERE id >= ? AND id < ?" + (userId != null ? " AND user_id = ?" : "");
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            select.setLong(1, firstId(shard));
+            select.setLong(2, firstId(shard + 1));
+            if (userId != null) {
+                select.setLong(3, userId);
+            }
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : 0;
+            }
+        }
+    }
+}
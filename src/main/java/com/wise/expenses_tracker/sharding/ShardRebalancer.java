@@ -0,0 +1,155 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline rebalance after shards were appended.
+ *
+ * Runs instead of normal operation when {@code sharding.rebalance-from} is set to the
+ * previous shard count. It first syncs the global tables to every shard (which also
+ * fills new shards), then walks the users found on each old shard and moves those whose
+ * shard changed. A user's rows are copied to the new shard with their ids in one
+ * transaction, and only then deleted from the old one. The ids cannot collide with the
+ * target's own rows (see ShardIdRanges); a user whose rows would is reported as failed. Re-running after an interruption
+ * is safe: rows already copied for a user are replaced on the target first.
+ *
+ * Run it while the application is not serving traffic, then exits with status 0, or 1
+ * if any user could not be moved (those users stay readable on their old shard only
+ * until the run succeeds, so run it again after fixing the cause).
+ */
+@Slf4j
+public class ShardRebalancer implements ApplicationRunner {
+
+    /** Per-user tables derived from the expenses: dropped on both sides, rebuilt on the new shard when read */
+    private static final List<String> DERIVED_TABLES = List.of("expense_sketches", "expense_sketch_status");
+
+    private final ShardRoutingDataSource routingDataSource;
+    private final GlobalTableReplicator replicator;
+    private final int previousShardCount;
+    private final ConfigurableApplicationContext context;
+
+    public ShardRebalancer(ShardRoutingDataSource routingDataSource,
+                           GlobalTableReplicator replicator,
+                           int previousShardCount,
+                           ConfigurableApplicationContext context) {
+        this.routingDataSource = routingDataSource;
+        this.replicator = replicator;
+        this.previousShardCount = previousShardCount;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<DataSource> shards = routingDataSource.getShards();
+        if (previousShardCount < 1 || previousShardCount > shards.size()) {
+            throw new IllegalStateException("sharding.rebalance-from must be between 1 and " + shards.size()
+                    + "; shards can only be appended");
+        }
+
+        replicator.syncAll();
+
+        int moved = 0;
+        int failed = 0;
+        for (int source = 0; source < previousShardCount; source++) {
+            for (long userId : usersOn(shards.get(source))) {
+                int target = ShardFunction.shardFor(userId, shards.size());
+                if (target == source) {
+                    continue;
+                }
+                try {
+                    moveUser(userId, shards.get(source), shards.get(target), target);
+                    moved++;
+                } catch (SQLException e) {
+                    failed++;
+                    log.error("Could not move user {} from {} to {}: {}", userId,
+                            ShardContext.shardName(source), ShardContext.shardName(target), e.getMessage());
+                }
+            }
+            log.info("Rebalanced {}", ShardContext.shardName(source));
+        }
+        log.info("Rebalance from {} to {} shards finished: {} users moved, {} failed",
+                previousShardCount, shards.size(), moved, failed);
+
+        int exitCode = failed == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static List<Long> usersOn(DataSource shard) {
+        String sql = String.join(" UNION ", ShardIdRanges.SHARDED_TABLES.stream()
+                .map(table -> "SELECT DISTINCT user_id FROM " + table)
+                .toList());
+        List<Long> users = new ArrayList<>();
+        try (Connection connection = shard.getConnection();
+             PreparedStatement select = connection.prepareStatement(sql);
+             ResultSet rows = select.executeQuery()) {
+            while (rows.next()) {
+                users.add(rows.getLong(1));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not list users on shard", e);
+        }
+        return users;
+    }
+
+    private static void moveUser(long userId, DataSource from, DataSource to, int targetShard) throws SQLException {
+        try (Connection source = from.getConnection(); Connection target = to.getConnection()) {
+            if (!ShardIdRanges.canMove(source, userId, targetShard)) {
+                throw new SQLException("Rows of user " + userId + " have ids in the range of " + ShardContext.shardName(targetShard));
+            }
+            target.setAutoCommit(false);
+            try {
+                for (String table : ShardIdRanges.SHARDED_TABLES) {
+                    deleteUserRows(target, table, userId);
+                    try (PreparedStatement select = source.prepareStatement("SELECT * FROM " + table + " WHERE user_id = ?")) {
+                        select.setLong(1, userId);
+                        try (ResultSet rows = select.executeQuery()) {
+                            RowCopier.insertAll(rows, target, table);
+                        }
+                    }
+                }
+                for (String table : DERIVED_TABLES) {
+                    deleteUserRows(target, table, userId);
+                }
+                target.commit();
+            } catch (SQLException e) {
+                target.rollback();
+                throw e;
+            }
+
+            source.setAutoCommit(false);
+            try {
+                for (String table : ShardIdRanges.SHARDED_TABLES) {
+                    deleteUserRows(source, table, userId);
+                }
+                for (String table : DERIVED_TABLES) {
+                    deleteUserRows(source, table, userId);
+                }
+                source.commit();
+            } catch (SQLException e) {
+                source.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void deleteUserRows(Connection connection, String table, long userId) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE user_id = ?")) {
+            delete.setLong(1, userId);
+            delete.executeUpdate();
+        }
+    }
+}
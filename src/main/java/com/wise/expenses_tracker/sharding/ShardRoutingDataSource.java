@@ -0,0 +1,120 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.wise.expenses_tracker.model.UserEntity;
+
+/**
+ * Routes connections to the coordinator or to one of the shards.
+ *
+ * In order of precedence the target is: the shard the current transaction was started
+ * on, an explicit ShardContext override, the shard of the authenticated user, and
+ * finally the coordinator (e.g. login and registration, before there is a user).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final DataSource coordinator;
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(DataSource coordinator, List<DataSource> shards) {
+        this.coordinator = coordinator;
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ShardContext.COORDINATOR, coordinator);
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(ShardContext.shardName(i), shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(coordinator);
+    }
+
+    /**
+     * @return the database a connection requested now comes from: the current
+     *         transaction's target if there is one, otherwise {@link #resolveNewTransactionTarget()}
+     */
+    public String resolveTarget() {
+        String target = ShardContext.currentTransactionTarget();
+        return target != null ? target : resolveNewTransactionTarget();
+    }
+
+    /**
+     * @return the database a transaction starting now should run on, ignoring any
+     *         transaction it suspends
+     */
+    public String resolveNewTransactionTarget() {
+        String target = ShardContext.currentOverride();
+        if (target != null) {
+            return target;
+        }
+        Long userId = currentUserId();
+        return userId != null ? shardNameFor(userId) : ShardContext.COORDINATOR;
+    }
+
+    public String shardNameFor(long userId) {
+        return ShardContext.shardName(ShardFunction.shardFor(userId, shards.size()));
+    }
+
+    /**
+     * The ShardContext overrides that reach every database holding expenses: one per
+     * shard when {@code dataSource} is sharded, otherwise a single null (no override).
+     */
+    public static List<String> expenseTargets(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(ShardRoutingDataSource.class)) {
+                int shards = dataSource.unwrap(ShardRoutingDataSource.class).getShards().size();
+                return IntStream.range(0, shards).mapToObj(ShardContext::shardName).toList();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot inspect the DataSource", e);
+        }
+        return Collections.singletonList(null);
+    }
+
+    /**
+     * The ShardContext override that reaches the user's expenses from a thread without
+     * the user's authentication: their shard when {@code dataSource} is sharded, otherwise null.
+     */
+    public static String expenseTargetFor(DataSource dataSource, long userId) {
+        try {
+            if (dataSource.isWrapperFor(ShardRoutingDataSource.class)) {
+                return dataSource.unwrap(ShardRoutingDataSource.class).shardNameFor(userId);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot inspect the DataSource", e);
+        }
+        return null;
+    }
+
+    public DataSource getCoordinator() {
+        return coordinator;
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return resolveTarget();
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserEntity user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
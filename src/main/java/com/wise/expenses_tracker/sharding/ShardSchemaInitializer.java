@@ -0,0 +1,65 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies {@code ddl-auto=update} to every shard.
+ *
+ * Hibernate only updates the schema of the database it boots against, which with
+ * sharding is the coordinator. This runs the same schema update, from the same mapping
+ * metadata (tables, columns and indexes), against each shard once the context is up,
+ * then starts the shard's id counters in its own range (see ShardIdRanges).
+ */
+@Slf4j
+public class ShardSchemaInitializer implements SmartInitializingSingleton {
+
+    private final ShardingIntegrator integrator;
+    private final ShardRoutingDataSource routingDataSource;
+
+    public ShardSchemaInitializer(ShardingIntegrator integrator, ShardRoutingDataSource routingDataSource) {
+        this.integrator = integrator;
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Metadata metadata = integrator.getMetadata();
+        if (metadata == null) {
+            return;
+        }
+        String dialect = integrator.getSessionFactory().getJdbcServices().getDialect().getClass().getName();
+        for (int i = 0; i < routingDataSource.getShards().size(); i++) {
+            DataSource shard = routingDataSource.getShards().get(i);
+            StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                    .applySetting(AvailableSettings.DIALECT, dialect)
+                    .applySetting(AvailableSettings.DATASOURCE, shard)
+                    .build();
+            try {
+                SchemaManagementToolCoordinator.process(metadata, registry,
+                        Map.of(AvailableSettings.HBM2DDL_AUTO, "update", AvailableSettings.HBM2DDL_HALT_ON_ERROR, true),
+                        action -> { });
+            } finally {
+                StandardServiceRegistryBuilder.destroy(registry);
+            }
+            try (Connection connection = shard.getConnection()) {
+                ShardIdRanges.reserve(connection, i);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not reserve the id range of " + ShardContext.shardName(i), e);
+            }
+            log.info("Schema updated on {}", ShardContext.shardName(i));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wise.expenses_tracker.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Hooks sharding into Hibernate: registers the GlobalTableReplicator as a post-commit
+ * listener and keeps the mapping metadata so ShardSchemaInitializer can create the
+ * same schema on every shard.
+ */
+public class ShardingIntegrator implements Integrator {
+
+    private final GlobalTableReplicator replicator;
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public ShardingIntegrator(GlobalTableReplicator replicator) {
+        this.replicator = replicator;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, replicator);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, replicator);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, replicator);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    public SessionFactoryImplementor getSessionFactory() {
+        return sessionFactory;
+    }
+}
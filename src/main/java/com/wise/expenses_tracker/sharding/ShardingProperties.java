@@ -0,0 +1,39 @@
+package com.wise.expenses_tracker.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * User-id sharding (prefix {@code sharding}).
+ *
+ * The coordinator is the database configured through {@code spring.datasource.*}; it owns
+ * the global tables. Expenses and budgets live on {@code shards[ShardFunction.shardFor(userId, n)]}.
+ * Shards may only be appended: the index of a shard is part of the mapping.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Set to the previous shard count to run the offline rebalance instead of serving
+     * requests: users whose shard changed are moved, then the application exits.
+     */
+    private Integer rebalanceFrom;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
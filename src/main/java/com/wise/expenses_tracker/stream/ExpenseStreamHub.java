@@ -0,0 +1,405 @@
+package com.wise.expenses_tracker.stream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+import com.wise.expenses_tracker.sharding.ShardContext;
+import com.wise.expenses_tracker.sharding.ShardRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes committed expense changes to the owner's open streams.
+ *
+ * Events per subscriber:
+ * <pre>
+ * event: expense   {"type":"created|updated|deleted","id":12} for a single expense,
+ *                  {"type":"changed"} for bulk edits, restores and category merges
+ * event: totals    {"Food":12.5,...}, the user's totals per category; also sent on connect
+ * : heartbeat      every expense-stream.heartbeat-interval
+ * </pre>
+ * Connections are async requests, so an idle one costs no thread. Events are serialized
+ * once and queued per connection; a small pool of sender threads writes them out. Writes
+ * use the servlet's non-blocking output: a sender writes only while the connection takes
+ * data and moves on when it does not, so a client that stalls holds up no sender and no
+ * other client. Its events wait in its queue, and a subscriber whose queue is full when
+ * the next event arrives has stopped reading and is disconnected rather than buffered
+ * for. Totals are recomputed once per burst of changes per user, in one grouped query,
+ * and only for users with an open stream.
+ */
+@Slf4j
+public class ExpenseStreamHub {
+
+    private final ExpenseStreamProperties properties;
+    private final ExpensesRepository expensesRepository;
+    private final TransactionTemplate totalsTransaction;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService senders;
+    private final ExecutorService totalsWorkers;
+    private final Map<Long, List<StreamSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Long> pendingTotals = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter sent;
+    private final Counter rejected;
+    private final Counter slowConsumers;
+    private final Counter replaced;
+
+    public ExpenseStreamHub(ExpenseStreamProperties properties,
+                            ExpensesRepository expensesRepository,
+                            TransactionTemplate totalsTransaction,
+                            DataSource dataSource,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.expensesRepository = expensesRepository;
+        this.totalsTransaction = totalsTransaction;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "expense-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.totalsWorkers = Executors.newFixedThreadPool(properties.getTotalsConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "expense-stream-totals");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("expenses.stream.connections", connections, AtomicInteger::get)
+                .description("Open expense streams on this node")
+                .register(meterRegistry);
+        this.sent = Counter.builder("expenses.stream.events")
+                .description("Events and heartbeats written to expense streams")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("expenses.stream.rejected")
+                .description("Stream requests refused because the node was full")
+                .register(meterRegistry);
+        this.slowConsumers = Counter.builder("expenses.stream.disconnects")
+                .tag("reason", "slow")
+                .description("Streams closed by the server")
+                .register(meterRegistry);
+        this.replaced = Counter.builder("expenses.stream.disconnects")
+                .tag("reason", "replaced")
+                .description("Streams closed by the server")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user. Their oldest stream is closed if they already have
+     * expense-stream.max-connections-per-user.
+     *
+     * @throws StreamUnavailableException if this node has no room for another connection
+     */
+    public void subscribe(long userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (connections.incrementAndGet() > properties.getMaxConnections()) {
+            connections.decrementAndGet();
+            rejected.increment();
+            throw new StreamUnavailableException("Too many open streams, retry later",
+                    Math.max(1, properties.getRetryAfter().toSeconds()));
+        }
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(properties.getConnectionLifetime().toMillis());
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ServletOutputStream output = response.getOutputStream();
+        StreamSubscriber subscriber = new StreamSubscriber(userId, asyncContext, output, properties.getBufferSize());
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                close(subscriber);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close(subscriber);
+                complete(subscriber);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                // Completed here, or the container dispatches the request to the error page
+                close(subscriber);
+                complete(subscriber);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        output.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                subscriber.resume();
+                schedule(subscriber);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                close(subscriber);
+                complete(subscriber);
+            }
+        });
+
+        List<StreamSubscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, current) -> {
+            List<StreamSubscriber> next = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            next.add(subscriber);
+            while (next.size() > properties.getMaxConnectionsPerUser()) {
+                evicted.add(next.remove(0));
+            }
+            return List.copyOf(next);
+        });
+        evicted.forEach(oldest -> {
+            if (close(oldest)) {
+                replaced.increment();
+            }
+        });
+
+        enqueue(subscriber, encode("retry:" + properties.getReconnectDelay().toMillis() + "\n:connected\n\n"));
+        refreshTotals(userId);
+    }
+
+    /**
+     * Runs after the change is committed; only queues work, so the writing request is
+     * not held up by the subscribers.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        if (event.affectsAllUsers()) {
+            byte[] changed = event("expense", Map.of("type", "changed"));
+            for (Long userId : subscribers.keySet()) {
+                publish(userId, changed);
+                refreshTotals(userId);
+            }
+            return;
+        }
+        long userId = event.getUserId();
+        if (!subscribers.containsKey(userId)) {
+            return;
+        }
+        publish(userId, event("expense", event.getKind() == null
+                ? Map.of("type", "changed")
+                : Map.of("type", event.getKind().name().toLowerCase(Locale.ROOT), "id", event.getExpenseId())));
+        refreshTotals(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${expense-stream.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        byte[] heartbeat = encode(":heartbeat\n\n");
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> enqueue(subscriber, heartbeat)));
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * Closes every stream; clients reconnect to another node.
+     */
+    public void stop() {
+        subscribers.values().forEach(streams -> streams.forEach(this::close));
+        senders.shutdown();
+        totalsWorkers.shutdownNow();
+        try {
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(long userId, byte[] event) {
+        subscribers.getOrDefault(userId, List.of()).forEach(subscriber -> enqueue(subscriber, event));
+    }
+
+    private void enqueue(StreamSubscriber subscriber, byte[] event) {
+        if (subscriber.offer(event)) {
+            schedule(subscriber);
+        } else if (close(subscriber)) {
+            slowConsumers.increment();
+            log.debug("Closed the expense stream of user {}: it stopped reading", subscriber.userId());
+        }
+    }
+
+    /**
+     * Recomputes the user's totals unless a recomputation is already queued; it will see
+     * this change too, having not started yet.
+     */
+    private void refreshTotals(long userId) {
+        if (!pendingTotals.add(userId)) {
+            return;
+        }
+        try {
+            totalsWorkers.execute(() -> {
+                pendingTotals.remove(userId);
+                if (!subscribers.containsKey(userId)) {
+                    return;
+                }
+                try {
+                    publish(userId, event("totals", totals(userId)));
+                } catch (RuntimeException e) {
+                    log.warn("Could not compute totals for the expense stream of user {}", userId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingTotals.remove(userId);
+        }
+    }
+
+    /**
+     * Not read-only, so replica routing keeps it on the primary: the totals have to
+     * include the commit that triggered them. This thread carries no authentication, so
+     * the user's shard is chosen explicitly.
+     */
+    private Map<String, Double> totals(long userId) {
+        String previous = ShardContext.override(ShardRoutingDataSource.expenseTargetFor(dataSource, userId));
+        try {
+            return totalsTransaction.execute(status -> {
+                Map<String, Double> totals = new TreeMap<>();
+                for (Object[] row : expensesRepository.sumExpensesByCategoryForUser(userId)) {
+                    totals.put((String) row[0], ((Number) row[1]).doubleValue());
+                }
+                return totals;
+            });
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * The payload is written as one line of JSON, so it fits a single data field.
+     */
+    private byte[] event(String name, Object payload) {
+        try {
+            return encode("event:" + name + "\ndata:" + objectMapper.writeValueAsString(payload) + "\n\n");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + name + " event", e);
+        }
+    }
+
+    private static byte[] encode(String event) {
+        return event.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void schedule(StreamSubscriber subscriber) {
+        if (subscriber.startDraining()) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    /**
+     * Owns the subscriber's output until the queue is empty or the output stops taking
+     * data. A closed subscriber's request is completed here and the drain is never given
+     * up, so nothing writes to it afterwards.
+     */
+    private void drain(StreamSubscriber subscriber) {
+        boolean again;
+        do {
+            if (subscriber.isClosed()) {
+                complete(subscriber);
+                return;
+            }
+            boolean ready;
+            try {
+                ready = writeQueued(subscriber);
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the container already completed the request
+                close(subscriber);
+                complete(subscriber);
+                return;
+            }
+            again = ready ? subscriber.stopDraining() : subscriber.suspendDraining();
+        } while (again);
+    }
+
+    /**
+     * Writes queued events while the output is ready, without ever waiting for it, and
+     * flushes them.
+     *
+     * @return false if the output stopped taking data; the container then calls
+     *         onWritePossible once it takes data again
+     */
+    private boolean writeQueued(StreamSubscriber subscriber) throws IOException {
+        ServletOutputStream output = subscriber.output();
+        boolean written = false;
+        while (!subscriber.isClosed()) {
+            subscriber.clearResumed();
+            if (!output.isReady()) {
+                return false;
+            }
+            byte[] event = subscriber.poll();
+            if (event == null) {
+                if (written) {
+                    output.flush();
+                }
+                return true;
+            }
+            output.write(event);
+            sent.increment();
+            written = true;
+        }
+        return true;
+    }
+
+    private void complete(StreamSubscriber subscriber) {
+        try {
+            subscriber.asyncContext().complete();
+        } catch (RuntimeException e) {
+            log.debug("Expense stream of user {} was already closed", subscriber.userId(), e);
+        }
+    }
+
+    /**
+     * @return true if this call closed the subscriber
+     */
+    private boolean close(StreamSubscriber subscriber) {
+        if (!subscriber.close()) {
+            return false;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId(), (id, current) -> {
+            List<StreamSubscriber> next = current.stream().filter(other -> other != subscriber).toList();
+            return next.isEmpty() ? null : next;
+        });
+        schedule(subscriber);
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package com.wise.expenses_tracker.stream;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Server-Sent Events of expense changes (prefix {@code expense-stream}), off unless
+ * {@code expense-stream.enabled=true}.
+ *
+ * Subscribers of GET /api/expenses/stream get an event per changed expense and the
+ * user's new totals per category after every committed change.
+ */
+@Data
+@ConfigurationProperties(prefix = "expense-stream")
+public class ExpenseStreamProperties {
+
+    private boolean enabled = false;
+
+    /** Comment line sent to every subscriber this often, so proxies keep idle connections open */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /** Connections are closed after this long; clients reconnect and present a fresh token */
+    private Duration connectionLifetime = Duration.ofMinutes(30);
+
+    /** Reconnection delay suggested to clients (the SSE retry field) */
+    private Duration reconnectDelay = Duration.ofSeconds(3);
+
+    /** Events queued per connection; a subscriber that falls this far behind is disconnected */
+    private int bufferSize = 32;
+
+    /** Open connections per user; opening another closes the user's oldest */
+    private int maxConnectionsPerUser = 8;
+
+    /**
+     * Open connections on this node; beyond this the endpoint answers 503. Tomcat's
+     * connection limit is raised to leave room for this many streams
+     */
+    private int maxConnections = 50_000;
+
+    /** Threads writing queued events to connections; writes never wait for a client, so idle or stalled connections do not occupy one */
+    private int senderThreads = 8;
+
+    /** Totals queries run at once, e.g. after a category rename reaches every subscriber */
+    private int totalsConcurrency = 4;
+
+    /** Retry-After sent with the 503 when the node is full */
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
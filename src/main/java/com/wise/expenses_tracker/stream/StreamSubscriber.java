@@ -0,0 +1,121 @@
+package com.wise.expenses_tracker.stream;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+/**
+ * One open stream connection: its async request, the response's output stream in
+ * non-blocking mode and a bounded queue of serialized events waiting to be written to it.
+ *
+ * An idle subscriber holds no thread. Whoever enqueues into an empty queue starts a
+ * drain on the hub's sender pool; at most one drain runs per subscriber, so events are
+ * written in order and only the draining thread ever touches the output. A drain that
+ * finds the output not ready gives up without waiting; the container resumes it once the
+ * client takes data again.
+ */
+final class StreamSubscriber {
+
+    private final long userId;
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream output;
+    private final BlockingQueue<byte[]> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean resumed = new AtomicBoolean();
+    private volatile boolean closed;
+
+    StreamSubscriber(long userId, AsyncContext asyncContext, ServletOutputStream output, int bufferSize) {
+        this.userId = userId;
+        this.asyncContext = asyncContext;
+        this.output = output;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    long userId() {
+        return userId;
+    }
+
+    AsyncContext asyncContext() {
+        return asyncContext;
+    }
+
+    ServletOutputStream output() {
+        return output;
+    }
+
+    /**
+     * @return false when the buffer is full
+     */
+    boolean offer(byte[] event) {
+        return !closed && queue.offer(event);
+    }
+
+    byte[] poll() {
+        return queue.poll();
+    }
+
+    /**
+     * @return true if the caller now owns the drain, false if one is already running
+     */
+    boolean startDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Gives up the drain.
+     *
+     * @return true if the caller has to take it up again: something was enqueued or the
+     *         subscriber was closed after the drain last looked
+     */
+    boolean stopDraining() {
+        draining.set(false);
+        return (closed || !queue.isEmpty()) && startDraining();
+    }
+
+    /**
+     * Called by the drain before asking the output whether it is ready.
+     */
+    void clearResumed() {
+        resumed.set(false);
+    }
+
+    /**
+     * Called by the container once the output is ready again after it was not.
+     */
+    void resume() {
+        resumed.set(true);
+    }
+
+    /**
+     * Gives up the drain after the output was not ready; events stay queued until the
+     * container resumes the subscriber.
+     *
+     * @return true if the caller has to take it up again: the subscriber was resumed or
+     *         closed while the drain was giving up
+     */
+    boolean suspendDraining() {
+        draining.set(false);
+        return (closed || resumed.get()) && startDraining();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops accepting events. The async request itself is completed by the next drain.
+     *
+     * @return true for the first caller only
+     */
+    synchronized boolean close() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        queue.clear();
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.wise.expenses_tracker.stream;
+
+/**
+ * Thrown when this node holds as many stream connections as it is configured for.
+ * ExpenseStreamController answers it with 503 and a Retry-After header.
+ */
+public class StreamUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public StreamUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
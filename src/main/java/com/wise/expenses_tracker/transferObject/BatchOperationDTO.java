@@ -0,0 +1,37 @@
+package com.wise.expenses_tracker.transferObject;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One operation of a batch, written as the request it stands for")
+public class BatchOperationDTO {
+
+    @Pattern(regexp = "[A-Za-z0-9_-]+")
+    @Schema(description = "Name for this operation's result; later paths use @{name} for the id of the expense it returned",
+            example = "lunch")
+    private String ref;
+
+    @NotBlank
+    @Schema(description = "POST, GET, PUT, PATCH or DELETE", example = "PATCH")
+    private String method;
+
+    @NotBlank
+    @Schema(description = "/api/expenses for POST, otherwise /api/expenses/{id}; the id may be @{name} of an earlier operation",
+            example = "/api/expenses/@{lunch}")
+    private String path;
+
+    @Schema(description = "If-Match for PATCH, required: the version the change applies to, or * for any")
+    private String ifMatch;
+
+    @Schema(description = "Request body for POST, PUT and PATCH, as for the single-expense endpoints")
+    private JsonNode body;
+}
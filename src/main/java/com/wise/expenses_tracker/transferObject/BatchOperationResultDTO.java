@@ -0,0 +1,32 @@
+package com.wise.expenses_tracker.transferObject;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of one batch operation, in the order the operations were sent")
+public class BatchOperationResultDTO {
+
+    private String ref;
+
+    @Schema(description = "The status the single request would have had; 424 when the operation was rolled back, "
+            + "not run, or refers to an operation that failed")
+    private int status;
+
+    @Schema(description = "The ETag the single request would have returned")
+    private String etag;
+
+    @Schema(description = "The response body, or the error message")
+    private Object body;
+
+    public boolean succeeded() {
+        return status >= 200 && status < 300;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Expense operations to run in order in one request")
+public class BatchRequestDTO {
+
+    public static final int MAX_OPERATIONS = 100;
+
+    @Schema(description = "Run all operations in one transaction: the first failure rolls back the ones before it and skips the rest. "
+            + "Otherwise each operation commits on its own and a failure affects only that operation and those referring to it")
+    private boolean atomic;
+
+    @Valid
+    @NotEmpty
+    @Size(max = MAX_OPERATIONS)
+    private List<BatchOperationDTO> operations;
+}
@@ -0,0 +1,28 @@
+package com.wise.expenses_tracker.transferObject;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A budget and how much of it is spent")
+public class BudgetStatusDTO {
+
+    private Long id;
+
+    private CategoryDTO category;
+
+    private Double amount;
+
+    @Schema(description = "Whether the budget renews every calendar month (UTC); otherwise it covers all expenses")
+    private boolean everyMonth;
+
+    @Schema(description = "Expenses in the category this month, or overall for a budget that does not renew")
+    private double spent;
+
+    @Schema(description = "Amount minus spent; negative when over budget")
+    private Double remaining;
+}
@@ -0,0 +1,16 @@
+package com.wise.expenses_tracker.transferObject;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk update or delete")
+public class BulkResultDTO {
+
+    @Schema(description = "Number of expenses changed or deleted")
+    private int affected;
+}
@@ -0,0 +1,36 @@
+package com.wise.expenses_tracker.transferObject;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "New values for a selection of expenses; fields left out stay unchanged")
+public class BulkUpdateExpensesDTO {
+
+    @Valid
+    @NotNull
+    @Schema(description = "The expenses to change")
+    private ExpensesSelectionDTO where;
+
+    @Schema(description = "Name of the new category, created if it does not exist")
+    private String category;
+
+    private Boolean addToReport;
+
+    private String description;
+
+    @JsonIgnore
+    @AssertTrue(message = "Set at least one of category, addToReport or description")
+    public boolean isChanging() {
+        return category != null || addToReport != null || description != null;
+    }
+}
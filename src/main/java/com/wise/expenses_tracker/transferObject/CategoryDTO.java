@@ -1,5 +1,6 @@
 package com.wise.expenses_tracker.transferObject;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Data Transfer Object for Category")
+@JsonPropertyOrder({"category_id", "category_name"})
 public class CategoryDTO {
 
     @Schema(description = "Unique identifier for the category")
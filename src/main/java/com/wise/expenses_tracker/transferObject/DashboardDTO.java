@@ -0,0 +1,32 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Everything the home screen shows, in one response")
+public class DashboardDTO {
+
+    private UserDTO profile;
+
+    @Schema(description = "Same as GET /api/expenses/category")
+    private Map<String, Double> categoryTotals;
+
+    @Schema(description = "Latest expenses, newest first")
+    private List<ExpensesDTO> recentExpenses;
+
+    private List<BudgetStatusDTO> budgets;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Sections left null because they failed or timed out; the client can fetch them separately")
+    private List<String> unavailable;
+}
@@ -0,0 +1,41 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Approximate distribution of expense amounts over a range of months")
+public class ExpenseDistributionDTO {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Category the distribution is limited to; absent for all categories")
+    private String category;
+
+    @Schema(description = "First month included (UTC), as yyyy-MM")
+    private YearMonth from;
+
+    @Schema(description = "Last month included (UTC), as yyyy-MM")
+    private YearMonth to;
+
+    @Schema(description = "Number of expenses in the range; exact")
+    private long count;
+
+    @Schema(description = "Each quantile is within this fraction of an amount actually at that rank")
+    private double relativeError;
+
+    @Schema(description = "Estimated amount by quantile, keyed p50, p90, p99.9 and so on; empty without expenses")
+    private Map<String, Double> quantiles;
+
+    @Schema(description = "Expense counts over amount ranges of equal width on a log scale, smallest amounts first")
+    private List<HistogramBinDTO> histogram;
+}
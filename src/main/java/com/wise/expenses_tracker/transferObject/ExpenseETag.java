@@ -0,0 +1,40 @@
+package com.wise.expenses_tracker.transferObject;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * An expense's ETag is its version.
+ */
+public final class ExpenseETag {
+
+    private ExpenseETag() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the version in an If-Match header ({@code "3"} or {@code W/"3"}), null for {@code *}
+     * @throws MissingIfMatchException if there is no If-Match
+     * @throws ObjectOptimisticLockingFailureException if the header is not one of our ETags,
+     *         so it cannot match the current version
+     */
+    public static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new MissingIfMatchException(id);
+        }
+        if (ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ObjectOptimisticLockingFailureException(ExpensesDTO.class, id);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fields of ExpensesDTO that can be asked for with {@code fields=} (sparse fieldsets),
+ * by their JSON name, with the entity attributes each one is read from.
+ */
+public enum ExpenseField {
+    ID("id", "id"),
+    TITLE("title", "title"),
+    DATE("date", "date"),
+    PAY_BY("payBy", "pay_by"),
+    AMOUNT("amount", "amount"),
+    DESCRIPTION("description", "description"),
+    CATEGORY("category", "categoryEntity.id", "categoryEntity.name"),
+    DUPLICATE_OF("duplicateOf", "duplicate_of"),
+    VERSION("version", "version");
+
+    private final String jsonName;
+    private final List<String> attributes;
+
+    ExpenseField(String jsonName, String... attributes) {
+        this.jsonName = jsonName;
+        this.attributes = List.of(attributes);
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Entity attribute paths, in the order the field's values are selected
+     */
+    public List<String> attributes() {
+        return attributes;
+    }
+
+    /**
+     * Parses a comma-separated list of JSON field names. The id is always included so
+     * every item stays addressable.
+     *
+     * @throws UnknownFieldException for a name that is not a field of ExpensesDTO
+     */
+    public static Set<ExpenseField> parse(String fields) {
+        Set<ExpenseField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(byJsonName(trimmed));
+        }
+        return parsed;
+    }
+
+    private static ExpenseField byJsonName(String name) {
+        for (ExpenseField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new UnknownFieldException("Unknown expense field '" + name + "'");
+    }
+}
@@ -0,0 +1,62 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of a PATCH: only the fields present are changed. A null value means "unchanged",
+ * except for description, where an explicit null clears it.
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Fields of an expense to change; absent fields stay as they are")
+public class ExpensePatchDTO {
+
+    private String title;
+
+    private Instant date;
+
+    @JsonProperty("payBy")
+    private String pay_by;
+
+    private Double amount;
+
+    private String description;
+
+    @JsonIgnore
+    private boolean descriptionPresent;
+
+    private CategoryDTO category;
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionPresent = true;
+    }
+
+    /**
+     * Whether the patch changes a field of the duplicate fingerprint (see ExpenseFingerprint),
+     * which can only be recomputed from the complete expense.
+     */
+    @JsonIgnore
+    public boolean changesFingerprint() {
+        return title != null || date != null || pay_by != null || amount != null;
+    }
+
+    @JsonIgnore
+    public boolean changesCategory() {
+        return category != null && category.getName() != null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Send at least one field to change")
+    public boolean isChanging() {
+        return changesFingerprint() || descriptionPresent || changesCategory();
+    }
+}
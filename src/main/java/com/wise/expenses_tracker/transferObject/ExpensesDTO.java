@@ -7,12 +7,16 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Data Transfer Object for Expenses")
+// Fixed field order, the same in JSON, CBOR and Smile
+@JsonPropertyOrder({"id", "title", "date", "payBy", "amount", "description", "category", "duplicateOf", "version"})
 public class ExpensesDTO {
 
     private Long id;
@@ -34,4 +38,14 @@ public class ExpensesDTO {
 
     private CategoryDTO category;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(value = "duplicateOf", access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Id of an existing expense this one likely repeats", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long duplicate_of;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Changes on every update; also sent as the ETag, for If-Match on PATCH", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
 }
@@ -0,0 +1,53 @@
+package com.wise.expenses_tracker.transferObject;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Selects expenses of the current user by ids, a filter, or both (all criteria must match)")
+public class ExpensesSelectionDTO {
+
+    public static final int MAX_IDS = 10_000;
+
+    @Size(max = MAX_IDS)
+    @Schema(description = "Expense ids; ids of other users' expenses never match")
+    private List<Long> ids;
+
+    @Schema(description = "Name of the category")
+    private String category;
+
+    @Schema(description = "Earliest expense date, inclusive")
+    private Instant from;
+
+    @Schema(description = "Latest expense date, exclusive")
+    private Instant to;
+
+    @Schema(description = "Payment method")
+    private String payBy;
+
+    private Boolean addToReport;
+
+    public static ExpensesSelectionDTO ofIds(List<Long> ids) {
+        return new ExpensesSelectionDTO(ids, null, null, null, null, null);
+    }
+
+    /**
+     * An empty selection would match every expense of the user, which is never what a bulk edit means.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Select expenses by ids or at least one filter")
+    public boolean isSelective() {
+        return ids != null || category != null || from != null || to != null || payBy != null || addToReport != null;
+    }
+}
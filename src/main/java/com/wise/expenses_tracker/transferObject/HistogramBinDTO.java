@@ -0,0 +1,19 @@
+package com.wise.expenses_tracker.transferObject;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Number of expenses with an amount in (from, to]; a bin from 0 to 0 counts amounts of zero or less")
+public class HistogramBinDTO {
+
+    private double from;
+
+    private double to;
+
+    private long count;
+}
@@ -0,0 +1,13 @@
+package com.wise.expenses_tracker.transferObject;
+
+/**
+ * Thrown for a PATCH without If-Match. ExpensesController answers it with 428, so a client
+ * cannot overwrite a change it has not seen by leaving the header out; {@code If-Match: *}
+ * opts out of the check explicitly.
+ */
+public class MissingIfMatchException extends RuntimeException {
+
+    public MissingIfMatchException(Long id) {
+        super("PATCH of expense " + id + " needs If-Match with its ETag, or * to apply it to any version");
+    }
+}
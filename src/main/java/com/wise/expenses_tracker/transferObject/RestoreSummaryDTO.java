@@ -0,0 +1,22 @@
+package com.wise.expenses_tracker.transferObject;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "What a backup restore wrote")
+public class RestoreSummaryDTO {
+
+    @Schema(description = "Categories the backup referred to")
+    private int categories;
+
+    @Schema(description = "Expenses restored")
+    private int expenses;
+
+    @Schema(description = "Budgets restored")
+    private int budgets;
+}
@@ -0,0 +1,12 @@
+package com.wise.expenses_tracker.transferObject;
+
+/**
+ * Thrown for a {@code fields=} parameter naming something ExpensesDTO does not have.
+ * ExpensesController answers it with 400.
+ */
+public class UnknownFieldException extends RuntimeException {
+
+    public UnknownFieldException(String message) {
+        super(message);
+    }
+}
@@ -2,8 +2,10 @@ package com.wise.expenses_tracker;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class ExpensesTrackerApplicationTests {
 
 	@Test
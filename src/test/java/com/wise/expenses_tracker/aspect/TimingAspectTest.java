@@ -0,0 +1,50 @@
+package com.wise.expenses_tracker.aspect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.wise.expenses_tracker.diagnostics.QueryBudgetExceededException;
+import com.wise.expenses_tracker.repository.CategoryRepository;
+import com.wise.expenses_tracker.service.interfaces.CategoryService;
+import com.wise.expenses_tracker.transferObject.CategoryDTO;
+
+/**
+ * Query budgets as tests use them: with fail-on-budget-exceeded, an operation issuing
+ * more statements than its budget throws.
+ */
+@SpringBootTest(properties = {
+        "diagnostics.enabled=true",
+        "diagnostics.fail-on-budget-exceeded=true",
+        "diagnostics.query-budgets[CategoryService.createNewCategory]=0",
+        "diagnostics.query-budgets[CategoryService.getCategoryById]=1"
+})
+@ActiveProfiles("test")
+class TimingAspectTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void operationOverItsBudgetFails() {
+        assertThatThrownBy(() -> categoryService.createNewCategory(new CategoryDTO(null, "Over budget")))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageStartingWith("Query budget exceeded for CategoryService.createNewCategory")
+                .hasMessageEndingWith("(budget 0)");
+
+        // Checked after the commit, so the write itself stays
+        assertThat(categoryRepository.findByName("Over budget")).isPresent();
+    }
+
+    @Test
+    void operationWithinItsBudgetReturns() {
+        assertThat(categoryService.getCategoryById(Long.MAX_VALUE)).isEmpty();
+    }
+}
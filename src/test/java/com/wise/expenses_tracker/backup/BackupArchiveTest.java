@@ -0,0 +1,163 @@
+package com.wise.expenses_tracker.backup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BackupArchiveTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2025-03-01T10:15:30.123Z");
+
+    private record Contents(long userId,
+                            Instant createdAt,
+                            List<BackupArchive.Category> categories,
+                            List<BackupArchive.Expense> expenses,
+                            List<BackupArchive.Budget> budgets) {
+    }
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        List<BackupArchive.Category> categories = List.of(
+                new BackupArchive.Category(3, "Food"),
+                new BackupArchive.Category(7, "Łódź & café"),
+                new BackupArchive.Category(12, null));
+        List<BackupArchive.Expense> expenses = List.of(
+                new BackupArchive.Expense(5, "Lunch", Instant.parse("2025-01-02T12:00:00.123456Z"), "card", 12.5,
+                        "with colleagues", true, 3, null),
+                new BackupArchive.Expense(9, "Lunch", Instant.parse("2025-01-02T12:00:01Z"), "card", 12.5,
+                        null, false, 3, 5L),
+                // Dates going back, before the epoch, and amounts that are not whole cents
+                new BackupArchive.Expense(10, null, Instant.parse("1969-12-31T23:59:59.999999Z"), null, 1.0 / 3,
+                        null, false, 7, null),
+                new BackupArchive.Expense(40, "Refund", null, "cash", -20.0, "", true, 12, 9L),
+                new BackupArchive.Expense(41, "Unknown amount", null, null, null, null, false, 7, null));
+        List<BackupArchive.Budget> budgets = List.of(
+                new BackupArchive.Budget(300.0, true, 3),
+                new BackupArchive.Budget(null, false, 7),
+                new BackupArchive.Budget(0.1 + 0.2, false, 12));
+
+        Contents read = read(write(42, categories, expenses, budgets));
+
+        assertThat(read).isEqualTo(new Contents(42, CREATED_AT, categories, expenses, budgets));
+    }
+
+    @Test
+    void roundTripsSectionsSpanningSeveralBlocks() throws IOException {
+        List<BackupArchive.Expense> expenses = new ArrayList<>();
+        Instant date = Instant.parse("2024-01-01T00:00:00Z");
+        for (long id = 1; id <= 2 * BackupArchive.BLOCK_ROWS + 1; id++) {
+            expenses.add(new BackupArchive.Expense(id * 3, "Expense " + id, date.plusSeconds(id * 3600), "card",
+                    id / 100.0, null, id % 2 == 0, 1, null));
+        }
+        List<BackupArchive.Budget> budgets = new ArrayList<>();
+        for (int i = 0; i < BackupArchive.BLOCK_ROWS; i++) {
+            budgets.add(new BackupArchive.Budget((double) i, i % 3 == 0, 1));
+        }
+
+        Contents read = read(write(1, List.of(new BackupArchive.Category(1, "Food")), expenses, budgets));
+
+        assertThat(read.expenses()).isEqualTo(expenses);
+        assertThat(read.budgets()).isEqualTo(budgets);
+    }
+
+    @Test
+    void roundTripsAnEmptyArchive() throws IOException {
+        Contents read = read(write(7, List.of(), List.of(), List.of()));
+
+        assertThat(read).isEqualTo(new Contents(7, CREATED_AT, List.of(), List.of(), List.of()));
+    }
+
+    @Test
+    void rejectsEveryTruncation() throws IOException {
+        byte[] archive = sample();
+
+        for (int length = 0; length < archive.length; length++) {
+            byte[] truncated = Arrays.copyOf(archive, length);
+            assertThatThrownBy(() -> read(truncated))
+                    .as("archive cut to %d of %d bytes", length, archive.length)
+                    .isInstanceOf(InvalidBackupException.class);
+        }
+    }
+
+    @Test
+    void rejectsEveryCorruptedByte() throws IOException {
+        byte[] archive = sample();
+
+        for (int position = 0; position < archive.length; position++) {
+            byte[] corrupted = archive.clone();
+            corrupted[position] ^= 0x5A;
+            assertThatThrownBy(() -> read(corrupted))
+                    .as("byte %d of %d corrupted", position, archive.length)
+                    .isInstanceOf(InvalidBackupException.class);
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        assertThatThrownBy(() -> read("PK\3\4 not a backup".getBytes()))
+                .isInstanceOf(InvalidBackupException.class)
+                .hasMessage("Not a backup archive");
+    }
+
+    @Test
+    void rejectsUnknownVersions() throws IOException {
+        byte[] archive = sample();
+        archive[BackupArchive.MAGIC.length] = BackupArchive.VERSION + 1;
+
+        assertThatThrownBy(() -> read(archive))
+                .isInstanceOf(InvalidBackupException.class)
+                .hasMessageStartingWith("Unsupported backup version");
+    }
+
+    private static byte[] sample() throws IOException {
+        return write(42,
+                List.of(new BackupArchive.Category(3, "Food")),
+                List.of(new BackupArchive.Expense(5, "Lunch", CREATED_AT, "card", 12.5, "note", true, 3, null),
+                        new BackupArchive.Expense(6, "Lunch", CREATED_AT, "card", 12.5, null, false, 3, 5L)),
+                List.of(new BackupArchive.Budget(300.0, true, 3)));
+    }
+
+    private static byte[] write(long userId,
+                                List<BackupArchive.Category> categories,
+                                List<BackupArchive.Expense> expenses,
+                                List<BackupArchive.Budget> budgets) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BackupArchiveWriter writer = new BackupArchiveWriter(out, userId, CREATED_AT);
+        writer.writeCategories(categories);
+        for (BackupArchive.Expense expense : expenses) {
+            writer.writeExpense(expense);
+        }
+        writer.endExpenses();
+        for (BackupArchive.Budget budget : budgets) {
+            writer.writeBudget(budget);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the archive the way a restore does: every section, then the checksum.
+     */
+    private static Contents read(byte[] archive) {
+        BackupArchiveReader reader = new BackupArchiveReader(new ByteArrayInputStream(archive));
+        List<BackupArchive.Expense> expenses = new ArrayList<>();
+        for (List<BackupArchive.Expense> block = reader.nextExpenses(); !block.isEmpty(); block = reader.nextExpenses()) {
+            expenses.addAll(block);
+        }
+        List<BackupArchive.Budget> budgets = new ArrayList<>();
+        for (List<BackupArchive.Budget> block = reader.nextBudgets(); !block.isEmpty(); block = reader.nextBudgets()) {
+            budgets.addAll(block);
+        }
+        reader.finish();
+        return new Contents(reader.getUserId(), reader.getCreatedAt(), reader.categories(), expenses, budgets);
+    }
+}
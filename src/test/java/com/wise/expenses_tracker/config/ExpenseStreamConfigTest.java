@@ -0,0 +1,31 @@
+package com.wise.expenses_tracker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.coyote.AbstractProtocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "expense-stream.enabled=true",
+        "expense-stream.max-connections=1000",
+        "server.tomcat.max-connections=500"
+})
+@ActiveProfiles("test")
+class ExpenseStreamConfigTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Test
+    void streamsFitOnTopOfTomcatsConnectionLimit() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        AbstractProtocol<?> protocol = (AbstractProtocol<?>) webServer.getTomcat().getConnector().getProtocolHandler();
+
+        assertThat(protocol.getMaxConnections()).isEqualTo(1500);
+    }
+}
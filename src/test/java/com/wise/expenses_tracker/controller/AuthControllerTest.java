@@ -0,0 +1,54 @@
+package com.wise.expenses_tracker.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Password hashing that cannot keep up is turned into 503 with Retry-After. A zero wait
+ * timeout makes every hash give up before it finishes.
+ */
+@SpringBootTest(properties = {
+        "security.password.wait-timeout=0s",
+        "security.password.retry-after=7s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void registerIsServiceUnavailableWhenHashingTimesOut() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    @Test
+    void authenticateIsServiceUnavailableWhenHashingTimesOut() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    private static String credentials() {
+        return "{\"username\":\"" + UUID.randomUUID() + "\",\"password\":\"pw\"}";
+    }
+}
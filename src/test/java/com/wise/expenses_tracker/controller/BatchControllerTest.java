@@ -0,0 +1,122 @@
+package com.wise.expenses_tracker.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Batches: references between operations, atomic rollback and one rate-limit token per
+ * operation. Each test registers its own user, so each starts with full buckets.
+ */
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.write.capacity=4",
+        "rate-limit.write.refill-per-second=0",
+        "rate-limit.auth.capacity=100"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchControllerTest {
+
+    private static final String LUNCH = "{\"title\":\"Lunch\",\"date\":\"2025-01-02T00:00:00Z\",\"payBy\":\"card\","
+            + "\"amount\":10,\"category\":{\"category_name\":\"Food\"}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String authorization;
+
+    @BeforeEach
+    void register() throws Exception {
+        String response = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + UUID.randomUUID() + "\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        authorization = "Bearer " + objectMapper.readTree(response).get("token").asText();
+    }
+
+    @Test
+    void laterOperationsReferToEarlierOnes() throws Exception {
+        batch(false,
+                "{\"ref\":\"lunch\",\"method\":\"POST\",\"path\":\"/api/expenses\",\"body\":" + LUNCH + "}",
+                "{\"method\":\"PATCH\",\"path\":\"/api/expenses/@{lunch}\",\"ifMatch\":\"\\\"0\\\"\",\"body\":{\"amount\":12}}",
+                "{\"method\":\"GET\",\"path\":\"/api/expenses/@{lunch}\"}",
+                "{\"method\":\"GET\",\"path\":\"/api/expenses/@{dinner}\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(204))
+                .andExpect(jsonPath("$[1].etag").value("\"1\""))
+                .andExpect(jsonPath("$[2].status").value(200))
+                .andExpect(jsonPath("$[2].body.amount").value(12.0))
+                .andExpect(jsonPath("$[2].etag").value("\"1\""))
+                .andExpect(jsonPath("$[3].status").value(400));
+    }
+
+    @Test
+    void referenceToAFailedOperationIsNotRun() throws Exception {
+        batch(false,
+                "{\"ref\":\"lunch\",\"method\":\"POST\",\"path\":\"/api/expenses\",\"body\":{\"title\":\"Lunch\"}}",
+                "{\"method\":\"DELETE\",\"path\":\"/api/expenses/@{lunch}\"}")
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[1].status").value(424));
+    }
+
+    @Test
+    void failureRollsBackAnAtomicBatch() throws Exception {
+        batch(true,
+                "{\"ref\":\"lunch\",\"method\":\"POST\",\"path\":\"/api/expenses\",\"body\":" + LUNCH + "}",
+                "{\"method\":\"PATCH\",\"path\":\"/api/expenses/@{lunch}\",\"ifMatch\":\"\\\"7\\\"\",\"body\":{\"amount\":12}}",
+                "{\"method\":\"POST\",\"path\":\"/api/expenses\",\"body\":" + LUNCH + "}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(424))
+                .andExpect(jsonPath("$[0].body").value("Rolled back: operation 2 failed"))
+                .andExpect(jsonPath("$[1].status").value(412))
+                .andExpect(jsonPath("$[2].status").value(424))
+                .andExpect(jsonPath("$[2].body").value("Not run: operation 2 failed"));
+
+        mockMvc.perform(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void everyOperationTakesARateLimitToken() throws Exception {
+        String create = "{\"method\":\"POST\",\"path\":\"/api/expenses\",\"body\":" + LUNCH + "}";
+        batch(false, create, create, create, create, create, "{\"method\":\"GET\",\"path\":\"/api/expenses/" + Long.MAX_VALUE + "\"}")
+                .andExpect(jsonPath("$[3].status").value(201))
+                .andExpect(jsonPath("$[4].status").value(429))
+                .andExpect(jsonPath("$[5].status").value(404));
+
+        // The write bucket stays empty across batches; reads have their own
+        batch(false, create)
+                .andExpect(jsonPath("$[0].status").value(429));
+        mockMvc.perform(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(jsonPath("$.length()").value(4));
+    }
+
+    private ResultActions batch(boolean atomic, String... operations) throws Exception {
+        return mockMvc.perform(post("/api/batch")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"atomic\":" + atomic + ",\"operations\":[" + String.join(",", operations) + "]}"));
+    }
+}
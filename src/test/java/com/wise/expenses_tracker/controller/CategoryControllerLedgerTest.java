@@ -0,0 +1,22 @@
+package com.wise.expenses_tracker.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * The same category changes in ledger mode, where they are recorded in every affected
+ * user's ledger and awaited in the expenses table before the source is deleted.
+ */
+@SpringBootTest(properties = "ledger.enabled=true")
+class CategoryControllerLedgerTest extends CategoryControllerTest {
+
+    @DynamicPropertySource
+    static void ledgerDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("ledger").toString();
+        registry.add("ledger.directory", () -> directory);
+    }
+}
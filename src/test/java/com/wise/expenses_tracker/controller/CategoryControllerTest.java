@@ -0,0 +1,164 @@
+package com.wise.expenses_tracker.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Renaming, deleting and merging categories that expenses use.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CategoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String authorization;
+    private String groceries;
+    private String food;
+
+    @BeforeEach
+    void register() throws Exception {
+        String response = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + UUID.randomUUID() + "\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        authorization = "Bearer " + objectMapper.readTree(response).get("token").asText();
+        // Categories are shared between users, so every test gets its own
+        groceries = "Groceries " + UUID.randomUUID();
+        food = "Food " + UUID.randomUUID();
+    }
+
+    @Test
+    void mergeMovesExpensesAndTotals() throws Exception {
+        long source = createCategory(groceries);
+        long target = createCategory(food);
+        long moved = createExpense(groceries, 10);
+        createExpense(groceries, 5);
+        createExpense(food, 7);
+
+        perform(post("/api/categories/" + source + "/merge").param("into", String.valueOf(target)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category_id").value(target));
+
+        perform(get("/api/expenses/category"))
+                .andExpect(jsonPath("$['" + food + "']").value(22.0))
+                .andExpect(jsonPath("$['" + groceries + "']").doesNotExist());
+        perform(get("/api/expenses/" + moved))
+                .andExpect(jsonPath("$.category.category_id").value(target))
+                .andExpect(jsonPath("$.category.category_name").value(food));
+        perform(get("/api/categories/" + source)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void mergedExpensesKeepTheirNewCategoryWhenUpdated() throws Exception {
+        long source = createCategory(groceries);
+        long target = createCategory(food);
+        long moved = createExpense(groceries, 10);
+
+        perform(post("/api/categories/" + source + "/merge").param("into", String.valueOf(target)))
+                .andExpect(status().isOk());
+        perform(patch("/api/expenses/" + moved)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Dinner\"}")).andExpect(status().isNoContent());
+
+        perform(get("/api/expenses/" + moved))
+                .andExpect(jsonPath("$.title").value("Dinner"))
+                .andExpect(jsonPath("$.category.category_id").value(target));
+    }
+
+    @Test
+    void renameShowsOnExpenses() throws Exception {
+        long category = createCategory(groceries);
+        long expense = createExpense(groceries, 10);
+        String renamed = "Renamed " + UUID.randomUUID();
+
+        perform(put("/api/categories/" + category)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category_name\":\"" + renamed + "\"}"))
+                .andExpect(status().isOk());
+
+        perform(get("/api/expenses/" + expense))
+                .andExpect(jsonPath("$.category.category_name").value(renamed));
+        perform(get("/api/expenses/category"))
+                .andExpect(jsonPath("$['" + renamed + "']").value(10.0));
+    }
+
+    @Test
+    void renameToAnExistingNameConflicts() throws Exception {
+        long category = createCategory(groceries);
+        createCategory(food);
+
+        perform(put("/api/categories/" + category)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category_name\":\"" + food + "\"}"))
+                .andExpect(status().isConflict());
+
+        perform(get("/api/categories/" + category))
+                .andExpect(jsonPath("$.category_name").value(groceries));
+    }
+
+    @Test
+    void deletingAUsedCategoryConflictsUnlessReassigned() throws Exception {
+        long source = createCategory(groceries);
+        long target = createCategory(food);
+        long expense = createExpense(groceries, 10);
+
+        perform(delete("/api/categories/" + source)).andExpect(status().isConflict());
+        perform(delete("/api/categories/" + source).param("reassignTo", String.valueOf(target)))
+                .andExpect(status().isOk());
+
+        perform(get("/api/expenses/" + expense))
+                .andExpect(jsonPath("$.category.category_id").value(target));
+    }
+
+    private long createCategory(String name) throws Exception {
+        String response = perform(post("/api/categories")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category_name\":\"" + name + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("category_id").asLong();
+    }
+
+    private long createExpense(String category, double amount) throws Exception {
+        String response = perform(post("/api/expenses")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Lunch\",\"date\":\"2025-01-02T00:00:00Z\",\"payBy\":\"card\",\"amount\":" + amount
+                                + ",\"category\":{\"category_name\":\"" + category + "\"}}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, authorization));
+    }
+}
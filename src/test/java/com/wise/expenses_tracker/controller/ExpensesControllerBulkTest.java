@@ -0,0 +1,144 @@
+package com.wise.expenses_tracker.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk update and delete: a selection only ever reaches the current user's expenses, and
+ * every changed expense gets a new version.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExpensesControllerBulkTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String owner;
+    private String other;
+
+    @BeforeEach
+    void register() throws Exception {
+        owner = register(UUID.randomUUID().toString());
+        other = register(UUID.randomUUID().toString());
+    }
+
+    @Test
+    void updateLeavesOtherUsersExpensesAlone() throws Exception {
+        long mine = createExpense(owner, "Food");
+        long theirs = createExpense(other, "Food");
+
+        send(owner, "/api/expenses/bulk-update",
+                "{\"where\":{\"ids\":[" + mine + "," + theirs + "]},\"description\":\"changed\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+        send(owner, "/api/expenses/bulk-update", "{\"where\":{\"category\":\"Food\"},\"description\":\"changed\"}")
+                .andExpect(jsonPath("$.affected").value(1));
+
+        expense(owner, mine).andExpect(jsonPath("$.description").value("changed"));
+        expense(other, theirs).andExpect(jsonPath("$.description").isEmpty());
+    }
+
+    @Test
+    void deleteLeavesOtherUsersExpensesAlone() throws Exception {
+        long mine = createExpense(owner, "Food");
+        long theirs = createExpense(other, "Food");
+
+        send(owner, "/api/expenses/bulk-delete", "{\"ids\":[" + mine + "," + theirs + "]}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        expense(owner, mine).andExpect(status().isNotFound());
+        expense(other, theirs).andExpect(status().isOk());
+    }
+
+    @Test
+    void emptySelectionChangesNothing() throws Exception {
+        long mine = createExpense(owner, "Food");
+
+        send(owner, "/api/expenses/bulk-update", "{\"where\":{},\"description\":\"changed\"}")
+                .andExpect(status().isBadRequest());
+        send(owner, "/api/expenses/bulk-delete", "{}")
+                .andExpect(status().isBadRequest());
+        send(owner, "/api/expenses/bulk-update", "{\"where\":{\"ids\":[]},\"description\":\"changed\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(0));
+        send(owner, "/api/expenses/bulk-delete", "{\"ids\":[]}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(0));
+
+        expense(owner, mine)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").isEmpty())
+                .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    void updateMakesEarlierETagsStale() throws Exception {
+        long mine = createExpense(owner, "Food");
+        String etag = expense(owner, mine).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        send(owner, "/api/expenses/bulk-update", "{\"where\":{\"ids\":[" + mine + "]},\"addToReport\":true}")
+                .andExpect(jsonPath("$.affected").value(1));
+
+        expense(owner, mine).andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(patch("/api/expenses/" + mine)
+                        .header(HttpHeaders.AUTHORIZATION, owner)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"too late\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    private String register(String username) throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + objectMapper.readTree(response).get("token").asText();
+    }
+
+    private long createExpense(String authorization, String category) throws Exception {
+        String response = send(authorization, "/api/expenses",
+                "{\"title\":\"Lunch\",\"date\":\"2025-01-02T00:00:00Z\",\"payBy\":\"card\",\"amount\":10,"
+                        + "\"category\":{\"category_name\":\"" + category + "\"}}")
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private ResultActions expense(String authorization, long id) throws Exception {
+        return mockMvc.perform(get("/api/expenses/" + id).header(HttpHeaders.AUTHORIZATION, authorization));
+    }
+
+    private ResultActions send(String authorization, String path, String body) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post(path)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
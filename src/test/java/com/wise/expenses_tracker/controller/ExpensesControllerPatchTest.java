@@ -0,0 +1,158 @@
+package com.wise.expenses_tracker.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The PATCH contract: If-Match is required, a stale one is refused and the ETag of the
+ * answer is what the next PATCH sends.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExpensesControllerPatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String authorization;
+
+    @BeforeEach
+    void register() throws Exception {
+        String response = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + UUID.randomUUID() + "\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        authorization = "Bearer " + objectMapper.readTree(response).get("token").asText();
+    }
+
+    @Test
+    void etagOfThePatchIsTheNextIfMatch() throws Exception {
+        long id = createExpense("Lunch", "with a receipt");
+        String etag = etagOf(id);
+
+        String next = mockMvc.perform(patchOf(id, "{\"title\":\"Dinner\"}").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(next).isNotEqualTo(etag).isEqualTo(etagOf(id));
+        mockMvc.perform(patchOf(id, "{\"amount\":12.5}").header(HttpHeaders.IF_MATCH, next))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/expenses/" + id).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(jsonPath("$.title").value("Dinner"))
+                .andExpect(jsonPath("$.amount").value(12.5));
+    }
+
+    @Test
+    void staleIfMatchIsRefused() throws Exception {
+        long id = createExpense("Lunch", null);
+        String etag = etagOf(id);
+        mockMvc.perform(patchOf(id, "{\"title\":\"Dinner\"}").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(patchOf(id, "{\"title\":\"Breakfast\"}").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patchOf(id, "{\"title\":\"Breakfast\"}").header(HttpHeaders.IF_MATCH, "\"not-a-version\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/api/expenses/" + id).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(jsonPath("$.title").value("Dinner"));
+    }
+
+    @Test
+    void ifMatchIsRequired() throws Exception {
+        long id = createExpense("Lunch", null);
+
+        mockMvc.perform(patchOf(id, "{\"title\":\"Dinner\"}"))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(get("/api/expenses/" + id).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(jsonPath("$.title").value("Lunch"));
+
+        mockMvc.perform(patchOf(id, "{\"title\":\"Dinner\"}").header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void patchWithoutFieldsIsRefused() throws Exception {
+        long id = createExpense("Lunch", null);
+
+        mockMvc.perform(patchOf(id, "{}").header(HttpHeaders.IF_MATCH, etagOf(id)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unknownExpenseIsNotFound() throws Exception {
+        mockMvc.perform(patchOf(Long.MAX_VALUE, "{\"title\":\"Dinner\"}").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void explicitNullClearsTheDescriptionAndAbsentKeepsIt() throws Exception {
+        long id = createExpense("Lunch", "with a receipt");
+
+        mockMvc.perform(patchOf(id, "{\"title\":\"Dinner\"}").header(HttpHeaders.IF_MATCH, etagOf(id)))
+                .andExpect(status().isNoContent());
+        assertThat(expense(id).get("description").asText()).isEqualTo("with a receipt");
+
+        mockMvc.perform(patchOf(id, "{\"description\":null}").header(HttpHeaders.IF_MATCH, etagOf(id)))
+                .andExpect(status().isNoContent());
+        assertThat(expense(id).get("description").isNull()).isTrue();
+        assertThat(expense(id).get("title").asText()).isEqualTo("Dinner");
+    }
+
+    private long createExpense(String title, String description) throws Exception {
+        String body = "{\"title\":\"" + title + "\",\"date\":\"2025-01-02T00:00:00Z\",\"payBy\":\"card\",\"amount\":10,"
+                + "\"description\":" + (description == null ? "null" : "\"" + description + "\"")
+                + ",\"category\":{\"category_name\":\"Food\"}}";
+        String response = mockMvc.perform(post("/api/expenses")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private String etagOf(long id) throws Exception {
+        return mockMvc.perform(get("/api/expenses/" + id).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private JsonNode expense(long id) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/expenses/" + id).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private MockHttpServletRequestBuilder patchOf(long id, String body) {
+        return patch("/api/expenses/" + id)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
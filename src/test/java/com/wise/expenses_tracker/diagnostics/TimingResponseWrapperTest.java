@@ -0,0 +1,102 @@
+package com.wise.expenses_tracker.diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+class TimingResponseWrapperTest {
+
+    private final AtomicInteger commits = new AtomicInteger();
+
+    @Test
+    void holdsTheBodyBackUntilWriteThrough() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        TimingResponseWrapper wrapper = new TimingResponseWrapper(response, 1024, commits::incrementAndGet);
+
+        wrapper.getWriter().write("{\"ok\":true}");
+        assertThat(response.getContentAsString()).isEmpty();
+        wrapper.writeThrough();
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"ok\":true}");
+        assertThat(commits).hasValue(1);
+    }
+
+    @Test
+    void writesThroughOnceTheLimitIsPassed() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        TimingResponseWrapper wrapper = new TimingResponseWrapper(response, 4, commits::incrementAndGet);
+
+        wrapper.getOutputStream().write("abcdef".getBytes());
+
+        assertThat(wrapper.isWritingThrough()).isTrue();
+        assertThat(response.getContentAsString()).isEqualTo("abcdef");
+        assertThat(commits).hasValue(1);
+    }
+
+    @Test
+    void writesEventStreamsThrough() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        TimingResponseWrapper wrapper = new TimingResponseWrapper(response, 1024, commits::incrementAndGet);
+        wrapper.setContentType("text/event-stream");
+
+        wrapper.getOutputStream().write(":connected\n\n".getBytes());
+
+        assertThat(response.getContentAsString()).isEqualTo(":connected\n\n");
+        assertThat(commits).hasValue(1);
+    }
+
+    @Test
+    void passesAWriteListenerToTheResponseAfterSendingWhatWasHeldBack() throws IOException {
+        NonBlockingOutputStream target = new NonBlockingOutputStream();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(target);
+        TimingResponseWrapper wrapper = new TimingResponseWrapper(response, 1024, commits::incrementAndGet);
+        ServletOutputStream output = wrapper.getOutputStream();
+        output.write("held".getBytes());
+        WriteListener listener = mock(WriteListener.class);
+
+        output.setWriteListener(listener);
+        output.write("-more".getBytes());
+
+        assertThat(wrapper.isWritingThrough()).isTrue();
+        assertThat(commits).hasValue(1);
+        assertThat(target.written).hasToString("held-more");
+        assertThat(target.listener).isSameAs(listener);
+        assertThat(output.isReady()).isFalse();
+    }
+
+    /**
+     * A response stream in non-blocking mode whose client is not taking data.
+     */
+    private static class NonBlockingOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private WriteListener listener;
+
+        @Override
+        public void write(int b) {
+            written.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return false;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.wise.expenses_tracker.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class QuantileSketchTest {
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.quantile(0.5)).isNaN();
+        assertThat(sketch.histogram(10)).isEmpty();
+    }
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] amounts = new double[10_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < amounts.length; i++) {
+            // Log-uniform from a cent to a million
+            amounts[i] = Math.pow(10, random.nextDouble() * 8 - 2);
+            sketch.add(amounts[i]);
+        }
+        Arrays.sort(amounts);
+
+        for (double quantile : new double[] {0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.99, 1}) {
+            double exact = amounts[(int) Math.floor(quantile * (amounts.length - 1))];
+            assertThat(sketch.quantile(quantile))
+                    .as("quantile %s", quantile)
+                    .isCloseTo(exact, within(exact * QuantileSketch.RELATIVE_ACCURACY));
+        }
+    }
+
+    @Test
+    void amountsOfZeroOrLessAreAnsweredAsZero() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0);
+        sketch.add(-5);
+        sketch.add(100);
+
+        assertThat(sketch.quantile(0)).isZero();
+        assertThat(sketch.quantile(0.5)).isZero();
+        assertThat(sketch.quantile(1)).isCloseTo(100, within(1.0));
+        assertThat(sketch.histogram(10).get(0)).isEqualTo(new QuantileSketch.Bin(0, 0, 2));
+    }
+
+    @Test
+    void removeTakesBackAnAddedAmount() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(10);
+        sketch.add(1000);
+
+        assertThat(sketch.remove(1000)).isTrue();
+
+        assertThat(sketch.count()).isEqualTo(1);
+        assertThat(sketch.quantile(1)).isCloseTo(10, within(0.1));
+    }
+
+    @Test
+    void removeOfAnAmountNeverAddedLeavesTheSketchUnchanged() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(10);
+
+        assertThat(sketch.remove(5000)).isFalse();
+        assertThat(sketch.remove(0.001)).isFalse();
+        assertThat(sketch.remove(0)).isFalse();
+
+        assertThat(sketch.count()).isEqualTo(1);
+        assertThat(sketch.encode()).isEqualTo(single(10).encode());
+    }
+
+    @Test
+    void mergeEqualsAddingEverythingToOneSketch() {
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        QuantileSketch all = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            low.add(i);
+            high.add(i * 1000.0);
+            all.add(i);
+            all.add(i * 1000.0);
+        }
+        low.add(0);
+        all.add(0);
+
+        high.merge(low);
+
+        assertThat(high.count()).isEqualTo(all.count());
+        assertThat(high.encode()).isEqualTo(all.encode());
+    }
+
+    @Test
+    void mergeIntoAnEmptySketchCopiesIt() {
+        QuantileSketch empty = new QuantileSketch();
+
+        empty.merge(single(42));
+
+        assertThat(empty.encode()).isEqualTo(single(42).encode());
+    }
+
+    @Test
+    void histogramCountsEveryAmount() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 500; i++) {
+            sketch.add(i);
+        }
+
+        var histogram = sketch.histogram(8);
+
+        assertThat(histogram).hasSizeLessThanOrEqualTo(8);
+        assertThat(histogram.stream().mapToLong(QuantileSketch.Bin::count).sum()).isEqualTo(500);
+        assertThat(histogram.get(0).from()).isLessThanOrEqualTo(1);
+        assertThat(histogram.get(histogram.size() - 1).to()).isGreaterThanOrEqualTo(500);
+    }
+
+    @Test
+    void decodeRestoresTheEncodedSketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0);
+        sketch.add(0.01);
+        sketch.add(12.5);
+        sketch.add(12.5);
+        sketch.add(1e9);
+
+        QuantileSketch decoded = QuantileSketch.decode(sketch.encode());
+
+        assertThat(decoded.count()).isEqualTo(5);
+        assertThat(decoded.encode()).isEqualTo(sketch.encode());
+        assertThat(decoded.quantile(0.5)).isEqualTo(sketch.quantile(0.5));
+    }
+
+    private static QuantileSketch single(double amount) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(amount);
+        return sketch;
+    }
+}
@@ -0,0 +1,108 @@
+package com.wise.expenses_tracker.duplicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * DuplicateDetector against a bare expenses table in H2.
+ */
+class DuplicateDetectorTest {
+
+    private static final long USER = 7;
+    private static final Instant JAN_2 = Instant.parse("2025-01-02T12:00:00Z");
+    private static final Instant JAN_3 = Instant.parse("2025-01-03T08:00:00Z");
+    private static final Instant JAN_4 = Instant.parse("2025-01-04T08:00:00Z");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MeterRegistry meterRegistry;
+    private DuplicateDetectionProperties properties;
+
+    @BeforeEach
+    void createTable() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE expenses (id BIGINT PRIMARY KEY, user_id BIGINT, date TIMESTAMP, "
+                + "amount DOUBLE, pay_by VARCHAR(255), title VARCHAR(255), fingerprint BIGINT)");
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new DuplicateDetectionProperties();
+        properties.setEnabled(true);
+    }
+
+    @Test
+    void offByDefault() {
+        insert(1, JAN_2, true);
+        DuplicateDetector detector = new DuplicateDetector(new DuplicateDetectionProperties(), jdbcTemplate, dataSource, meterRegistry);
+
+        assertThat(detector.screen(USER, JAN_2, 10.0, "card", "Lunch")).isEmpty();
+    }
+
+    @Test
+    void matchesDatesWithinTheWindow() {
+        insert(1, JAN_2, true);
+
+        assertThat(detector().screen(USER, JAN_3, 10.0, " Card", "lunch ")).contains(1L);
+        assertThat(detector().screen(USER, JAN_4, 10.0, "card", "Lunch")).isEmpty();
+        assertThat(detector().screen(USER + 1, JAN_3, 10.0, "card", "Lunch")).isEmpty();
+
+        properties.setWindowDays(2);
+        assertThat(detector().screen(USER, JAN_4, 10.0, "card", "Lunch")).contains(1L);
+    }
+
+    @Test
+    void undatedExpenseMatchesOnlyUndatedOnes() {
+        insert(1, null, true);
+
+        // One candidate, repeated into every placeholder of the window
+        assertThat(detector().screen(USER, null, 10.0, "card", "Lunch")).contains(1L);
+        assertThat(detector().screen(USER, JAN_2, 10.0, "card", "Lunch")).isEmpty();
+    }
+
+    @Test
+    void rejectModeThrows() {
+        insert(1, JAN_2, true);
+        properties.setMode(DuplicateDetectionProperties.Mode.REJECT);
+
+        assertThatThrownBy(() -> detector().screen(USER, JAN_2, 10.0, "card", "Lunch"))
+                .isInstanceOfSatisfying(DuplicateExpenseException.class,
+                        exception -> assertThat(exception.getExistingExpenseId()).isEqualTo(1L));
+        assertThat(detector().screen(USER, JAN_4, 10.0, "card", "Lunch")).isEmpty();
+    }
+
+    @Test
+    void loadedFilterAnswersUniqueExpensesAndBackfillsFingerprints() {
+        insert(1, JAN_2, false);
+        DuplicateDetector detector = detector();
+        detector.load();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT fingerprint FROM expenses WHERE id = 1", Long.class))
+                .isEqualTo(ExpenseFingerprint.of(USER, JAN_2, 10.0, "card", "Lunch"));
+        assertThat(detector.screen(USER, JAN_3, 10.0, "card", "Lunch")).contains(1L);
+        assertThat(detector.screen(USER, JAN_2, 99.0, "cash", "Rent")).isEmpty();
+        assertThat(meterRegistry.counter("duplicates.checks", "outcome", "duplicate").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("duplicates.checks", "outcome", "unique").count()
+                + meterRegistry.counter("duplicates.checks", "outcome", "false_positive").count()).isEqualTo(1);
+    }
+
+    private DuplicateDetector detector() {
+        return new DuplicateDetector(properties, jdbcTemplate, dataSource, meterRegistry);
+    }
+
+    private void insert(long id, Instant date, boolean fingerprinted) {
+        jdbcTemplate.update("INSERT INTO expenses (id, user_id, date, amount, pay_by, title, fingerprint) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, USER, date != null ? Timestamp.from(date) : null, 10.0, "card", "Lunch",
+                fingerprinted ? ExpenseFingerprint.of(USER, date, 10.0, "card", "Lunch") : null);
+    }
+}
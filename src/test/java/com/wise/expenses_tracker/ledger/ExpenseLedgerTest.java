@@ -0,0 +1,105 @@
+package com.wise.expenses_tracker.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Which user ledgers ExpenseLedger keeps open.
+ */
+class ExpenseLedgerTest {
+
+    private static final ExpenseState LUNCH = new ExpenseState("Lunch", Instant.parse("2025-01-02T12:00:00Z"),
+            "card", 10.0, null, 1L, "Food", null);
+
+    @TempDir
+    Path directory;
+
+    private ExpenseLedger ledger;
+
+    @AfterEach
+    void close() {
+        if (ledger != null) {
+            ledger.close();
+        }
+    }
+
+    @Test
+    void startupOpensOnlyLedgersWithEventsToProject() throws IOException {
+        ledger = ledger(10);
+        ledger.forUser(1).create(1, LUNCH);
+        UserLedger projected = ledger.forUser(2);
+        projected.create(2, LUNCH);
+        projected.markProjected(projected.lastSequence());
+        ledger.close();
+
+        ledger = ledger(10);
+        assertThat(ledger.openBehind()).extracting(UserLedger::getUserId).containsExactly(1L);
+        assertThat(ledger.opened(1)).isNotNull();
+        assertThat(ledger.opened(2)).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedIdleLedgersAreClosedBeyondTheLimit() throws IOException {
+        ledger = ledger(2);
+        UserLedger first = projectedLedgerOf(1);
+        UserLedger second = projectedLedgerOf(2);
+        ledger.forUser(1);
+
+        UserLedger third = projectedLedgerOf(3);
+
+        assertThat(first.isOpen()).isTrue();
+        assertThat(second.isOpen()).isFalse();
+        assertThat(third.isOpen()).isTrue();
+    }
+
+    @Test
+    void closedLedgerReopensWithItsExpenses() throws IOException {
+        ledger = ledger(1);
+        UserLedger first = projectedLedgerOf(1);
+        projectedLedgerOf(2);
+        assertThat(first.isOpen()).isFalse();
+
+        assertThat(first.update(1, state -> state)).isPresent();
+        assertThat(first.isOpen()).isTrue();
+        assertThat(first.lastSequence()).isEqualTo(2);
+        assertThat(first.update(99, state -> state)).isEmpty();
+    }
+
+    @Test
+    void ledgersWithEventsToProjectStayOpen() throws IOException {
+        ledger = ledger(1);
+        UserLedger behind = ledger.forUser(1);
+        behind.create(1, LUNCH);
+
+        projectedLedgerOf(2);
+        projectedLedgerOf(3);
+        assertThat(behind.isOpen()).isTrue();
+
+        behind.markProjected(behind.lastSequence());
+        ledger.closeIdle();
+        assertThat(behind.isOpen()).isFalse();
+    }
+
+    private UserLedger projectedLedgerOf(long userId) throws IOException {
+        UserLedger userLedger = ledger.forUser(userId);
+        userLedger.create(userId, LUNCH);
+        userLedger.markProjected(userLedger.lastSequence());
+        return userLedger;
+    }
+
+    private ExpenseLedger ledger(int maxOpenLedgers) throws IOException {
+        LedgerProperties properties = new LedgerProperties();
+        properties.setDirectory(directory.toString());
+        properties.setFsync(false);
+        properties.setMaxOpenLedgers(maxOpenLedgers);
+        return new ExpenseLedger(properties, 0, userId -> Map.of());
+    }
+}
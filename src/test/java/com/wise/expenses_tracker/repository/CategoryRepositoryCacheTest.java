@@ -0,0 +1,40 @@
+package com.wise.expenses_tracker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.wise.expenses_tracker.model.CategoryEntity;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryRepositoryCacheTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findByNameIsServedFromTheQueryCache() {
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Cached category");
+        categoryRepository.save(category);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        categoryRepository.findByName("Cached category");
+        categoryRepository.findByName("Cached category");
+
+        assertThat(statistics.getQueryRegionStatistics(CategoryEntity.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
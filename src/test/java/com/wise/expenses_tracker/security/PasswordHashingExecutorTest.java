@@ -0,0 +1,110 @@
+package com.wise.expenses_tracker.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void timedOutHashKeepsRunningAndIsCounted() throws InterruptedException {
+        executor = executor(1, 1, Duration.ofMillis(50));
+        CountDownLatch finished = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+            hashIgnoringInterrupts();
+            finished.countDown();
+            return "hash";
+        }))
+                .isInstanceOfSatisfying(PasswordHashingRejectedException.class,
+                        exception -> assertThat(exception.getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(abandoned()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void timedOutQueuedTaskNeverRuns() throws Exception {
+        executor = executor(1, 1, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            hashIgnoringInterrupts();
+            return "hash";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        assertThatThrownBy(() -> executor.execute(() -> queuedRan.getAndSet(true)))
+                .isInstanceOf(PasswordHashingRejectedException.class);
+        release.countDown();
+        running.handle((result, failure) -> null).get(5, TimeUnit.SECONDS);
+
+        // The running task itself timed out too, but only that one was abandoned
+        assertThat(queuedRan).isFalse();
+        assertThat(abandoned()).isEqualTo(1);
+    }
+
+    @Test
+    void taskExceptionsPassThrough() {
+        executor = executor(1, 1, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+            throw new IllegalArgumentException("bad credentials");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad credentials");
+    }
+
+    /**
+     * Stands in for BCrypt, which does not stop when its thread is interrupted.
+     */
+    private void hashIgnoringInterrupts() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (release.await(10, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double abandoned() {
+        return meterRegistry.counter("password.hashing.abandoned").count();
+    }
+
+    private PasswordHashingExecutor executor(int threads, int queueCapacity, Duration waitTimeout) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setWaitTimeout(waitTimeout);
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        return new PasswordHashingExecutor(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,121 @@
+package com.wise.expenses_tracker.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.wise.expenses_tracker.security.RateLimiter.Decision;
+import com.wise.expenses_tracker.security.RateLimiter.Group;
+
+class RateLimiterTest {
+
+    private static final long USER = 1;
+
+    @Test
+    void allowsTheBurstThenRefuses() {
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(5, 1));
+
+        for (int remaining = 4; remaining >= 0; remaining--) {
+            Decision decision = limiter.tryAcquire(Group.READ, USER);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.limit()).isEqualTo(5);
+            assertThat(decision.remaining()).isEqualTo(remaining);
+        }
+        Decision refused = limiter.tryAcquire(Group.READ, USER);
+
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.remaining()).isZero();
+        assertThat(refused.retryAfterSeconds()).isEqualTo(1);
+        assertThat(refused.resetSeconds()).isBetween(4L, 5L);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        // A token every 10 ms
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(2, 100));
+        limiter.tryAcquire(Group.READ, USER);
+        limiter.tryAcquire(Group.READ, USER);
+        assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isFalse();
+
+        Thread.sleep(50);
+
+        assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isTrue();
+    }
+
+    @Test
+    void refillStopsAtTheCapacity() throws InterruptedException {
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(3, 1000));
+        limiter.tryAcquire(Group.READ, USER);
+
+        Thread.sleep(50);
+
+        assertThat(limiter.tryAcquire(Group.READ, USER).remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void withoutRefillOnlyTheBurstIsEverAllowed() throws InterruptedException {
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(3, 0));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isTrue();
+        }
+        Thread.sleep(20);
+        for (int i = 0; i < 100; i++) {
+            Decision refused = limiter.tryAcquire(Group.READ, USER);
+            assertThat(refused.allowed()).isFalse();
+            assertThat(refused.retryAfterSeconds()).isPositive();
+            assertThat(refused.resetSeconds()).isPositive();
+        }
+        limiter.evictIdleBuckets();
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isFalse();
+    }
+
+    @Test
+    void withoutCapacityNothingIsAllowed() {
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(0, 0));
+
+        assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isFalse();
+    }
+
+    @Test
+    void ratesBeyondANanosecondPerTokenAllowEverything() {
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(1, 1e12));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isTrue();
+        }
+    }
+
+    @Test
+    void bucketsAreKeptPerGroupAndSubject() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Limit(1, 0));
+        properties.setWrite(new RateLimitProperties.Limit(1, 0));
+        RateLimiter limiter = new RateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isTrue();
+        assertThat(limiter.tryAcquire(Group.READ, USER).allowed()).isFalse();
+        assertThat(limiter.tryAcquire(Group.WRITE, USER).allowed()).isTrue();
+        assertThat(limiter.tryAcquire(Group.READ, USER + 1).allowed()).isTrue();
+        assertThat(limiter.size()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsBucketsOnceRefilled() throws InterruptedException {
+        RateLimiter limiter = limiter(new RateLimitProperties.Limit(1, 1000));
+        limiter.tryAcquire(Group.READ, USER);
+
+        Thread.sleep(20);
+        limiter.evictIdleBuckets();
+
+        assertThat(limiter.size()).isZero();
+    }
+
+    private static RateLimiter limiter(RateLimitProperties.Limit read) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRead(read);
+        return new RateLimiter(properties);
+    }
+}
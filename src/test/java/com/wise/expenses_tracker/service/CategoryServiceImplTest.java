@@ -0,0 +1,72 @@
+package com.wise.expenses_tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.wise.expenses_tracker.ledger.ExpenseLedger;
+import com.wise.expenses_tracker.ledger.LedgerProjector;
+import com.wise.expenses_tracker.model.CategoryEntity;
+import com.wise.expenses_tracker.repository.BudgetRepository;
+import com.wise.expenses_tracker.repository.CategoryRepository;
+import com.wise.expenses_tracker.repository.ExpensesRepository;
+
+/**
+ * A merge in ledger mode when the moved expenses do not reach the table in time.
+ */
+class CategoryServiceImplTest {
+
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final ExpensesRepository expensesRepository = mock(ExpensesRepository.class);
+    private final BudgetRepository budgetRepository = mock(BudgetRepository.class);
+    private final ExpenseLedger ledger = mock(ExpenseLedger.class);
+    private final LedgerProjector projector = mock(LedgerProjector.class);
+
+    private final CategoryServiceImpl categoryService = new CategoryServiceImpl(categoryRepository, expensesRepository,
+            budgetRepository, mock(ApplicationEventPublisher.class), mock(DataSource.class),
+            mock(PlatformTransactionManager.class), Optional.of(ledger), Optional.of(projector));
+
+    @Test
+    void mergeKeepsTheSourceWhileItsExpensesAreStillBeingMoved() throws IOException {
+        CategoryEntity source = category(1L, "Groceries");
+        CategoryEntity target = category(2L, "Food");
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(source));
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(target));
+        when(expensesRepository.findUserIdsByCategory(source)).thenReturn(List.of(7L));
+        when(ledger.recategorize(anyCollection(), anyLong(), anyLong(), anyString())).thenReturn(Set.of(7L));
+        when(projector.awaitProjected(7L)).thenReturn(false);
+
+        assertThatThrownBy(() -> categoryService.mergeCategory(1L, 2L))
+                .isInstanceOf(CategoryConflictException.class)
+                .hasMessageContaining("still being moved");
+
+        verify(ledger).recategorize(List.of(7L), 1L, 2L, "Food");
+        verify(projector).schedule(7L);
+        verify(expensesRepository, never()).reassignCategory(any(), any());
+        verify(categoryRepository, never()).delete(any());
+    }
+
+    private static CategoryEntity category(Long id, String name) {
+        CategoryEntity category = new CategoryEntity();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
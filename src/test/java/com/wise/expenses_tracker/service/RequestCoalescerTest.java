@@ -0,0 +1,128 @@
+package com.wise.expenses_tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wise.expenses_tracker.service.event.ExpensesChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "coalescing.enabled=true",
+        "coalescing.result-ttl=1m"
+})
+@ActiveProfiles("test")
+class RequestCoalescerTest {
+
+    private static final long USER = 42;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentIdenticalCallsShareOneLoad() throws Exception {
+        int callers = 4;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> requestCoalescer.execute(USER, "shared", List.of(), () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return new Object();
+                })));
+            }
+            // Hold the leader until everybody else has joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (calls("shared", "joined") < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Object first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+            assertThat(loads).hasValue(1);
+            assertThat(calls("shared", "leader")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void committedChangeInvalidatesTheResult() {
+        AtomicInteger loads = new AtomicInteger();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Object first = requestCoalescer.execute(USER, "invalidated", List.of(), () -> loads.incrementAndGet());
+        assertThat(requestCoalescer.execute(USER, "invalidated", List.of(), () -> loads.incrementAndGet())).isEqualTo(first);
+
+        transaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(ExpensesChangedEvent.forUser(USER));
+            // Not committed yet, so still the cached result
+            assertThat(requestCoalescer.execute(USER, "invalidated", List.of(), () -> loads.incrementAndGet())).isEqualTo(first);
+        });
+        assertThat(requestCoalescer.execute(USER + 1, "invalidated", List.of(), () -> loads.incrementAndGet())).isEqualTo(2);
+        assertThat(requestCoalescer.execute(USER, "invalidated", List.of(), () -> loads.incrementAndGet())).isEqualTo(3);
+    }
+
+    @Test
+    void loadDoesNotSeeTheCallersUncommittedWrites() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        String name = "Uncommitted " + System.nanoTime();
+        String count = "SELECT COUNT(*) FROM categories WHERE name = ?";
+
+        Long seen = transaction.execute(status -> {
+            jdbcTemplate.update("INSERT INTO categories (name) VALUES (?)", name);
+            status.setRollbackOnly();
+            return requestCoalescer.execute(USER, "uncommitted", List.of(name),
+                    () -> jdbcTemplate.queryForObject(count, Long.class, name));
+        });
+
+        assertThat(seen).isZero();
+    }
+
+    private double calls(String operation, String outcome) {
+        return meterRegistry.counter("expenses.coalescing.calls", "operation", operation, "outcome", outcome).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.wise.expenses_tracker.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ShardFunctionTest {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    void assignmentsNeverChange() {
+        // Stored data lives where these say; a change here needs a migration of every shard
+        assertThat(shards(1)).containsExactly(0, 0, 6, 55);
+        assertThat(shards(2)).containsExactly(0, 0, 6, 62);
+        assertThat(shards(42)).containsExactly(1, 2, 2, 43);
+        assertThat(shards(1000)).containsExactly(0, 0, 5, 93);
+        assertThat(shards(123_456_789)).containsExactly(0, 0, 7, 34);
+        assertThat(shards(Long.MAX_VALUE)).containsExactly(0, 2, 7, 97);
+    }
+
+    @Test
+    void oneShardHoldsEveryone() {
+        for (long userId = 1; userId <= 1000; userId++) {
+            assertThat(ShardFunction.shardFor(userId, 1)).isZero();
+        }
+    }
+
+    @Test
+    void spreadsUsersEvenly() {
+        int shardCount = 8;
+        int[] users = new int[shardCount];
+        for (long userId = 1; userId <= USERS; userId++) {
+            int shard = ShardFunction.shardFor(userId, shardCount);
+            assertThat(shard).isBetween(0, shardCount - 1);
+            users[shard]++;
+        }
+
+        for (int count : users) {
+            assertThat(count).isBetween(USERS / shardCount * 95 / 100, USERS / shardCount * 105 / 100);
+        }
+    }
+
+    @Test
+    void addingAShardOnlyMovesUsersOntoIt() {
+        for (int shardCount = 1; shardCount < 16; shardCount++) {
+            int moved = 0;
+            for (long userId = 1; userId <= USERS; userId++) {
+                int before = ShardFunction.shardFor(userId, shardCount);
+                int after = ShardFunction.shardFor(userId, shardCount + 1);
+                if (after != before) {
+                    assertThat(after).as("user %d growing to %d shards", userId, shardCount + 1).isEqualTo(shardCount);
+                    moved++;
+                }
+            }
+            // About 1/(N + 1) of the users move
+            double expected = (double) USERS / (shardCount + 1);
+            assertThat((double) moved).isBetween(expected * 0.95, expected * 1.05);
+        }
+    }
+
+    private static int[] shards(long userId) {
+        return new int[] {
+                ShardFunction.shardFor(userId, 2),
+                ShardFunction.shardFor(userId, 3),
+                ShardFunction.shardFor(userId, 8),
+                ShardFunction.shardFor(userId, 100)
+        };
+    }
+}